@@ -19,6 +19,7 @@ import structure.SinglyLinkedList;
 import structure.VectorHeap;
 
 import java.util.HashMap;
+import java.util.Vector;
 
 public class Huffman {
     private ArbolHuffman arbol;
@@ -42,11 +43,12 @@ public class Huffman {
             }
         }
         
-        /* Para los heaps es creado una nueva foresta */
-        VectorHeap<ArbolHuffman> foresta = new VectorHeap<ArbolHuffman>();
+        /* Para los heaps es creado una nueva foresta, construida de una sola vez */
+        Vector<ArbolHuffman> hojas = new Vector<ArbolHuffman>(frecuencias.size());
         for(Nodo n : frecuencias){
-            foresta.add(new ArbolHuffman(n));
+            hojas.add(new ArbolHuffman(n));
         }
+        VectorHeap<ArbolHuffman> foresta = new VectorHeap<ArbolHuffman>(hojas);
         
         /* Si alguno de los nodos se mantiene se mezclan */
         while(foresta.size() > 1){
@@ -128,4 +130,4 @@ public class Huffman {
     public HashMap<Character, String> obtenerCodificacion(){
         return arbol.generarMapaCodificacion();
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+// An interface for priority queues whose entries may be changed in place.
+
+package structure;
+
+/**
+ * Interface describing a priority queue whose entries can be addressed
+ * after insertion.  Adding a value returns a {@link Handle}; the handle
+ * may later be used to lower the value's priority (decrease-key) or to
+ * delete it, without searching the queue.  This is the queue required
+ * by shortest-path and spanning-tree algorithms that would otherwise
+ * insert duplicate entries and skip the stale ones.
+ * <P>
+ * Example usage:
+ * <P>
+ * <pre>
+ *      AddressableHeap&lt;ComparableAssociation&gt; q = new {@link IndexedHeap#IndexedHeap() IndexedHeap&lt;ComparableAssociation&gt;()};
+ *      AddressableHeap.Handle&lt;ComparableAssociation&gt; h =
+ *          q.{@link #insert(Comparable) insert(new ComparableAssociation(new Integer(20), "b"))};
+ *      q.insert(new ComparableAssociation(new Integer(10), "a"));
+ *      q.{@link #decreaseKey(AddressableHeap.Handle,Comparable) decreaseKey(h, new ComparableAssociation(new Integer(5), "b"))};
+ *      System.out.println(q.{@link #remove()}); // b comes out first
+ * </pre>
+ *
+ * @see IndexedHeap
+ * @see PairingHeap
+ */
+public interface AddressableHeap<E extends Comparable<E>>
+{
+    /**
+     * A reference to a value held within an addressable heap.  A handle
+     * remains valid until its value is removed or deleted.
+     */
+    public static interface Handle<E>
+    {
+        /**
+         * @post returns the value currently referred to by the handle
+         */
+        public E getValue();
+    }
+
+    /**
+     * Add a value to the queue.
+     *
+     * @pre value is non-null comparable
+     * @post value is added to the queue
+     *
+     * @param value The value to be added.
+     * @return A handle for the new entry.
+     */
+    public Handle<E> insert(E value);
+
+    /**
+     * Fetch lowest valued (highest priority) item from queue.
+     *
+     * @pre !isEmpty()
+     * @post returns the minimum value in queue
+     *
+     * @return The smallest value from queue.
+     */
+    public E getFirst();
+
+    /**
+     * Returns the minimum value from the queue.
+     *
+     * @pre !isEmpty()
+     * @post returns and removes minimum value from queue; its handle
+     *       becomes invalid
+     *
+     * @return The minimum value in the queue.
+     */
+    public E remove();
+
+    /**
+     * Replace the value of an entry with a value that is no larger.
+     *
+     * @pre h is a valid handle of this queue; value is non-null and
+     *      value.compareTo(h.getValue()) <= 0
+     * @post the entry referred to by h holds value
+     *
+     * @param h The handle of the entry to be changed.
+     * @param value The new, smaller value.
+     */
+    public void decreaseKey(Handle<E> h, E value);
+
+    /**
+     * Remove an arbitrary entry from the queue.
+     *
+     * @pre h is a valid handle of this queue
+     * @post the entry referred to by h is removed; h becomes invalid
+     *
+     * @param h The handle of the entry to be removed.
+     * @return The value that was removed.
+     */
+    public E delete(Handle<E> h);
+
+    /**
+     * Determine if the queue is empty.
+     *
+     * @post returns true iff no elements are in queue
+     *
+     * @return True if the queue is empty.
+     */
+    public boolean isEmpty();
+
+    /**
+     * Determine the size of the queue.
+     *
+     * @post returns number of elements within queue
+     *
+     * @return The number of elements within the queue.
+     */
+    public int size();
+
+    /**
+     * Remove all the elements from the queue.
+     *
+     * @post removes all elements from queue; all handles become invalid
+     */
+    public void clear();
+}
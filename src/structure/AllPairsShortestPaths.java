@@ -0,0 +1,347 @@
+// Shortest paths between all pairs of vertices of a matrix graph.
+
+package structure;
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The lengths of shortest paths between every pair of vertices of a
+ * {@link GraphMatrix}, computed by the Floyd-Warshall algorithm, with
+ * enough information to reconstruct the paths themselves.  Edges
+ * labeled by Numbers have the lengths given; all other edges, including
+ * those of unlabeled graphs, have length 1.  Lengths may be negative.
+ * <P>
+ * The vertices are numbered densely, and distances are kept in a
+ * single row-major array of <code>double</code>s.  Parallel
+ * <code>int</code> arrays keep the number of edges on each path, and
+ * the vertex through which it was last improved; a path is rebuilt by
+ * splitting it at that vertex, recursively.  Among paths of equal
+ * length, those of fewest edges are preferred, so that edges of
+ * length zero never lead path reconstruction in circles.  The algorithm is
+ * tiled: the matrix is divided into square tiles, and each round
+ * relaxes a diagonal tile, then the tiles of its row and column, then
+ * all others, so that the three tiles involved in an update remain in
+ * cache.  Within each round, the tiles of the row and column, and then
+ * the bands of remaining rows, are updated by the threads of a shared
+ * fork/join pool.  Time is proportional to the cube of the number of
+ * vertices, and space to its square.
+ * <P>
+ * The paths are those of the graph when constructed; later changes to
+ * the graph are not reflected.
+ * <P>
+ * Example Usage:
+ * <P>
+ * <pre>
+ *      AllPairsShortestPaths p = new {@link #AllPairsShortestPaths(GraphMatrix) AllPairsShortestPaths(g)};
+ *      System.out.println(p.{@link #distance(Object,Object) distance("Boston","Dallas")});
+ *      System.out.println(p.{@link #path(Object,Object) path("Boston","Dallas")});
+ * </pre>
+ * @see GraphMatrix
+ * @see TransitiveClosure
+ * @see GraphAlgorithms#shortestPaths(GraphCSR,int)
+ */
+public class AllPairsShortestPaths
+{
+    /**
+     * The number of rows and columns of a tile.
+     */
+    protected static final int block = 64;
+
+    /**
+     * The number of vertices.
+     */
+    protected int n;
+    /**
+     * The dense ids of the vertices, and their labels.
+     */
+    protected VertexIds vertices;
+    /**
+     * The length of a shortest path from u to v is dist[u*n+v].
+     */
+    protected double dist[];
+    /**
+     * The number of edges on the shortest path from u to v is
+     * edges[u*n+v].
+     */
+    protected int edges[];
+    /**
+     * The shortest path from u to v passes through via[u*n+v], or is
+     * a single edge if via[u*n+v] is -1.
+     */
+    protected int via[];
+
+    /**
+     * Compute shortest paths between all pairs of vertices of a graph.
+     *
+     * @pre g is non-null; numeric labels are not NaN
+     * @post constructs the shortest paths of g
+     *
+     * @param g The graph whose paths are computed.
+     */
+    public AllPairsShortestPaths(GraphMatrix g)
+    {
+        vertices = new VertexIds(g);
+        n = vertices.size();
+        // the id of each row of the matrix, or -1
+        int id[] = g.rowIds(vertices);
+        dist = new double[n*n];
+        edges = new int[n*n];
+        via = new int[n*n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(via, -1);
+        for (int row = 0; row < id.length; row++)
+        {
+            int u = id[row];
+            if (u < 0) continue;
+            for (int col = g.nextEdge(row, 0); col >= 0; col = g.nextEdge(row, col+1))
+            {
+                int w = id[col];
+                Object label = g.labeled ? g.data[row][col].label() : null;
+                double length = label instanceof Number ? ((Number)label).doubleValue() : 1.0;
+                Assert.pre(length == length, "Edge lengths are numbers.");
+                dist[u*n+w] = length;
+                edges[u*n+w] = 1;
+            }
+        }
+        for (int u = 0; u < n; u++)
+        {
+            // the empty path, unless a self-loop is shorter
+            if (dist[u*n+u] >= 0.0)
+            {
+                dist[u*n+u] = 0.0;
+                edges[u*n+u] = 0;
+            }
+        }
+        solve();
+    }
+
+    /**
+     * Perform the tiled Floyd-Warshall algorithm.
+     *
+     * @post dist, edges and via describe shortest paths
+     */
+    protected void solve()
+    {
+        int tiles = (n + block-1) / block;
+        boolean parallel = tiles > 1 && Parallel.isUseful();
+        for (int k = 0; k < tiles; k++)
+        {
+            // the diagonal tile depends only on itself
+            relax(k, k, k);
+            // the tiles of row and column k depend on the diagonal
+            Round cross = new Round(this, Round.CROSS, k, 0, tiles);
+            // the rest depend on the row and column
+            Round rest = new Round(this, Round.REST, k, 0, tiles);
+            if (parallel)
+            {
+                Parallel.pool().invoke(cross);
+                Parallel.pool().invoke(rest);
+            } else {
+                cross.band(0, tiles);
+                rest.band(0, tiles);
+            }
+        }
+    }
+
+    /**
+     * Relax the paths of tile (ti, tj) through the vertices of tile tk.
+     *
+     * @post dist, edges and via of tile (ti, tj) account for paths whose
+     *       intermediate vertices lie in tile tk
+     */
+    void relax(int ti, int tj, int tk)
+    {
+        int i1 = Math.min(n, (ti+1)*block), j0 = tj*block, j1 = Math.min(n, j0+block);
+        int k1 = Math.min(n, (tk+1)*block);
+        for (int k = tk*block; k < k1; k++)
+        {
+            int rowK = k*n;
+            for (int i = ti*block; i < i1; i++)
+            {
+                int rowI = i*n;
+                double dik = dist[rowI+k];
+                if (dik == Double.POSITIVE_INFINITY) continue;
+                int eik = edges[rowI+k];
+                for (int j = j0; j < j1; j++)
+                {
+                    double d = dik + dist[rowK+j];
+                    double dij = dist[rowI+j];
+                    if (d > dij) continue;
+                    // ties are broken by the number of edges
+                    int e = eik + edges[rowK+j];
+                    if (d < dij || (e < edges[rowI+j] && d != Double.POSITIVE_INFINITY))
+                    {
+                        dist[rowI+j] = d;
+                        edges[rowI+j] = e;
+                        via[rowI+j] = k;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A task that performs part of one round of the tiled algorithm:
+     * either the tiles of the pivot row and column, or the bands of
+     * tiles outside them.  The tiles written by different tasks of a
+     * round are disjoint, and the tiles they read are not written.
+     */
+    static final class Round extends RecursiveAction
+    {
+        static final int CROSS = 0, REST = 1;
+
+        final AllPairsShortestPaths paths;
+        final int kind, k;
+        final int lo, hi; // the tiles (or bands) considered
+
+        Round(AllPairsShortestPaths paths, int kind, int k, int lo, int hi)
+        {
+            this.paths = paths;
+            this.kind = kind;
+            this.k = k;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected void compute()
+        {
+            if (hi - lo > 1)
+            {
+                int mid = (lo+hi) >>> 1;
+                invokeAll(new Round(paths, kind, k, lo, mid),
+                          new Round(paths, kind, k, mid, hi));
+                return;
+            }
+            band(lo, hi);
+        }
+
+        /**
+         * @post tiles (or bands) lo..hi-1 of the round are relaxed
+         */
+        void band(int lo, int hi)
+        {
+            int tiles = (paths.n + block-1) / block;
+            for (int t = lo; t < hi; t++)
+            {
+                if (t == k) continue;
+                if (kind == CROSS)
+                {
+                    paths.relax(k, t, k);
+                    paths.relax(t, k, k);
+                } else {
+                    for (int tj = 0; tj < tiles; tj++)
+                    {
+                        if (tj != k) paths.relax(t, tj, k);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Determine the number of vertices.
+     *
+     * @post returns the number of vertices of the graph
+     *
+     * @return The number of vertices.
+     */
+    public int size()
+    {
+        return n;
+    }
+
+    /**
+     * Find the length of a shortest path between two vertices.
+     *
+     * @pre from and to label vertices of the graph
+     * @post returns the length of a shortest path from from to to,
+     *       infinity if there is none, or negative infinity if paths
+     *       may be shortened without bound
+     *
+     * @param from The label of the first vertex of the path.
+     * @param to The label of the last vertex of the path.
+     * @return The length of a shortest path.
+     */
+    public double distance(Object from, Object to)
+    {
+        int u = vertices.id(from), v = vertices.id(to);
+        if (dist[u*n+v] != Double.POSITIVE_INFINITY && unbounded(u, v))
+        {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return dist[u*n+v];
+    }
+
+    /**
+     * @post returns true iff a path from u to v passes through a
+     *       vertex on a cycle of negative length
+     */
+    private boolean unbounded(int u, int v)
+    {
+        for (int w = 0; w < n; w++)
+        {
+            if (dist[w*n+w] < 0 && dist[u*n+w] != Double.POSITIVE_INFINITY &&
+                dist[w*n+v] != Double.POSITIVE_INFINITY) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Determine if the graph has a cycle of negative length.
+     *
+     * @post returns true iff some cycle has negative length
+     *
+     * @return True iff shortest paths may be unbounded.
+     */
+    public boolean hasNegativeCycle()
+    {
+        for (int w = 0; w < n; w++)
+        {
+            if (dist[w*n+w] < 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Construct a shortest path between two vertices.
+     *
+     * @pre from and to label vertices of the graph; the distance
+     *      between them is not negative infinity
+     * @post returns the labels of the vertices of a shortest path from
+     *       from to to, in order, or null if there is no path
+     *
+     * @param from The label of the first vertex of the path.
+     * @param to The label of the last vertex of the path.
+     * @return The labels along the path, or null.
+     */
+    public List path(Object from, Object to)
+    {
+        int u = vertices.id(from), v = vertices.id(to);
+        if (dist[u*n+v] == Double.POSITIVE_INFINITY) return null;
+        Assert.pre(!unbounded(u, v), "Path is of bounded length.");
+        List result = new SinglyLinkedList();
+        result.add(vertices.label(u));
+        if (u == v) return result;
+        // the pairs still to be expanded, the next on top
+        int stack[] = new int[2*edges[u*n+v]];
+        int top = 0;
+        stack[top++] = u;
+        stack[top++] = v;
+        while (top > 0)
+        {
+            v = stack[--top];
+            u = stack[--top];
+            int k = via[u*n+v];
+            if (k < 0) result.add(vertices.label(v));
+            else
+            {
+                // each part has fewer edges than the whole
+                stack[top++] = k;
+                stack[top++] = v;
+                stack[top++] = u;
+                stack[top++] = k;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,125 @@
+// In-order iterator for binary trees.
+
+package structure;
+import java.util.Arrays;
+
+/**
+ * This class implements an in-order traversal of a binary tree.
+ * Every node is considered after its left descendants, but before
+ * any of its right descendants.  The state of the traversal is a stack
+ * of the ancestors yet to be considered, kept in an array that is reused
+ * when the iterator is reset.
+ * <P>
+ * Example usage:
+ * <P>
+ * <pre>
+ *      {@link structure.BinaryTree BinaryTree} t = new {@link structure.BinaryTree#BinaryTree() BinaryTree()};
+ *      // ...tree is grown
+ *      {@link java.util.Iterator Iterator} ti = t.{@link structure.BinaryTree#inorderIterator() inorderIterator()};
+ *      while (ti.{@link #hasNext() hasNext()})
+ *      {
+ *          System.out.println(ti.{@link #next() next()});
+ *      }
+ *      ti.{@link #reset() reset()};
+ *      while (ti.{@link #hasNext() hasNext()})
+ *      { .... }
+ * </pre>
+ */
+class BTInorderIterator extends AbstractIterator
+{
+    /**
+     * The root of the subtree being traversed.
+     */
+    protected BinaryTree root;
+    /**
+     * Stack of unvisited ancestors of the current node; the current
+     * node is on top.
+     */
+    protected BinaryTree todo[];
+    /**
+     * The number of nodes on the stack.
+     */
+    protected int top;
+
+    /**
+     * Construct a new in-order iterator of a tree.
+     *
+     * @post constructs an iterator to traverse in-order
+     *
+     * @param root The root of the subtree to be traversed.
+     */
+    public BTInorderIterator(BinaryTree root)
+    {
+        todo = new BinaryTree[16];
+        this.root = root;
+        reset();
+    }
+
+    /**
+     * Reset the iterator to the first node of the traversal.
+     *
+     * @post resets the iterator to retraverse
+     */
+    public void reset()
+    {
+        Arrays.fill(todo, 0, top, null);
+        top = 0;
+        descend(root);
+    }
+
+    /**
+     * Push current and its chain of left descendants.
+     *
+     * @post pushes the path from current to its leftmost descendant
+     */
+    protected void descend(BinaryTree current)
+    {
+        while (!current.isEmpty())
+        {
+            if (top == todo.length) todo = Arrays.copyOf(todo, 2*top);
+            todo[top++] = current;
+            current = current.left();
+        }
+    }
+
+    /**
+     * Returns true iff the iterator has more nodes to be considered.
+     *
+     * @post returns true iff iterator is not finished
+     *
+     * @return True iff more nodes are to be considered.
+     */
+    public boolean hasNext()
+    {
+        return top > 0;
+    }
+
+    /**
+     * Return the value of the node currently being considered.
+     *
+     * @pre hasNext()
+     * @post returns reference to current value
+     *
+     * @return The value of the current node.
+     */
+    public Object get()
+    {
+        return todo[top-1].value();
+    }
+
+    /**
+     * Return the current value, and increment the iterator.
+     *
+     * @pre hasNext()
+     * @post returns current value, increments iterator
+     *
+     * @return The value of the current node, before iterator iterated.
+     */
+    public Object next()
+    {
+        BinaryTree old = todo[--top];
+        todo[top] = null;
+        descend(old.right());
+        return old.value();
+    }
+}
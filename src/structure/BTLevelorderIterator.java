@@ -1,6 +1,7 @@
 // Level-order iterator for binary trees.
 // (c) 1998, 2001 duane a. bailey
 package structure;
+import java.util.Arrays;
 
 /**
  * An iterator for traversing binary trees constructed from
@@ -35,9 +36,14 @@ class BTLevelorderIterator extends AbstractIterator
      */
     protected BinaryTree root; // root of traversed subtree
     /** 
-     * Queue of nodes that maintain the state of the iterator.
+     * Circular queue of nodes that maintain the state of the iterator.
+     * The array is kept across resets, so retraversals allocate nothing.
      */
-    protected Queue todo;  // queue of unvisited relatives
+    protected BinaryTree todo[];  // queue of unvisited relatives
+    /**
+     * The index of the head of the queue, and the number of nodes queued.
+     */
+    protected int head, count;
 
     /**
      * Construct a new level-order iterator of a tree.
@@ -48,7 +54,7 @@ class BTLevelorderIterator extends AbstractIterator
      */
     public BTLevelorderIterator(BinaryTree root)
     {
-	todo = new QueueList();
+	todo = new BinaryTree[16];
 	this.root = root;
 	reset();
     }	
@@ -60,9 +66,29 @@ class BTLevelorderIterator extends AbstractIterator
      */
     public void reset()
     {
-	todo.clear();
+	Arrays.fill(todo, null);
+	head = count = 0;
 	// empty queue, add root
-	if (!root.isEmpty()) todo.enqueue(root);
+	if (!root.isEmpty()) enqueue(root);
+    }
+
+    /**
+     * Add a node to the tail of the queue, doubling the queue when full.
+     *
+     * @post node is the tail of the queue
+     */
+    protected void enqueue(BinaryTree node)
+    {
+	if (count == todo.length)
+	{
+	    BinaryTree larger[] = new BinaryTree[2*count];
+	    System.arraycopy(todo, head, larger, 0, count-head);
+	    System.arraycopy(todo, 0, larger, count-head, head);
+	    todo = larger;
+	    head = 0;
+	}
+	todo[(head+count) & (todo.length-1)] = node;
+	count++;
     }
 
     /**
@@ -74,7 +100,7 @@ class BTLevelorderIterator extends AbstractIterator
      */
     public boolean hasNext()
     {
-	return !todo.isEmpty();
+	return count > 0;
     }
 
     /**
@@ -87,7 +113,7 @@ class BTLevelorderIterator extends AbstractIterator
      */
     public Object get()
     {	
-	return ((BinaryTree)todo.getFirst()).value();
+	return todo[head].value();
     }
 
     /**
@@ -100,12 +126,15 @@ class BTLevelorderIterator extends AbstractIterator
      */
     public Object next()
     {
-	BinaryTree current = (BinaryTree)todo.dequeue();
+	BinaryTree current = todo[head];
+	todo[head] = null;
+	head = (head+1) & (todo.length-1);
+	count--;
 	Object result = current.value();
 	if (!current.left().isEmpty())
-	    todo.enqueue(current.left());
+	    enqueue(current.left());
 	if (!current.right().isEmpty())
-	    todo.enqueue(current.right());
+	    enqueue(current.right());
 	return result;
     }
 }
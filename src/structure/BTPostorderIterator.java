@@ -1,6 +1,7 @@
 // Post-order iterator for binary trees.
 // (c) 1998, 2001 duane a. bailey
 package structure;
+import java.util.Arrays;
 
 /**
  * This class implements a post-order traversal of a binary tree.
@@ -34,10 +35,15 @@ class BTPostorderIterator extends AbstractIterator
     /**
      * The stack the maintains the state of the iterator.
      * Elements of the stack are nodes whose descendants are still being
-     * considered.
+     * considered.  The array is kept across resets, so retraversals
+     * allocate nothing.
      */
-    protected Stack todo;  // stack of nodes whose descendants
-                           // are currently being visited
+    protected BinaryTree todo[];  // stack of nodes whose descendants
+                                  // are currently being visited
+    /**
+     * The number of nodes on the stack.
+     */
+    protected int top;
 
     /**
      * Construct an iterator to traverse subtree rooted at root
@@ -49,7 +55,7 @@ class BTPostorderIterator extends AbstractIterator
      */
     public BTPostorderIterator(BinaryTree root)
     {
-	todo = new StackList();
+	todo = new BinaryTree[16];
 	this.root = root;
 	reset();
     }	
@@ -61,12 +67,23 @@ class BTPostorderIterator extends AbstractIterator
      */
     public void reset()
     {
-	todo.clear();
+	Arrays.fill(todo, 0, top, null);
+	top = 0;
 	// stack is empty; push on nodes from root to
 	// leftmost descendant
-	BinaryTree current = root;
+	descend(root);
+    }
+
+    /**
+     * Push the nodes from current down to the first node of its
+     * subtree in post-order.
+     *
+     * @post pushes the path from current to its first post-order node
+     */
+    protected void descend(BinaryTree current)
+    {
 	while (!current.isEmpty()) {
-	    todo.push(current);
+	    push(current);
 	    if (!current.left().isEmpty())
 		current = current.left();
 	    else
@@ -74,6 +91,20 @@ class BTPostorderIterator extends AbstractIterator
 	}
     }
 
+    /**
+     * Push a node on the stack, doubling the stack when full.
+     *
+     * @post node is the top of the stack
+     */
+    protected void push(BinaryTree node)
+    {
+	if (top == todo.length)
+	{
+	    todo = Arrays.copyOf(todo, 2*top);
+	}
+	todo[top++] = node;
+    }
+
     /**
      * Return true iff more nodes are to be considered in traversal.
      *
@@ -83,7 +114,7 @@ class BTPostorderIterator extends AbstractIterator
      */
     public boolean hasNext()
     {
-	return !todo.isEmpty();
+	return top > 0;
     }
 
     /**
@@ -96,7 +127,7 @@ class BTPostorderIterator extends AbstractIterator
      */
     public Object get()
     {	
-	return ((BinaryTree)todo.getFirst()).value();
+	return todo[top-1].value();
     }
 
     /**
@@ -109,21 +140,13 @@ class BTPostorderIterator extends AbstractIterator
      */
     public Object next()
     {
-	BinaryTree current = (BinaryTree)todo.pop();
+	BinaryTree current = todo[--top];
+	todo[top] = null;
 	Object result = current.value();
-	if (!todo.isEmpty())
+	if (top > 0)
 	{
-	    BinaryTree parent = (BinaryTree)todo.getFirst();
-	    if (current == parent.left()) {
-		current = parent.right();
-		while (!current.isEmpty())
-		{
-		    todo.push(current);
-		    if (!current.left().isEmpty())
-			 current = current.left();
-		    else current = current.right();
-		}
-	    }
+	    BinaryTree parent = todo[top-1];
+	    if (current == parent.left()) descend(parent.right());
 	}
 	return result;
     }
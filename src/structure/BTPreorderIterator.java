@@ -1,6 +1,7 @@
 // Pre-order iterator for binary trees.
 // (c) 1998, 2001 duane a. bailey
 package structure;
+import java.util.Arrays;
 
 
 /**
@@ -32,9 +33,14 @@ class BTPreorderIterator extends AbstractIterator
      */
     protected BinaryTree root; // root of tree to be traversed
     /**
-     * The stack that maintains the state of the iterator.
+     * The stack that maintains the state of the iterator.  The array
+     * is kept across resets, so retraversals allocate nothing.
      */
-    protected Stack todo; // stack of unvisited nodes whose
+    protected BinaryTree todo[]; // stack of unvisited nodes
+    /**
+     * The number of nodes on the stack.
+     */
+    protected int top;
 
     /**
      * Constructs a pre-order traversal of subtree rooted at root.
@@ -45,7 +51,7 @@ class BTPreorderIterator extends AbstractIterator
      */
     public BTPreorderIterator(BinaryTree root)
     {
-	todo = new StackList();
+	todo = new BinaryTree[16];
 	this.root = root;
 	reset();
     }	
@@ -57,8 +63,23 @@ class BTPreorderIterator extends AbstractIterator
      */
     public void reset()
     {
-	todo.clear(); // stack is empty; push on root
-	if (root != null) todo.push(root);
+	Arrays.fill(todo, 0, top, null);
+	top = 0; // stack is empty; push on root
+	if (root != null && !root.isEmpty()) push(root);
+    }
+
+    /**
+     * Push a node on the stack, doubling the stack when full.
+     *
+     * @post node is the top of the stack
+     */
+    protected void push(BinaryTree node)
+    {
+	if (top == todo.length)
+	{
+	    todo = Arrays.copyOf(todo, 2*top);
+	}
+	todo[top++] = node;
     }
 
     /**
@@ -70,7 +91,7 @@ class BTPreorderIterator extends AbstractIterator
      */
     public boolean hasNext()
     {
-	return !todo.isEmpty();
+	return top > 0;
     }
 
     /**
@@ -83,7 +104,7 @@ class BTPreorderIterator extends AbstractIterator
      */
     public Object get()
     {	
-	return ((BinaryTree)todo.getFirst()).value();
+	return todo[top-1].value();
     }
 
     /**
@@ -97,11 +118,12 @@ class BTPreorderIterator extends AbstractIterator
      */
     public Object next()
     {
-	BinaryTree old = (BinaryTree)todo.pop();
+	BinaryTree old = todo[--top];
+	todo[top] = null;
 	Object result = old.value();
 	
-	if (!old.right().isEmpty()) todo.push(old.right());
-	if (!old.left().isEmpty()) todo.push(old.left());
+	if (!old.right().isEmpty()) push(old.right());
+	if (!old.left().isEmpty()) push(old.left());
 	return result;
     }
 }
@@ -0,0 +1,844 @@
+// An ordered map implemented as a B+-tree.
+
+package structure;
+import java.util.Iterator;
+import java.util.Comparator;
+import java.util.Arrays;
+
+/**
+ * An ordered map kept in a B+-tree.  Every node holds up to
+ * <code>fanout</code> keys in a single array, so a search inspects a
+ * few contiguous arrays rather than chasing a pointer per comparison
+ * as the binary search trees do.  All key-value pairs live in the
+ * leaves; interior nodes hold only separating keys.  The leaves are
+ * linked in key order, so a range scan locates its first key and then
+ * walks sideways through the leaves.
+ * <P>
+ * Keys are ordered by their natural ordering, or by a
+ * {@link Comparator} supplied at construction.  A map may be built in
+ * linear time from entries already in key order with
+ * {@link #load(Iterator)}.
+ * <P>
+ * Example Usage:
+ * <P>
+ * To count the words read from System.in and print them, with their
+ * counts, in alphabetical order we could use the following:
+ * <P>
+ * <pre>
+ * public static void main (String[] argv){
+ *	BTree counts = new {@link #BTree()};
+ *	ReadStream r = new ReadStream();
+ *	while(!r.eof()){
+ *	    String word = r.readString();
+ *	    Integer n = (Integer)counts.{@link #get(Object) get(word)};
+ *	    counts.{@link #put(Object,Object) put(word, new Integer(n == null ? 1 : n.intValue()+1))};
+ *	}
+ *	System.out.println(counts);
+ * }
+ * </pre>
+ * @see RedBlackSearchTree
+ * @see OrderedMap
+ */
+public class BTree extends AbstractMap implements OrderedMap
+{
+    /**
+     * A node of the tree.  Keys occupy indices 0 through n-1.
+     */
+    protected static abstract class Node
+    {
+        /**
+         * The number of keys in the node.
+         */
+        protected int n;
+        /**
+         * The keys of the node, in increasing order.
+         */
+        protected Object keys[];
+    }
+
+    /**
+     * A leaf of the tree, holding keys and their values.
+     */
+    protected static class Leaf extends Node
+    {
+        /**
+         * The value associated with each key.
+         */
+        protected Object values[];
+        /**
+         * The leaf holding the next larger keys, or null.
+         */
+        protected Leaf next;
+
+        /**
+         * @post constructs an empty leaf with room for capacity pairs
+         */
+        protected Leaf(int capacity)
+        {
+            keys = new Object[capacity];
+            values = new Object[capacity];
+        }
+    }
+
+    /**
+     * An interior node.  Child i holds the keys k with
+     * keys[i-1] <= k < keys[i]; there are n+1 children.
+     */
+    protected static class Inner extends Node
+    {
+        /**
+         * The n+1 subtrees of this node.
+         */
+        protected Node children[];
+
+        /**
+         * @post constructs an empty node with room for capacity keys
+         */
+        protected Inner(int capacity)
+        {
+            keys = new Object[capacity];
+            children = new Node[capacity+1];
+        }
+    }
+
+    /**
+     * The root of the tree; a (possibly empty) leaf in small trees.
+     */
+    protected Node root;
+    /**
+     * The number of key-value pairs within the tree.
+     */
+    protected int count;
+    /**
+     * The greatest number of keys held by any node.
+     */
+    protected int fanout;
+    /**
+     * The ordering used to compare keys.
+     */
+    protected Comparator ordering;
+
+    /**
+     * Construct an empty map whose nodes hold up to fanout keys,
+     * ordered by ordering.
+     *
+     * @pre fanout >= 3; ordering is non-null
+     * @post constructs an empty ordered map
+     *
+     * @param fanout The maximum number of keys in a node.
+     * @param ordering The Comparator used to order keys.
+     */
+    public BTree(int fanout, Comparator ordering)
+    {
+        Assert.pre(fanout >= 3, "Fan-out must be at least 3.");
+        Assert.pre(ordering != null, "Ordering must be non-null.");
+        this.fanout = fanout;
+        this.ordering = ordering;
+        clear();
+    }
+
+    /**
+     * Construct an empty map whose nodes hold up to fanout keys.
+     *
+     * @pre fanout >= 3
+     * @post constructs an empty ordered map
+     *
+     * @param fanout The maximum number of keys in a node.
+     */
+    public BTree(int fanout)
+    {
+        this(fanout, new NaturalComparator());
+    }
+
+    /**
+     * Construct an empty map.
+     *
+     * @post constructs an empty ordered map
+     */
+    public BTree()
+    {
+        this(64);
+    }
+
+    /**
+     * Removes all the pairs from the map.
+     *
+     * @post removes all the elements from the map
+     */
+    public void clear()
+    {
+        root = new Leaf(fanout+1);
+        count = 0;
+    }
+
+    /**
+     * Return the number of pairs within the map.
+     *
+     * @post returns number of elements in map
+     *
+     * @return The number of pairs within the map.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Determine if the map is empty.
+     *
+     * @post returns true iff map is empty
+     *
+     * @return True iff the map is empty.
+     */
+    public boolean isEmpty()
+    {
+        return count == 0;
+    }
+
+    /**
+     * Checks that a key may be compared by this map's ordering.
+     *
+     * @post fails unless key is non-null, and Comparable when the
+     *       natural ordering is used
+     */
+    protected void check(Object key)
+    {
+        if (ordering instanceof NaturalComparator)
+        {
+            Assert.pre(key instanceof Comparable, "Key must implement Comparable.");
+        } else {
+            Assert.pre(key != null, "Key must be non-null.");
+        }
+    }
+
+    /**
+     * @post returns the number of keys of node that are no greater
+     *       than key; in an interior node, the index of the child that
+     *       may hold key
+     */
+    protected int childIndex(Node node, Object key)
+    {
+        int lo = 0, hi = node.n;
+        while (lo < hi)
+        {
+            int mid = (lo+hi) >>> 1;
+            if (ordering.compare(node.keys[mid], key) <= 0) lo = mid+1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * @post returns the number of keys of node that are less than key;
+     *       in a leaf, the position key does or would occupy
+     */
+    protected int keyIndex(Node node, Object key)
+    {
+        int lo = 0, hi = node.n;
+        while (lo < hi)
+        {
+            int mid = (lo+hi) >>> 1;
+            if (ordering.compare(node.keys[mid], key) < 0) lo = mid+1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * @pre key is non-null
+     * @post returns the leaf whose range includes key
+     */
+    protected Leaf leafFor(Object key)
+    {
+        Node node = root;
+        while (node instanceof Inner)
+        {
+            node = ((Inner)node).children[childIndex(node, key)];
+        }
+        return (Leaf)node;
+    }
+
+    /**
+     * @post returns the leaf holding the least keys
+     */
+    protected Leaf firstLeaf()
+    {
+        Node node = root;
+        while (node instanceof Inner)
+        {
+            node = ((Inner)node).children[0];
+        }
+        return (Leaf)node;
+    }
+
+    /**
+     * Get the value associated with a key.
+     *
+     * @pre key is non-null Object
+     * @post returns value associated with key, or null
+     *
+     * @param key The key used to find the desired value.
+     * @return The value associated with the desired key.
+     */
+    public Object get(Object key)
+    {
+        check(key);
+        Leaf leaf = leafFor(key);
+        int i = keyIndex(leaf, key);
+        if (i < leaf.n && ordering.compare(leaf.keys[i], key) == 0)
+        {
+            return leaf.values[i];
+        }
+        return null;
+    }
+
+    /**
+     * Returns true iff a specific key appears within the map.
+     *
+     * @pre key is non-null
+     * @post returns true if key appears in map
+     *
+     * @param key The key sought.
+     * @return True iff the key sought appears within the map.
+     */
+    public boolean containsKey(Object key)
+    {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns true if a specific value appears within the map.
+     *
+     * @pre value is non-null Object
+     * @post returns true iff map contains value
+     *
+     * @param value The value sought.
+     * @return True iff the value appears within the map.
+     */
+    public boolean containsValue(Object value)
+    {
+        for (Leaf leaf = firstLeaf(); leaf != null; leaf = leaf.next)
+        {
+            for (int i = 0; i < leaf.n; i++)
+            {
+                if (value.equals(leaf.values[i])) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Place a key-value pair within the map.
+     *
+     * @pre key and value are non-null
+     * @post key-value pair is added to the map
+     *
+     * @param key The key to be added to the map.
+     * @param value The value associated with key.
+     * @return The old value associated with key if previously present.
+     */
+    public Object put(Object key, Object value)
+    {
+        check(key);
+        Assert.pre(value != null, "Value must be non-null.");
+        Object old = insert(root, key, value);
+        if (root.n > fanout)
+        {   // the root overflowed: grow the tree by one level
+            Inner top = new Inner(fanout+1);
+            top.children[0] = root;
+            root = top;
+            split(top, 0);
+        }
+        return old;
+    }
+
+    /**
+     * Add a pair to the subtree rooted at node.  Nodes along the path
+     * may overflow by one key; each is split by its parent on return.
+     *
+     * @post key is mapped to value below node; returns the old value
+     */
+    protected Object insert(Node node, Object key, Object value)
+    {
+        if (node instanceof Leaf)
+        {
+            Leaf leaf = (Leaf)node;
+            int i = keyIndex(leaf, key);
+            if (i < leaf.n && ordering.compare(leaf.keys[i], key) == 0)
+            {
+                Object old = leaf.values[i];
+                leaf.values[i] = value;
+                return old;
+            }
+            System.arraycopy(leaf.keys, i, leaf.keys, i+1, leaf.n-i);
+            System.arraycopy(leaf.values, i, leaf.values, i+1, leaf.n-i);
+            leaf.keys[i] = key;
+            leaf.values[i] = value;
+            leaf.n++;
+            count++;
+            return null;
+        }
+        Inner inner = (Inner)node;
+        int c = childIndex(inner, key);
+        Object old = insert(inner.children[c], key, value);
+        if (inner.children[c].n > fanout) split(inner, c);
+        return old;
+    }
+
+    /**
+     * Split a child holding more than fanout keys.  The parent may
+     * itself overflow by one key.
+     *
+     * @pre parent.children[i] holds fanout+1 keys
+     * @post the upper half of the child is moved to a new node, child
+     *       i+1 of parent, and the key separating the two is added to
+     *       parent as key i
+     */
+    protected void split(Inner parent, int i)
+    {
+        Node node = parent.children[i];
+        int half = node.n / 2;
+        Node right;
+        Object separator;
+        if (node instanceof Leaf)
+        {
+            Leaf leaf = (Leaf)node;
+            Leaf r = new Leaf(fanout+1);
+            r.n = leaf.n - half;
+            System.arraycopy(leaf.keys, half, r.keys, 0, r.n);
+            System.arraycopy(leaf.values, half, r.values, 0, r.n);
+            Arrays.fill(leaf.keys, half, leaf.n, null);
+            Arrays.fill(leaf.values, half, leaf.n, null);
+            leaf.n = half;
+            r.next = leaf.next;
+            leaf.next = r;
+            right = r;
+            separator = r.keys[0];
+        } else {
+            // the middle key moves up rather than across
+            Inner inner = (Inner)node;
+            Inner r = new Inner(fanout+1);
+            r.n = inner.n - half - 1;
+            separator = inner.keys[half];
+            System.arraycopy(inner.keys, half+1, r.keys, 0, r.n);
+            System.arraycopy(inner.children, half+1, r.children, 0, r.n+1);
+            Arrays.fill(inner.keys, half, inner.n, null);
+            Arrays.fill(inner.children, half+1, inner.n+1, null);
+            inner.n = half;
+            right = r;
+        }
+        System.arraycopy(parent.keys, i, parent.keys, i+1, parent.n-i);
+        System.arraycopy(parent.children, i+1, parent.children, i+2, parent.n-i);
+        parent.keys[i] = separator;
+        parent.children[i+1] = right;
+        parent.n++;
+    }
+
+    /**
+     * Remove a key-value pair, based on key.
+     *
+     * @pre key is non-null
+     * @post removes key-value pair associated with key
+     *
+     * @param key The key of the key-value pair to be removed.
+     * @return The value associated with key, or null if absent.
+     */
+    public Object remove(Object key)
+    {
+        check(key);
+        Object old = delete(root, key);
+        if (root instanceof Inner && root.n == 0)
+        {   // the root lost its last separator: shrink by one level
+            root = ((Inner)root).children[0];
+        }
+        return old;
+    }
+
+    /**
+     * Remove a key from the subtree rooted at node.  A child left with
+     * too few keys is refilled from a sibling or merged with it.
+     *
+     * @post key is unmapped below node; returns its old value, or null
+     */
+    protected Object delete(Node node, Object key)
+    {
+        if (node instanceof Leaf)
+        {
+            Leaf leaf = (Leaf)node;
+            int i = keyIndex(leaf, key);
+            if (i == leaf.n || ordering.compare(leaf.keys[i], key) != 0)
+            {
+                return null;
+            }
+            Object old = leaf.values[i];
+            System.arraycopy(leaf.keys, i+1, leaf.keys, i, leaf.n-i-1);
+            System.arraycopy(leaf.values, i+1, leaf.values, i, leaf.n-i-1);
+            leaf.n--;
+            leaf.keys[leaf.n] = null;
+            leaf.values[leaf.n] = null;
+            count--;
+            return old;
+        }
+        Inner inner = (Inner)node;
+        int c = childIndex(inner, key);
+        Object old = delete(inner.children[c], key);
+        if (old != null && inner.children[c].n < fanout/2)
+        {
+            rebalance(inner, c);
+        }
+        return old;
+    }
+
+    /**
+     * Restore the occupancy of a child that has fallen below half full,
+     * by moving one key from a sibling with keys to spare or else by
+     * merging the child with a sibling.
+     *
+     * @pre child c of parent has fewer than fanout/2 keys
+     * @post child c, or its merger with a sibling, is at least half full
+     */
+    protected void rebalance(Inner parent, int c)
+    {
+        Node child = parent.children[c];
+        Node left = c > 0 ? parent.children[c-1] : null;
+        Node right = c < parent.n ? parent.children[c+1] : null;
+        if (left != null && left.n > fanout/2)
+        {
+            shiftRight(parent, c-1);
+        } else if (right != null && right.n > fanout/2) {
+            shiftLeft(parent, c);
+        } else if (left != null) {
+            merge(parent, c-1);
+        } else {
+            merge(parent, c);
+        }
+    }
+
+    /**
+     * Move the greatest key of child i to the front of child i+1.
+     *
+     * @pre child i has a key to spare
+     * @post the separator between the two children is updated
+     */
+    protected void shiftRight(Inner parent, int i)
+    {
+        Node from = parent.children[i];
+        Node to = parent.children[i+1];
+        System.arraycopy(to.keys, 0, to.keys, 1, to.n);
+        if (to instanceof Leaf)
+        {
+            Leaf l = (Leaf)from, r = (Leaf)to;
+            System.arraycopy(r.values, 0, r.values, 1, r.n);
+            r.keys[0] = l.keys[l.n-1];
+            r.values[0] = l.values[l.n-1];
+            l.values[l.n-1] = null;
+            parent.keys[i] = r.keys[0];
+        } else {
+            Inner l = (Inner)from, r = (Inner)to;
+            System.arraycopy(r.children, 0, r.children, 1, r.n+1);
+            r.keys[0] = parent.keys[i];
+            r.children[0] = l.children[l.n];
+            l.children[l.n] = null;
+            parent.keys[i] = l.keys[l.n-1];
+        }
+        from.keys[from.n-1] = null;
+        from.n--;
+        to.n++;
+    }
+
+    /**
+     * Move the least key of child i+1 to the end of child i.
+     *
+     * @pre child i+1 has a key to spare
+     * @post the separator between the two children is updated
+     */
+    protected void shiftLeft(Inner parent, int i)
+    {
+        Node to = parent.children[i];
+        Node from = parent.children[i+1];
+        if (to instanceof Leaf)
+        {
+            Leaf l = (Leaf)to, r = (Leaf)from;
+            l.keys[l.n] = r.keys[0];
+            l.values[l.n] = r.values[0];
+            System.arraycopy(r.values, 1, r.values, 0, r.n-1);
+            r.values[r.n-1] = null;
+            System.arraycopy(r.keys, 1, r.keys, 0, r.n-1);
+            parent.keys[i] = r.keys[0];
+        } else {
+            Inner l = (Inner)to, r = (Inner)from;
+            l.keys[l.n] = parent.keys[i];
+            l.children[l.n+1] = r.children[0];
+            parent.keys[i] = r.keys[0];
+            System.arraycopy(r.children, 1, r.children, 0, r.n);
+            r.children[r.n] = null;
+            System.arraycopy(r.keys, 1, r.keys, 0, r.n-1);
+        }
+        from.keys[from.n-1] = null;
+        from.n--;
+        to.n++;
+    }
+
+    /**
+     * Merge child i+1 into child i, removing their separator.
+     *
+     * @pre the two children together fit within one node
+     * @post parent has one fewer child
+     */
+    protected void merge(Inner parent, int i)
+    {
+        Node l = parent.children[i];
+        Node r = parent.children[i+1];
+        if (l instanceof Leaf)
+        {
+            Leaf ll = (Leaf)l, rl = (Leaf)r;
+            System.arraycopy(rl.keys, 0, ll.keys, ll.n, rl.n);
+            System.arraycopy(rl.values, 0, ll.values, ll.n, rl.n);
+            ll.n += rl.n;
+            ll.next = rl.next;
+        } else {
+            Inner li = (Inner)l, ri = (Inner)r;
+            li.keys[li.n] = parent.keys[i];
+            System.arraycopy(ri.keys, 0, li.keys, li.n+1, ri.n);
+            System.arraycopy(ri.children, 0, li.children, li.n+1, ri.n+1);
+            li.n += ri.n + 1;
+        }
+        System.arraycopy(parent.keys, i+1, parent.keys, i, parent.n-i-1);
+        System.arraycopy(parent.children, i+2, parent.children, i+1, parent.n-i-1);
+        parent.n--;
+        parent.keys[parent.n] = null;
+        parent.children[parent.n+1] = null;
+    }
+
+    /**
+     * Replace the contents of an empty map with pairs supplied in
+     * increasing key order.  Leaves are filled, then each level of
+     * interior nodes is built over the one below it, so loading n
+     * pairs takes linear time.
+     *
+     * @pre isEmpty(); pairs produces Associations with non-null values,
+     *      in strictly increasing order of key
+     * @post the map holds exactly the pairs produced
+     *
+     * @param pairs An iterator over the Associations to be loaded.
+     */
+    public void load(Iterator pairs)
+    {
+        Assert.pre(isEmpty(), "Bulk loading requires an empty map.");
+        // the current level of nodes, and the least key below each
+        Node level[] = new Node[4];
+        Object low[] = new Object[4];
+        int width = 0;
+        Leaf leaf = null;
+        Object last = null;
+        while (pairs.hasNext())
+        {
+            Association a = (Association)pairs.next();
+            Object key = a.getKey();
+            check(key);
+            Assert.pre(a.getValue() != null, "Value must be non-null.");
+            Assert.pre(last == null || ordering.compare(last, key) < 0,
+                       "Keys must be loaded in increasing order.");
+            if (leaf == null || leaf.n == fanout)
+            {
+                Leaf next = new Leaf(fanout+1);
+                if (leaf != null) leaf.next = next;
+                leaf = next;
+                if (width == level.length)
+                {
+                    level = Arrays.copyOf(level, width*2);
+                    low = Arrays.copyOf(low, width*2);
+                }
+                level[width] = leaf;
+                low[width++] = key;
+            }
+            leaf.keys[leaf.n] = key;
+            leaf.values[leaf.n++] = a.getValue();
+            count++;
+            last = key;
+        }
+        if (width == 0) return;
+        evenLast(level, low, width);
+        while (width > 1)
+        {
+            int parents = (width + fanout) / (fanout+1);
+            Node up[] = new Node[parents];
+            Object upLow[] = new Object[parents];
+            for (int p = 0, c = 0; p < parents; p++)
+            {
+                int take = (p < parents-1) ? fanout+1 : width - c;
+                Inner inner = new Inner(fanout+1);
+                inner.children[0] = level[c];
+                upLow[p] = low[c];
+                for (int j = 1; j < take; j++)
+                {
+                    inner.keys[j-1] = low[c+j];
+                    inner.children[j] = level[c+j];
+                }
+                inner.n = take-1;
+                up[p] = inner;
+                c += take;
+            }
+            evenLast(up, upLow, parents);
+            level = up;
+            low = upLow;
+            width = parents;
+        }
+        root = level[0];
+    }
+
+    /**
+     * After a level of nodes has been filled left to right, share the
+     * keys of the last two nodes so that the last is at least half full.
+     *
+     * @pre nodes[0..width-1] is a complete level of the tree
+     * @post every node of the level other than a sole node is at least
+     *       half full
+     */
+    protected void evenLast(Node nodes[], Object low[], int width)
+    {
+        if (width < 2) return;
+        Node r = nodes[width-1];
+        Node l = nodes[width-2];
+        if (r.n >= fanout/2) return;
+        if (r instanceof Leaf)
+        {
+            Leaf ll = (Leaf)l, rl = (Leaf)r;
+            int move = (ll.n - rl.n) / 2;
+            System.arraycopy(rl.keys, 0, rl.keys, move, rl.n);
+            System.arraycopy(rl.values, 0, rl.values, move, rl.n);
+            System.arraycopy(ll.keys, ll.n-move, rl.keys, 0, move);
+            System.arraycopy(ll.values, ll.n-move, rl.values, 0, move);
+            Arrays.fill(ll.keys, ll.n-move, ll.n, null);
+            Arrays.fill(ll.values, ll.n-move, ll.n, null);
+            ll.n -= move;
+            rl.n += move;
+            low[width-1] = rl.keys[0];
+        } else {
+            // the separator held in low[width-1] rejoins the keys
+            Inner li = (Inner)l, ri = (Inner)r;
+            int move = (li.n - ri.n) / 2;
+            System.arraycopy(ri.keys, 0, ri.keys, move, ri.n);
+            System.arraycopy(ri.children, 0, ri.children, move, ri.n+1);
+            ri.keys[move-1] = low[width-1];
+            System.arraycopy(li.keys, li.n-move+1, ri.keys, 0, move-1);
+            System.arraycopy(li.children, li.n-move+1, ri.children, 0, move);
+            low[width-1] = li.keys[li.n-move];
+            Arrays.fill(li.keys, li.n-move, li.n, null);
+            Arrays.fill(li.children, li.n-move+1, li.n+1, null);
+            li.n -= move;
+            ri.n += move;
+        }
+    }
+
+    /**
+     * Returns an iterator that traverses the values of the map in
+     * order of their keys.
+     *
+     * @post returns iterator to traverse the values of the map
+     *
+     * @return A value iterator, over the values of the map.
+     */
+    public Iterator iterator()
+    {
+        return new ValueIterator(entries(null, null));
+    }
+
+    /**
+     * Get an iterator over the keys of the map, in increasing order.
+     *
+     * @post returns iterator to traverse the keys of the map
+     *
+     * @return An iterator over the keys appearing within the map.
+     */
+    public Iterator keys()
+    {
+        return new KeyIterator(entries(null, null));
+    }
+
+    /**
+     * Get an iterator over the pairs whose keys k satisfy lo <= k < hi,
+     * in increasing order of key.  Either bound may be null, leaving
+     * that end of the range open.  The first pair is found by a single
+     * descent; the remainder are read along the linked leaves.
+     *
+     * @post returns an iterator over the Associations within the range
+     *
+     * @param lo The least key to be visited, or null.
+     * @param hi The bound above the keys to be visited, or null.
+     * @return An iterator over the Associations of the range.
+     */
+    public Iterator entries(Object lo, Object hi)
+    {
+        if (lo != null) check(lo);
+        if (hi != null) check(hi);
+        return new BTreeIterator(this, lo, hi);
+    }
+
+    /**
+     * @post returns a Set of keys used in this Map
+     */
+    public Set keySet()
+    {
+        Set result = new SetHash(count);
+        Iterator i = keys();
+        while (i.hasNext())
+        {
+            result.add(i.next());
+        }
+        return result;
+    }
+
+    /**
+     * @post returns a Set of the Associations of this Map
+     */
+    public Set entrySet()
+    {
+        Set result = new SetHash(count);
+        Iterator i = entries(null, null);
+        while (i.hasNext())
+        {
+            result.add(i.next());
+        }
+        return result;
+    }
+
+    /**
+     * @post returns a Structure that contains the (possibly repeating)
+     * values of the range of this map, in order of their keys.
+     */
+    public Structure values()
+    {
+        List result = new SinglyLinkedList();
+        for (Leaf leaf = firstLeaf(); leaf != null; leaf = leaf.next)
+        {
+            for (int i = 0; i < leaf.n; i++)
+            {
+                result.add(leaf.values[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Generate a string representation of the map.
+     *
+     * @post returns a string representation of the map
+     *
+     * @return A string representing the pairs, in key order.
+     */
+    public String toString()
+    {
+        StringBuffer s = new StringBuffer();
+        s.append("<BTree:");
+        for (Leaf leaf = firstLeaf(); leaf != null; leaf = leaf.next)
+        {
+            for (int i = 0; i < leaf.n; i++)
+            {
+                s.append(" "+leaf.keys[i]+"="+leaf.values[i]);
+            }
+        }
+        s.append(">");
+        return s.toString();
+    }
+}
@@ -0,0 +1,135 @@
+package structure;
+
+/**
+ * An iterator over the pairs of a {@link BTree} whose keys lie within
+ * a range, in increasing order of key.  The first leaf is located by a
+ * single descent of the tree; the traversal then follows the links
+ * between leaves.  This iteration returns objects that are instances
+ * of Association.  This iterator is not publically accessable and is
+ * used to implement BTree's iterators.
+ * <P>
+ * Typical use:
+ * <P>
+ * <pre>
+ *      BTree t = new BTree();
+ *      // ...map gets built up...
+ *      Iterator ti = t.entries("a", "m");
+ *      while (ti.{@link #hasNext() hasNext()})
+ *      {
+ *          System.out.println(ti.{@link #next() next()});
+ *      }
+ * </pre>
+ */
+class BTreeIterator extends AbstractIterator
+{
+    /**
+     * The map being traversed.
+     */
+    protected BTree tree;
+    /**
+     * The least key visited, or null.
+     */
+    protected Object lo;
+    /**
+     * The bound above the keys visited, or null.
+     */
+    protected Object hi;
+    /**
+     * The leaf holding the current pair, or null when done.
+     */
+    protected BTree.Leaf leaf;
+    /**
+     * The index of the current pair within its leaf.
+     */
+    protected int index;
+
+    /**
+     * Construct an iterator over the pairs of a map with keys k
+     * satisfying lo <= k < hi.  A null bound leaves that end open.
+     *
+     * @post constructs an iterator over the range
+     *
+     * @param tree The map to be traversed.
+     * @param lo The least key to be visited, or null.
+     * @param hi The bound above the keys to be visited, or null.
+     */
+    public BTreeIterator(BTree tree, Object lo, Object hi)
+    {
+        this.tree = tree;
+        this.lo = lo;
+        this.hi = hi;
+        reset();
+    }
+
+    /**
+     * Resets the iterator to the first pair of the range.
+     *
+     * @post resets iterator to the least key of the range
+     */
+    public void reset()
+    {
+        if (lo == null)
+        {
+            leaf = tree.firstLeaf();
+            index = 0;
+        } else {
+            leaf = tree.leafFor(lo);
+            index = tree.keyIndex(leaf, lo);
+        }
+        skipEmpty();
+    }
+
+    /**
+     * @post leaf and index refer to a pair, or leaf is null
+     */
+    protected void skipEmpty()
+    {
+        while (leaf != null && index == leaf.n)
+        {
+            leaf = leaf.next;
+            index = 0;
+        }
+    }
+
+    /**
+     * Returns true iff there are unconsidered pairs within the range.
+     *
+     * @post returns true if there are unvisited elements
+     *
+     * @return True iff there are elements yet to be considered.
+     */
+    public boolean hasNext()
+    {
+        if (leaf == null) return false;
+        return hi == null || tree.ordering.compare(leaf.keys[index], hi) < 0;
+    }
+
+    /**
+     * Returns current pair and increments iterator.
+     *
+     * @pre hasNext()
+     * @post returns current element, increments iterator
+     *
+     * @return The current Association, before incrementing.
+     */
+    public Object next()
+    {
+        Object result = get();
+        index++;
+        skipEmpty();
+        return result;
+    }
+
+    /**
+     * Get current pair of iterator.
+     *
+     * @pre hasNext()
+     * @post returns current element
+     *
+     * @return The current Association.
+     */
+    public Object get()
+    {
+        return new Association(leaf.keys[index], leaf.values[index]);
+    }
+}
@@ -8,6 +8,14 @@ import java.util.Iterator;
  * recursive structure.  Relationships between nodes are 
  * doubly linked, with parent and child references.  Many characteristics
  * of trees may be detected with static methods.
+ * <P>
+ * By default, shape queries like {@link #size()} and {@link #height()}
+ * examine the whole subtree.  A tree that is queried often may be
+ * {@link #augment() augmented}: each node then caches the size and
+ * height of its subtree, maintained as subtrees are attached with
+ * {@link #setLeft(BinaryTree)} and {@link #setRight(BinaryTree)}, or
+ * rotated.  Queries take constant time, while attaching a subtree takes
+ * time proportional to the depth of the node.
  *
  * @version $Id: BinaryTree.java 34 2007-08-09 14:43:44Z bailey $
  * @author, 2001 duane a. bailey
@@ -28,6 +36,14 @@ public class BinaryTree<E>
      * The left child of this node, or an "empty" node
      */
     protected BinaryTree<E> left, right; // children of node
+    /**
+     * True iff this node caches the shape of its subtree
+     */
+    protected boolean augmented;
+    /**
+     * The size and height of the subtree, when augmented
+     */
+    protected int cachedSize, cachedHeight;
 
     /**
      * A one-time constructor, for constructing empty trees.
@@ -60,7 +76,8 @@ public class BinaryTree<E>
 
     /**
      * Constructs a tree node with two children.  Value of the node
-     * and subtrees are provided by the user.
+     * and subtrees are provided by the user.  The node is augmented
+     * if either subtree is augmented.
      *
      * @post Returns a tree referencing value and two subtrees
      * @param value A (possibly null) value to be referenced by node
@@ -72,9 +89,16 @@ public class BinaryTree<E>
         Assert.pre(value != null, "Tree values must be non-null.");
         val = value;
         if (left == null) { left = new BinaryTree<E>(); }
-        setLeft(left);
         if (right == null) { right = new BinaryTree<E>(); }
+        setLeft(left);
         setRight(right);
+        if (left.augmented || right.augmented)
+        {
+            left.augment();
+            right.augment();
+            augmented = true;
+            update();
+        }
     }
 
     /**
@@ -128,6 +152,11 @@ public class BinaryTree<E>
         if (left != null && left.parent() == this) left.setParent(null);
         left = newLeft;
         left.setParent(this);
+        if (augmented)
+        {
+            left.augment();
+            update();
+        }
     }
 
     /**
@@ -145,6 +174,11 @@ public class BinaryTree<E>
         if (right != null && right.parent() == this) right.setParent(null);
         right = newRight;
         right.setParent(this);
+        if (augmented)
+        {
+            right.augment();
+            update();
+        }
     }
 
     /**
@@ -161,6 +195,57 @@ public class BinaryTree<E>
         }
     }
 
+    /**
+     * Make this subtree cache its shape.  Every node of the subtree
+     * records the size and height of its own subtree, and keeps them
+     * current as the tree is changed.  Subtrees later attached to
+     * augmented nodes are augmented, as well.
+     *
+     * @post every node of the subtree is augmented
+     */
+    public void augment()
+    {
+        if (isEmpty() || augmented) return;
+        // children are augmented before their parents
+        for (BinaryTree<E> n = firstPostorder(); n != null; n = n.postorderSuccessor(this))
+        {
+            n.augmented = true;
+            n.cachedSize = n.left.size() + n.right.size() + 1;
+            n.cachedHeight = 1 + Math.max(n.left.height(), n.right.height());
+        }
+    }
+
+    /**
+     * Determine if this node caches the shape of its subtree.
+     *
+     * @post Returns true iff the node is augmented
+     * @return True iff size and height are answered in constant time
+     */
+    public boolean isAugmented()
+    {
+        return augmented;
+    }
+
+    /**
+     * Recompute the cached shape of this node and its ancestors, after
+     * a child has changed.  Ancestors whose shape is unchanged are not
+     * visited.
+     *
+     * @pre the children of this node are up to date
+     * @post the augmented nodes from this node to the root are up to date
+     */
+    protected void update()
+    {
+        for (BinaryTree<E> n = this; n != null && n.augmented; n = n.parent)
+        {
+            int size = n.left.size() + n.right.size() + 1;
+            int height = 1 + Math.max(n.left.height(), n.right.height());
+            if (size == n.cachedSize && height == n.cachedHeight) return;
+            n.cachedSize = size;
+            n.cachedHeight = height;
+        }
+    }
+
     /**
      * Returns the number of descendants of node
      *
@@ -170,6 +255,7 @@ public class BinaryTree<E>
     public int size()
     {
         if (isEmpty()) return 0;
+        if (augmented) return cachedSize;
         return left().size() + right().size() + 1;
     }
 
@@ -181,8 +267,9 @@ public class BinaryTree<E>
      */
     public BinaryTree<E> root()
     {
-        if (parent() == null) return this;
-        else return parent().root();
+        BinaryTree<E> n = this;
+        while (n.parent() != null) n = n.parent();
+        return n;
     }
 
     /**
@@ -195,6 +282,7 @@ public class BinaryTree<E>
     public int height()
     {
         if (isEmpty()) return -1;
+        if (augmented) return cachedHeight;
         return 1 + Math.max(left.height(),right.height());
     }
 
@@ -207,8 +295,9 @@ public class BinaryTree<E>
      */
     public int depth()
     {
-        if (parent() == null) return 0;
-        return 1 + parent.depth();
+        int result = 0;
+        for (BinaryTree<E> n = parent(); n != null; n = n.parent()) result++;
+        return result;
     }
 
     /**
@@ -221,8 +310,9 @@ public class BinaryTree<E>
     public boolean isFull()
     {
         if (isEmpty()) return true;
-        if (left().height() != right().height()) return false;
-        return left().isFull() && right().isFull();
+        // a full tree of height h has 2^(h+1)-1 nodes
+        int height = height();
+        return height < 31 && size() == (1 << (height+1)) - 1;
     }
 
     /**
@@ -244,23 +334,16 @@ public class BinaryTree<E>
      */
     public boolean isComplete()
     {
-        int leftHeight, rightHeight;
-        boolean leftIsFull, rightIsFull;
-        boolean leftIsComplete, rightIsComplete;
         if (isEmpty()) return true;
-        leftHeight = left().height();
-        rightHeight = right().height();
-        leftIsFull = left().isFull();
-        rightIsFull = right().isFull();
-        leftIsComplete = left().isComplete();
-        rightIsComplete = right().isComplete();
+        int leftHeight = left().height();
+        int rightHeight = right().height();
 
         // case 1: left is full, right is complete, heights same
-        if (leftIsFull && rightIsComplete &&
-            (leftHeight == rightHeight)) return true;
+        if (leftHeight == rightHeight)
+            return left().isFull() && right().isComplete();
         // case 2: left is complete, right is full, heights differ
-        if (leftIsComplete && rightIsFull &&
-            (leftHeight == (rightHeight + 1))) return true;
+        if (leftHeight == rightHeight + 1)
+            return left().isComplete() && right().isFull();
         return false;
     }
 
@@ -274,9 +357,21 @@ public class BinaryTree<E>
      */
     public boolean isBalanced()
     {
-        if (isEmpty()) return true;
-        return (Math.abs(left().height()-right().height()) <= 1) &&
-               left().isBalanced() && right().isBalanced();
+        return balancedHeight() != -2;
+    }
+
+    /**
+     * @post Returns the height of the subtree if it is balanced, or -2;
+     *       each node is considered once
+     */
+    private int balancedHeight()
+    {
+        if (isEmpty()) return -1;
+        int leftHeight = left().balancedHeight();
+        if (leftHeight == -2) return -2;
+        int rightHeight = right().balancedHeight();
+        if (rightHeight == -2 || Math.abs(leftHeight-rightHeight) > 1) return -2;
+        return 1 + Math.max(leftHeight, rightHeight);
     }
 
     /**
@@ -385,6 +480,207 @@ public class BinaryTree<E>
         val = value;
     }
 
+    /**
+     * Generate an in-order iterator of subtree
+     *
+     * @post Returns an in-order iterator of the elements
+     * @return In-order iterator on the subtree rooted at this node
+     */
+    public Iterator<E> iterator()
+    {
+        return inorderIterator();
+    }
+
+    /**
+     * Return an iterator to traverse nodes of subtree in pre-order.
+     * The iterator keeps its state in an array stack no deeper than
+     * the subtree is high.
+     *
+     * @post The elements of the binary tree rooted at node are
+     *       traversed in preorder
+     * @return AbstractIterator to traverse subtree in preorder
+     */
+    @SuppressWarnings("unchecked")
+    public Iterator<E> preorderIterator()
+    {
+        return new BTPreorderIterator(this);
+    }
+
+    /**
+     * Return an iterator to traverse the elements of subtree in-order
+     *
+     * @post The elements of the binary tree rooted at node are
+     *       traversed in in-order
+     * @return AbstractIterator to traverse subtree in in-order
+     */
+    @SuppressWarnings("unchecked")
+    public Iterator<E> inorderIterator()
+    {
+        return new BTInorderIterator(this);
+    }
+
+    /**
+     * Return an iterator to traverse the elements of subtree in post-order
+     *
+     * @post The elements of the binary tree rooted at node are
+     *       traversed in postorder
+     * @return AbstractIterator to traverse subtree in postorder
+     */
+    @SuppressWarnings("unchecked")
+    public Iterator<E> postorderIterator()
+    {
+        return new BTPostorderIterator(this);
+    }
+
+    /**
+     * Method to return a level-order iterator of subtree
+     *
+     * @post The elements of the binary tree rooted at node are
+     *       traversed in levelorder
+     * @return An iterator to traverse subtree in level-order
+     */
+    @SuppressWarnings("unchecked")
+    public Iterator<E> levelorderIterator()
+    {
+        return new BTLevelorderIterator(this);
+    }
+
+    /**
+     * Hand each value of the subtree to a visitor, in pre-order.
+     * The traversal follows parent references instead of keeping a
+     * stack, so it allocates nothing.  The tree must not be
+     * restructured by the visitor.
+     *
+     * @pre visitor is non-null
+     * @post visits the values of the subtree in pre-order
+     *
+     * @param visitor The visitor handed each value.
+     */
+    public void preorder(Visitor<? super E> visitor)
+    {
+        if (isEmpty()) return;
+        for (BinaryTree<E> n = this; n != null; n = n.preorderSuccessor(this))
+        {
+            visitor.visit(n.val);
+        }
+    }
+
+    /**
+     * Hand each value of the subtree to a visitor, in-order.
+     * The traversal follows parent references instead of keeping a
+     * stack, so it allocates nothing.  The tree must not be
+     * restructured by the visitor.
+     *
+     * @pre visitor is non-null
+     * @post visits the values of the subtree in-order
+     *
+     * @param visitor The visitor handed each value.
+     */
+    public void inorder(Visitor<? super E> visitor)
+    {
+        if (isEmpty()) return;
+        for (BinaryTree<E> n = leftmost(); n != null; n = n.inorderSuccessor(this))
+        {
+            visitor.visit(n.val);
+        }
+    }
+
+    /**
+     * Hand each value of the subtree to a visitor, in post-order.
+     * The traversal follows parent references instead of keeping a
+     * stack, so it allocates nothing.  The tree must not be
+     * restructured by the visitor.
+     *
+     * @pre visitor is non-null
+     * @post visits the values of the subtree in post-order
+     *
+     * @param visitor The visitor handed each value.
+     */
+    public void postorder(Visitor<? super E> visitor)
+    {
+        if (isEmpty()) return;
+        for (BinaryTree<E> n = firstPostorder(); n != null; n = n.postorderSuccessor(this))
+        {
+            visitor.visit(n.val);
+        }
+    }
+
+    /**
+     * @pre this node is not empty
+     * @post returns the node following this one in a pre-order
+     *       traversal of the subtree rooted at top, or null
+     */
+    private BinaryTree<E> preorderSuccessor(BinaryTree<E> top)
+    {
+        if (!left.isEmpty()) return left;
+        if (!right.isEmpty()) return right;
+        BinaryTree<E> n = this;
+        while (n != top)
+        {
+            BinaryTree<E> p = n.parent;
+            if (n == p.left && !p.right.isEmpty()) return p.right;
+            n = p;
+        }
+        return null;
+    }
+
+    /**
+     * @pre this node is not empty
+     * @post returns the node following this one in an in-order
+     *       traversal of the subtree rooted at top, or null
+     */
+    private BinaryTree<E> inorderSuccessor(BinaryTree<E> top)
+    {
+        if (!right.isEmpty()) return right.leftmost();
+        BinaryTree<E> n = this;
+        while (n != top)
+        {
+            BinaryTree<E> p = n.parent;
+            if (n == p.left) return p;
+            n = p;
+        }
+        return null;
+    }
+
+    /**
+     * @pre this node is not empty
+     * @post returns the node following this one in a post-order
+     *       traversal of the subtree rooted at top, or null
+     */
+    private BinaryTree<E> postorderSuccessor(BinaryTree<E> top)
+    {
+        if (this == top) return null;
+        BinaryTree<E> p = parent;
+        if (this == p.left && !p.right.isEmpty()) return p.right.firstPostorder();
+        return p;
+    }
+
+    /**
+     * @pre this node is not empty
+     * @post returns the leftmost descendant of this node
+     */
+    private BinaryTree<E> leftmost()
+    {
+        BinaryTree<E> n = this;
+        while (!n.left.isEmpty()) n = n.left;
+        return n;
+    }
+
+    /**
+     * @pre this node is not empty
+     * @post returns the first node of this subtree in post-order
+     */
+    private BinaryTree<E> firstPostorder()
+    {
+        BinaryTree<E> n = this;
+        while (true)
+        {
+            if (!n.left.isEmpty()) n = n.left;
+            else if (!n.right.isEmpty()) n = n.right;
+            else return n;
+        }
+    }
+
     /**
      * @post return sum of hashcodes of the contained values
      */
@@ -451,4 +747,4 @@ public class BinaryTree<E>
         s.append('>');
         return s.toString();
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -2,12 +2,19 @@
 // (c) 1998, 2001 duane a. bailey
 
 package structure;
+import java.util.Arrays;
 
 /**
  * Implementation of a set of numbered bits.  This class's interface
  * differs from the {@link structure.Set}, {@link java.util.Bitset},
  * and {@link java.util.Set} interfaces, so care must be taken to
  * invoke the proper methods. 
+ * <P>
+ * Bits are packed 64 to a <code>long</code> word.  Besides the set
+ * operations that construct new sets, the set may be updated in place
+ * ({@link #addAll(BitSet)}, {@link #retainAll(BitSet)},
+ * {@link #removeAll(BitSet)}) without allocation.  Counting members and
+ * finding the next member examine a word at a time.
  *
  * @version $Id: BitSet.java,v 4.0 2000/12/27 21:21:47 bailey Exp bailey $
  * @author, 2001 duane a. bailey
@@ -17,19 +24,23 @@ package structure;
 public class BitSet
 {
     /**
-     * The number of bits contained in a single integer.
+     * The number of bits contained in a single word.
      */
-    protected final int bitsPerInt = 32;
+    protected static final int bitsPerWord = 64;
+    /**
+     * log2(bitsPerWord): the shift that converts bit numbers to word indices.
+     */
+    protected static final int wordShift = 6;
     /**
      * The initial capacity of the set, by default.
      */
     protected final int initialCapacity = 256;
     /**
-     * The array of integers that contains the set's bits
+     * The array of words that contains the set's bits
      */
-    protected int data[];
+    protected long data[];
     /**
-     * The current number of integers allocated.
+     * The current number of words allocated.
      */
     protected int allocated;
 
@@ -70,7 +81,7 @@ public class BitSet
 	extend(i);
 	int index = indexOf(i);
 	int offset = offsetOf(i);
-	data[index] |= 1<<offset;
+	data[index] |= 1L<<offset;
     }
 
     /**
@@ -86,7 +97,7 @@ public class BitSet
 	if (probe(i)) {
 	    int index = indexOf(i);
 	    int offset = offsetOf(i);
-	    data[index] &= ~(1<<offset);
+	    data[index] &= ~(1L<<offset);
 	}
     }
     /**
@@ -100,7 +111,101 @@ public class BitSet
      */
     public boolean contains(int i)
     {
-	return probe(i) && (0 != (data[indexOf(i)] & (1<<offsetOf(i))));
+	return probe(i) && (0 != (data[indexOf(i)] & (1L<<offsetOf(i))));
+    }
+
+    /**
+     * Adds the bits from..to-1 to the set.
+     * Set is potentially extended.
+     *
+     * @pre 0 <= from <= to
+     * @post from..to-1 are added to the set
+     * 
+     * @param from The first bit to be added.
+     * @param to One more than the last bit to be added.
+     */
+    public void addRange(int from, int to)
+    {
+	Assert.pre(0 <= from && from <= to, "Range must be non-negative and ordered.");
+	if (from == to) return;
+	extend(to-1);
+	int first = indexOf(from);
+	int last = indexOf(to-1);
+	long firstMask = -1L << from;       // shifts use only the low six bits
+	long lastMask = -1L >>> -to;
+	if (first == last) {
+	    data[first] |= firstMask & lastMask;
+	    return;
+	}
+	data[first] |= firstMask;
+	for (int i = first+1; i < last; i++) data[i] = -1L;
+	data[last] |= lastMask;
+    }
+
+    /**
+     * Removes the bits from..to-1 from the set.
+     *
+     * @pre 0 <= from <= to
+     * @post from..to-1 are removed from the set
+     * 
+     * @param from The first bit to be removed.
+     * @param to One more than the last bit to be removed.
+     */
+    public void removeRange(int from, int to)
+    {
+	Assert.pre(0 <= from && from <= to, "Range must be non-negative and ordered.");
+	if (from == to || !probe(from)) return;
+	if (!probe(to-1)) to = allocated*bitsPerWord;
+	int first = indexOf(from);
+	int last = indexOf(to-1);
+	long firstMask = -1L << from;
+	long lastMask = -1L >>> -to;
+	if (first == last) {
+	    data[first] &= ~(firstMask & lastMask);
+	    return;
+	}
+	data[first] &= ~firstMask;
+	for (int i = first+1; i < last; i++) data[i] = 0;
+	data[last] &= ~lastMask;
+    }
+
+    /**
+     * Find the smallest member of the set that is at least from.
+     *
+     * @pre from >= 0
+     * @post returns the least i >= from in the set, or -1 if none
+     * 
+     * @param from The bit at which to start searching.
+     * @return The next member of the set, or -1.
+     */
+    public int nextSetBit(int from)
+    {
+	Assert.pre(from >= 0, "Bit index must be non-negative.");
+	int index = indexOf(from);
+	if (index >= allocated) return -1;
+	long word = data[index] & (-1L << from);
+	while (word == 0) {
+	    if (++index == allocated) return -1;
+	    word = data[index];
+	}
+	return index*bitsPerWord + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Count the members of the set.
+     *
+     * @post returns the number of bits in the set
+     * 
+     * @return The number of elements of the set.
+     */
+    public int cardinality()
+    {
+	int result = 0;
+	for (int i = 0; i < allocated; i++)
+	{
+	    result += Long.bitCount(data[i]);
+	}
+	return result;
     }
 
     /**
@@ -122,13 +227,8 @@ public class BitSet
      */
     public void clear(int count)
     {
-	int i;
-	allocated = (count+bitsPerInt-1)/bitsPerInt;
-	data = new int[allocated];
-	for (i = 0; i < allocated; i++)
-	{
-	    data[i] = 0;
-	}
+	allocated = Math.max(1,(count+bitsPerWord-1)/bitsPerWord);
+	data = new long[allocated];
     }
 
     /**
@@ -140,12 +240,8 @@ public class BitSet
      */
     public Object clone()
     {
-	BitSet duplicate = new BitSet(allocated*bitsPerInt);
-	int i;
-	for (i = 0; i < allocated; i++)
-	{
-	    duplicate.data[i] = data[i];
-	}
+	BitSet duplicate = new BitSet(allocated*bitsPerWord);
+	System.arraycopy(data,0,duplicate.data,0,allocated);
 	return duplicate;
     }
 
@@ -161,20 +257,28 @@ public class BitSet
      */
     public Object union(BitSet other)
     {
-	int leftSize = allocated;
+	BitSet result = (BitSet)clone();
+	result.addAll(other);
+	return result;
+    }
+
+    /**
+     * Add the elements of other to this set, in place.
+     *
+     * @pre other is non-null
+     * @post this set contains its elements and those of other
+     * 
+     * @param other The set to be unioned into this.
+     */
+    public void addAll(BitSet other)
+    {
 	int rightSize = other.allocated;
-        if (leftSize < rightSize) return other.union(this);
-	BitSet result = new BitSet(leftSize*bitsPerInt);
-	int i;
-	for (i = 0; i < rightSize; i++)
-	{
-	    result.data[i] = data[i] | other.data[i];
-	}
-	for (;i < leftSize; i++)
+	while (rightSize > 0 && other.data[rightSize-1] == 0) rightSize--;
+	if (rightSize > allocated) extend(rightSize*bitsPerWord-1);
+	for (int i = 0; i < rightSize; i++)
 	{
-	    result.data[i] = data[i];
+	    data[i] |= other.data[i];
 	}
-	return result;
     }
 
     /**
@@ -191,7 +295,7 @@ public class BitSet
 	int leftSize = allocated;
 	int rightSize = other.allocated;
         if (leftSize < rightSize) return other.intersection(this);
-	BitSet result = new BitSet(rightSize*bitsPerInt);
+	BitSet result = new BitSet(rightSize*bitsPerWord);
 	int i;
 	for (i = 0; i < rightSize; i++)
 	{
@@ -200,6 +304,28 @@ public class BitSet
 	return result;
     }
 
+    /**
+     * Remove from this set, in place, the elements not in other.
+     *
+     * @pre other is non-null
+     * @post this set contains only elements also found in other
+     * 
+     * @param other The set to be intersected with this.
+     */
+    public void retainAll(BitSet other)
+    {
+	int common = Math.min(allocated, other.allocated);
+	int i;
+	for (i = 0; i < common; i++)
+	{
+	    data[i] &= other.data[i];
+	}
+	for (; i < allocated; i++)
+	{
+	    data[i] = 0;
+	}
+    }
+
     /**
      * Computes the difference between this set and the other.
      * An element is in the difference if it is in this, but not in other.
@@ -211,28 +337,28 @@ public class BitSet
      */
     public Object difference(BitSet other)
     {
-	int leftSize = allocated;
-	int rightSize = other.allocated;
-	BitSet result = new BitSet(leftSize*bitsPerInt);
-	int i;
-	if (leftSize <= rightSize) {
-	    for (i = 0; i < leftSize; i++)
-	    {
-		result.data[i] = data[i] & ~other.data[i];
-	    }
-	} else {
-	    for (i = 0; i < rightSize; i++)
-	    {
-		result.data[i] = data[i] & ~other.data[i];
-	    }
-	    for (i = rightSize; i < leftSize; i++)
-	    {
-		result.data[i] = data[i];
-	    }
-	}
+	BitSet result = (BitSet)clone();
+	result.removeAll(other);
 	return result;
     }
 
+    /**
+     * Remove from this set, in place, the elements of other.
+     *
+     * @pre other is non-null
+     * @post this set contains only elements not found in other
+     * 
+     * @param other The set whose elements are removed from this.
+     */
+    public void removeAll(BitSet other)
+    {
+	int common = Math.min(allocated, other.allocated);
+	for (int i = 0; i < common; i++)
+	{
+	    data[i] &= ~other.data[i];
+	}
+    }
+
     /**
      * Returns true iff this set is a subset of the other.
      * A set is a subset of another if its elements are elements
@@ -308,21 +434,38 @@ public class BitSet
 	return true;
     }
 
+    /**
+     * Compute a hash code consistent with equals: trailing empty words
+     * do not contribute.
+     *
+     * @post returns a hash code for the set
+     * 
+     * @return A hash code for this set.
+     */
+    public int hashCode()
+    {
+	long h = 1234;
+	for (int i = allocated; --i >= 0; ) {
+	    h ^= data[i] * (i + 1);
+	}
+	return (int)((h >> 32) ^ h);
+    }
+
     /**
      * Determine the int index associated with a bit number.
      *
      * @pre bit >= 0
-     * @post returns index of integer containing bit b
+     * @post returns index of word containing bit b
      * 
      * @return the index in array of bit b.
      */
     protected int indexOf(int b)
     {
-	return b/bitsPerInt;
+	return b >>> wordShift;
     }	
 
     /**
-     * Return the bit index within the associated int of bit "bit"
+     * Return the bit index within the associated word of bit "bit"
      *
      * @pre bit >= 0
      * @post returns bit position of bit in word
@@ -332,7 +475,7 @@ public class BitSet
      */
     protected int offsetOf(int bit)
     {
-	return bit%bitsPerInt;
+	return bit & (bitsPerWord-1);
     }
 
     /**
@@ -345,18 +488,9 @@ public class BitSet
     {
 	if (!probe(bit)) {
 	    int index = indexOf(bit);
-	    int newData[];
 	    int newAllocated = allocated;
-	    int i;
 	    while (newAllocated <= index) newAllocated *= 2;
-	    newData = new int[newAllocated];
-	    for (i = 0; i < allocated; i++) {
-		newData[i] = data[i];
-	    }
-	    for (i = allocated; i < newAllocated; i++) {
-		newData[i] = 0;
-	    }
-	    data = newData;
+	    data = Arrays.copyOf(data,newAllocated);
 	    allocated = newAllocated;
 	}
     }
@@ -389,8 +523,9 @@ public class BitSet
 	StringBuffer s = new StringBuffer();
 	int i;
 	s.append("<BitSet:");
-	for (i = 0; probe(i); i++) {
-	    if (contains(i)) s.append(" "+Integer.toString(i));
+	for (i = nextSetBit(0); i >= 0; i = nextSetBit(i+1)) {
+	    s.append(" "+Integer.toString(i));
+	    if (i == Integer.MAX_VALUE) break; // i+1 would overflow
 	}
 	s.append(">");
 	return s.toString();
@@ -5,12 +5,19 @@
 package structure;
 import java.util.Iterator;
 import java.lang.Math;
+import java.util.Arrays;
 /**
  * This class implements a hash table whose collisions are resolved
  * through external chaining.  Values used as keys in this structure
  * must have a hashcode method that returns the same value when two
  * keys are "equals".  Initially, a hash table of suggested size is
- * allocated.
+ * allocated.  It will be expanded as the load factor (ratio of
+ * pairs to chains) grows.
+ * <P>
+ * Chains are not built from list elements.  Keys, values and cached
+ * hash codes live in parallel arrays indexed by entry number, and each
+ * chain is threaded through an array of entry indices.  Storing a pair
+ * allocates no objects beyond occasional array growth.
  * <P>
  * Example Usage:
  * <P>
@@ -40,17 +47,42 @@ import java.lang.Math;
 public class ChainedHashtable extends AbstractMap implements Map
 {
     /**
-     * The array of chains used to store values.
+     * Marks the end of a chain, or an empty bucket.
+     */
+    protected static final int NONE = -1;
+    /**
+     * For each bucket, the index of the first entry in its chain.
+     */
+    protected int buckets[];
+    /**
+     * For each entry, the index of the next entry in its chain.
+     */
+    protected int next[];
+    /**
+     * For each entry, the hash code of its key.
      */
-    protected List data[];
+    protected int hashes[];
+    /**
+     * For each entry, its key.
+     */
+    protected Object keys[];
+    /**
+     * For each entry, its value.
+     */
+    protected Object values[];
     /**
      * The number of key-value pairs stored within the table.
+     * Entries occupy indices 0 through count-1 of the entry arrays.
      */
     protected int count;
     /**
-     * The length of the table.
+     * The number of chains in the table.
      */
     protected int capacity;
+    /**
+     * Load factor that causes rehashing of the table.
+     */
+    protected final double loadFactor = 0.75;
 
     /**
      * Constructs a hashtable with capacity for at size elements
@@ -63,9 +95,16 @@ public class ChainedHashtable extends AbstractMap implements Map
      */
     public ChainedHashtable(int size)
     {
-    	data = new List[size];
-    	capacity = size;
-    	count = 0;
+	Assert.pre(size > 0, "Table size must be positive.");
+	capacity = size;
+	buckets = new int[size];
+	Arrays.fill(buckets,NONE);
+	int entries = Math.max(4,(int)(size*loadFactor));
+	next = new int[entries];
+	hashes = new int[entries];
+	keys = new Object[entries];
+	values = new Object[entries];
+	count = 0;
     }
 
     /**
@@ -85,10 +124,9 @@ public class ChainedHashtable extends AbstractMap implements Map
      */
     public void clear()
     {
-	int i;
-	for (i = 0; i < capacity; i++) {
-	    data[i].clear();
-	}
+	Arrays.fill(buckets,NONE);
+	Arrays.fill(keys,0,count,null);
+	Arrays.fill(values,0,count,null);
 	count = 0;
     }
 
@@ -116,11 +154,28 @@ public class ChainedHashtable extends AbstractMap implements Map
 	return size() == 0;
     }
 
-    protected List locate(Object key)
+    /**
+     * @post returns the chain that holds entries with hash code h
+     */
+    protected int bucket(int h)
     {
-	int hash = Math.abs(key.hashCode() % capacity);
-	if (data[hash] == null) data[hash] = new SinglyLinkedList();
-	return data[hash];
+	return (h & 0x7fffffff) % capacity;
+    }
+
+    /**
+     * Find the entry that holds a key.
+     *
+     * @pre key is non-null
+     * @post returns the index of key's entry, or NONE if absent
+     */
+    protected int locate(Object key)
+    {
+	int h = key.hashCode();
+	for (int i = buckets[bucket(h)]; i != NONE; i = next[i])
+	{
+	    if (hashes[i] == h && key.equals(keys[i])) return i;
+	}
+	return NONE;
     }
 
     /**
@@ -134,11 +189,9 @@ public class ChainedHashtable extends AbstractMap implements Map
      */
     public boolean containsValue(Object value)
     {
-	Iterator elements = iterator();
-
-	while (elements.hasNext())
+	for (int i = 0; i < count; i++)
 	{
-	    if (value.equals(elements.next())) return true;
+	    if (value.equals(values[i])) return true;
 	}
 	return false;
     }
@@ -154,8 +207,7 @@ public class ChainedHashtable extends AbstractMap implements Map
      */
     public boolean containsKey(Object key)
     {
-	List l = locate(key);
-	return l.contains(new Association(key,null));
+	return locate(key) != NONE;
     }
 
     /**
@@ -168,13 +220,13 @@ public class ChainedHashtable extends AbstractMap implements Map
      */
     public Iterator iterator()
     {
-    	return new ValueIterator(new ChainedHashtableIterator(data));
+    	return new ValueIterator(new ChainedHashtableIterator(this));
     }
 
     public Set keySet()
     {
 	Set result = new SetList();
-	Iterator i = new KeyIterator(new ChainedHashtableIterator(data));
+	Iterator i = new KeyIterator(new ChainedHashtableIterator(this));
 	while (i.hasNext())
 	{
 	    result.add(i.next());
@@ -185,7 +237,7 @@ public class ChainedHashtable extends AbstractMap implements Map
     public Set entrySet()
     {
 	Set result = new SetList();
-	Iterator i = new ChainedHashtableIterator(data);
+	Iterator i = new ChainedHashtableIterator(this);
 	while (i.hasNext())
 	{
 	    result.add(i.next());
@@ -196,10 +248,9 @@ public class ChainedHashtable extends AbstractMap implements Map
     public Structure values()
     {
 	List result = new SinglyLinkedList();
-	Iterator i = new ValueIterator(new ChainedHashtableIterator(data));
-	while (i.hasNext())
+	for (int i = 0; i < count; i++)
 	{
-	    result.add(i.next());
+	    result.add(values[i]);
 	}
 	return result;
     }
@@ -216,11 +267,8 @@ public class ChainedHashtable extends AbstractMap implements Map
      */
     public Object get(Object key)
     {
-	List l = locate(key);
-	Association a = (Association)l.remove(new Association(key,null));
-	if (a == null) return null;
-	l.addFirst(a);
-	return a.getValue();
+	int i = locate(key);
+	return i == NONE ? null : values[i];
     }
 
     /**
@@ -232,7 +280,7 @@ public class ChainedHashtable extends AbstractMap implements Map
      */
     public Iterator keys()
     {
-    	return new KeyIterator(new ChainedHashtableIterator(data));
+    	return new KeyIterator(new ChainedHashtableIterator(this));
     }
 
     /**
@@ -247,23 +295,29 @@ public class ChainedHashtable extends AbstractMap implements Map
      */
     public Object put(Object key, Object value)
     {
-	List l = locate(key);
-	Association newa = new Association(key,value);
-	Association olda = (Association)l.remove(newa);
-	l.addFirst(newa);
-	if (olda != null)
-	{
-	    return olda.getValue();
-	}
-	else
+	int i = locate(key);
+	if (i != NONE)
 	{
-	    count++;
-	    return null;
+	    Object oldValue = values[i];
+	    values[i] = value;
+	    return oldValue;
 	}
+	if (loadFactor*capacity <= (1+count)) extend();
+	if (count == keys.length) ensureEntries(2*count);
+	int h = key.hashCode();
+	int b = bucket(h);
+	hashes[count] = h;
+	keys[count] = key;
+	values[count] = value;
+	next[count] = buckets[b];
+	buckets[b] = count;
+	count++;
+	return null;
     }
 
     /**
-     * Remove a key-value pair from the table.
+     * Remove a key-value pair from the table.  The last entry is moved
+     * into the vacated slot so that entries remain contiguous.
      *
      * @pre key is non-null object
      * @post removes key-value pair associated with key
@@ -273,11 +327,77 @@ public class ChainedHashtable extends AbstractMap implements Map
      */
     public Object remove(Object key)
     {
-	List l = locate(key);
-	Association pair = (Association)l.remove(new Association(key,null));
-	if (pair == null) return null;
-	count--;
-	return pair.getValue();
+	int h = key.hashCode();
+	int b = bucket(h);
+	int prev = NONE;
+	int i = buckets[b];
+	while (i != NONE && !(hashes[i] == h && key.equals(keys[i])))
+	{
+	    prev = i;
+	    i = next[i];
+	}
+	if (i == NONE) return null;
+	Object oldValue = values[i];
+	unlink(b,prev,i);
+	int last = --count;
+	if (i != last)
+	{   // move last entry into the hole, redirecting its predecessor
+	    int lb = bucket(hashes[last]);
+	    if (buckets[lb] == last) buckets[lb] = i;
+	    else
+	    {
+		int p = buckets[lb];
+		while (next[p] != last) p = next[p];
+		next[p] = i;
+	    }
+	    hashes[i] = hashes[last];
+	    keys[i] = keys[last];
+	    values[i] = values[last];
+	    next[i] = next[last];
+	}
+	keys[last] = null;
+	values[last] = null;
+	return oldValue;
+    }
+
+    /**
+     * @pre prev is NONE or the entry preceding i in chain b
+     * @post entry i is removed from chain b
+     */
+    protected void unlink(int b, int prev, int i)
+    {
+	if (prev == NONE) buckets[b] = next[i];
+	else next[prev] = next[i];
+    }
+
+    /**
+     * @post the entry arrays can hold at least n entries
+     */
+    protected void ensureEntries(int n)
+    {
+	if (n <= keys.length) return;
+	next = Arrays.copyOf(next,n);
+	hashes = Arrays.copyOf(hashes,n);
+	keys = Arrays.copyOf(keys,n);
+	values = Arrays.copyOf(values,n);
+    }
+
+    /**
+     * @post expands the hashtable to reduce loading
+     */
+    protected void extend()
+    {
+	capacity = capacity*2+1;
+	buckets = new int[capacity];
+	Arrays.fill(buckets,NONE);
+	// cached hash codes let us rethread chains without calling hashCode
+	for (int i = 0; i < count; i++)
+	{
+	    int b = bucket(hashes[i]);
+	    next[i] = buckets[b];
+	    buckets[b] = i;
+	}
+	ensureEntries((int)(capacity*loadFactor)+1);
     }
 
     /**
@@ -290,13 +410,11 @@ public class ChainedHashtable extends AbstractMap implements Map
     public String toString()
     {
 	StringBuffer s = new StringBuffer();
-	int i;
 
 	s.append("<ChainedHashtable:");
-	Iterator hi = new ChainedHashtableIterator(data);
-	while (hi.hasNext()) {
-	    Association a = (Association)hi.next();
-	    s.append(" "+a.getKey()+"="+a.getValue());
+	for (int i = 0; i < count; i++)
+	{
+	    s.append(" "+keys[i]+"="+values[i]);
 	}
 	s.append(">");
 	return s.toString();
@@ -1,18 +1,18 @@
 package structure;
-import java.util.Iterator;
 
 /**
  * A traversal of all the elements as they appear in a chained hashtable.
  * No order is guaranteed.  This iterator is not publically accessable
  * and is used to implement ChainedHashtable's key and value iterators.
- * This iteration returns objects that are instances of {@link Association}.
+ * This iteration returns objects that are instances of {@link Association};
+ * they are built on demand from the table's entry arrays.
  * <P>
  * Typical use:
  * <P>
  * <pre>
  *      ChainedHashtable h = new ChainedHashtable();
  *      // ...hashtable gets built up...
- *      Iterator hi = new {@link #ChainedHashtableIterator(List[]) ChainedHashtableIterator(h.data)};
+ *      Iterator hi = new {@link #ChainedHashtableIterator(ChainedHashtable) ChainedHashtableIterator(h)};
  *      while (hi.{@link #hasNext() hasNext()})
  *      {
  *          System.out.println(ai.{@link #next() next()});
@@ -25,35 +25,24 @@ import java.util.Iterator;
 class ChainedHashtableIterator extends AbstractIterator
 {
     /**
-     * The list of values within the table.
+     * The table being traversed.
      */
-    protected List data;
+    protected ChainedHashtable table;
     /**
-     * The iterator over the elements of the list.
+     * The index of the current entry.
      */
-    protected Iterator elements;
+    protected int current;
 
     /**
      * Construct an iterator over a chained hashtable.
      *
      * @post constructs a new hash table iterator
-     * @param table The array of lists to be traversed.
+     * @param table The table to be traversed.
      */
-    public ChainedHashtableIterator(List[] table)
+    public ChainedHashtableIterator(ChainedHashtable table)
     {
-	int i;
-	int capacity = table.length;
-	data = new SinglyLinkedList();
-	for (i = 0; i < capacity; i++) {
-	    if (table[i] != null) {
-		Iterator els = table[i].iterator();
-		while (els.hasNext())
-		{
-		    data.addFirst(els.next());
-		}
-	    }
-	}
-	elements = data.iterator();
+	this.table = table;
+	reset();
     }
 
     /**
@@ -63,7 +52,7 @@ class ChainedHashtableIterator extends AbstractIterator
      */
     public void reset()
     {
-	((AbstractIterator)elements).reset();
+	current = 0;
     }
 
     /**
@@ -75,7 +64,7 @@ class ChainedHashtableIterator extends AbstractIterator
      */
     public boolean hasNext()
     {
-	return elements.hasNext();
+	return current < table.count;
     }
 
     /**
@@ -88,7 +77,9 @@ class ChainedHashtableIterator extends AbstractIterator
      */
     public Object next()
     {
-	return elements.next();
+	Object result = get();
+	current++;
+	return result;
     }
 
     /**
@@ -100,6 +91,6 @@ class ChainedHashtableIterator extends AbstractIterator
      */
     public Object get()
     {
-	return ((AbstractIterator)elements).get();
+	return new Association(table.keys[current],table.values[current]);
     }
 }
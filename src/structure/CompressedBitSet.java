@@ -0,0 +1,1158 @@
+// A compressed set of integers, in the style of Roaring bitmaps.
+
+package structure;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Implementation of a set of integers as a compressed bitmap.  The
+ * 32-bit values are split by their upper 16 bits into chunks of 65536
+ * possible values, and only chunks that hold members are stored.  Each
+ * chunk is kept in whichever of three containers suits it:
+ * <ul>
+ * <li>a sorted array of the low 16 bits of each member, for chunks with
+ *     at most 4096 members;
+ * <li>a bitmap of 1024 words, for denser chunks;
+ * <li>a list of runs (start, length), for chunks of long consecutive
+ *     ranges; these are chosen by {@link #runOptimize()}.
+ * </ul>
+ * The memory used is therefore proportional to the number of members
+ * (or runs), not to the largest member, unlike {@link BitSet}.
+ * Union, intersection and difference with another compressed set
+ * proceed chunk by chunk, skipping chunks present on only one side.
+ * <P>
+ * Members are visited in order of their unsigned 32-bit values, so all
+ * non-negative integers are visited in increasing order before any
+ * negative ones.  Sets may be written to and read from a stream with
+ * {@link #writeTo(DataOutput)} and {@link #readFrom(DataInput)}.
+ * <P>
+ * Example Usage:
+ * <P>
+ * <pre>
+ *      CompressedBitSet evens = new {@link #CompressedBitSet()};
+ *      for (int i = 0; i &lt; 1000000; i += 2) evens.{@link #add(int) add(i)};
+ *      CompressedBitSet small = new CompressedBitSet();
+ *      small.add(4); small.add(5); small.add(2000000);
+ *      small.{@link #retainAll(Structure) retainAll(evens)};
+ *      System.out.println(small); // only 4 remains
+ * </pre>
+ * @see BitSet
+ * @see SetVector
+ */
+public class CompressedBitSet extends AbstractSet
+{
+    /**
+     * The largest number of members kept in an array container.
+     */
+    protected static final int arrayLimit = 4096;
+
+    /**
+     * The high 16 bits of the chunks present, in increasing order.
+     */
+    protected char keys[];
+    /**
+     * The container holding the low 16 bits of each chunk's members;
+     * containers[i] holds the chunk with key keys[i].
+     */
+    protected Container containers[];
+    /**
+     * The number of chunks present.
+     */
+    protected int chunks;
+
+    /**
+     * Construct an empty set.
+     *
+     * @post constructs a new, empty set
+     */
+    public CompressedBitSet()
+    {
+        clear();
+    }
+
+    /**
+     * Construct a set from another structure of Integers.
+     *
+     * @pre other is non-null and holds only Integers
+     * @post constructs a new set with elements from other
+     */
+    public CompressedBitSet(Structure other)
+    {
+        this();
+        addAll(other);
+    }
+
+    /**
+     * Remove all the elements from the set.
+     *
+     * @post elements of set are removed
+     */
+    public void clear()
+    {
+        keys = new char[4];
+        containers = new Container[4];
+        chunks = 0;
+    }
+
+    /**
+     * @post returns the index of the chunk with key, or
+     *       -(insertion point)-1 if absent
+     */
+    protected int chunkIndex(char key)
+    {
+        return Arrays.binarySearch(keys, 0, chunks, key);
+    }
+
+    /**
+     * @pre 0 <= at <= chunks
+     * @post inserts container c for key at position at
+     */
+    protected void insertChunk(int at, char key, Container c)
+    {
+        if (chunks == keys.length)
+        {
+            keys = Arrays.copyOf(keys, 2*chunks);
+            containers = Arrays.copyOf(containers, 2*chunks);
+        }
+        System.arraycopy(keys, at, keys, at+1, chunks-at);
+        System.arraycopy(containers, at, containers, at+1, chunks-at);
+        keys[at] = key;
+        containers[at] = c;
+        chunks++;
+    }
+
+    /**
+     * @pre 0 <= at < chunks
+     * @post removes the chunk at position at
+     */
+    protected void removeChunk(int at)
+    {
+        chunks--;
+        System.arraycopy(keys, at+1, keys, at, chunks-at);
+        System.arraycopy(containers, at+1, containers, at, chunks-at);
+        containers[chunks] = null;
+    }
+
+    /**
+     * Add an integer to the set.
+     *
+     * @post i is added to the set
+     *
+     * @param i The value to be added.
+     */
+    public void add(int i)
+    {
+        char key = (char)(i >>> 16);
+        int at = chunkIndex(key);
+        if (at >= 0)
+        {
+            containers[at] = containers[at].add((char)i);
+        } else {
+            insertChunk(-at-1, key, new ArrayContainer().add((char)i));
+        }
+    }
+
+    /**
+     * Add an element to the set.
+     *
+     * @pre e is a non-null Integer
+     * @post e is added to set
+     *
+     * @param e The new value to be added to set.
+     */
+    public void add(Object e)
+    {
+        add(((Integer)e).intValue());
+    }
+
+    /**
+     * Remove an integer from the set.
+     *
+     * @post i is removed from the set
+     *
+     * @param i The value to be removed.
+     * @return True iff i was in the set.
+     */
+    public boolean remove(int i)
+    {
+        int at = chunkIndex((char)(i >>> 16));
+        if (at < 0) return false;
+        Container c = containers[at];
+        int before = c.cardinality();
+        c = c.remove((char)i);
+        if (c.cardinality() == 0) removeChunk(at);
+        else containers[at] = c;
+        return c.cardinality() != before;
+    }
+
+    /**
+     * Remove an element from the set.
+     *
+     * @pre e is non-null
+     * @post e is removed from set, value returned
+     *
+     * @param e The element of the set to be removed.
+     * @return The value actually removed, or null.
+     */
+    public Object remove(Object e)
+    {
+        if (!(e instanceof Integer)) return null;
+        return remove(((Integer)e).intValue()) ? e : null;
+    }
+
+    /**
+     * Determine if an integer is in the set.
+     *
+     * @post returns true iff i is in the set
+     *
+     * @param i The value sought.
+     * @return True iff i is a member.
+     */
+    public boolean contains(int i)
+    {
+        int at = chunkIndex((char)(i >>> 16));
+        return at >= 0 && containers[at].contains((char)i);
+    }
+
+    /**
+     * Returns true if value is an element of the set.
+     *
+     * @pre e is non-null
+     * @post returns true iff e is in set
+     *
+     * @param e The element sought in set.
+     * @return True iff the element is in the set.
+     */
+    public boolean contains(Object e)
+    {
+        return (e instanceof Integer) && contains(((Integer)e).intValue());
+    }
+
+    /**
+     * Determine the number of elements in the set.
+     *
+     * @post returns number of elements in set
+     *
+     * @return The number of elements in the set.
+     */
+    public int size()
+    {
+        int result = 0;
+        for (int i = 0; i < chunks; i++)
+        {
+            result += containers[i].cardinality();
+        }
+        return result;
+    }
+
+    /**
+     * Determine if the set is empty.
+     *
+     * @post returns true iff set is empty
+     *
+     * @return True iff there are no elements in set.
+     */
+    public boolean isEmpty()
+    {
+        return chunks == 0;
+    }
+
+    /**
+     * Union other set into this set.  When other is a compressed set,
+     * whole chunks are combined at once.
+     *
+     * @pre other is non-null
+     * @post values from other are added into this set
+     */
+    public void addAll(Structure other)
+    {
+        if (!(other instanceof CompressedBitSet))
+        {
+            super.addAll(other);
+            return;
+        }
+        CompressedBitSet that = (CompressedBitSet)other;
+        if (that == this) return;
+        int i = 0;
+        for (int j = 0; j < that.chunks; j++)
+        {
+            char key = that.keys[j];
+            while (i < chunks && keys[i] < key) i++;
+            if (i < chunks && keys[i] == key)
+            {
+                containers[i] = containers[i].or(that.containers[j]);
+            } else {
+                insertChunk(i, key, that.containers[j].copy());
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Computes the intersection between this set and the other structure.
+     * When other is a compressed set, chunks missing from either side
+     * are dropped without examining their members.
+     *
+     * @pre other is non-null
+     * @post values not appearing in the other structure are removed
+     */
+    public void retainAll(Structure other)
+    {
+        if (!(other instanceof CompressedBitSet))
+        {
+            CompressedBitSet kept = new CompressedBitSet();
+            for (Iterator i = iterator(); i.hasNext(); )
+            {
+                Object v = i.next();
+                if (other.contains(v)) kept.add(v);
+            }
+            keys = kept.keys;
+            containers = kept.containers;
+            chunks = kept.chunks;
+            return;
+        }
+        CompressedBitSet that = (CompressedBitSet)other;
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < chunks; i++)
+        {
+            char key = keys[i];
+            while (j < that.chunks && that.keys[j] < key) j++;
+            if (j == that.chunks) break;
+            if (that.keys[j] != key) continue;
+            Container c = containers[i].and(that.containers[j]);
+            if (c.cardinality() == 0) continue;
+            keys[kept] = key;
+            containers[kept++] = c;
+        }
+        Arrays.fill(containers, kept, chunks, null);
+        chunks = kept;
+    }
+
+    /**
+     * Computes the difference between this set and the other structure.
+     *
+     * @pre other is non-null
+     * @post values of this set contained in other are removed
+     */
+    public void removeAll(Structure other)
+    {
+        if (!(other instanceof CompressedBitSet))
+        {
+            super.removeAll(other);
+            return;
+        }
+        CompressedBitSet that = (CompressedBitSet)other;
+        if (that == this)
+        {
+            clear();
+            return;
+        }
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < chunks; i++)
+        {
+            char key = keys[i];
+            Container c = containers[i];
+            while (j < that.chunks && that.keys[j] < key) j++;
+            if (j < that.chunks && that.keys[j] == key)
+            {
+                c = c.andNot(that.containers[j]);
+                if (c.cardinality() == 0) continue;
+            }
+            keys[kept] = key;
+            containers[kept++] = c;
+        }
+        Arrays.fill(containers, kept, chunks, null);
+        chunks = kept;
+    }
+
+    /**
+     * Check to see if this set is contained in the other structure.
+     *
+     * @pre other is non-null
+     * @post returns true if every value in set is in other
+     */
+    public boolean containsAll(Structure other)
+    {
+        if (!(other instanceof CompressedBitSet))
+        {
+            for (Iterator i = iterator(); i.hasNext(); )
+            {
+                if (!other.contains(i.next())) return false;
+            }
+            return true;
+        }
+        return difference((CompressedBitSet)other).isEmpty();
+    }
+
+    /**
+     * Compute a new set that is the union of this set and other.
+     *
+     * @pre other is non-null
+     * @post returns a new set with elements of this and other
+     *
+     * @param other The set to be unioned with this.
+     * @return The union of the two sets.
+     */
+    public CompressedBitSet union(CompressedBitSet other)
+    {
+        CompressedBitSet result = (CompressedBitSet)clone();
+        result.addAll(other);
+        return result;
+    }
+
+    /**
+     * Compute a new set that is the intersection of this set and other.
+     *
+     * @pre other is non-null
+     * @post returns a new set with elements in both this and other
+     *
+     * @param other The set to be intersected with this.
+     * @return The intersection of the two sets.
+     */
+    public CompressedBitSet intersection(CompressedBitSet other)
+    {
+        CompressedBitSet result = (CompressedBitSet)clone();
+        result.retainAll(other);
+        return result;
+    }
+
+    /**
+     * Compute a new set that holds the elements of this set not in other.
+     *
+     * @pre other is non-null
+     * @post returns a new set with elements of this but not other
+     *
+     * @param other The set whose elements are excluded.
+     * @return The difference of the two sets.
+     */
+    public CompressedBitSet difference(CompressedBitSet other)
+    {
+        CompressedBitSet result = (CompressedBitSet)clone();
+        result.removeAll(other);
+        return result;
+    }
+
+    /**
+     * Re-encode every chunk in the smallest of the three container
+     * forms.  Chunks made of long runs of consecutive values become
+     * run containers.
+     *
+     * @post each chunk uses its most compact container
+     */
+    public void runOptimize()
+    {
+        for (int i = 0; i < chunks; i++)
+        {
+            containers[i] = containers[i].optimize();
+        }
+    }
+
+    /**
+     * Returns a copy of the set.
+     *
+     * @post returns a copy of the set
+     *
+     * @return A new set with the same elements.
+     */
+    public Object clone()
+    {
+        CompressedBitSet result = new CompressedBitSet();
+        result.keys = Arrays.copyOf(keys, Math.max(chunks, 4));
+        result.containers = new Container[result.keys.length];
+        for (int i = 0; i < chunks; i++)
+        {
+            result.containers[i] = containers[i].copy();
+        }
+        result.chunks = chunks;
+        return result;
+    }
+
+    /**
+     * Return true iff this set and o contain the same elements.
+     *
+     * @post returns true iff o is a compressed set with the same elements
+     *
+     * @param o Another object.
+     * @return True iff o is a compressed set with the same elements.
+     */
+    public boolean equals(Object o)
+    {
+        if (!(o instanceof CompressedBitSet)) return false;
+        CompressedBitSet other = (CompressedBitSet)o;
+        if (chunks != other.chunks) return false;
+        for (int i = 0; i < chunks; i++)
+        {
+            if (keys[i] != other.keys[i]) return false;
+            Container a = containers[i];
+            Container b = other.containers[i];
+            if (a.cardinality() != b.cardinality()) return false;
+            if (a.andNot(b).cardinality() != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns an iterator over the elements of the set, in unsigned order.
+     *
+     * @post returns iterator over Integer elements of set
+     *
+     * @return An iterator over the set.
+     */
+    public Iterator iterator()
+    {
+        return new CompressedBitSetIterator(this);
+    }
+
+    /**
+     * Find the smallest member, in unsigned order, that is at least from.
+     *
+     * @post returns the next member, as a long in 0..2^32-1, or -1
+     *
+     * @param from The unsigned value at which to start searching.
+     * @return The next member in unsigned order, or -1 if none.
+     */
+    protected long next(long from)
+    {
+        if (from > 0xffffffffL) return -1;
+        char key = (char)(from >>> 16);
+        int at = chunkIndex(key);
+        int low = (int)(from & 0xffff);
+        if (at < 0)
+        {
+            at = -at-1;
+            low = 0;
+        }
+        for (; at < chunks; at++, low = 0)
+        {
+            if (keys[at] != key) low = 0;
+            int v = containers[at].nextValue(low);
+            if (v >= 0) return ((long)keys[at] << 16) | v;
+        }
+        return -1;
+    }
+
+    /**
+     * Write the set to a stream.  The format is the number of chunks,
+     * followed for each chunk by its key, a container type byte
+     * (0 array, 1 bitmap, 2 runs), a count (of members, or of runs), and
+     * the container's payload as 16-bit values or 64-bit words.
+     *
+     * @pre out is non-null
+     * @post the set's contents are written to out
+     *
+     * @param out The stream to be written.
+     */
+    public void writeTo(DataOutput out) throws IOException
+    {
+        out.writeInt(chunks);
+        for (int i = 0; i < chunks; i++)
+        {
+            out.writeChar(keys[i]);
+            containers[i].write(out);
+        }
+    }
+
+    /**
+     * Read a set written by {@link #writeTo(DataOutput)}.
+     *
+     * @pre in is non-null and positioned at a written set
+     * @post returns the set read from in
+     *
+     * @param in The stream to be read.
+     * @return The set read.
+     */
+    public static CompressedBitSet readFrom(DataInput in) throws IOException
+    {
+        CompressedBitSet result = new CompressedBitSet();
+        int n = in.readInt();
+        if (n < 0 || n > 65536) throw new IOException("Corrupt compressed bit set.");
+        result.keys = new char[Math.max(n, 4)];
+        result.containers = new Container[result.keys.length];
+        for (int i = 0; i < n; i++)
+        {
+            result.keys[i] = in.readChar();
+            if (i > 0 && result.keys[i] <= result.keys[i-1])
+            {
+                throw new IOException("Corrupt compressed bit set.");
+            }
+            result.containers[i] = Container.read(in);
+        }
+        result.chunks = n;
+        return result;
+    }
+
+    /**
+     * Constructs string representing set.
+     *
+     * @post returns string representation of set
+     *
+     * @return String representing set.
+     */
+    public String toString()
+    {
+        StringBuffer s = new StringBuffer();
+        s.append("<CompressedBitSet:");
+        for (Iterator i = iterator(); i.hasNext(); )
+        {
+            s.append(" "+i.next());
+        }
+        s.append(">");
+        return s.toString();
+    }
+
+    /**
+     * The members of one chunk, as 16-bit values.  Operations that change
+     * a container return the container that now holds the chunk, which
+     * may be of a different kind.
+     */
+    static abstract class Container
+    {
+        abstract int cardinality();
+        abstract boolean contains(char x);
+        abstract Container add(char x);
+        abstract Container remove(char x);
+        /**
+         * @post returns the least member >= from, or -1
+         */
+        abstract int nextValue(int from);
+        /**
+         * @post returns a new bitmap container with the same members
+         */
+        abstract BitmapContainer toBitmap();
+        abstract Container copy();
+        abstract void write(DataOutput out) throws IOException;
+
+        /**
+         * @post returns the number of runs of consecutive members
+         */
+        int runs()
+        {
+            int n = 0;
+            int prev = -2;
+            for (int v = nextValue(0); v >= 0; v = nextValue(v+1))
+            {
+                if (v != prev+1) n++;
+                prev = v;
+            }
+            return n;
+        }
+
+        /**
+         * @post returns the most compact container with these members
+         */
+        Container optimize()
+        {
+            int card = cardinality();
+            int runs = runs();
+            int arrayBytes = 2*card;
+            int runBytes = 4*runs;
+            int bitmapBytes = 8192;
+            if (runBytes < arrayBytes && runBytes < bitmapBytes)
+            {
+                return this instanceof RunContainer ? this : RunContainer.of(this, runs);
+            }
+            if (card <= arrayLimit)
+            {
+                return this instanceof ArrayContainer ? this : ArrayContainer.of(this);
+            }
+            return this instanceof BitmapContainer ? this : toBitmap();
+        }
+
+        /**
+         * @post returns a container holding members of this or o
+         */
+        Container or(Container o)
+        {
+            BitmapContainer result = toBitmap();
+            result.orWith(o);
+            return result.shrink();
+        }
+
+        /**
+         * @post returns a container holding members of both this and o
+         */
+        Container and(Container o)
+        {
+            if (o instanceof ArrayContainer) return o.and(this);
+            BitmapContainer result = toBitmap();
+            result.andWith(o.toBitmap());
+            return result.shrink();
+        }
+
+        /**
+         * @post returns a container holding members of this not in o
+         */
+        Container andNot(Container o)
+        {
+            BitmapContainer result = toBitmap();
+            result.andNotWith(o);
+            return result.shrink();
+        }
+
+        /**
+         * Read a container written by write.  Containers are checked as
+         * they are read: a chunk has at least one member, arrays hold at
+         * most arrayLimit values in increasing order, bitmaps hold the
+         * number of members recorded, and runs are in increasing order,
+         * separated by gaps, and end within the chunk.
+         *
+         * @post returns the container read from in
+         */
+        static Container read(DataInput in) throws IOException
+        {
+            int type = in.readByte();
+            int n = in.readInt();
+            if (type == 0 && n > 0 && n <= arrayLimit)
+            {
+                ArrayContainer c = new ArrayContainer(n);
+                for (int i = 0; i < n; i++)
+                {
+                    c.content[i] = in.readChar();
+                    if (i > 0 && c.content[i] <= c.content[i-1]) break;
+                    c.card++;
+                }
+                if (c.card == n) return c;
+            }
+            if (type == 1 && n > 0 && n <= 65536)
+            {
+                BitmapContainer c = new BitmapContainer();
+                for (int i = 0; i < c.words.length; i++) c.words[i] = in.readLong();
+                c.recount();
+                if (c.card == n) return c;
+            }
+            if (type == 2 && n > 0 && n <= 32768)
+            {
+                RunContainer c = new RunContainer(n);
+                int end = -2; // the last member of the previous run
+                for (int i = 0; i < n; i++)
+                {
+                    int start = in.readChar(), length = in.readChar();
+                    if (start <= end+1 || start+length > 65535) break;
+                    c.append(start, start+length);
+                    end = start+length;
+                }
+                if (c.nruns == n) return c;
+            }
+            throw new IOException("Corrupt compressed bit set.");
+        }
+    }
+
+    /**
+     * A chunk with few members, kept as a sorted array of 16-bit values.
+     */
+    static final class ArrayContainer extends Container
+    {
+        char content[];
+        int card;
+
+        ArrayContainer()
+        {
+            this(4);
+        }
+
+        ArrayContainer(int capacity)
+        {
+            content = new char[Math.max(capacity, 1)];
+        }
+
+        static ArrayContainer of(Container c)
+        {
+            ArrayContainer result = new ArrayContainer(c.cardinality());
+            for (int v = c.nextValue(0); v >= 0; v = c.nextValue(v+1))
+            {
+                result.content[result.card++] = (char)v;
+            }
+            return result;
+        }
+
+        int cardinality()
+        {
+            return card;
+        }
+
+        boolean contains(char x)
+        {
+            return Arrays.binarySearch(content, 0, card, x) >= 0;
+        }
+
+        Container add(char x)
+        {
+            int at = Arrays.binarySearch(content, 0, card, x);
+            if (at >= 0) return this;
+            if (card == arrayLimit) return toBitmap().add(x);
+            at = -at-1;
+            if (card == content.length)
+            {
+                content = Arrays.copyOf(content, Math.min(2*card, arrayLimit));
+            }
+            System.arraycopy(content, at, content, at+1, card-at);
+            content[at] = x;
+            card++;
+            return this;
+        }
+
+        Container remove(char x)
+        {
+            int at = Arrays.binarySearch(content, 0, card, x);
+            if (at < 0) return this;
+            card--;
+            System.arraycopy(content, at+1, content, at, card-at);
+            return this;
+        }
+
+        int nextValue(int from)
+        {
+            if (from > 0xffff) return -1;
+            int at = Arrays.binarySearch(content, 0, card, (char)from);
+            if (at < 0) at = -at-1;
+            return at < card ? content[at] : -1;
+        }
+
+        BitmapContainer toBitmap()
+        {
+            BitmapContainer result = new BitmapContainer();
+            for (int i = 0; i < card; i++)
+            {
+                result.words[content[i] >>> 6] |= 1L << content[i];
+            }
+            result.card = card;
+            return result;
+        }
+
+        Container copy()
+        {
+            ArrayContainer result = new ArrayContainer(card);
+            System.arraycopy(content, 0, result.content, 0, card);
+            result.card = card;
+            return result;
+        }
+
+        Container or(Container o)
+        {
+            if (!(o instanceof ArrayContainer)) return o.or(this);
+            ArrayContainer that = (ArrayContainer)o;
+            if (card + that.card > arrayLimit) return super.or(o);
+            ArrayContainer result = new ArrayContainer(card + that.card);
+            int i = 0, j = 0, k = 0;
+            while (i < card && j < that.card)
+            {
+                char a = content[i], b = that.content[j];
+                if (a < b) { result.content[k++] = a; i++; }
+                else if (b < a) { result.content[k++] = b; j++; }
+                else { result.content[k++] = a; i++; j++; }
+            }
+            while (i < card) result.content[k++] = content[i++];
+            while (j < that.card) result.content[k++] = that.content[j++];
+            result.card = k;
+            return result;
+        }
+
+        Container and(Container o)
+        {
+            ArrayContainer result = new ArrayContainer(card);
+            for (int i = 0; i < card; i++)
+            {
+                if (o.contains(content[i])) result.content[result.card++] = content[i];
+            }
+            return result;
+        }
+
+        Container andNot(Container o)
+        {
+            ArrayContainer result = new ArrayContainer(card);
+            for (int i = 0; i < card; i++)
+            {
+                if (!o.contains(content[i])) result.content[result.card++] = content[i];
+            }
+            return result;
+        }
+
+        void write(DataOutput out) throws IOException
+        {
+            out.writeByte(0);
+            out.writeInt(card);
+            for (int i = 0; i < card; i++) out.writeChar(content[i]);
+        }
+    }
+
+    /**
+     * A dense chunk, kept as a bitmap of 65536 bits.
+     */
+    static final class BitmapContainer extends Container
+    {
+        final long words[] = new long[1024];
+        int card;
+
+        int cardinality()
+        {
+            return card;
+        }
+
+        void recount()
+        {
+            int n = 0;
+            for (int i = 0; i < words.length; i++) n += Long.bitCount(words[i]);
+            card = n;
+        }
+
+        boolean contains(char x)
+        {
+            return (words[x >>> 6] & (1L << x)) != 0;
+        }
+
+        Container add(char x)
+        {
+            long bit = 1L << x;
+            if ((words[x >>> 6] & bit) == 0)
+            {
+                words[x >>> 6] |= bit;
+                card++;
+            }
+            return this;
+        }
+
+        Container remove(char x)
+        {
+            long bit = 1L << x;
+            if ((words[x >>> 6] & bit) != 0)
+            {
+                words[x >>> 6] &= ~bit;
+                card--;
+            }
+            return shrink();
+        }
+
+        /**
+         * @post returns an array container if few enough members remain
+         */
+        Container shrink()
+        {
+            return card <= arrayLimit ? ArrayContainer.of(this) : this;
+        }
+
+        int nextValue(int from)
+        {
+            if (from > 0xffff) return -1;
+            int index = from >>> 6;
+            long word = words[index] & (-1L << from);
+            while (word == 0)
+            {
+                if (++index == words.length) return -1;
+                word = words[index];
+            }
+            return (index << 6) + Long.numberOfTrailingZeros(word);
+        }
+
+        BitmapContainer toBitmap()
+        {
+            return (BitmapContainer)copy();
+        }
+
+        Container copy()
+        {
+            BitmapContainer result = new BitmapContainer();
+            System.arraycopy(words, 0, result.words, 0, words.length);
+            result.card = card;
+            return result;
+        }
+
+        void orWith(Container o)
+        {
+            if (o instanceof BitmapContainer)
+            {
+                long other[] = ((BitmapContainer)o).words;
+                for (int i = 0; i < words.length; i++) words[i] |= other[i];
+            } else if (o instanceof RunContainer) {
+                RunContainer r = (RunContainer)o;
+                for (int i = 0; i < r.nruns; i++)
+                {
+                    setRange(r.runs[2*i], r.runs[2*i] + r.runs[2*i+1] + 1);
+                }
+            } else {
+                ArrayContainer a = (ArrayContainer)o;
+                for (int i = 0; i < a.card; i++)
+                {
+                    words[a.content[i] >>> 6] |= 1L << a.content[i];
+                }
+            }
+            recount();
+        }
+
+        void andWith(BitmapContainer o)
+        {
+            for (int i = 0; i < words.length; i++) words[i] &= o.words[i];
+            recount();
+        }
+
+        void andNotWith(Container o)
+        {
+            if (o instanceof BitmapContainer)
+            {
+                long other[] = ((BitmapContainer)o).words;
+                for (int i = 0; i < words.length; i++) words[i] &= ~other[i];
+            } else {
+                for (int v = o.nextValue(0); v >= 0; v = o.nextValue(v+1))
+                {
+                    words[v >>> 6] &= ~(1L << v);
+                }
+            }
+            recount();
+        }
+
+        /**
+         * @pre 0 <= from < to <= 65536
+         * @post sets bits from..to-1; card is not updated
+         */
+        void setRange(int from, int to)
+        {
+            int first = from >>> 6;
+            int last = (to-1) >>> 6;
+            long firstMask = -1L << from;
+            long lastMask = -1L >>> -to;
+            if (first == last)
+            {
+                words[first] |= firstMask & lastMask;
+                return;
+            }
+            words[first] |= firstMask;
+            for (int i = first+1; i < last; i++) words[i] = -1L;
+            words[last] |= lastMask;
+        }
+
+        void write(DataOutput out) throws IOException
+        {
+            out.writeByte(1);
+            out.writeInt(card);
+            for (int i = 0; i < words.length; i++) out.writeLong(words[i]);
+        }
+    }
+
+    /**
+     * A chunk of long consecutive ranges, kept as (start, length-1)
+     * pairs in increasing order.  Run containers are built by
+     * {@link CompressedBitSet#runOptimize()}; updating one converts it
+     * back to an array or bitmap.
+     */
+    static final class RunContainer extends Container
+    {
+        char runs[];
+        int nruns;
+
+        RunContainer(int capacity)
+        {
+            runs = new char[2*Math.max(capacity, 1)];
+        }
+
+        static RunContainer of(Container c, int n)
+        {
+            RunContainer result = new RunContainer(n);
+            int start = -1;
+            int prev = -2;
+            for (int v = c.nextValue(0); v >= 0; v = c.nextValue(v+1))
+            {
+                if (v != prev+1)
+                {
+                    if (start >= 0) result.append(start, prev);
+                    start = v;
+                }
+                prev = v;
+            }
+            if (start >= 0) result.append(start, prev);
+            return result;
+        }
+
+        void append(int first, int last)
+        {
+            runs[2*nruns] = (char)first;
+            runs[2*nruns+1] = (char)(last-first);
+            nruns++;
+        }
+
+        int cardinality()
+        {
+            int n = 0;
+            for (int i = 0; i < nruns; i++) n += runs[2*i+1] + 1;
+            return n;
+        }
+
+        /**
+         * @post returns index of the last run starting at or before x,
+         *       or -1
+         */
+        int runBefore(int x)
+        {
+            int lo = 0, hi = nruns-1;
+            while (lo <= hi)
+            {
+                int mid = (lo+hi) >>> 1;
+                if (runs[2*mid] <= x) lo = mid+1;
+                else hi = mid-1;
+            }
+            return hi;
+        }
+
+        boolean contains(char x)
+        {
+            int r = runBefore(x);
+            return r >= 0 && x <= runs[2*r] + runs[2*r+1];
+        }
+
+        /**
+         * @post returns an updatable container with the same members
+         */
+        Container expand()
+        {
+            return cardinality() <= arrayLimit ? ArrayContainer.of(this) : toBitmap();
+        }
+
+        Container add(char x)
+        {
+            return contains(x) ? this : expand().add(x);
+        }
+
+        Container remove(char x)
+        {
+            return contains(x) ? expand().remove(x) : this;
+        }
+
+        int nextValue(int from)
+        {
+            if (from > 0xffff) return -1;
+            int r = runBefore(from);
+            if (r >= 0 && from <= runs[2*r] + runs[2*r+1]) return from;
+            return r+1 < nruns ? runs[2*(r+1)] : -1;
+        }
+
+        BitmapContainer toBitmap()
+        {
+            BitmapContainer result = new BitmapContainer();
+            result.orWith(this);
+            return result;
+        }
+
+        Container copy()
+        {
+            RunContainer result = new RunContainer(nruns);
+            System.arraycopy(runs, 0, result.runs, 0, 2*nruns);
+            result.nruns = nruns;
+            return result;
+        }
+
+        int runs()
+        {
+            return nruns;
+        }
+
+        void write(DataOutput out) throws IOException
+        {
+            out.writeByte(2);
+            out.writeInt(nruns);
+            for (int i = 0; i < 2*nruns; i++) out.writeChar(runs[i]);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package structure;
+
+/**
+ * An iterator over the members of a compressed bit set, visited in
+ * order of their unsigned values.  This iterator is not publically
+ * accessable and is used to implement CompressedBitSet's iterator.
+ * This iteration returns objects that are instances of Integer.
+ * <P>
+ * Typical use:
+ * <P>
+ * <pre>
+ *      CompressedBitSet s = new CompressedBitSet();
+ *      // ...set gets built up...
+ *      Iterator si = s.iterator();
+ *      while (si.{@link #hasNext() hasNext()})
+ *      {
+ *          System.out.println(si.{@link #next() next()});
+ *      }
+ * </pre>
+ */
+class CompressedBitSetIterator extends AbstractIterator
+{
+    /**
+     * The set being traversed.
+     */
+    protected CompressedBitSet set;
+    /**
+     * The current member, as an unsigned value, or -1 when done.
+     */
+    protected long current;
+
+    /**
+     * Construct an iterator over a compressed bit set.
+     *
+     * @post constructs a new iterator over set
+     *
+     * @param set The set to be traversed.
+     */
+    public CompressedBitSetIterator(CompressedBitSet set)
+    {
+        this.set = set;
+        reset();
+    }
+
+    /**
+     * Resets the iterator to the smallest member.
+     *
+     * @post resets iterator to beginning of set
+     */
+    public void reset()
+    {
+        current = set.next(0);
+    }
+
+    /**
+     * Returns true iff there are unconsidered members.
+     *
+     * @post returns true if there are unvisited elements
+     *
+     * @return True iff there are elements yet to be considered.
+     */
+    public boolean hasNext()
+    {
+        return current >= 0;
+    }
+
+    /**
+     * Returns current value and increments iterator.
+     *
+     * @pre hasNext()
+     * @post returns current element, increments iterator
+     *
+     * @return The current value, before incrementing.
+     */
+    public Object next()
+    {
+        Object result = get();
+        current = set.next(current+1);
+        return result;
+    }
+
+    /**
+     * Get current value of iterator.
+     *
+     * @pre hasNext()
+     * @post returns current element
+     *
+     * @return The current value.
+     */
+    public Object get()
+    {
+        return Integer.valueOf((int)current);
+    }
+}
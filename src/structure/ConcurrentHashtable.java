@@ -0,0 +1,563 @@
+// An implementation of hashtables that may be shared between threads.
+// Keys need not be comparable, but they must have hashcode methods.
+
+package structure;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+/**
+ * This class implements a hash table that may be safely shared between
+ * threads.  Collisions are resolved through external chaining.  The
+ * table is split into a fixed number of independently locked segments
+ * (lock striping), so writers that touch different segments never wait
+ * on one another.  Readers never lock: <code>get</code> and
+ * <code>containsKey</code> read the chains through volatile references,
+ * and chain nodes are never modified once published (removal copies the
+ * prefix of the chain that preceded the removed node).
+ * <P>
+ * Iterators are weakly consistent: they never fail because of concurrent
+ * modification, they return every entry present for the whole traversal
+ * exactly once, and they may or may not reflect updates made after they
+ * were constructed.  Like the other hash tables, iteration returns
+ * {@link Association} objects; these are snapshots of the entries, so
+ * setting their values does not update the table.
+ * <P>
+ * Neither keys nor values may be null.  Because of this, a null result
+ * from {@link #get(Object)} always means the key was absent.
+ * <P>
+ * Example Usage:
+ * <P>
+ * To count words read concurrently by several threads we could share:
+ * <P>
+ * <pre>
+ *      ConcurrentHashtable counts = new {@link #ConcurrentHashtable()};
+ *      // ...in each thread...
+ *      counts.{@link #putIfAbsent(Object,Object) putIfAbsent(word, new java.util.concurrent.atomic.AtomicInteger())};
+ *      ((java.util.concurrent.atomic.AtomicInteger)counts.get(word)).incrementAndGet();
+ * </pre>
+ * @see Hashtable
+ * @see ChainedHashtable
+ */
+public class ConcurrentHashtable extends AbstractMap implements Map
+{
+    /**
+     * A computation that produces the value to be associated with
+     * a key that is absent from the table.
+     *
+     * @see ConcurrentHashtable#computeIfAbsent(Object,ConcurrentHashtable.Computation)
+     */
+    public static interface Computation
+    {
+        /**
+         * Compute a value for a key.
+         *
+         * @pre key is non-null
+         * @post returns the value to be associated with key, or null
+         *       if no mapping should be made
+         *
+         * @param key The key that was found to be absent.
+         * @return The value to be associated with key.
+         */
+        public Object compute(Object key);
+    }
+
+    /**
+     * An immutable link in a bucket's chain.  Only the value may change
+     * after the node is published; it is volatile so that unlocked
+     * readers see the latest write.
+     */
+    static final class Node
+    {
+        final Object key;
+        final int hash;
+        volatile Object value;
+        final Node next;
+
+        Node(Object key, int hash, Object value, Node next)
+        {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * An independently locked portion of the table.  All updates to
+     * a segment are made while holding its monitor.
+     */
+    static final class Segment
+    {
+        /**
+         * The buckets of this segment; replaced wholesale on growth.
+         */
+        volatile AtomicReferenceArray<Node> table;
+        /**
+         * Number of entries in this segment.
+         */
+        volatile int count;
+
+        Segment(int capacity)
+        {
+            table = new AtomicReferenceArray<Node>(capacity);
+        }
+    }
+
+    /**
+     * Load factor (per segment) that causes rehashing of the segment.
+     */
+    protected final double loadFactor = 0.75;
+    /**
+     * The segments that together form the table.
+     */
+    protected final Segment segments[];
+    /**
+     * Number of low bits of the hash that are not used to choose the
+     * segment.
+     */
+    protected final int segmentShift;
+
+    /**
+     * Construct a table able to hold at least initialCapacity entries
+     * before growing, with writes striped across at least
+     * concurrencyLevel locks.
+     *
+     * @pre initialCapacity > 0, concurrencyLevel > 0
+     * @post constructs a new, empty ConcurrentHashtable
+     *
+     * @param initialCapacity The number of entries initially expected.
+     * @param concurrencyLevel The number of expected concurrent writers.
+     */
+    public ConcurrentHashtable(int initialCapacity, int concurrencyLevel)
+    {
+        Assert.pre(initialCapacity > 0, "Initial capacity must be positive.");
+        Assert.pre(concurrencyLevel > 0, "Concurrency level must be positive.");
+        int shift = 0;
+        int n = 1;
+        while (n < concurrencyLevel && n < (1 << 16))
+        {
+            n <<= 1;
+            shift++;
+        }
+        segmentShift = 32 - shift;
+        segments = new Segment[n];
+        int perSegment = 2;
+        while (perSegment * n * loadFactor < initialCapacity) perSegment <<= 1;
+        for (int i = 0; i < n; i++)
+        {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    /**
+     * Construct a table able to hold at least initialCapacity entries
+     * before growing.
+     *
+     * @pre initialCapacity > 0
+     * @post constructs a new, empty ConcurrentHashtable
+     *
+     * @param initialCapacity The number of entries initially expected.
+     */
+    public ConcurrentHashtable(int initialCapacity)
+    {
+        this(initialCapacity, 16);
+    }
+
+    /**
+     * Construct a reasonably large table, striped across 16 locks.
+     *
+     * @post constructs a new, empty ConcurrentHashtable
+     */
+    public ConcurrentHashtable()
+    {
+        this(997, 16);
+    }
+
+    /**
+     * Spread the bits of a hash code so that both segment selection
+     * (high bits) and bucket selection (low bits) are well distributed.
+     */
+    protected static int hash(Object key)
+    {
+        int h = key.hashCode();
+        h ^= (h >>> 20) ^ (h >>> 12);
+        h ^= (h >>> 7) ^ (h >>> 4);
+        return h * 0x9E3779B9;
+    }
+
+    /**
+     * @post returns the segment responsible for hash
+     */
+    protected Segment segmentFor(int hash)
+    {
+        return segments.length == 1 ? segments[0]
+                                    : segments[hash >>> segmentShift];
+    }
+
+    /**
+     * @post returns the node holding key within segment s, or null
+     */
+    protected static Node find(Segment s, Object key, int hash)
+    {
+        AtomicReferenceArray<Node> tab = s.table;
+        Node n = tab.get(hash & (tab.length()-1));
+        while (n != null)
+        {
+            if (n.hash == hash && key.equals(n.key)) return n;
+            n = n.next;
+        }
+        return null;
+    }
+
+    /**
+     * Return the number of key-value pairs within the table.  The
+     * result is exact only when no updates are in progress.
+     *
+     * @post returns number of elements in hash table
+     *
+     * @return The number of key-value pairs currently in table.
+     */
+    public int size()
+    {
+        long sum = 0;
+        for (int i = 0; i < segments.length; i++)
+        {
+            sum += segments[i].count;
+        }
+        return sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int)sum;
+    }
+
+    /**
+     * Determine if table is empty.
+     *
+     * @post returns true iff hash table has 0 elements
+     *
+     * @return True if table is empty.
+     */
+    public boolean isEmpty()
+    {
+        for (int i = 0; i < segments.length; i++)
+        {
+            if (segments[i].count != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Remove all key-value pairs from the table.  Segments are cleared
+     * one at a time, so concurrent insertions may survive the call.
+     *
+     * @post removes all elements from the table
+     */
+    public void clear()
+    {
+        for (int i = 0; i < segments.length; i++)
+        {
+            Segment s = segments[i];
+            synchronized (s)
+            {
+                s.table = new AtomicReferenceArray<Node>(s.table.length());
+                s.count = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns true iff a specific key appears within the table.
+     * This method does not lock.
+     *
+     * @pre key is a non-null Object
+     * @post returns true if key appears in hash table
+     *
+     * @param key The key sought.
+     * @return True iff the key sought appears within table.
+     */
+    public boolean containsKey(Object key)
+    {
+        int h = hash(key);
+        return find(segmentFor(h), key, h) != null;
+    }
+
+    /**
+     * Returns true if a specific value appears within the table.
+     *
+     * @pre value is non-null Object
+     * @post returns true iff hash table contains value
+     *
+     * @param value The value sought.
+     * @return True iff the value appears within the table.
+     */
+    public boolean containsValue(Object value)
+    {
+        Iterator i = iterator();
+        while (i.hasNext())
+        {
+            if (value.equals(i.next())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Get the value associated with a key.  This method does not lock.
+     *
+     * @pre key is non-null Object
+     * @post returns value associated with key, or null
+     *
+     * @param key The key used to find the desired value.
+     * @return The value associated with the desired key.
+     */
+    public Object get(Object key)
+    {
+        int h = hash(key);
+        Node n = find(segmentFor(h), key, h);
+        return n == null ? null : n.value;
+    }
+
+    /**
+     * Place a key-value pair within the table.
+     *
+     * @pre key and value are non-null objects
+     * @post key-value pair is added to hash table
+     *
+     * @param key The key to be added to table.
+     * @param value The value associated with key.
+     * @return The old value associated with key if previously present.
+     */
+    public Object put(Object key, Object value)
+    {
+        Assert.pre(key != null && value != null, "Keys and values must not be null.");
+        return insert(key, value, false);
+    }
+
+    /**
+     * Atomically associate value with key, unless key is already present.
+     *
+     * @pre key and value are non-null objects
+     * @post if key was absent, key-value pair is added to hash table
+     *
+     * @param key The key to be added to table.
+     * @param value The value to associate with key, if key is absent.
+     * @return The value already associated with key, or null if value
+     *         was installed.
+     */
+    public Object putIfAbsent(Object key, Object value)
+    {
+        Assert.pre(key != null && value != null, "Keys and values must not be null.");
+        return insert(key, value, true);
+    }
+
+    /**
+     * Atomically compute and install a value for key if key is absent.
+     * The computation is performed at most once per absent key and
+     * while holding the lock of the key's segment; it should be short
+     * and must not update this table.
+     *
+     * @pre key and f are non-null
+     * @post if key was absent and f computed a non-null value, the
+     *       pair is added to the table
+     *
+     * @param key The key whose value is sought.
+     * @param f The computation used to produce a missing value.
+     * @return The value associated with key after the call, or null.
+     */
+    public Object computeIfAbsent(Object key, Computation f)
+    {
+        Assert.pre(key != null && f != null, "Key and computation must not be null.");
+        int h = hash(key);
+        Segment s = segmentFor(h);
+        Node n = find(s, key, h);
+        if (n != null) return n.value; // fast path: no lock needed
+        synchronized (s)
+        {
+            n = find(s, key, h);
+            if (n != null) return n.value;
+            Object value = f.compute(key);
+            if (value != null) link(s, key, h, value);
+            return value;
+        }
+    }
+
+    /**
+     * @pre key and value are non-null
+     * @post installs key-value pair, or leaves an existing pair if
+     *       onlyIfAbsent; returns previous value or null
+     */
+    protected Object insert(Object key, Object value, boolean onlyIfAbsent)
+    {
+        int h = hash(key);
+        Segment s = segmentFor(h);
+        synchronized (s)
+        {
+            Node n = find(s, key, h);
+            if (n != null)
+            {
+                Object oldValue = n.value;
+                if (!onlyIfAbsent) n.value = value;
+                return oldValue;
+            }
+            link(s, key, h, value);
+            return null;
+        }
+    }
+
+    /**
+     * Add a new node to the head of its chain.
+     *
+     * @pre caller holds the lock on s; key is absent from s
+     * @post key-value pair is published in s
+     */
+    protected void link(Segment s, Object key, int h, Object value)
+    {
+        if (s.count + 1 > s.table.length() * loadFactor) extend(s);
+        AtomicReferenceArray<Node> tab = s.table;
+        int i = h & (tab.length()-1);
+        tab.set(i, new Node(key, h, value, tab.get(i)));
+        s.count = s.count + 1;
+    }
+
+    /**
+     * Double the number of buckets in a segment.  The old table is
+     * left intact for readers that are still traversing it.
+     *
+     * @pre caller holds the lock on s
+     * @post s has twice as many buckets
+     */
+    protected void extend(Segment s)
+    {
+        AtomicReferenceArray<Node> old = s.table;
+        int capacity = old.length() << 1;
+        AtomicReferenceArray<Node> tab = new AtomicReferenceArray<Node>(capacity);
+        for (int i = 0; i < old.length(); i++)
+        {
+            for (Node n = old.get(i); n != null; n = n.next)
+            {
+                int j = n.hash & (capacity-1);
+                tab.set(j, new Node(n.key, n.hash, n.value, tab.get(j)));
+            }
+        }
+        s.table = tab;
+    }
+
+    /**
+     * Remove a key-value pair from the table.
+     *
+     * @pre key is non-null object
+     * @post removes key-value pair associated with key
+     *
+     * @param key The key of the key-value pair to be removed.
+     * @return The value associated with the removed key.
+     */
+    public Object remove(Object key)
+    {
+        int h = hash(key);
+        Segment s = segmentFor(h);
+        synchronized (s)
+        {
+            AtomicReferenceArray<Node> tab = s.table;
+            int i = h & (tab.length()-1);
+            Node first = tab.get(i);
+            Node target = first;
+            while (target != null && !(target.hash == h && key.equals(target.key)))
+            {
+                target = target.next;
+            }
+            if (target == null) return null;
+            // nodes are immutable: copy the prefix that precedes target
+            Node rest = target.next;
+            for (Node n = first; n != target; n = n.next)
+            {
+                rest = new Node(n.key, n.hash, n.value, rest);
+            }
+            tab.set(i, rest);
+            s.count = s.count - 1;
+            return target.value;
+        }
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the values of the table.
+     *
+     * @post returns iterator to traverse hash table
+     *
+     * @return A value iterator, over the values of the table.
+     */
+    public Iterator iterator()
+    {
+        return new ValueIterator(new ConcurrentHashtableIterator(this));
+    }
+
+    /**
+     * Get a weakly consistent iterator over the keys of the table.
+     *
+     * @post returns iterator to traverse the keys of hash table
+     *
+     * @return An iterator over the key values appearing within table.
+     */
+    public Iterator keys()
+    {
+        return new KeyIterator(new ConcurrentHashtableIterator(this));
+    }
+
+    /**
+     * @post returns a set of Associations associated with this Map
+     */
+    public Set entrySet()
+    {
+        Set result = new SetList();
+        Iterator i = new ConcurrentHashtableIterator(this);
+        while (i.hasNext())
+        {
+            result.add(i.next());
+        }
+        return result;
+    }
+
+    /**
+     * @post returns a Set of keys used in this Map
+     */
+    public Set keySet()
+    {
+        Set result = new SetList();
+        Iterator i = keys();
+        while (i.hasNext())
+        {
+            result.add(i.next());
+        }
+        return result;
+    }
+
+    /**
+     * @post returns a Structure that contains the (possibly repeating)
+     * values of the range of this map.
+     */
+    public Structure values()
+    {
+        List result = new SinglyLinkedList();
+        Iterator i = iterator();
+        while (i.hasNext())
+        {
+            result.add(i.next());
+        }
+        return result;
+    }
+
+    /**
+     * Generate a string representation of the hash table.
+     *
+     * @post returns a string representation of hash table
+     *
+     * @return The string representing the table.
+     */
+    public String toString()
+    {
+        StringBuffer s = new StringBuffer();
+        s.append("<ConcurrentHashtable:");
+        Iterator hi = new ConcurrentHashtableIterator(this);
+        while (hi.hasNext())
+        {
+            Association a = (Association)hi.next();
+            s.append(" "+a.getKey()+"="+a.getValue());
+        }
+        s.append(">");
+        return s.toString();
+    }
+}
@@ -0,0 +1,136 @@
+package structure;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A weakly consistent traversal of the entries of a concurrent hashtable.
+ * No order is guaranteed.  The iterator never fails because of
+ * concurrent updates: each segment's bucket array is read once, when the
+ * traversal reaches that segment, and chains are immutable once
+ * published.  This iterator is not publically accessable and is used to
+ * implement ConcurrentHashtable's key and value iterators.
+ * This iteration returns snapshots of the entries as instances
+ * of {@link Association}.
+ * <P>
+ * Typical use:
+ * <P>
+ * <pre>
+ *      ConcurrentHashtable h = new ConcurrentHashtable();
+ *      // ...hashtable gets built up, possibly by other threads...
+ *      Iterator hi = new {@link #ConcurrentHashtableIterator(ConcurrentHashtable) ConcurrentHashtableIterator(h)};
+ *      while (hi.{@link #hasNext() hasNext()})
+ *      {
+ *          System.out.println(hi.{@link #next() next()});
+ *      }
+ * </pre>
+ */
+class ConcurrentHashtableIterator extends AbstractIterator
+{
+    /**
+     * The segments of the table being traversed.
+     */
+    protected ConcurrentHashtable.Segment segments[];
+    /**
+     * Index of the segment currently being traversed.
+     */
+    protected int segment;
+    /**
+     * The buckets of the current segment, as read on arrival.
+     */
+    protected AtomicReferenceArray<ConcurrentHashtable.Node> table;
+    /**
+     * Index of the bucket currently being traversed.
+     */
+    protected int bucket;
+    /**
+     * The node to be returned next, or null if traversal is done.
+     */
+    protected ConcurrentHashtable.Node current;
+
+    /**
+     * Construct a traversal over a concurrent hashtable.
+     *
+     * @post constructs a new hash table traversal
+     *
+     * @param h The table to be traversed.
+     */
+    public ConcurrentHashtableIterator(ConcurrentHashtable h)
+    {
+        segments = h.segments;
+        reset();
+    }
+
+    /**
+     * Resets the traversal to point to the beginning of the table.
+     *
+     * @post resets traversal to beginning of hash table
+     */
+    public void reset()
+    {
+        segment = -1;
+        table = null;
+        bucket = 0;
+        current = null;
+        advance();
+    }
+
+    /**
+     * Move current to the next published node.
+     */
+    protected void advance()
+    {
+        if (current != null) current = current.next;
+        while (current == null)
+        {
+            if (table != null && bucket < table.length())
+            {
+                current = table.get(bucket++);
+            }
+            else if (segment+1 < segments.length)
+            {
+                segment++;
+                table = segments[segment].table;
+                bucket = 0;
+            }
+            else return;
+        }
+    }
+
+    /**
+     * Returns true iff there are unconsidered elements within the table.
+     *
+     * @post returns true if there are unvisited elements
+     *
+     * @return True iff there are elements yet to be considered within table.
+     */
+    public boolean hasNext()
+    {
+        return current != null;
+    }
+
+    /**
+     * Returns current value and increments traversal.
+     *
+     * @pre hasNext()
+     * @post returns current element, increments traversal
+     *
+     * @return The current value, before incrementing.
+     */
+    public Object next()
+    {
+        Object result = get();
+        advance();
+        return result;
+    }
+
+    /**
+     * Get current value of traversal.
+     *
+     * @post returns current element
+     *
+     * @return The current value.
+     */
+    public Object get()
+    {
+        return new Association(current.key, current.value);
+    }
+}
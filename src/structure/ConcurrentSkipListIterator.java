@@ -0,0 +1,140 @@
+package structure;
+
+/**
+ * A weakly consistent iterator over the entries of a
+ * {@link ConcurrentSkipListMap} whose keys lie within a range, in
+ * increasing order of key.  The first entry is found by a search of the
+ * skip list; the traversal then follows the bottom list, passing over
+ * entries that are being removed.  The next entry is always located
+ * ahead of time, so <code>hasNext</code> and <code>next</code> agree
+ * even while other threads change the map.  This iteration returns
+ * objects that are instances of Association; these are snapshots, so
+ * setting their values does not update the map.  This iterator is not
+ * publically accessable and is used to implement ConcurrentSkipListMap's
+ * iterators.
+ * <P>
+ * Typical use:
+ * <P>
+ * <pre>
+ *      ConcurrentSkipListMap m = new ConcurrentSkipListMap();
+ *      // ...map gets built up...
+ *      Iterator mi = m.entries("a", "m");
+ *      while (mi.{@link #hasNext() hasNext()})
+ *      {
+ *          System.out.println(mi.{@link #next() next()});
+ *      }
+ * </pre>
+ */
+class ConcurrentSkipListIterator extends AbstractIterator
+{
+    /**
+     * The map being traversed.
+     */
+    protected ConcurrentSkipListMap map;
+    /**
+     * The least key visited, or null.
+     */
+    protected Object lo;
+    /**
+     * The bound above the keys visited, or null.
+     */
+    protected Object hi;
+    /**
+     * The node of the next entry, or null when done.
+     */
+    protected ConcurrentSkipListMap.Node node;
+    /**
+     * The value of node when it was reached.
+     */
+    protected Object value;
+
+    /**
+     * Construct an iterator over the entries of a map with keys k
+     * satisfying lo <= k < hi.  A null bound leaves that end open.
+     *
+     * @post constructs an iterator over the range
+     *
+     * @param map The map to be traversed.
+     * @param lo The least key to be visited, or null.
+     * @param hi The bound above the keys to be visited, or null.
+     */
+    public ConcurrentSkipListIterator(ConcurrentSkipListMap map,
+                                      Object lo, Object hi)
+    {
+        this.map = map;
+        this.lo = lo;
+        this.hi = hi;
+        reset();
+    }
+
+    /**
+     * Resets the iterator to the first entry of the range.
+     *
+     * @post resets iterator to the least key of the range
+     */
+    public void reset()
+    {
+        advance(lo == null ? map.firstNode() : map.ceilingNode(lo));
+    }
+
+    /**
+     * Move to the first live entry at or after n, within the range.
+     *
+     * @post node is the next entry to be returned, with its value,
+     *       or null
+     */
+    protected void advance(ConcurrentSkipListMap.Node n)
+    {
+        for (; n != null; n = n.next[0].getReference())
+        {
+            if (hi != null && map.ordering.compare(n.key, hi) >= 0)
+            {
+                n = null;
+                break;
+            }
+            value = n.value.get();
+            if (value != null) break;
+        }
+        node = n;
+    }
+
+    /**
+     * Returns true iff there are unconsidered entries within the range.
+     *
+     * @post returns true if there are unvisited elements
+     *
+     * @return True iff there are elements yet to be considered.
+     */
+    public boolean hasNext()
+    {
+        return node != null;
+    }
+
+    /**
+     * Returns current entry and increments iterator.
+     *
+     * @pre hasNext()
+     * @post returns current element, increments iterator
+     *
+     * @return The current Association, before incrementing.
+     */
+    public Object next()
+    {
+        Object result = get();
+        advance(node.next[0].getReference());
+        return result;
+    }
+
+    /**
+     * Get current entry of iterator.
+     *
+     * @pre hasNext()
+     * @post returns current element
+     *
+     * @return The current Association.
+     */
+    public Object get()
+    {
+        return new Association(node.key, value);
+    }
+}
@@ -0,0 +1,582 @@
+// An ordered map that may be shared between threads, kept in a skip list.
+// Keys must be comparable, or ordered by a supplied Comparator.
+
+package structure;
+import java.util.Iterator;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class implements an ordered map that may be safely shared
+ * between threads without locking.  Entries are kept in a skip list:
+ * every entry sits on the bottom list, which is in key order, and on a
+ * random number of higher, sparser lists that let a search skip ahead.
+ * <P>
+ * No operation takes a lock.  An entry is removed by clearing its
+ * value with a compare-and-set (whoever clears it has removed the
+ * entry, and a replacement of the value fails against it), then marking
+ * all of its outgoing links, the bottom link last, and unlinking it.
+ * Any thread that meets a cleared value or a marked link helps finish
+ * the removal, so a stalled thread never blocks another.  Insertion links a new entry into the bottom list with a
+ * single compare-and-set, which is the moment it appears in the map;
+ * the higher links are added afterwards.
+ * <P>
+ * Iterators are weakly consistent: they never fail because of
+ * concurrent modification, they return in key order every entry present
+ * for the whole traversal, and they may or may not reflect updates made
+ * after they were constructed.  Iteration returns {@link Association}
+ * snapshots.  {@link #entries(Object,Object)} scans a range of keys,
+ * starting with a logarithmic search.
+ * <P>
+ * Neither keys nor values may be null.  Because of this, a null result
+ * from {@link #get(Object)} always means the key was absent.
+ * <P>
+ * Example Usage:
+ * <P>
+ * To build a shared index that ingest threads fill while other threads
+ * scan it, we could use:
+ * <P>
+ * <pre>
+ *      ConcurrentSkipListMap index = new {@link #ConcurrentSkipListMap()};
+ *      // ...in each ingest thread...
+ *      index.{@link #put(Object,Object) put(timestamp, record)};
+ *      // ...in a reader...
+ *      Iterator i = index.{@link #entries(Object,Object) entries(from, to)};
+ *      while (i.hasNext()) System.out.println(i.next());
+ * </pre>
+ * @see ConcurrentHashtable
+ * @see ConcurrentSkipListSet
+ * @see BTree
+ */
+public class ConcurrentSkipListMap extends AbstractMap implements OrderedMap
+{
+    /**
+     * The greatest number of lists an entry may belong to.
+     */
+    protected static final int MAX_LEVEL = 32;
+
+    /**
+     * An entry of the skip list.  The key is fixed; the value is
+     * replaced by compare-and-set, and is null once the entry has been
+     * removed.  Link i refers to the next node of list i, and is marked
+     * once the value has been removed.
+     */
+    static final class Node
+    {
+        final Object key;
+        final AtomicReference<Object> value;
+        final AtomicMarkableReference<Node> next[];
+
+        @SuppressWarnings("unchecked")
+        Node(Object key, Object value, int levels)
+        {
+            this.key = key;
+            this.value = new AtomicReference<Object>(value);
+            next = new AtomicMarkableReference[levels];
+            for (int i = 0; i < levels; i++)
+            {
+                next[i] = new AtomicMarkableReference<Node>(null, false);
+            }
+        }
+    }
+
+    /**
+     * A sentinel node that precedes every entry, on every list.
+     */
+    protected final Node head;
+    /**
+     * The ordering used to compare keys.
+     */
+    protected final Comparator ordering;
+    /**
+     * The number of entries in the map.
+     */
+    protected final AtomicInteger count;
+
+    /**
+     * Construct an empty map whose keys are ordered by ordering.
+     *
+     * @pre ordering is non-null
+     * @post constructs a new, empty map
+     *
+     * @param ordering The Comparator used to order keys.
+     */
+    public ConcurrentSkipListMap(Comparator ordering)
+    {
+        Assert.pre(ordering != null, "Ordering must be non-null.");
+        this.ordering = ordering;
+        head = new Node(null, null, MAX_LEVEL);
+        count = new AtomicInteger();
+    }
+
+    /**
+     * Construct an empty map whose keys are in their natural order.
+     *
+     * @post constructs a new, empty map
+     */
+    public ConcurrentSkipListMap()
+    {
+        this(new NaturalComparator());
+    }
+
+    /**
+     * Checks that a key may be compared by this map's ordering.
+     *
+     * @post fails unless key is non-null, and Comparable when the
+     *       natural ordering is used
+     */
+    protected void check(Object key)
+    {
+        if (ordering instanceof NaturalComparator)
+        {
+            Assert.pre(key instanceof Comparable, "Key must implement Comparable.");
+        } else {
+            Assert.pre(key != null, "Key must be non-null.");
+        }
+    }
+
+    /**
+     * @post returns the number of lists a new node joins: i with
+     *       probability 1/2^i
+     */
+    protected int randomLevels()
+    {
+        int bits = ThreadLocalRandom.current().nextInt();
+        return Math.min(Integer.numberOfTrailingZeros(bits)+1, MAX_LEVEL);
+    }
+
+    /**
+     * Search for key, unlinking any marked nodes met on the way.
+     *
+     * @pre preds and succs have length MAX_LEVEL
+     * @post on each list i, preds[i] is the last node with key less
+     *       than key and succs[i] is its successor (or null); returns
+     *       true iff succs[0] holds key
+     */
+    protected boolean find(Object key, Node preds[], Node succs[])
+    {
+        boolean marked[] = new boolean[1];
+        retry:
+        while (true)
+        {
+            Node pred = head;
+            for (int level = MAX_LEVEL-1; level >= 0; level--)
+            {
+                Node curr = pred.next[level].getReference();
+                while (curr != null)
+                {
+                    Node succ = curr.next[level].get(marked);
+                    if (marked[0])
+                    {   // curr is being removed: help unlink it
+                        if (!pred.next[level].compareAndSet(curr, succ, false, false))
+                        {
+                            continue retry;
+                        }
+                        curr = succ;
+                    } else if (ordering.compare(curr.key, key) < 0) {
+                        pred = curr;
+                        curr = succ;
+                    } else {
+                        break;
+                    }
+                }
+                preds[level] = pred;
+                succs[level] = curr;
+            }
+            return succs[0] != null && ordering.compare(succs[0].key, key) == 0;
+        }
+    }
+
+    /**
+     * Locate the first unremoved node whose key is no less than key,
+     * without modifying the list.
+     *
+     * @post returns the first live node with key >= key, or null
+     */
+    protected Node ceilingNode(Object key)
+    {
+        boolean marked[] = new boolean[1];
+        Node pred = head;
+        Node curr = null;
+        for (int level = MAX_LEVEL-1; level >= 0; level--)
+        {
+            curr = pred.next[level].getReference();
+            while (curr != null)
+            {
+                Node succ = curr.next[level].get(marked);
+                if (marked[0] || ordering.compare(curr.key, key) < 0)
+                {
+                    if (!marked[0]) pred = curr;
+                    curr = succ;
+                } else {
+                    break;
+                }
+            }
+        }
+        return curr;
+    }
+
+    /**
+     * @post returns the first unremoved node, or null
+     */
+    protected Node firstNode()
+    {
+        Node n = head.next[0].getReference();
+        while (n != null && n.value.get() == null)
+        {
+            n = n.next[0].getReference();
+        }
+        return n;
+    }
+
+    /**
+     * Return the number of entries within the map.  The count may be
+     * momentarily stale while other threads are updating the map.
+     *
+     * @post returns number of elements in map
+     *
+     * @return The number of entries within the map.
+     */
+    public int size()
+    {
+        return count.get();
+    }
+
+    /**
+     * Determine if the map is empty.
+     *
+     * @post returns true iff map is empty
+     *
+     * @return True iff the map is empty.
+     */
+    public boolean isEmpty()
+    {
+        return firstNode() == null;
+    }
+
+    /**
+     * Remove all entries from the map.  Entries are removed one at a
+     * time, so concurrent insertions may survive the call.
+     *
+     * @post removes all elements from the map
+     */
+    public void clear()
+    {
+        for (Node n = firstNode(); n != null; n = firstNode())
+        {
+            remove(n.key);
+        }
+    }
+
+    /**
+     * Get the value associated with a key.  This method does not lock
+     * or modify the list.
+     *
+     * @pre key is non-null
+     * @post returns value associated with key, or null
+     *
+     * @param key The key used to find the desired value.
+     * @return The value associated with the desired key.
+     */
+    public Object get(Object key)
+    {
+        check(key);
+        Node n = ceilingNode(key);
+        if (n != null && ordering.compare(n.key, key) == 0) return n.value.get();
+        return null;
+    }
+
+    /**
+     * Returns true iff a specific key appears within the map.
+     *
+     * @pre key is non-null
+     * @post returns true if key appears in map
+     *
+     * @param key The key sought.
+     * @return True iff the key sought appears within the map.
+     */
+    public boolean containsKey(Object key)
+    {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns true if a specific value appears within the map.
+     *
+     * @pre value is non-null
+     * @post returns true iff map contains value
+     *
+     * @param value The value sought.
+     * @return True iff the value appears within the map.
+     */
+    public boolean containsValue(Object value)
+    {
+        Iterator i = iterator();
+        while (i.hasNext())
+        {
+            if (value.equals(i.next())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Place a key-value pair within the map.
+     *
+     * @pre key and value are non-null
+     * @post key-value pair is added to the map
+     *
+     * @param key The key to be added to the map.
+     * @param value The value associated with key.
+     * @return The old value associated with key if previously present.
+     */
+    public Object put(Object key, Object value)
+    {
+        return insert(key, value, false);
+    }
+
+    /**
+     * Place a key-value pair within the map, unless the key is already
+     * present.  The test and insertion are atomic.
+     *
+     * @pre key and value are non-null
+     * @post if key was absent, key-value pair is added to the map
+     *
+     * @param key The key to be added to the map.
+     * @param value The value to be associated with key.
+     * @return The value already associated with key, or null if
+     *         value was added.
+     */
+    public Object putIfAbsent(Object key, Object value)
+    {
+        return insert(key, value, true);
+    }
+
+    /**
+     * Add or (unless onlyIfAbsent) replace the value of key.
+     *
+     * @post returns the previous value of key, or null
+     */
+    protected Object insert(Object key, Object value, boolean onlyIfAbsent)
+    {
+        check(key);
+        Assert.pre(value != null, "Value must be non-null.");
+        Node preds[] = new Node[MAX_LEVEL];
+        Node succs[] = new Node[MAX_LEVEL];
+        int levels = randomLevels();
+        while (true)
+        {
+            if (find(key, preds, succs))
+            {
+                Node found = succs[0];
+                Object old = found.value.get();
+                if (old == null)
+                {   // being removed: help, then search again
+                    mark(found);
+                    continue;
+                }
+                // the value fails to change if the entry was removed
+                if (onlyIfAbsent || found.value.compareAndSet(old, value))
+                {
+                    return old;
+                }
+                continue;
+            }
+            Node node = new Node(key, value, levels);
+            for (int level = 0; level < levels; level++)
+            {
+                node.next[level].set(succs[level], false);
+            }
+            // linking the bottom list adds the entry to the map
+            if (!preds[0].next[0].compareAndSet(succs[0], node, false, false))
+            {
+                continue;
+            }
+            count.incrementAndGet();
+            for (int level = 1; level < levels; level++)
+            {
+                while (true)
+                {
+                    Node succ = succs[level];
+                    Node mine = node.next[level].getReference();
+                    if (node.next[level].isMarked()) return null; // already removed
+                    if (mine != succ &&
+                        !node.next[level].compareAndSet(mine, succ, false, false))
+                    {
+                        continue;
+                    }
+                    if (preds[level].next[level].compareAndSet(succ, node, false, false))
+                    {
+                        break;
+                    }
+                    find(key, preds, succs);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Remove a key-value pair, based on key.
+     *
+     * @pre key is non-null
+     * @post removes key-value pair associated with key
+     *
+     * @param key The key of the key-value pair to be removed.
+     * @return The value associated with key, or null if absent.
+     */
+    public Object remove(Object key)
+    {
+        check(key);
+        Node preds[] = new Node[MAX_LEVEL];
+        Node succs[] = new Node[MAX_LEVEL];
+        while (find(key, preds, succs))
+        {
+            Node victim = succs[0];
+            Object old = victim.value.get();
+            // the thread that clears the value removes the entry
+            if (old != null && victim.value.compareAndSet(old, null))
+            {
+                count.decrementAndGet();
+                mark(victim);
+                find(key, preds, succs); // unlink
+                return old;
+            }
+            // the value was replaced, or another thread removed victim
+            // first; help it, and search again
+            if (old == null) mark(victim);
+        }
+        return null;
+    }
+
+    /**
+     * Mark the links of a node whose value has been cleared, top down,
+     * so that searches unlink it.
+     *
+     * @pre victim's value is null
+     * @post every link of victim is marked
+     */
+    protected void mark(Node victim)
+    {
+        boolean marked[] = new boolean[1];
+        for (int level = victim.next.length-1; level >= 0; level--)
+        {
+            Node succ = victim.next[level].get(marked);
+            while (!marked[0])
+            {
+                victim.next[level].compareAndSet(succ, succ, false, true);
+                succ = victim.next[level].get(marked);
+            }
+        }
+    }
+
+    /**
+     * Returns a weakly consistent iterator that traverses the values of
+     * the map in order of their keys.
+     *
+     * @post returns iterator to traverse the values of the map
+     *
+     * @return A value iterator, over the values of the map.
+     */
+    public Iterator iterator()
+    {
+        return new ValueIterator(entries(null, null));
+    }
+
+    /**
+     * Get a weakly consistent iterator over the keys of the map, in
+     * increasing order.
+     *
+     * @post returns iterator to traverse the keys of the map
+     *
+     * @return An iterator over the keys appearing within the map.
+     */
+    public Iterator keys()
+    {
+        return new KeyIterator(entries(null, null));
+    }
+
+    /**
+     * Get a weakly consistent iterator over the pairs whose keys k
+     * satisfy lo <= k < hi, in increasing order of key.  Either bound
+     * may be null, leaving that end of the range open.
+     *
+     * @post returns an iterator over the Associations within the range
+     *
+     * @param lo The least key to be visited, or null.
+     * @param hi The bound above the keys to be visited, or null.
+     * @return An iterator over the Associations of the range.
+     */
+    public Iterator entries(Object lo, Object hi)
+    {
+        if (lo != null) check(lo);
+        if (hi != null) check(hi);
+        return new ConcurrentSkipListIterator(this, lo, hi);
+    }
+
+    /**
+     * @post returns a set of Associations associated with this Map
+     */
+    public Set entrySet()
+    {
+        Set result = new SetHash();
+        Iterator i = entries(null, null);
+        while (i.hasNext())
+        {
+            result.add(i.next());
+        }
+        return result;
+    }
+
+    /**
+     * @post returns a Set of keys used in this Map
+     */
+    public Set keySet()
+    {
+        Set result = new SetHash();
+        Iterator i = keys();
+        while (i.hasNext())
+        {
+            result.add(i.next());
+        }
+        return result;
+    }
+
+    /**
+     * @post returns a Structure that contains the (possibly repeating)
+     * values of the range of this map, in order of their keys.
+     */
+    public Structure values()
+    {
+        List result = new SinglyLinkedList();
+        Iterator i = iterator();
+        while (i.hasNext())
+        {
+            result.add(i.next());
+        }
+        return result;
+    }
+
+    /**
+     * Generate a string representation of the map.
+     *
+     * @post returns a string representation of the map
+     *
+     * @return The string representing the map.
+     */
+    public String toString()
+    {
+        StringBuffer s = new StringBuffer();
+        s.append("<ConcurrentSkipListMap:");
+        Iterator i = entries(null, null);
+        while (i.hasNext())
+        {
+            Association a = (Association)i.next();
+            s.append(" "+a.getKey()+"="+a.getValue());
+        }
+        s.append(">");
+        return s.toString();
+    }
+}
@@ -0,0 +1,190 @@
+// An ordered structure that may be shared between threads.
+// Values must be comparable, or ordered by a supplied Comparator.
+
+package structure;
+import java.util.Iterator;
+import java.util.Comparator;
+
+/**
+ * An ordered structure that may be safely shared between threads
+ * without locking.  The values are the keys of a
+ * {@link ConcurrentSkipListMap}, so every operation inherits its
+ * lock-free behavior: any number of threads may add and remove values
+ * while others traverse the structure.  Unlike the other ordered
+ * structures, a value "equals to" one already present is not added
+ * again.
+ * <P>
+ * Iterators are weakly consistent: they never fail because of
+ * concurrent modification, they return in order every value present
+ * for the whole traversal, and they may or may not reflect updates made
+ * after they were constructed.
+ * <P>
+ * Example Usage:
+ * <P>
+ * <pre>
+ *      ConcurrentSkipListSet seen = new {@link #ConcurrentSkipListSet()};
+ *      // ...in each ingest thread...
+ *      seen.{@link #add(Object) add(id)};
+ *      // ...in a reader: the ids from 1000 up to, but excluding, 2000...
+ *      Iterator i = seen.{@link #iterator(Object,Object) iterator(new Integer(1000), new Integer(2000))};
+ * </pre>
+ * @see ConcurrentSkipListMap
+ * @see RedBlackSearchTree
+ */
+public class ConcurrentSkipListSet extends AbstractStructure implements OrderedStructure
+{
+    /**
+     * The map whose keys are the values of this structure.
+     */
+    protected ConcurrentSkipListMap map;
+
+    /**
+     * Construct an empty structure ordered by ordering.
+     *
+     * @pre ordering is non-null
+     * @post constructs a new, empty structure
+     *
+     * @param ordering The Comparator used to order values.
+     */
+    public ConcurrentSkipListSet(Comparator ordering)
+    {
+        map = new ConcurrentSkipListMap(ordering);
+    }
+
+    /**
+     * Construct an empty structure whose values are in their natural
+     * order.
+     *
+     * @post constructs a new, empty structure
+     */
+    public ConcurrentSkipListSet()
+    {
+        map = new ConcurrentSkipListMap();
+    }
+
+    /**
+     * Add a value to the structure, if not already present.
+     *
+     * @pre value is non-null
+     * @post adds value, unless an equivalent value is present
+     *
+     * @param value The value to be added.
+     */
+    public void add(Object value)
+    {
+        map.putIfAbsent(value, value);
+    }
+
+    /**
+     * Remove the value "equals to" the indicated value.
+     *
+     * @pre value is non-null
+     * @post removes the equivalent value, if present
+     *
+     * @param value The value to be removed.
+     * @return The value actually removed, or null.
+     */
+    public Object remove(Object value)
+    {
+        return map.remove(value);
+    }
+
+    /**
+     * Determine if a value is present.
+     *
+     * @pre value is non-null
+     * @post returns true iff an equivalent value is present
+     *
+     * @param value The value sought.
+     * @return True iff the structure contains an equivalent value.
+     */
+    public boolean contains(Object value)
+    {
+        return map.containsKey(value);
+    }
+
+    /**
+     * Determine the number of values within the structure.  The count
+     * may be momentarily stale while other threads are updating.
+     *
+     * @post returns the number of elements in the structure
+     *
+     * @return The number of values.
+     */
+    public int size()
+    {
+        return map.size();
+    }
+
+    /**
+     * Determine if the structure is empty.
+     *
+     * @post returns true iff the structure is empty
+     *
+     * @return True iff there are no values.
+     */
+    public boolean isEmpty()
+    {
+        return map.isEmpty();
+    }
+
+    /**
+     * Remove all the values.  Values are removed one at a time, so
+     * concurrent additions may survive the call.
+     *
+     * @post removes all elements
+     */
+    public void clear()
+    {
+        map.clear();
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the values, in
+     * increasing order.
+     *
+     * @post returns an iterator over the values
+     *
+     * @return An iterator over the structure.
+     */
+    public Iterator iterator()
+    {
+        return map.keys();
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the values v with
+     * lo <= v < hi, in increasing order.  Either bound may be null,
+     * leaving that end of the range open.
+     *
+     * @post returns an iterator over the values in [lo, hi)
+     *
+     * @param lo The least value to be visited, or null.
+     * @param hi The bound above the values to be visited, or null.
+     * @return An iterator over the values within the range.
+     */
+    public Iterator iterator(Object lo, Object hi)
+    {
+        return new KeyIterator(map.entries(lo, hi));
+    }
+
+    /**
+     * Construct a string representation of the structure.
+     *
+     * @post returns a string representation of the structure
+     *
+     * @return A string representing the values, in order.
+     */
+    public String toString()
+    {
+        StringBuffer s = new StringBuffer();
+        s.append("<ConcurrentSkipListSet:");
+        Iterator i = iterator();
+        while (i.hasNext())
+        {
+            s.append(" "+i.next());
+        }
+        s.append(">");
+        return s.toString();
+    }
+}
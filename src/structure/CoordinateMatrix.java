@@ -0,0 +1,211 @@
+// A sparse matrix under construction, as a list of coordinates.
+
+package structure;
+import java.util.Arrays;
+
+/**
+ * A sparse matrix of <code>double</code> values in coordinate (COO)
+ * form: a list of (row, column, value) entries, kept in three parallel
+ * arrays that grow by doubling.  Entries may be added in any order, in
+ * constant amortized time, and a cell may be given several entries,
+ * whose values are summed.  Once built, the matrix is converted, in
+ * time proportional to the number of entries plus its dimensions, to
+ * a {@link SparseMatrix} in compressed row or column form for
+ * arithmetic and slicing.
+ * <P>
+ * Space is proportional to the number of entries, not to the size of
+ * the matrix, so the adjacency matrix of a graph of 100000 vertices
+ * may be built when it has few edges.
+ * <P>
+ * Example Usage:
+ * <P>
+ * <pre>
+ *      CoordinateMatrix coo = new {@link #CoordinateMatrix(int,int) CoordinateMatrix(100000, 100000)};
+ *      coo.{@link #add(int,int,double) add(3, 99999, 1.0)};
+ *      coo.add(3, 99999, 1.0); // the cell now holds 2.0
+ *      SparseMatrix csr = coo.{@link #toCSR()};
+ * </pre>
+ * @see SparseMatrix
+ * @see DoubleMatrix
+ */
+public class CoordinateMatrix
+{
+    /**
+     * The number of rows and columns.
+     */
+    protected final int height, width;
+    /**
+     * The rows, columns and values of the entries, in order added.
+     */
+    protected int rows[], cols[];
+    protected double values[];
+    /**
+     * The number of entries.
+     */
+    protected int count;
+
+    /**
+     * Construct an empty sparse matrix.
+     *
+     * @pre h >= 0, w >= 0
+     * @post constructs an h row by w column matrix of zeros
+     *
+     * @param h Height of the matrix.
+     * @param w Width of the matrix.
+     */
+    public CoordinateMatrix(int h, int w)
+    {
+        Assert.pre(h >= 0 && w >= 0, "Dimensions are non-negative.");
+        height = h;
+        width = w;
+        rows = new int[16];
+        cols = new int[16];
+        values = new double[16];
+    }
+
+    /**
+     * Add an entry to the matrix.  If the cell already has entries,
+     * the value is added to theirs.
+     *
+     * @pre 0 <= row < height(), 0 <= col < width()
+     * @post value is added to the cell (row, col)
+     *
+     * @param row The row of the entry.
+     * @param col The column of the entry.
+     * @param value The value of the entry.
+     */
+    public void add(int row, int col, double value)
+    {
+        Assert.pre(0 <= row && row < height, "Row in bounds.");
+        Assert.pre(0 <= col && col < width, "Col in bounds.");
+        if (count == rows.length)
+        {
+            rows = Arrays.copyOf(rows, 2*count);
+            cols = Arrays.copyOf(cols, 2*count);
+            values = Arrays.copyOf(values, 2*count);
+        }
+        rows[count] = row;
+        cols[count] = col;
+        values[count++] = value;
+    }
+
+    /**
+     * Return the number of entries added.
+     *
+     * @post returns the number of entries, counting repeated cells
+     *
+     * @return The number of entries.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Return the width of the matrix.
+     *
+     * @post returns number of columns in matrix
+     *
+     * @return The number of columns in the matrix.
+     */
+    public int width()
+    {
+        return width;
+    }
+
+    /**
+     * Return the height of the matrix.
+     *
+     * @post returns number of rows in matrix
+     *
+     * @return The number of rows in the matrix.
+     */
+    public int height()
+    {
+        return height;
+    }
+
+    /**
+     * Remove all entries.
+     *
+     * @post the matrix holds only zeros
+     */
+    public void clear()
+    {
+        count = 0;
+    }
+
+    /**
+     * Convert the matrix to compressed sparse row form.
+     *
+     * @post returns a row-oriented copy of the matrix
+     *
+     * @return The matrix in CSR form.
+     */
+    public SparseMatrix toCSR()
+    {
+        return compress(rows, height, cols, width, true);
+    }
+
+    /**
+     * Convert the matrix to compressed sparse column form.
+     *
+     * @post returns a column-oriented copy of the matrix
+     *
+     * @return The matrix in CSC form.
+     */
+    public SparseMatrix toCSC()
+    {
+        return compress(cols, width, rows, height, false);
+    }
+
+    /**
+     * Sort the entries by major, then minor, coordinate with two
+     * counting sorts, summing the entries of each cell.
+     *
+     * @post returns the compressed form of the entries
+     */
+    private SparseMatrix compress(int major[], int majorSize,
+                                  int minor[], int minorSize, boolean byRow)
+    {
+        // order the entries by minor coordinate
+        int order[] = new int[count];
+        int start[] = new int[minorSize+1];
+        for (int i = 0; i < count; i++) start[minor[i]+1]++;
+        for (int m = 0; m < minorSize; m++) start[m+1] += start[m];
+        for (int i = 0; i < count; i++) order[start[minor[i]]++] = i;
+        // stably place them by major coordinate
+        int offsets[] = new int[majorSize+1];
+        for (int i = 0; i < count; i++) offsets[major[i]+1]++;
+        for (int m = 0; m < majorSize; m++) offsets[m+1] += offsets[m];
+        int free[] = Arrays.copyOf(offsets, majorSize);
+        int sorted[] = new int[count];
+        for (int k = 0; k < count; k++)
+        {
+            int i = order[k];
+            sorted[free[major[i]]++] = i;
+        }
+        // sum the entries of each cell
+        int indices[] = new int[count];
+        double sums[] = new double[count];
+        int bounds[] = new int[majorSize+1];
+        int n = 0;
+        for (int m = 0; m < majorSize; m++)
+        {
+            bounds[m] = n;
+            for (int k = offsets[m]; k < offsets[m+1]; k++)
+            {
+                int i = sorted[k];
+                if (n > bounds[m] && indices[n-1] == minor[i]) sums[n-1] += values[i];
+                else
+                {
+                    indices[n] = minor[i];
+                    sums[n++] = values[i];
+                }
+            }
+        }
+        bounds[majorSize] = n;
+        return new SparseMatrix(height, width, byRow, bounds,
+                                Arrays.copyOf(indices, n), Arrays.copyOf(sums, n));
+    }
+}
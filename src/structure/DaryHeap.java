@@ -0,0 +1,286 @@
+// An implementation of a priority queue as a d-ary heap in an array.
+
+package structure;
+import java.util.Arrays;
+
+/**
+ * This class implements a priority queue based on an array-based heap
+ * in which every node has up to <i>d</i> children.  The children of a
+ * node are adjacent in the array, so choosing the smallest child when
+ * pushing a value down touches one or two cache lines per level, and a
+ * 4- or 8-ary heap has half or a third of the levels of a binary heap.
+ * Insert and remove execute in logarithmic time; the minimum element is
+ * returned in constant time.
+ * <P>
+ * Unlike {@link VectorHeap}, values are kept in a plain array rather
+ * than a vector, so no bounds-checked accessor stands between the heap
+ * and its comparisons.
+ * <P>
+ * Example usage:
+ * <P>
+ * To print out a list of programmers sorted by age we could use the following:
+ * <pre>
+ * public static void main(String[] argv){
+ *      DaryHeap programmers = new {@link #DaryHeap(int) DaryHeap(4)};
+ *
+ *      programmers.{@link #add(Comparable) add(new ComparableAssociation(new Integer(22), "Evan"))};
+ *      programmers.add(new ComparableAssociation(new Integer(19), "Chris"));
+ *      programmers.add(new ComparableAssociation(new Integer(20), "Shimon"));
+ *
+ *      //print out programmers
+ *      while(!programmers.{@link #isEmpty()}){
+ *          ComparableAssociation p = (ComparableAssociation)programmers.{@link #remove()};
+ *          System.out.println(p.getValue() + " is " + p.getKey() + " years old.");
+ *      }
+ * }
+ * </pre>
+ * @see VectorHeap
+ * @see LongDaryHeap
+ */
+public class DaryHeap<E extends Comparable<E>> implements PriorityQueue<E>
+{
+    /**
+     * The data, kept in heap order in data[0..count-1].
+     */
+    protected Object data[];
+    /**
+     * The number of values in the heap.
+     */
+    protected int count;
+    /**
+     * The maximum number of children of each node.
+     */
+    protected final int arity;
+
+    /**
+     * Construct a new priority queue with the given arity and room
+     * for initialCapacity values before growing.
+     *
+     * @pre arity >= 2, initialCapacity >= 0
+     * @post constructs a new, empty priority queue
+     *
+     * @param arity The number of children of each node.
+     * @param initialCapacity The number of values initially allocated.
+     */
+    public DaryHeap(int arity, int initialCapacity)
+    {
+        Assert.pre(arity >= 2, "Heap arity must be at least 2.");
+        Assert.pre(initialCapacity >= 0, "Initial capacity must be non-negative.");
+        this.arity = arity;
+        data = new Object[Math.max(initialCapacity, 1)];
+        count = 0;
+    }
+
+    /**
+     * Construct a new priority queue with the given arity.
+     *
+     * @pre arity >= 2
+     * @post constructs a new, empty priority queue
+     *
+     * @param arity The number of children of each node.
+     */
+    public DaryHeap(int arity)
+    {
+        this(arity, 16);
+    }
+
+    /**
+     * Construct a new 4-ary priority queue.
+     *
+     * @post constructs a new, empty priority queue
+     */
+    public DaryHeap()
+    {
+        this(4);
+    }
+
+    /**
+     * Returns parent index.
+     * @param i a node index
+     * @return parent of node at i
+     * @pre 0 < i < size
+     * @post returns parent of node at location i
+     */
+    protected int parent(int i)
+    {
+        return (i-1)/arity;
+    }
+
+    /**
+     * Returns index of first child.
+     * @param i a node index
+     * @return leftmost child of node at i
+     * @pre 0 <= i < size
+     * @post returns index of leftmost child of node at location i
+     */
+    protected int firstChild(int i)
+    {
+        return arity*i+1;
+    }
+
+    /**
+     * @pre 0 <= i < size
+     * @post returns value stored at location i
+     */
+    @SuppressWarnings("unchecked")
+    protected E at(int i)
+    {
+        return (E)data[i];
+    }
+
+    /**
+     * Fetch lowest valued (highest priority) item from queue.
+     *
+     * @pre !isEmpty()
+     * @post returns the minimum value in priority queue
+     *
+     * @return The smallest value from queue.
+     */
+    public E getFirst()
+    {
+        Assert.pre(count > 0, "Heap must not be empty.");
+        return at(0);
+    }
+
+    /**
+     * Returns the minimum value from the queue.
+     *
+     * @pre !isEmpty()
+     * @post returns and removes minimum value from queue
+     *
+     * @return The minimum value in the queue.
+     */
+    public E remove()
+    {
+        E minVal = getFirst();
+        count--;
+        data[0] = data[count];
+        data[count] = null;
+        if (count > 1) pushDownRoot(0);
+        return minVal;
+    }
+
+    /**
+     * Add a value to the priority queue.
+     *
+     * @pre value is non-null comparable
+     * @post value is added to priority queue
+     *
+     * @param value The value to be added.
+     */
+    public void add(E value)
+    {
+        if (count == data.length) data = Arrays.copyOf(data, 2*count);
+        data[count] = value;
+        percolateUp(count++);
+    }
+
+    /**
+     * Determine if the queue is empty.
+     *
+     * @post returns true iff no elements are in queue
+     *
+     * @return True if the queue is empty.
+     */
+    public boolean isEmpty()
+    {
+        return count == 0;
+    }
+
+    /**
+     * Moves node upward to appropriate position within heap.
+     * @param leaf Index of the node in the heap.
+     * @pre 0 <= leaf < size
+     * @post moves node at index leaf up to appropriate position
+     */
+    protected void percolateUp(int leaf)
+    {
+        E value = at(leaf);
+        while (leaf > 0)
+        {
+            int parent = parent(leaf);
+            if (value.compareTo(at(parent)) >= 0) break;
+            data[leaf] = data[parent];
+            leaf = parent;
+        }
+        data[leaf] = value;
+    }
+
+    /**
+     * Moves node downward, into appropriate position within subheap.
+     * The children of a node are contiguous, so the scan for the
+     * smallest child reads a single run of the array.
+     * @param root Index of the root of the subheap.
+     * @pre 0 <= root < size
+     * @post moves node at index root down
+     *   to appropriate position in subtree
+     */
+    protected void pushDownRoot(int root)
+    {
+        E value = at(root);
+        int child;
+        while ((child = firstChild(root)) < count)
+        {
+            int last = Math.min(child+arity, count);
+            int smallest = child;
+            E min = at(child);
+            for (child++; child < last; child++)
+            {
+                E candidate = at(child);
+                if (candidate.compareTo(min) < 0)
+                {
+                    min = candidate;
+                    smallest = child;
+                }
+            }
+            // Assert: smallest indexes smallest of the children
+            if (min.compareTo(value) >= 0) break;
+            data[root] = min;
+            root = smallest; // keep moving down
+        }
+        data[root] = value;
+    }
+
+    /**
+     * Determine the size of the queue.
+     *
+     * @post returns number of elements within queue
+     *
+     * @return The number of elements within the queue.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Remove all the elements from the queue.
+     *
+     * @post removes all elements from queue
+     */
+    public void clear()
+    {
+        Arrays.fill(data, 0, count, null);
+        count = 0;
+    }
+
+    /**
+     * Construct a string representation of the heap.
+     *
+     * @post returns string representation of heap
+     *
+     * @return The string representing the heap.
+     */
+    public String toString()
+    {
+        StringBuffer s = new StringBuffer();
+        s.append("<DaryHeap: arity="+arity+" [");
+        for (int i = 0; i < count; i++)
+        {
+            if (i > 0) s.append(", ");
+            s.append(data[i]);
+        }
+        s.append("]>");
+        return s.toString();
+    }
+}
@@ -0,0 +1,388 @@
+// A dense matrix of doubles, stored in one row-major array.
+
+package structure;
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A dense, rectangular matrix of <code>double</code> values.  Unlike
+ * {@link Matrix}, which keeps a Vector of row Vectors of Objects, the
+ * entries are kept in a single array, row after row, so that an entry
+ * is found by one multiplication and the entries of a row are adjacent
+ * in memory.  Arithmetic is supported.
+ * <P>
+ * Multiplication and transposition work on square tiles of the
+ * matrices, small enough that the tiles being read and written remain
+ * in the processor's cache while they are used.  Large products, sums
+ * and transposes are computed by the threads of a shared fork/join
+ * pool, each computing a band of rows of the result.
+ * <P>
+ * Example Usage:
+ * <P>
+ * <pre>
+ *      DoubleMatrix a = new {@link #DoubleMatrix(double[][]) DoubleMatrix(new double[][]{{1,2},{3,4}})};
+ *      DoubleMatrix b = a.{@link #transpose()};
+ *      System.out.println(a.{@link #multiply(DoubleMatrix) multiply(b)}.{@link #add(DoubleMatrix) add(a)});
+ * </pre>
+ * @see Matrix
+ * @see LongMatrix
+ */
+public class DoubleMatrix
+{
+    /**
+     * The number of rows and columns of a tile.
+     */
+    protected static final int block = 64;
+    /**
+     * The fewest multiply-adds (or entries, for sums and transposes)
+     * in an operation that is divided between threads.
+     */
+    protected static final int parallelWork = 1 << 18;
+
+    /**
+     * The number of rows and columns.
+     */
+    protected final int height, width;
+    /**
+     * The entries; (row, col) is at data[row*width+col].
+     */
+    protected final double data[];
+
+    /**
+     * Construct a matrix whose entries are all zero.
+     *
+     * @pre h >= 0, w >= 0
+     * @post constructs an h row by w column matrix of zeros
+     *
+     * @param h Height of the matrix.
+     * @param w Width of the matrix.
+     */
+    public DoubleMatrix(int h, int w)
+    {
+        Assert.pre(h >= 0 && w >= 0, "Dimensions are non-negative.");
+        Assert.pre((long)h*w <= Integer.MAX_VALUE, "Matrix fits in an array.");
+        height = h;
+        width = w;
+        data = new double[h*w];
+    }
+
+    /**
+     * Construct a matrix holding a copy of a rectangular array.
+     *
+     * @pre values is non-null; its rows have equal lengths
+     * @post constructs a matrix whose entry (r, c) is values[r][c]
+     *
+     * @param values The rows of the matrix.
+     */
+    public DoubleMatrix(double values[][])
+    {
+        this(values.length, values.length == 0 ? 0 : values[0].length);
+        for (int r = 0; r < height; r++)
+        {
+            Assert.pre(values[r].length == width, "Rows have equal lengths.");
+            System.arraycopy(values[r], 0, data, r*width, width);
+        }
+    }
+
+    /**
+     * Fetch an entry of the matrix.
+     *
+     * @pre 0 <= row < height(), 0 <= col < width()
+     * @post returns the entry at (row, col)
+     *
+     * @param row The row of the entry.
+     * @param col The column of the entry.
+     * @return The value located at (row, col).
+     */
+    public double get(int row, int col)
+    {
+        Assert.pre(0 <= row && row < height, "Row in bounds.");
+        Assert.pre(0 <= col && col < width, "Col in bounds.");
+        return data[row*width+col];
+    }
+
+    /**
+     * Change the entry at (row, col).
+     *
+     * @pre 0 <= row < height(), 0 <= col < width()
+     * @post changes entry (row, col) to value
+     *
+     * @param row The row of the entry to be changed.
+     * @param col The column of the entry to be changed.
+     * @param value The new value.
+     */
+    public void set(int row, int col, double value)
+    {
+        Assert.pre(0 <= row && row < height, "Row in bounds.");
+        Assert.pre(0 <= col && col < width, "Col in bounds.");
+        data[row*width+col] = value;
+    }
+
+    /**
+     * Return the width of the matrix.
+     *
+     * @post returns number of columns in matrix
+     *
+     * @return The number of columns in the matrix.
+     */
+    public int width()
+    {
+        return width;
+    }
+
+    /**
+     * Return the height of the matrix.
+     *
+     * @post returns number of rows in matrix
+     *
+     * @return The number of rows in the matrix.
+     */
+    public int height()
+    {
+        return height;
+    }
+
+    /**
+     * Copy the entries of the matrix into an array of rows.
+     *
+     * @post returns a new array whose entry [r][c] is get(r, c)
+     *
+     * @return The rows of the matrix.
+     */
+    public double[][] toArray()
+    {
+        double result[][] = new double[height][];
+        for (int r = 0; r < height; r++)
+        {
+            result[r] = Arrays.copyOfRange(data, r*width, (r+1)*width);
+        }
+        return result;
+    }
+
+    /**
+     * Compute the sum of this matrix and another.
+     *
+     * @pre other has the same height and width as this matrix
+     * @post returns a new matrix, the entrywise sum of this and other
+     *
+     * @param other The matrix to be added.
+     * @return The sum of the matrices.
+     */
+    public DoubleMatrix add(DoubleMatrix other)
+    {
+        Assert.pre(height == other.height && width == other.width,
+                   "Matrices have the same dimensions.");
+        DoubleMatrix result = new DoubleMatrix(height, width);
+        perform(new Task(Task.ADD, this, other, result, 0, height), (long)height*width);
+        return result;
+    }
+
+    /**
+     * Compute the transpose of this matrix.  The matrix is copied tile
+     * by tile, so that both the rows read and the rows written stay in
+     * cache.
+     *
+     * @post returns a new width() by height() matrix whose entry (c, r)
+     *       is get(r, c)
+     *
+     * @return The transpose of the matrix.
+     */
+    public DoubleMatrix transpose()
+    {
+        DoubleMatrix result = new DoubleMatrix(width, height);
+        perform(new Task(Task.TRANSPOSE, this, null, result, 0, height), (long)height*width);
+        return result;
+    }
+
+    /**
+     * Compute the product of this matrix and another.  The product is
+     * accumulated tile by tile: a tile of this matrix is multiplied by
+     * a tile of other while both are in cache, and the innermost loop
+     * runs along rows of other and of the result.
+     *
+     * @pre width() == other.height()
+     * @post returns a new height() by other.width() matrix, the
+     *       product of this and other
+     *
+     * @param other The matrix multiplied on the right.
+     * @return The product of the matrices.
+     */
+    public DoubleMatrix multiply(DoubleMatrix other)
+    {
+        Assert.pre(width == other.height, "Inner dimensions agree.");
+        DoubleMatrix result = new DoubleMatrix(height, other.width);
+        perform(new Task(Task.MULTIPLY, this, other, result, 0, height),
+                (long)height*width*other.width);
+        return result;
+    }
+
+    /**
+     * @post task is performed, in parallel if work is large
+     */
+    private static void perform(Task task, long work)
+    {
+        if (work >= parallelWork && task.hi - task.lo > 1 && Parallel.isUseful())
+        {
+            Parallel.pool().invoke(task);
+        } else {
+            task.band(task.lo, task.hi);
+        }
+    }
+
+    /**
+     * A task that computes a band of rows of the result of an
+     * operation.  Bands are divided until each holds about a tile of
+     * rows, or little work remains.
+     */
+    static final class Task extends RecursiveAction
+    {
+        static final int ADD = 0, TRANSPOSE = 1, MULTIPLY = 2;
+
+        final int kind;
+        final DoubleMatrix a, b, result;
+        final int lo, hi; // the rows of a considered
+
+        Task(int kind, DoubleMatrix a, DoubleMatrix b, DoubleMatrix result, int lo, int hi)
+        {
+            this.kind = kind;
+            this.a = a;
+            this.b = b;
+            this.result = result;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        /**
+         * @post the rows of the result from rows lo..hi-1 of a are computed
+         */
+        protected void compute()
+        {
+            long work = (long)(hi-lo)*a.width*(kind == MULTIPLY ? b.width : 1);
+            if (hi - lo > block && work > parallelWork/8)
+            {
+                // split on a tile boundary
+                int mid = lo + ((hi-lo)/2 + block-1)/block*block;
+                invokeAll(new Task(kind, a, b, result, lo, mid),
+                          new Task(kind, a, b, result, mid, hi));
+                return;
+            }
+            band(lo, hi);
+        }
+
+        /**
+         * @post the rows of the result from rows lo..hi-1 of a are computed
+         */
+        void band(int lo, int hi)
+        {
+            if (kind == ADD)
+            {
+                double x[] = a.data, y[] = b.data, z[] = result.data;
+                for (int i = lo*a.width; i < hi*a.width; i++) z[i] = x[i] + y[i];
+            } else if (kind == TRANSPOSE) {
+                transpose(lo, hi);
+            } else {
+                multiply(lo, hi);
+            }
+        }
+
+        /**
+         * @post rows lo..hi-1 of a are the columns lo..hi-1 of result
+         */
+        void transpose(int lo, int hi)
+        {
+            double x[] = a.data, z[] = result.data;
+            int w = a.width, h = a.height;
+            for (int r0 = lo; r0 < hi; r0 += block)
+            {
+                int r1 = Math.min(r0+block, hi);
+                for (int c0 = 0; c0 < w; c0 += block)
+                {
+                    int c1 = Math.min(c0+block, w);
+                    for (int r = r0; r < r1; r++)
+                    {
+                        for (int c = c0; c < c1; c++) z[c*h+r] = x[r*w+c];
+                    }
+                }
+            }
+        }
+
+        /**
+         * @post rows lo..hi-1 of result are rows lo..hi-1 of a times b
+         */
+        void multiply(int lo, int hi)
+        {
+            double x[] = a.data, y[] = b.data, z[] = result.data;
+            int n = a.width, p = b.width;
+            for (int k0 = 0; k0 < n; k0 += block)
+            {
+                int k1 = Math.min(k0+block, n);
+                for (int j0 = 0; j0 < p; j0 += block)
+                {
+                    int j1 = Math.min(j0+block, p);
+                    for (int i = lo; i < hi; i++)
+                    {
+                        int row = i*p;
+                        for (int k = k0; k < k1; k++)
+                        {
+                            double s = x[i*n+k];
+                            int from = k*p - row;
+                            for (int j = row+j0; j < row+j1; j++) z[j] += s*y[from+j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Determine if another object is a matrix with equal entries.
+     *
+     * @post returns true iff other is a DoubleMatrix of the same
+     *       dimensions and entries
+     *
+     * @param other The object to be compared.
+     * @return True iff the matrices are equal.
+     */
+    public boolean equals(Object other)
+    {
+        if (!(other instanceof DoubleMatrix)) return false;
+        DoubleMatrix that = (DoubleMatrix)other;
+        return height == that.height && width == that.width &&
+               Arrays.equals(data, that.data);
+    }
+
+    /**
+     * Compute a hash code consistent with equals.
+     *
+     * @post returns a hash code for the matrix
+     *
+     * @return A hash code for the matrix.
+     */
+    public int hashCode()
+    {
+        return 31*(31*height + width) + Arrays.hashCode(data);
+    }
+
+    /**
+     * Construct a string representation of the matrix.
+     *
+     * @post returns string description of matrix
+     *
+     * @return A string, representing the matrix, one row per line.
+     */
+    public String toString()
+    {
+        StringBuffer s = new StringBuffer();
+        s.append("<DoubleMatrix:");
+        for (int r = 0; r < height; r++)
+        {
+            s.append("\n ");
+            for (int c = 0; c < width; c++)
+            {
+                s.append(" "+data[r*width+c]);
+            }
+        }
+        s.append(">");
+        return s.toString();
+    }
+}
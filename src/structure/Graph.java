@@ -10,6 +10,12 @@ import java.util.Iterator;
  * iterative algorithms.  Iteration is provided over vertices, edges, and 
  * vertices adjacent to a particular vertex
  * <P>
+ * Visited flags are kept within the graph, so only one traversal may
+ * use them at a time, and {@link #reset()} takes time proportional to
+ * the size of the graph.  Traversals that run concurrently, or that are
+ * repeated often, should instead mark a {@link Traversal} of a
+ * {@link GraphCSR} snapshot of the graph.
+ * <P>
  * Example usage:
  * <P>
  * To visit all of the vertices reachable from a given vertex we could use 
@@ -36,6 +42,7 @@ import java.util.Iterator;
  * @author, 2001 duane a. bailey
  * @see structure.GraphList
  * @see structure.GraphMatrix
+ * @see structure.Traversal
  */
 public interface Graph extends Structure
 {
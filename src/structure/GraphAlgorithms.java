@@ -0,0 +1,655 @@
+// Algorithms over compressed snapshots of graphs, some run in parallel.
+
+package structure;
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Classic graph algorithms, performed on a {@link GraphCSR} snapshot
+ * of a graph.  None of these algorithms marks the vertices or edges of
+ * the original graph visited: each call keeps its own state in arrays
+ * indexed by the dense vertex ids of the snapshot.  Because snapshots
+ * are never modified, any number of threads may run these algorithms
+ * on one snapshot at once.
+ * <P>
+ * On large snapshots, breadth-first search, connected components,
+ * topological sort and PageRank divide their work between the threads
+ * of a shared fork/join pool: searches expand each frontier in
+ * parallel, and PageRank computes the ranks of ranges of vertices in
+ * parallel.  Dijkstra's algorithm and Prim's algorithm remove vertices
+ * from a priority queue one at a time, and are always performed by the
+ * calling thread.
+ * <P>
+ * Example Usage:
+ * <P>
+ * <pre>
+ *      GraphCSR csr = new {@link GraphCSR#GraphCSR(Graph,boolean) GraphCSR(g, true)};
+ *      int source = csr.{@link GraphCSR#id(Object) id("harry")};
+ *      double miles[] = GraphAlgorithms.{@link #shortestPaths(GraphCSR,int) shortestPaths(csr, source)};
+ *      int component[] = GraphAlgorithms.{@link #components(GraphCSR) components(csr)};
+ * </pre>
+ * @see GraphCSR
+ * @see Graph
+ */
+public class GraphAlgorithms
+{
+    /**
+     * The fewest vertices in a snapshot whose work is divided between
+     * threads.
+     */
+    static final int parallelSize = 2048;
+    /**
+     * The number of vertices considered by one task.
+     */
+    static final int grain = 512;
+
+    /**
+     * The algorithms are static; there are no instances.
+     */
+    private GraphAlgorithms()
+    {
+    }
+
+    /**
+     * @post returns true iff the work on g should be divided
+     */
+    static boolean isParallel(GraphCSR g)
+    {
+        return g.size() >= parallelSize && Parallel.isUseful();
+    }
+
+    /**
+     * Construct a breadth-first search tree.  The parent of each vertex
+     * is the vertex that precedes it on a shortest path (in edges) from
+     * the source.  If the search is performed in parallel, ties between
+     * parents at the same distance are broken arbitrarily.
+     *
+     * @pre 0 <= source < g.size()
+     * @post returns the parent of each vertex in a breadth-first tree
+     *       rooted at source; source is its own parent, and vertices that
+     *       cannot be reached have parent -1
+     *
+     * @param g The snapshot to be searched.
+     * @param source The id of the vertex the search begins at.
+     * @return The parents of the vertices, indexed by id.
+     */
+    public static int[] breadthFirst(GraphCSR g, int source)
+    {
+        int n = g.size();
+        Assert.pre(0 <= source && source < n, "Vertex id in range.");
+        int parent[] = new int[n];
+        Arrays.fill(parent, -1);
+        parent[source] = source;
+        if (!isParallel(g))
+        {
+            int queue[] = new int[n];
+            int head = 0, tail = 0;
+            queue[tail++] = source;
+            while (head < tail)
+            {
+                int v = queue[head++];
+                for (int i = g.offsets[v]; i < g.offsets[v+1]; i++)
+                {
+                    int w = g.targets[i];
+                    if (parent[w] < 0)
+                    {
+                        parent[w] = v;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+            return parent;
+        }
+        AtomicIntegerArray claimed = new AtomicIntegerArray(parent);
+        int frontier[] = new int[n], next[] = new int[n];
+        frontier[0] = source;
+        int count = 1;
+        while (count > 0)
+        {
+            count = GraphCSR.Frontier.expand(g, GraphCSR.Frontier.SEARCH, claimed, 0,
+                                             frontier, 0, count, next);
+            int swap[] = frontier; frontier = next; next = swap;
+        }
+        for (int v = 0; v < n; v++) parent[v] = claimed.get(v);
+        return parent;
+    }
+
+    /**
+     * Find the connected components of a snapshot.  Each component is
+     * named by the least id of its vertices.  The components of a
+     * directed graph are its weakly connected components: the direction
+     * of edges is ignored.  The components are found by merging the
+     * vertices of each edge in a disjoint set forest; in parallel, edges
+     * are merged by several threads at once, each link made by a single
+     * compare-and-set.
+     *
+     * @post returns, for each vertex, the least id of a vertex in its
+     *       component
+     *
+     * @param g The snapshot to be considered.
+     * @return The component of each vertex, indexed by id.
+     */
+    public static int[] components(GraphCSR g)
+    {
+        int n = g.size();
+        int parent[] = new int[n];
+        for (int v = 0; v < n; v++) parent[v] = v;
+        if (!isParallel(g))
+        {
+            for (int v = 0; v < n; v++)
+            {
+                for (int i = g.offsets[v]; i < g.offsets[v+1]; i++)
+                {
+                    // link the larger root beneath the smaller
+                    int r = find(parent, v), s = find(parent, g.targets[i]);
+                    if (r < s) parent[s] = r;
+                    else parent[r] = s;
+                }
+            }
+        } else {
+            AtomicIntegerArray forest = new AtomicIntegerArray(parent);
+            Parallel.pool().invoke(new Union(g, forest, 0, n));
+            for (int v = 0; v < n; v++) parent[v] = forest.get(v);
+        }
+        // parents have smaller ids, so their components are known first
+        for (int v = 0; v < n; v++) parent[v] = parent[parent[v]];
+        return parent;
+    }
+
+    /**
+     * @post returns the root of v; the path to the root is halved
+     */
+    private static int find(int parent[], int v)
+    {
+        while (parent[v] != v)
+        {
+            v = parent[v] = parent[parent[v]];
+        }
+        return v;
+    }
+
+    /**
+     * Order the vertices of a directed acyclic graph so that every edge
+     * leaves a vertex before the vertex it enters.  Vertices are removed
+     * from the graph as their last entering edge is removed; in
+     * parallel, each generation of such vertices is removed by several
+     * threads at once, and vertices within a generation appear in no
+     * particular order.
+     *
+     * @pre g.isDirected()
+     * @post returns the ids of the vertices in topological order, or
+     *       null if g has a cycle
+     *
+     * @param g The snapshot to be ordered.
+     * @return The vertex ids, in topological order, or null.
+     */
+    public static int[] topologicalOrder(GraphCSR g)
+    {
+        Assert.pre(g.isDirected(), "Graph is directed.");
+        int n = g.size();
+        int inDegree[] = new int[n];
+        for (int i = 0; i < g.targets.length; i++) inDegree[g.targets[i]]++;
+        int order[] = new int[n];
+        int count = 0;
+        for (int v = 0; v < n; v++)
+        {
+            if (inDegree[v] == 0) order[count++] = v;
+        }
+        if (!isParallel(g))
+        {
+            for (int head = 0; head < count; head++)
+            {
+                int v = order[head];
+                for (int i = g.offsets[v]; i < g.offsets[v+1]; i++)
+                {
+                    int w = g.targets[i];
+                    if (--inDegree[w] == 0) order[count++] = w;
+                }
+            }
+        } else {
+            // each generation is appended to order as it is found
+            AtomicIntegerArray remaining = new AtomicIntegerArray(inDegree);
+            int next[] = new int[n];
+            int head = 0;
+            while (head < count)
+            {
+                int found = GraphCSR.Frontier.expand(g, GraphCSR.Frontier.RELEASE, remaining, 0,
+                                                     order, head, count, next);
+                head = count;
+                System.arraycopy(next, 0, order, count, found);
+                count += found;
+            }
+        }
+        return count == n ? order : null;
+    }
+
+    /**
+     * A task that merges the vertices of the edges leaving a range of
+     * vertices within a shared disjoint set forest.
+     */
+    static final class Union extends RecursiveAction
+    {
+        final GraphCSR graph;
+        final AtomicIntegerArray parent;
+        final int lo, hi;
+
+        Union(GraphCSR graph, AtomicIntegerArray parent, int lo, int hi)
+        {
+            this.graph = graph;
+            this.parent = parent;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        /**
+         * @post the vertices of edges leaving lo..hi-1 share roots
+         */
+        protected void compute()
+        {
+            if (hi - lo > grain)
+            {
+                int mid = (lo+hi) >>> 1;
+                invokeAll(new Union(graph, parent, lo, mid),
+                          new Union(graph, parent, mid, hi));
+                return;
+            }
+            for (int v = lo; v < hi; v++)
+            {
+                for (int i = graph.offsets[v]; i < graph.offsets[v+1]; i++)
+                {
+                    union(v, graph.targets[i]);
+                }
+            }
+        }
+
+        /**
+         * @post u and v share a root; roots are linked beneath smaller
+         *       roots, so the root of a set is its least vertex
+         */
+        void union(int u, int v)
+        {
+            while (true)
+            {
+                u = find(u);
+                v = find(v);
+                if (u == v) return;
+                if (u < v) { int swap = u; u = v; v = swap; }
+                // fails if another thread linked u first; try again
+                if (parent.compareAndSet(u, u, v)) return;
+            }
+        }
+
+        /**
+         * @post returns a root of v; the path to it is halved
+         */
+        int find(int v)
+        {
+            while (true)
+            {
+                int p = parent.get(v);
+                if (p == v) return v;
+                int gp = parent.get(p);
+                if (p != gp) parent.compareAndSet(v, p, gp);
+                v = p;
+            }
+        }
+    }
+
+    /**
+     * @post returns a long whose order as a signed integer is the
+     *       numeric order of the double x
+     */
+    static long key(double x)
+    {
+        long bits = Double.doubleToLongBits(x);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Compute the length of a shortest path from a source to every
+     * vertex, by Dijkstra's algorithm.  Edge weights are lengths.
+     *
+     * @pre g.isWeighted(); weights are non-negative;
+     *      0 <= source < g.size()
+     * @post returns the length of a shortest path from source to each
+     *       vertex, or infinity for vertices that cannot be reached
+     *
+     * @param g The weighted snapshot to be searched.
+     * @param source The id of the vertex paths begin at.
+     * @return The shortest path lengths, indexed by id.
+     */
+    public static double[] shortestPaths(GraphCSR g, int source)
+    {
+        double dist[] = new double[g.size()];
+        dijkstra(g, source, dist, null);
+        return dist;
+    }
+
+    /**
+     * Construct a tree of shortest paths from a source, by Dijkstra's
+     * algorithm.  Edge weights are lengths.
+     *
+     * @pre g.isWeighted(); weights are non-negative;
+     *      0 <= source < g.size()
+     * @post returns the parent of each vertex in a tree of shortest
+     *       paths rooted at source; source is its own parent, and
+     *       vertices that cannot be reached have parent -1
+     *
+     * @param g The weighted snapshot to be searched.
+     * @param source The id of the vertex paths begin at.
+     * @return The parents of the vertices, indexed by id.
+     */
+    public static int[] shortestPathTree(GraphCSR g, int source)
+    {
+        int parent[] = new int[g.size()];
+        dijkstra(g, source, new double[g.size()], parent);
+        return parent;
+    }
+
+    /**
+     * Perform Dijkstra's algorithm.  Vertices are queued by primitive
+     * keys; a vertex is queued again when its distance falls, and stale
+     * entries are ignored when removed.
+     *
+     * @post dist holds shortest path lengths; parent, if non-null,
+     *       holds the parents of a shortest path tree
+     */
+    private static void dijkstra(GraphCSR g, int source, double dist[], int parent[])
+    {
+        int n = g.size();
+        Assert.pre(g.isWeighted(), "Graph is weighted.");
+        Assert.pre(0 <= source && source < n, "Vertex id in range.");
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        if (parent != null)
+        {
+            Arrays.fill(parent, -1);
+            parent[source] = source;
+        }
+        boolean done[] = new boolean[n];
+        LongDaryHeap<Integer> queue = new LongDaryHeap<Integer>();
+        dist[source] = 0.0;
+        queue.add(key(0.0), source);
+        while (!queue.isEmpty())
+        {
+            int v = queue.remove();
+            if (done[v]) continue;
+            done[v] = true;
+            for (int i = g.offsets[v]; i < g.offsets[v+1]; i++)
+            {
+                int w = g.targets[i];
+                double length = g.weights[i];
+                Assert.pre(length >= 0, "Edge weights are non-negative.");
+                double d = dist[v] + length;
+                if (d < dist[w])
+                {
+                    dist[w] = d;
+                    if (parent != null) parent[w] = v;
+                    queue.add(key(d), w);
+                }
+            }
+        }
+    }
+
+    /**
+     * Construct a minimum spanning forest of an undirected graph, by
+     * Prim's algorithm.  A tree is grown from the least vertex of each
+     * component; the tree edge of every other vertex joins it to its
+     * parent.  Weights may be negative.
+     *
+     * @pre !g.isDirected(); g.isWeighted()
+     * @post returns the parent of each vertex in a minimum spanning
+     *       forest; the root of each tree has parent -1
+     *
+     * @param g The weighted, undirected snapshot to be spanned.
+     * @return The parents of the vertices, indexed by id.
+     */
+    public static int[] minimumSpanningForest(GraphCSR g)
+    {
+        Assert.pre(!g.isDirected(), "Graph is undirected.");
+        Assert.pre(g.isWeighted(), "Graph is weighted.");
+        int n = g.size();
+        int parent[] = new int[n];
+        Arrays.fill(parent, -1);
+        double best[] = new double[n];
+        Arrays.fill(best, Double.POSITIVE_INFINITY);
+        boolean done[] = new boolean[n];
+        LongDaryHeap<Integer> queue = new LongDaryHeap<Integer>();
+        for (int root = 0; root < n; root++)
+        {
+            if (done[root]) continue;
+            queue.add(key(0.0), root);
+            while (!queue.isEmpty())
+            {
+                int v = queue.remove();
+                if (done[v]) continue;
+                done[v] = true;
+                for (int i = g.offsets[v]; i < g.offsets[v+1]; i++)
+                {
+                    int w = g.targets[i];
+                    if (!done[w] && g.weights[i] < best[w])
+                    {
+                        best[w] = g.weights[i];
+                        parent[w] = v;
+                        queue.add(key(best[w]), w);
+                    }
+                }
+            }
+        }
+        return parent;
+    }
+
+    /**
+     * Compute the PageRank of every vertex, with a damping factor of
+     * 0.85, to within a total change of 1e-9 between iterations.
+     *
+     * @post returns the PageRank of each vertex; ranks sum to 1
+     *
+     * @param g The snapshot to be ranked.
+     * @return The rank of each vertex, indexed by id.
+     */
+    public static double[] pageRank(GraphCSR g)
+    {
+        return pageRank(g, 0.85, 1e-9, 100);
+    }
+
+    /**
+     * Compute the PageRank of every vertex by power iteration.  A random
+     * surfer follows an edge leaving its vertex with probability damping,
+     * and otherwise jumps to a random vertex; surfers at vertices
+     * without leaving edges always jump.  Undirected edges may be
+     * followed in either direction.  Each iteration gathers rank along
+     * the edges entering each vertex, so ranges of vertices are ranked
+     * by several threads at once, without contention.
+     *
+     * @pre 0 <= damping < 1; maxIterations >= 0
+     * @post returns the PageRank of each vertex, once the total change
+     *       in rank falls below tolerance, or after maxIterations
+     *
+     * @param g The snapshot to be ranked.
+     * @param damping The probability an edge is followed.
+     * @param tolerance The total change in rank that ends iteration.
+     * @param maxIterations The greatest number of iterations performed.
+     * @return The rank of each vertex, indexed by id.
+     */
+    public static double[] pageRank(GraphCSR g, double damping,
+                                    double tolerance, int maxIterations)
+    {
+        Assert.pre(0 <= damping && damping < 1, "Damping is a probability.");
+        Assert.pre(maxIterations >= 0, "Iteration count is non-negative.");
+        int n = g.size();
+        double rank[] = new double[n];
+        if (n == 0) return rank;
+        Arrays.fill(rank, 1.0/n);
+        // the edges entering each vertex, grouped by destination
+        int inOffsets[] = g.offsets, sources[] = g.targets;
+        if (g.isDirected())
+        {
+            inOffsets = new int[n+1];
+            for (int i = 0; i < g.targets.length; i++) inOffsets[g.targets[i]+1]++;
+            for (int v = 0; v < n; v++) inOffsets[v+1] += inOffsets[v];
+            sources = new int[g.targets.length];
+            int free[] = Arrays.copyOf(inOffsets, n);
+            for (int v = 0; v < n; v++)
+            {
+                for (int i = g.offsets[v]; i < g.offsets[v+1]; i++)
+                {
+                    sources[free[g.targets[i]]++] = v;
+                }
+            }
+        }
+        Rank task = new Rank(g, inOffsets, sources, damping, rank);
+        boolean parallel = isParallel(g);
+        for (int iteration = 0; iteration < maxIterations; iteration++)
+        {
+            double change = parallel ? Parallel.pool().invoke(task.start()) : task.iterate();
+            double swap[] = task.rank; task.rank = task.next; task.next = swap;
+            if (change < tolerance) break;
+        }
+        return task.rank;
+    }
+
+    /**
+     * A task that computes one PageRank iteration over a range of
+     * vertices.  The first phase finds the rank each vertex sends along
+     * each of its edges; the second gathers the rank entering each
+     * vertex.  Each phase returns a sum over its range.
+     */
+    static final class Rank extends RecursiveTask<Double>
+    {
+        final GraphCSR graph;
+        final int inOffsets[], sources[];
+        final double damping;
+        double rank[], next[], share[];
+        double jump;  // rank each vertex receives from random jumps
+        final Rank root;
+        final boolean gather;
+        final int lo, hi;
+
+        /**
+         * @post constructs the root task over all vertices
+         */
+        Rank(GraphCSR graph, int inOffsets[], int sources[], double damping, double rank[])
+        {
+            this.graph = graph;
+            this.inOffsets = inOffsets;
+            this.sources = sources;
+            this.damping = damping;
+            this.rank = rank;
+            int n = rank.length;
+            this.next = new double[n];
+            this.share = new double[n];
+            this.root = this;
+            this.gather = false;
+            this.lo = 0;
+            this.hi = n;
+        }
+
+        /**
+         * @post constructs a task over vertices lo..hi-1 of root
+         */
+        Rank(Rank root, boolean gather, int lo, int hi)
+        {
+            this.graph = root.graph;
+            this.inOffsets = root.inOffsets;
+            this.sources = root.sources;
+            this.damping = root.damping;
+            this.root = root;
+            this.gather = gather;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        /**
+         * @post returns a task performing one full iteration
+         */
+        Rank start()
+        {
+            return new Rank(this, false, -1, -1);
+        }
+
+        /**
+         * @post root.next holds the next ranks; returns the total change
+         */
+        double iterate()
+        {
+            int n = root.rank.length;
+            root.setJump(scatter(0, n));
+            return gatherRanks(0, n);
+        }
+
+        /**
+         * @post the rank vertices without edges spread to all is noted
+         */
+        void setJump(double stranded)
+        {
+            int n = rank.length;
+            jump = (1-damping)/n + damping*stranded/n;
+        }
+
+        /**
+         * @post shares of lo..hi-1 are computed; returns the rank of
+         *       those without leaving edges
+         */
+        double scatter(int lo, int hi)
+        {
+            int offsets[] = graph.offsets;
+            double rank[] = root.rank, share[] = root.share;
+            double stranded = 0.0;
+            for (int v = lo; v < hi; v++)
+            {
+                int degree = offsets[v+1] - offsets[v];
+                if (degree == 0)
+                {
+                    stranded += rank[v];
+                    share[v] = 0.0;
+                } else {
+                    share[v] = rank[v] / degree;
+                }
+            }
+            return stranded;
+        }
+
+        /**
+         * @post next ranks of lo..hi-1 are computed; returns their
+         *       total change
+         */
+        double gatherRanks(int lo, int hi)
+        {
+            double rank[] = root.rank, next[] = root.next, share[] = root.share;
+            double jump = root.jump, change = 0.0;
+            for (int v = lo; v < hi; v++)
+            {
+                double sum = 0.0;
+                for (int i = inOffsets[v]; i < inOffsets[v+1]; i++) sum += share[sources[i]];
+                next[v] = jump + damping*sum;
+                change += Math.abs(next[v] - rank[v]);
+            }
+            return change;
+        }
+
+        /**
+         * @post performs this task's part of the iteration; returns its sum
+         */
+        protected Double compute()
+        {
+            if (lo < 0)
+            {
+                // a full iteration: scatter, then gather
+                int n = root.rank.length;
+                root.setJump(new Rank(root, false, 0, n).invoke());
+                return new Rank(root, true, 0, n).invoke();
+            }
+            if (hi - lo > grain)
+            {
+                int mid = (lo+hi) >>> 1;
+                Rank right = new Rank(root, gather, mid, hi);
+                right.fork();
+                double left = new Rank(root, gather, lo, mid).compute();
+                return left + right.join();
+            }
+            return gather ? gatherRanks(lo, hi) : scatter(lo, hi);
+        }
+    }
+}
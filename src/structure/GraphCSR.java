@@ -0,0 +1,553 @@
+// An immutable snapshot of a graph, in compressed sparse row form.
+
+package structure;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * An immutable snapshot of a {@link Graph} in compressed sparse row
+ * (CSR) form, for algorithms that read a large graph many times.
+ * Vertices are renumbered with dense ids 0..size()-1.  The ids of the
+ * vertices adjacent to vertex v are stored, in increasing order, in
+ * positions {@link #offset(int) offset(v)} through offset(v+1)-1 of a
+ * single <code>int</code> array; edge weights, if kept, are stored in a
+ * parallel <code>double</code> array.  A traversal therefore reads
+ * consecutive machine words, instead of chasing Edge objects and
+ * resolving labels through a dictionary.
+ * <P>
+ * Each undirected edge is stored in both directions (a self-loop is
+ * stored once).  The snapshot does not change when the original graph
+ * does, and, because it is never modified, any number of threads may
+ * read it at once.
+ * <P>
+ * Example Usage:
+ * <P>
+ * <pre>
+ *      GraphCSR csr = new {@link #GraphCSR(Graph) GraphCSR(g)};
+ *      int v = csr.{@link #id(Object) id("harry")};
+ *      for (int i = csr.{@link #offset(int) offset(v)}; i &lt; csr.offset(v+1); i++)
+ *      {
+ *          System.out.println(csr.{@link #label(int) label(csr.target(i))});
+ *      }
+ *      int hops[] = csr.{@link #distances(int) distances(v)};
+ * </pre>
+ * @see Graph
+ * @see GraphList
+ * @see GraphMatrix
+ */
+public class GraphCSR
+{
+    /**
+     * The smallest frontier that is expanded by several threads.
+     */
+    protected static final int parallelFrontier = 2048;
+    /**
+     * The number of frontier vertices expanded by one task.
+     */
+    protected static final int grain = 512;
+
+    /**
+     * The dense ids of the vertices, and their labels.
+     */
+    protected VertexIds vertices;
+    /**
+     * The targets of vertex v are targets[offsets[v]..offsets[v+1]-1].
+     */
+    protected int offsets[];
+    /**
+     * The target ids of the edges, grouped by source.
+     */
+    protected int targets[];
+    /**
+     * The weights of the edges, parallel to targets, or null.
+     */
+    protected double weights[];
+    /**
+     * The number of edges of the original graph.
+     */
+    protected int edgeCount;
+    /**
+     * Whether or not the original graph is directed.
+     */
+    protected boolean directed;
+
+    /**
+     * Construct a snapshot of the vertices and edges of a graph.
+     * Edge labels are not kept.
+     *
+     * @pre g is non-null
+     * @post constructs an immutable CSR copy of g
+     *
+     * @param g The graph to be copied.
+     */
+    public GraphCSR(Graph g)
+    {
+        this(g, false);
+    }
+
+    /**
+     * Construct a snapshot of a graph, optionally keeping edge weights.
+     * If weighted, every edge label must be a Number, whose double value
+     * becomes the weight of the edge.
+     *
+     * @pre g is non-null; if weighted, edge labels are Numbers
+     * @post constructs an immutable CSR copy of g
+     *
+     * @param g The graph to be copied.
+     * @param weighted True if edge weights are to be kept.
+     */
+    public GraphCSR(Graph g, boolean weighted)
+    {
+        directed = g.isDirected();
+        vertices = new VertexIds(g);
+        int n = vertices.size();
+        // count the edges leaving each vertex, offset by one
+        offsets = new int[n+1];
+        Iterator ei = g.edges();
+        while (ei.hasNext())
+        {
+            Edge e = (Edge)ei.next();
+            int source = vertices.id(e.here()), dest = vertices.id(e.there());
+            offsets[source+1]++;
+            if (!directed && source != dest) offsets[dest+1]++;
+            edgeCount++;
+        }
+        for (int v = 0; v < n; v++) offsets[v+1] += offsets[v];
+        // place each edge at the next free slot of its source
+        targets = new int[offsets[n]];
+        if (weighted) weights = new double[offsets[n]];
+        int free[] = Arrays.copyOf(offsets, n);
+        ei = g.edges();
+        while (ei.hasNext())
+        {
+            Edge e = (Edge)ei.next();
+            int source = vertices.id(e.here()), dest = vertices.id(e.there());
+            double weight = 0.0;
+            if (weighted)
+            {
+                Assert.pre(e.label() instanceof Number, "Edge labels are numeric weights.");
+                weight = ((Number)e.label()).doubleValue();
+            }
+            place(free, source, dest, weight);
+            if (!directed && source != dest) place(free, dest, source, weight);
+        }
+        sortRows();
+    }
+
+    /**
+     * @post records an edge from source to dest at the next free slot
+     */
+    private void place(int free[], int source, int dest, double weight)
+    {
+        int i = free[source]++;
+        targets[i] = dest;
+        if (weights != null) weights[i] = weight;
+    }
+
+    /**
+     * Sort the targets of each vertex into increasing order, carrying
+     * the weights along.
+     *
+     * @post each row of targets is in increasing order
+     */
+    private void sortRows()
+    {
+        int n = vertices.size();
+        if (weights == null)
+        {
+            for (int v = 0; v < n; v++) Arrays.sort(targets, offsets[v], offsets[v+1]);
+            return;
+        }
+        // sort (target, position) pairs packed into longs
+        long keys[] = new long[targets.length];
+        double w[] = weights.clone();
+        for (int v = 0; v < n; v++)
+        {
+            int start = offsets[v], end = offsets[v+1];
+            for (int i = start; i < end; i++) keys[i] = ((long)targets[i] << 32) | i;
+            Arrays.sort(keys, start, end);
+            for (int i = start; i < end; i++)
+            {
+                targets[i] = (int)(keys[i] >>> 32);
+                weights[i] = w[(int)keys[i]];
+            }
+        }
+    }
+
+    /**
+     * Determine the number of vertices.
+     *
+     * @post returns the number of vertices in the snapshot
+     *
+     * @return The number of vertices.
+     */
+    public int size()
+    {
+        return vertices.size();
+    }
+
+    /**
+     * Determine the number of edges of the original graph.  Undirected
+     * edges are counted once, though they are stored twice.
+     *
+     * @post returns the number of edges in the snapshot
+     *
+     * @return The number of edges.
+     */
+    public int edgeCount()
+    {
+        return edgeCount;
+    }
+
+    /**
+     * Determine if the original graph is directed.
+     *
+     * @post returns true iff edges are directed
+     *
+     * @return True iff the graph is directed.
+     */
+    public boolean isDirected()
+    {
+        return directed;
+    }
+
+    /**
+     * Determine if edge weights were kept.
+     *
+     * @post returns true iff weight(i) may be called
+     *
+     * @return True iff the snapshot is weighted.
+     */
+    public boolean isWeighted()
+    {
+        return weights != null;
+    }
+
+    /**
+     * Find the id of a vertex.
+     *
+     * @post returns the id of the vertex labeled label, or -1
+     *
+     * @param label The label of a vertex.
+     * @return The dense id of the vertex, or -1 if there is none.
+     */
+    public int id(Object label)
+    {
+        return vertices.find(label);
+    }
+
+    /**
+     * Find the label of a vertex.
+     *
+     * @pre 0 <= v < size()
+     * @post returns the label of vertex v
+     *
+     * @param v The id of a vertex.
+     * @return The label of the vertex.
+     */
+    public Object label(int v)
+    {
+        return vertices.label(v);
+    }
+
+    /**
+     * Find the position of the first edge leaving a vertex.  The edges
+     * leaving v are at positions offset(v) through offset(v+1)-1.
+     *
+     * @pre 0 <= v <= size()
+     * @post returns the position of the first edge leaving v
+     *
+     * @param v The id of a vertex, or size().
+     * @return The position of the first edge of v.
+     */
+    public int offset(int v)
+    {
+        return offsets[v];
+    }
+
+    /**
+     * Find the vertex an edge enters.
+     *
+     * @pre 0 <= i < offset(size())
+     * @post returns the id of the destination of the edge at position i
+     *
+     * @param i The position of an edge.
+     * @return The id of the vertex the edge enters.
+     */
+    public int target(int i)
+    {
+        return targets[i];
+    }
+
+    /**
+     * Find the weight of an edge.
+     *
+     * @pre isWeighted(); 0 <= i < offset(size())
+     * @post returns the weight of the edge at position i
+     *
+     * @param i The position of an edge.
+     * @return The weight of the edge.
+     */
+    public double weight(int i)
+    {
+        return weights[i];
+    }
+
+    /**
+     * Determine the number of edges leaving a vertex.
+     *
+     * @pre 0 <= v < size()
+     * @post returns the out degree of v
+     *
+     * @param v The id of a vertex.
+     * @return The number of edges leaving v.
+     */
+    public int degree(int v)
+    {
+        return offsets[v+1] - offsets[v];
+    }
+
+    /**
+     * Find the position of the edge from u to v.  The search is binary,
+     * taking time logarithmic in the degree of u.
+     *
+     * @pre 0 <= u, v < size()
+     * @post returns the position of the edge from u to v, or -1
+     *
+     * @param u The id of the source.
+     * @param v The id of the destination.
+     * @return The position of the edge, or -1 if there is none.
+     */
+    public int edge(int u, int v)
+    {
+        int i = Arrays.binarySearch(targets, offsets[u], offsets[u+1], v);
+        return i < 0 ? -1 : i;
+    }
+
+    /**
+     * Determine if there is an edge from u to v.
+     *
+     * @pre 0 <= u, v < size()
+     * @post returns true iff an edge leaves u and enters v
+     *
+     * @param u The id of the source.
+     * @param v The id of the destination.
+     * @return True iff the edge exists.
+     */
+    public boolean containsEdge(int u, int v)
+    {
+        return edge(u, v) >= 0;
+    }
+
+    /**
+     * Construct the visited marks of a new traversal of the snapshot.
+     * Many traversals, in many threads, may proceed at once.
+     *
+     * @post returns a traversal of this snapshot with nothing visited
+     *
+     * @return A new traversal.
+     */
+    public Traversal traversal()
+    {
+        return new Traversal(this);
+    }
+
+    /**
+     * Compute the number of edges on a shortest path from a source to
+     * every vertex, by breadth-first search.  Large frontiers are
+     * expanded by several threads at once; each vertex is claimed by
+     * the first thread to reach it.
+     *
+     * @pre 0 <= source < size()
+     * @post returns the distance, in edges, from source to each vertex,
+     *       or -1 for vertices that cannot be reached
+     *
+     * @param source The id of the vertex the search begins at.
+     * @return The distances from source, indexed by id.
+     */
+    public int[] distances(int source)
+    {
+        int n = vertices.size();
+        Assert.pre(0 <= source && source < n, "Vertex id in range.");
+        if (n < parallelFrontier || !Parallel.isUseful()) return sequentialDistances(source);
+        AtomicIntegerArray dist = new AtomicIntegerArray(n);
+        for (int v = 0; v < n; v++) dist.set(v, -1);
+        dist.set(source, 0);
+        int frontier[] = new int[n], next[] = new int[n];
+        frontier[0] = source;
+        int count = 1;
+        for (int level = 1; count > 0; level++)
+        {
+            count = Frontier.expand(this, Frontier.DISTANCE, dist, level, frontier, 0, count, next);
+            int swap[] = frontier; frontier = next; next = swap;
+        }
+        int result[] = new int[n];
+        for (int v = 0; v < n; v++) result[v] = dist.get(v);
+        return result;
+    }
+
+    /**
+     * @post returns the distances from source, computed by one thread
+     */
+    protected int[] sequentialDistances(int source)
+    {
+        int n = vertices.size();
+        int dist[] = new int[n];
+        Arrays.fill(dist, -1);
+        int queue[] = new int[n];
+        int head = 0, tail = 0;
+        dist[source] = 0;
+        queue[tail++] = source;
+        while (head < tail)
+        {
+            int v = queue[head++];
+            for (int i = offsets[v]; i < offsets[v+1]; i++)
+            {
+                int w = targets[i];
+                if (dist[w] < 0)
+                {
+                    dist[w] = dist[v] + 1;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return dist;
+    }
+
+    /**
+     * A task that expands part of a frontier of vertices, appending the
+     * neighbors it claims or releases to the next frontier.  Searches
+     * and topological sorts of {@link GraphAlgorithms} share it.
+     */
+    static final class Frontier extends RecursiveAction
+    {
+        /**
+         * Claim unvisited neighbors; state holds distances, or -1.
+         */
+        static final int DISTANCE = 0;
+        /**
+         * Claim unvisited neighbors; state holds parents, or -1.
+         */
+        static final int SEARCH = 1;
+        /**
+         * Release neighbors whose last entering edge is removed; state
+         * holds the number of entering edges not yet removed.
+         */
+        static final int RELEASE = 2;
+
+        final GraphCSR graph;
+        final int kind;
+        final AtomicIntegerArray state;
+        final int level;
+        final int frontier[], next[];
+        final int lo, hi;
+        final AtomicInteger tail;
+
+        Frontier(GraphCSR graph, int kind, AtomicIntegerArray state, int level,
+                 int frontier[], int lo, int hi, int next[], AtomicInteger tail)
+        {
+            this.graph = graph;
+            this.kind = kind;
+            this.state = state;
+            this.level = level;
+            this.frontier = frontier;
+            this.lo = lo;
+            this.hi = hi;
+            this.next = next;
+            this.tail = tail;
+        }
+
+        /**
+         * Expand frontier[lo..hi-1], dividing it between threads if it
+         * is large.  Claimed vertices are given distance level.
+         *
+         * @pre next has room for every vertex released
+         * @post the neighbors released are stored at the start of next;
+         *       returns their number
+         */
+        static int expand(GraphCSR graph, int kind, AtomicIntegerArray state, int level,
+                          int frontier[], int lo, int hi, int next[])
+        {
+            AtomicInteger tail = new AtomicInteger();
+            Frontier task = new Frontier(graph, kind, state, level, frontier, lo, hi, next, tail);
+            if (hi - lo < parallelFrontier) task.band(lo, hi);
+            else Parallel.pool().invoke(task);
+            return tail.get();
+        }
+
+        protected void compute()
+        {
+            if (hi - lo > grain)
+            {
+                int mid = (lo+hi) >>> 1;
+                invokeAll(new Frontier(graph, kind, state, level, frontier, lo, mid, next, tail),
+                          new Frontier(graph, kind, state, level, frontier, mid, hi, next, tail));
+                return;
+            }
+            band(lo, hi);
+        }
+
+        /**
+         * @post the neighbors of frontier[lo..hi-1] released by this task
+         *       are appended to next
+         */
+        void band(int lo, int hi)
+        {
+            int offsets[] = graph.offsets, targets[] = graph.targets;
+            int found[] = new int[16];
+            int count = 0;
+            for (int f = lo; f < hi; f++)
+            {
+                int v = frontier[f];
+                for (int i = offsets[v]; i < offsets[v+1]; i++)
+                {
+                    int w = targets[i];
+                    boolean released;
+                    if (kind == RELEASE)
+                    {
+                        released = state.decrementAndGet(w) == 0;
+                    } else {
+                        int mark = kind == DISTANCE ? level : v;
+                        released = state.get(w) < 0 && state.compareAndSet(w, -1, mark);
+                    }
+                    if (released)
+                    {
+                        if (count == found.length) found = Arrays.copyOf(found, 2*count);
+                        found[count++] = w;
+                    }
+                }
+            }
+            // reserve a block of the next frontier
+            int at = tail.getAndAdd(count);
+            System.arraycopy(found, 0, next, at, count);
+        }
+    }
+
+    /**
+     * Construct a string representation of the snapshot.
+     *
+     * @post returns a string representation of the snapshot
+     *
+     * @return A string listing each vertex and its neighbors.
+     */
+    public String toString()
+    {
+        StringBuffer s = new StringBuffer();
+        s.append("<GraphCSR:");
+        for (int v = 0; v < vertices.size(); v++)
+        {
+            s.append(" ("+vertices.label(v)+"->");
+            for (int i = offsets[v]; i < offsets[v+1]; i++)
+            {
+                if (i > offsets[v]) s.append(" ");
+                s.append(vertices.label(targets[i]));
+            }
+            s.append(")");
+        }
+        s.append(">");
+        return s.toString();
+    }
+}
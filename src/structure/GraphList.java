@@ -0,0 +1,377 @@
+// Graph, implemented with adjacency lists.
+
+package structure;
+import java.util.Iterator;
+
+/**
+ * Implementation of graph using adjacency lists.
+ * Each vertex keeps a list of its incident edges, so space is proportional
+ * to the number of vertices and edges, and the neighbors of a vertex are
+ * traversed in time proportional to its degree.  Suitable for large,
+ * sparse graphs.
+ * Class is abstract: you must use GraphListDirected or
+ * GraphListUndirected to construct particular instances of graphs.
+ *
+ * Typical usage:
+ * <pre>
+ *     Graph g = new GraphListUndirected();
+ *     g.add("harry");
+ *     g.add("sally");
+ *     g.addEdge("harry","sally","unfriendly");
+ *     ...
+ * </pre>
+ *
+ * @see GraphListDirected
+ * @see GraphListUndirected
+ * @see GraphMatrix
+ */
+abstract public class GraphList extends AbstractStructure implements Graph
+{
+    /**
+     * Translation between vertex labels and vertex structures.
+     */
+    protected Hashtable dict;   // translates labels->vertices
+    /**
+     * The number of edges in the graph.
+     */
+    protected int edgeCount;
+    /**
+     * Whether or not graph is directed.
+     */
+    protected boolean directed; // graph is directed
+
+    /**
+     * Constructor of directed/undirected GraphList. Protected constructor.
+     *
+     * @param dir True if graph is to be directed.
+     */
+    protected GraphList(boolean dir)
+    {
+        dict = new Hashtable();
+        directed = dir;
+    }
+
+    /**
+     * Add a vertex to the graph.
+     *
+     * @pre label is a non-null label for vertex
+     * @post a vertex with label is added to graph;
+     *       if vertex with label is already in graph, no action
+     *
+     * @param label Label of the vertex; should be non-null.
+     */
+    public void add(Object label)
+    {
+        if (dict.containsKey(label)) return; // vertex exists
+        GraphListVertex v = new GraphListVertex(label);
+        dict.put(label,v);
+    }
+
+    /**
+     * Add an edge between two vertices within the graph.  Edge is directed
+     * iff graph is directed.  Duplicate edges are silently replaced.
+     * Labels on edges may be null.
+     *
+     * @pre vtx1 and vtx2 are labels of existing vertices
+     * @post an edge (possibly directed) is inserted between
+     *       vtx1 and vtx2.
+     *
+     * @param vtx1 First (or source, if directed) vertex.
+     * @param vtx2 Second (or destination, if directed) vertex.
+     * @param label Label associated with the edge.
+     */
+    abstract public void addEdge(Object vtx1, Object vtx2, Object label);
+
+    /**
+     * Remove a vertex from the graph.  Associated edges are also
+     * removed.  Non-vertices are silently ignored.
+     *
+     * @pre label is non-null vertex label
+     * @post vertex with "equals" label is removed, if found
+     *
+     * @param label The label of the vertex within the graph.
+     * @return The label associated with the vertex.
+     */
+    abstract public Object remove(Object label);
+
+    /**
+     * Remove possible edge between vertices labeled vLabel1 and vLabel2.
+     * Directed edges consider vLabel1 to be the source.
+     *
+     * @pre vLabel1 and vLabel2 are labels of existing vertices
+     * @post edge is removed, its label is returned
+     *
+     * @param vLabel1 First (or source, if directed) vertex.
+     * @param vLabel2 Second (or destination, if directed) vertex.
+     * @return The label associated with the edge removed.
+     */
+    abstract public Object removeEdge(Object vLabel1, Object vLabel2);
+
+    /**
+     * Get the vertex structure associated with a label.
+     *
+     * @pre label is the label of an existing vertex
+     * @post returns the vertex labeled label
+     */
+    protected GraphListVertex vertex(Object label)
+    {
+        GraphListVertex vert = (GraphListVertex)dict.get(label);
+        Assert.pre(vert != null, "Vertex exists.");
+        return vert;
+    }
+
+    /**
+     * Get reference to actual label of vertex.  Vertex labels are matched
+     * using their equals method, which may or may not test for actual
+     * equivalence.  Result remains part of graph.
+     *
+     * @post returns actual label of indicated vertex
+     *
+     * @param label The label of the vertex sought.
+     * @return The actual label, or null if none is found.
+     */
+    public Object get(Object label)
+    {
+        GraphListVertex vert = (GraphListVertex)dict.get(label);
+        if (vert == null) return null;
+        return vert.label();
+    }
+
+    /**
+     * Get reference to actual edge.  Edge is identified by
+     * the labels on associated vertices.  If edge is directed, the
+     * label1 indicates source.
+     *
+     * @pre label1 is the label of an existing vertex
+     * @post returns actual edge between vertices
+     *
+     * @param label1 The first (or source, if directed) vertex.
+     * @param label2 The second (or destination, if directed) vertex.
+     * @return The edge, if found, or null.
+     */
+    public Edge getEdge(Object label1, Object label2)
+    {
+        Edge e = new Edge(label1, label2, null, directed);
+        return vertex(label1).getEdge(e);
+    }
+
+    /**
+     * Test for vertex membership.
+     *
+     * @post returns true iff vertex with "equals" label exists
+     *
+     * @param label The label of the vertex sought.
+     * @return True iff vertex with matching label is found.
+     */
+    public boolean contains(Object label)
+    {
+        return dict.containsKey(label);
+    }
+
+    /**
+     * Test for edge membership.  If edges are directed, vLabel1
+     * indicates source.
+     *
+     * @pre vLabel1 is the label of an existing vertex
+     * @post returns true iff edge with "equals" label exists
+     *
+     * @param vLabel1 First (or source, if directed) vertex.
+     * @param vLabel2 Second (or destination, if directed) vertex.
+     * @return True iff the edge exists within the graph.
+     */
+    public boolean containsEdge(Object vLabel1, Object vLabel2)
+    {
+        Edge e = new Edge(vLabel1, vLabel2, null, directed);
+        return vertex(vLabel1).containsEdge(e);
+    }
+
+    /**
+     * Test and set visited flag of vertex.
+     *
+     * @post sets visited flag on vertex, returns previous value
+     *
+     * @param label Label of vertex to be visited.
+     * @return Previous value of visited flag on vertex.
+     */
+    public boolean visit(Object label)
+    {
+        return vertex(label).visit();
+    }
+
+    /**
+     * Test and set visited flag of edge.
+     *
+     * @pre sets visited flag on edge; returns previous value
+     *
+     * @param e Edge object that is part of graph.
+     * @return Previous value of the Edge's visited flag.
+     */
+    public boolean visitEdge(Edge e)
+    {
+        return e.visit();
+    }
+
+    /**
+     * Return visited flag of vertex.
+     *
+     * @post returns visited flag on labeled vertex
+     *
+     * @param label Label of vertex.
+     * @return True if vertex has been visited.
+     */
+    public boolean isVisited(Object label)
+    {
+        return vertex(label).isVisited();
+    }
+
+    /**
+     * Return visited flag of edge.
+     *
+     * @post returns visited flag on edge between vertices
+     *
+     * @param e Edge of graph to be considered.
+     * @return True if the edge has been visited.
+     */
+    public boolean isVisitedEdge(Edge e)
+    {
+        return e.isVisited();
+    }
+
+    /**
+     * Clear visited flags of edges and vertices.
+     *
+     * @post resets visited flags to false
+     */
+    public void reset()
+    {
+        Iterator it = dict.iterator();
+        while (it.hasNext())
+        {
+            GraphListVertex vert = (GraphListVertex)it.next();
+            vert.reset();
+            Iterator ei = vert.adjacentEdges();
+            while (ei.hasNext())
+            {
+                ((Edge)ei.next()).reset();
+            }
+        }
+    }
+
+    /**
+     * Determine number of vertices within graph.
+     *
+     * @post returns the number of vertices in graph
+     *
+     * @return The number of vertices within graph.
+     */
+    public int size()
+    {
+        return dict.size();
+    }
+
+    /**
+     * Determine out degree of vertex.
+     *
+     * @pre label labels an existing vertex
+     * @post returns the number of vertices adjacent to vertex
+     *
+     * @param label Label associated with vertex.
+     * @return The number of edges with this vertex as source.
+     */
+    public int degree(Object label)
+    {
+        return vertex(label).degree();
+    }
+
+    /**
+     * Determine the number of edges in graph.
+     *
+     * @post returns the number of edges in graph
+     *
+     * @return Number of edges in graph.
+     */
+    public int edgeCount()
+    {
+        return edgeCount;
+    }
+
+    /**
+     * Construct vertex traversal.  Vertices are not visited in
+     * any guaranteed order.
+     *
+     * @post returns traversal across all vertices of graph
+     *
+     * @return AbstractIterator traversing vertices in graph.
+     */
+    public Iterator iterator()
+    {
+        return dict.keys();
+    }
+
+    /**
+     * Construct an adjacent vertex traversal.   Adjacent vertices
+     * (those on destination of edge, if directed) are considered,
+     * but not in any guaranteed order.  The traversal takes time
+     * proportional to the degree of the vertex.
+     *
+     * @pre label is label of vertex in graph
+     * @post returns traversal over vertices adj. to vertex
+     *       each edge beginning at label visited exactly once
+     *
+     * @param label Label of the vertex.
+     * @return AbstractIterator traversing the adjacent vertices of labeled vertex.
+     */
+    public Iterator neighbors(Object label)
+    {
+        return vertex(label).adjacentVertices();
+    }
+
+    /**
+     * Construct an traversal over all edges.  Every directed/undirected
+     * edge is considered exactly once.  Order is not guaranteed.
+     *
+     * @post returns traversal across edges of graph
+     *       traversal returns edges; each edge visited once
+     *
+     * @return AbstractIterator over edges.
+     */
+    public Iterator edges()
+    {
+        return new GraphListEIterator(dict);
+    }
+
+    /**
+     * Remove all vertices (and thus, edges) of the graph.
+     *
+     * @post removes all vertices from graph
+     */
+    public void clear()
+    {
+        dict.clear();
+        edgeCount = 0;
+    }
+
+    /**
+     * Determine if graph is empty.
+     *
+     * @post returns true if graph contains no vertices
+     *
+     * @return True iff there are no vertices in graph.
+     */
+    public boolean isEmpty()
+    {
+        return dict.isEmpty();
+    }
+
+    /**
+     * Determine if graph is directed.
+     *
+     * @post returns true if edges of graph are directed
+     *
+     * @return True iff the graph is directed.
+     */
+    public boolean isDirected()
+    {
+        return directed;
+    }
+}
@@ -0,0 +1,146 @@
+// Graph, implemented with adjacency lists of directed edges.
+
+package structure;
+import java.util.Iterator;
+
+/**
+ * A GraphListDirected is a list-based graph representation that
+ * consists of a collection of vertices and directed edges.  Each vertex
+ * keeps the edges that leave it.  Portions of the graph may be marked
+ * visited to support iterative algorithms.  Iteration is provided over
+ * vertices, edges, and vertices adjacent to a particular vertex.
+ * GraphList differs from GraphMatrix in that space is proportional
+ * to the number of vertices and edges.
+ * <P>
+ * Because only outgoing edges are kept, removing a vertex considers
+ * every vertex, in search of edges that enter it.
+ * <P>
+ * Example Usage:
+ * <P>
+ * <pre>
+ *      Graph g = new {@link #GraphListDirected()};
+ *      g.add("socks");
+ *      g.add("shoes");
+ *      g.{@link #addEdge(Object,Object,Object) addEdge("socks","shoes",null)};
+ *      Iterator i = g.{@link #neighbors(Object) neighbors("socks")};
+ * </pre>
+ *
+ * @see GraphList
+ * @see GraphListUndirected
+ * @see GraphMatrixDirected
+ */
+public class GraphListDirected extends GraphList
+{
+    /**
+     * Construct a directed, adjacency-list based graph.
+     *
+     * @post constructs an empty, directed graph
+     */
+    public GraphListDirected()
+    {
+        super(true);
+    }
+
+    /**
+     * Add an edge between two vertices within the graph.  Edge is directed.
+     * Duplicate edges are silently replaced.
+     * Labels on edges may be null.
+     *
+     * @pre vLabel1 and vLabel2 are labels of existing vertices
+     * @post an edge is inserted between vLabel1 and vLabel2;
+     *       if edge exists, it is relabeled with label (can be null)
+     *
+     * @param vLabel1 Source vertex.
+     * @param vLabel2 Destination vertex.
+     * @param label Label associated with the edge.
+     */
+    public void addEdge(Object vLabel1, Object vLabel2, Object label)
+    {
+        GraphListVertex vtx1 = vertex(vLabel1);
+        GraphListVertex vtx2 = vertex(vLabel2);
+        Edge e = new Edge(vtx1.label(), vtx2.label(), label, true);
+        Edge old = vtx1.getEdge(e);
+        if (old != null) old.setLabel(label);
+        else
+        {
+            vtx1.addEdge(e);
+            edgeCount++;
+        }
+    }
+
+    /**
+     * Remove a vertex from the graph.  Associated edges are also
+     * removed.  Non-vertices are silently ignored.  This takes time
+     * proportional to the size of the graph.
+     *
+     * @pre label is non-null vertex label
+     * @post vertex with "equals" label is removed, if found
+     *
+     * @param label The label of the vertex within the graph.
+     * @return The label associated with the vertex.
+     */
+    public Object remove(Object label)
+    {
+        GraphListVertex vert = (GraphListVertex)dict.get(label);
+        if (vert == null) return null;
+        // remove the edges that enter the vertex
+        Iterator vi = dict.iterator();
+        while (vi.hasNext())
+        {
+            GraphListVertex source = (GraphListVertex)vi.next();
+            Edge e = new Edge(source.label(), vert.label(), null, true);
+            if (source.removeEdge(e) != null) edgeCount--;
+        }
+        // the edges that leave the vertex go with it
+        edgeCount -= vert.degree();
+        dict.remove(label);
+        return vert.label();
+    }
+
+    /**
+     * Remove possible edge between vertices labeled vLabel1 and vLabel2.
+     * vLabel1 is the source.
+     *
+     * @pre vLabel1 and vLabel2 are labels of existing vertices
+     * @post edge is removed, its label is returned
+     *
+     * @param vLabel1 Source vertex.
+     * @param vLabel2 Destination vertex.
+     * @return The label associated with the edge removed.
+     */
+    public Object removeEdge(Object vLabel1, Object vLabel2)
+    {
+        Edge e = new Edge(vLabel1, vLabel2, null, true);
+        e = vertex(vLabel1).removeEdge(e);
+        if (e == null) return null;
+        edgeCount--;
+        return e.label();
+    }
+
+    /**
+     * Construct a string representation of graph.
+     *
+     * @post returns string representation of graph
+     *
+     * @return String representing graph.
+     */
+    public String toString()
+    {
+        StringBuffer s = new StringBuffer();
+        Iterator source = iterator();
+        Iterator dest;
+
+        s.append("<GraphListDirected:");
+        while (source.hasNext()) {
+            Object srcVal = source.next();
+            s.append(" ("+srcVal+"->");
+            dest = neighbors(srcVal);
+            while (dest.hasNext()) {
+                s.append(srcVal+"->"+dest.next());
+            }
+            s.append(")");
+        }
+        s.append(">");
+        return s.toString();
+    }
+}
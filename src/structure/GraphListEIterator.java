@@ -3,6 +3,8 @@ import java.util.Iterator;
 /**
  * An iterator over all edges.  Every directed/undirected
  * edge is considered exactly once.  Order is not guaranteed.
+ * Edges are found as the traversal proceeds, vertex by vertex, so
+ * constructing the iterator does not copy the edges of the graph.
  * <P>
  * Typical use:
  * <P>
@@ -21,7 +23,11 @@ import java.util.Iterator;
  */
 class GraphListEIterator extends AbstractIterator
 {
-    protected Iterator edges;
+    protected Hashtable dict;      // label -> vertex
+    protected Iterator vertices;   // vertices yet to be considered
+    protected GraphListVertex vertex; // vertex whose edges are considered
+    protected Iterator edges;      // remaining edges of vertex
+    protected Edge current;        // the current edge, or null
 
     /**
      * @post constructs a new iterator across edges of
@@ -29,22 +35,10 @@ class GraphListEIterator extends AbstractIterator
      * 
      * @param dict 
      */
-    public GraphListEIterator(Map dict)
+    public GraphListEIterator(Hashtable dict)
     {
-	List l = new DoublyLinkedList();
-	Iterator dictIterator = dict.values().iterator();
-	while (dictIterator.hasNext())
-	{
-	    GraphListVertex vtx =
-		(GraphListVertex)dictIterator.next();
-	    Iterator vtxIterator = vtx.adjacentEdges();
-	    while (vtxIterator.hasNext())
-	    {
-		Edge e = (Edge)vtxIterator.next();
-		if (vtx.label().equals(e.here())) l.addLast(e);
-	    }
-	}
-	edges = l.iterator();
+	this.dict = dict;
+	reset();
     }
 
     /**
@@ -53,7 +47,34 @@ class GraphListEIterator extends AbstractIterator
      */
     public void reset()
     {
-	((AbstractIterator)edges).reset();
+	vertices = dict.iterator();
+	edges = null;
+	advance();
+    }
+
+    /**
+     * @post current is the next edge that begins at its vertex,
+     *       or null if none remain
+     */
+    protected void advance()
+    {
+	current = null;
+	while (true)
+	{
+	    while (edges != null && edges.hasNext())
+	    {
+		Edge e = (Edge)edges.next();
+		// undirected edges are considered from their first vertex
+		if (vertex.label().equals(e.here()))
+		{
+		    current = e;
+		    return;
+		}
+	    }
+	    if (!vertices.hasNext()) return;
+	    vertex = (GraphListVertex)vertices.next();
+	    edges = vertex.adjacentEdges();
+	}
     }
 
     /**
@@ -63,7 +84,7 @@ class GraphListEIterator extends AbstractIterator
      */
     public boolean hasNext()
     {
-	return edges.hasNext();
+	return current != null;
     }
 
     /**
@@ -74,7 +95,7 @@ class GraphListEIterator extends AbstractIterator
      */
     public Object get()
     {
-	return ((AbstractIterator)edges).get();
+	return current;
     }
 
     /**
@@ -85,7 +106,8 @@ class GraphListEIterator extends AbstractIterator
      */
     public Object next()
     {
-	return edges.next();
+	Edge result = current;
+	advance();
+	return result;
     }
 }
-
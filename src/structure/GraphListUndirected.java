@@ -0,0 +1,150 @@
+// Graph, implemented with adjacency lists of undirected edges.
+
+package structure;
+import java.util.Iterator;
+
+/**
+ * A GraphListUndirected is a list-based graph representation that
+ * consists of a collection of vertices and undirected edges.  Each edge
+ * appears on the adjacency lists of both of its vertices.  Portions of
+ * the graph may be marked visited to support iterative algorithms.
+ * Iteration is provided over vertices, edges, and vertices adjacent to
+ * a particular vertex.
+ * GraphList differs from GraphMatrix in that space is proportional
+ * to the number of vertices and edges.
+ * <P>
+ * Example Usage:
+ * <P>
+ * <pre>
+ *      Graph g = new {@link #GraphListUndirected()};
+ *      g.add("harry");
+ *      g.add("sally");
+ *      g.{@link #addEdge(Object,Object,Object) addEdge("harry","sally","unfriendly")};
+ *      Iterator i = g.{@link #neighbors(Object) neighbors("sally")};
+ * </pre>
+ *
+ * @see GraphList
+ * @see GraphListDirected
+ * @see GraphMatrixUndirected
+ */
+public class GraphListUndirected extends GraphList
+{
+    /**
+     * Construct an undirected, adjacency-list based graph.
+     *
+     * @post constructs an empty, undirected graph
+     */
+    public GraphListUndirected()
+    {
+        super(false);
+    }
+
+    /**
+     * Add an edge between two vertices within the graph.  Edge is undirected.
+     * Duplicate edges are silently replaced.
+     * Labels on edges may be null.
+     *
+     * @pre vLabel1 and vLabel2 are labels of existing vertices, v1 & v2
+     * @post an edge (undirected) is inserted between v1 and v2;
+     *       if edge exists, it is relabeled with label (can be null)
+     *
+     * @param vLabel1 One vertex.
+     * @param vLabel2 Another vertex.
+     * @param label Label associated with the edge.
+     */
+    public void addEdge(Object vLabel1, Object vLabel2, Object label)
+    {
+        GraphListVertex vtx1 = vertex(vLabel1);
+        GraphListVertex vtx2 = vertex(vLabel2);
+        Edge e = new Edge(vtx1.label(), vtx2.label(), label, false);
+        Edge old = vtx1.getEdge(e);
+        if (old != null) old.setLabel(label);
+        else
+        {
+            // the edge is shared; a self-loop appears once
+            vtx1.addEdge(e);
+            vtx2.addEdge(e);
+            edgeCount++;
+        }
+    }
+
+    /**
+     * Remove a vertex from the graph.  Associated edges are also
+     * removed.  Non-vertices are silently ignored.  This takes time
+     * proportional to the total degree of the vertex's neighbors.
+     *
+     * @pre label is non-null vertex label
+     * @post vertex with "equals" label is removed, if found
+     *
+     * @param label The label of the vertex within the graph.
+     * @return The label associated with the vertex.
+     */
+    public Object remove(Object label)
+    {
+        GraphListVertex vert = (GraphListVertex)dict.get(label);
+        if (vert == null) return null;
+        Iterator ei = vert.adjacentEdges();
+        while (ei.hasNext())
+        {
+            Edge e = (Edge)ei.next();
+            Object other = vert.label().equals(e.here()) ? e.there() : e.here();
+            // remove the edge from the other end, unless a self-loop
+            if (!vert.label().equals(other))
+            {
+                ((GraphListVertex)dict.get(other)).removeEdge(e);
+            }
+            edgeCount--;
+        }
+        dict.remove(label);
+        return vert.label();
+    }
+
+    /**
+     * Remove possible edge between vertices labeled vLabel1 and vLabel2.
+     *
+     * @pre vLabel1 and vLabel2 are labels of existing vertices
+     * @post edge is removed, its label is returned
+     *
+     * @param vLabel1 One vertex.
+     * @param vLabel2 Another vertex.
+     * @return The label associated with the edge removed.
+     */
+    public Object removeEdge(Object vLabel1, Object vLabel2)
+    {
+        GraphListVertex vtx1 = vertex(vLabel1);
+        GraphListVertex vtx2 = vertex(vLabel2);
+        Edge e = new Edge(vtx1.label(), vtx2.label(), null, false);
+        e = vtx1.removeEdge(e);
+        if (e == null) return null;
+        vtx2.removeEdge(e);
+        edgeCount--;
+        return e.label();
+    }
+
+    /**
+     * Construct a string representation of graph.
+     *
+     * @post returns string representation of graph
+     *
+     * @return String representing graph.
+     */
+    public String toString()
+    {
+        StringBuffer s = new StringBuffer();
+        Iterator source = iterator();
+        Iterator dest;
+
+        s.append("<GraphListUndirected:");
+        while (source.hasNext()) {
+            Object srcVal = source.next();
+            s.append(" ("+srcVal+"->");
+            dest = neighbors(srcVal);
+            while (dest.hasNext()) {
+                s.append(srcVal+"->"+dest.next());
+            }
+            s.append(")");
+        }
+        s.append(">");
+        return s.toString();
+    }
+}
@@ -2,12 +2,26 @@
 // (c) 1998, 2001 duane a. bailey
 
 package structure;
+import java.util.Arrays;
 import java.util.Iterator;
 
 /**
  * Implementation of graph using adjacency matrices.
- * User must commit to maximum size of graph (in vertices); it may be smaller.
+ * User suggests an initial size of graph (in vertices); when every row
+ * of the matrix is in use, the matrix doubles in size.
  * Edges are stored in matrix.  Not suitable for large graphs.
+ * The number of edges and the degree of each vertex are kept as
+ * edges are added and removed, so they are found in constant time;
+ * traversals of edges and neighbors scan the matrix as they proceed.
+ * <P>
+ * Each row of the matrix is also kept as a bit set, one bit per
+ * column, so rows may be compared a word (64 columns) at a time, as in
+ * {@link #commonNeighbors(Object,Object)}.  A graph constructed to be
+ * <i>unlabeled</i> keeps only these bits: edge labels are discarded,
+ * and the edges returned by {@link #getEdge(Object,Object)} and
+ * {@link #edges()} are constructed as they are requested, so their
+ * visited flags are not remembered by the graph.  An unlabeled graph
+ * uses 1/64th of a word per cell, rather than a reference.
  * Class is abstract: you must use GraphMatrixDirected or 
  * GraphMatrixUndirected to construct particular instances of graphs.
  *
@@ -34,13 +48,27 @@ abstract public class GraphMatrix extends AbstractStructure implements Graph
     protected int size;          // allocation size for graph
     /**
      * The edge data.  Every edge appears on one (directed)
-     * or two (undirected) locations within graph.
+     * or two (undirected) locations within graph.  Null if the
+     * graph is unlabeled.
      */
     protected Edge data[][];     // matrix - array of arrays
+    /**
+     * The adjacency bits: bit col%64 of adjacency[row][col/64] is set
+     * iff data[row][col] holds an edge.
+     */
+    protected long adjacency[][];
+    /**
+     * The vertex at each index of the matrix, or null.
+     */
+    protected GraphMatrixVertex vertices[];
+    /**
+     * Whether or not edges are kept as Edge objects.
+     */
+    protected boolean labeled;
     /**
      * Translation between vertex labels and vertex structures.
      */
-    protected Map dict;   // translates labels->vertices
+    protected Hashtable dict;   // translates labels->vertices
     /**
      * List of free vertex indices within graph.
      */
@@ -49,27 +77,94 @@ abstract public class GraphMatrix extends AbstractStructure implements Graph
      * Whether or not graph is directed.
      */
     protected boolean directed;  // graph is directed
+    /**
+     * The number of edges in the graph.
+     */
+    protected int edgeCount;
+    /**
+     * The number of edges leaving and entering each vertex, by index.
+     * An undirected edge both leaves and enters each of its vertices.
+     */
+    protected int outDegree[], inDegree[];
 
     /**
      * Constructor of directed/undirected GraphMatrix. Protected constructor.
      *
-     * @param size Maximum size of graph.
+     * @param size Initial size of graph.
      * @param dir True if graph is to be directed.
      */
     protected GraphMatrix(int size, boolean dir)
     {
-	this.size = size; // set maximum size
+	this(size, dir, true);
+    }
+
+    /**
+     * Constructor of directed/undirected, labeled/unlabeled GraphMatrix.
+     * Protected constructor.
+     *
+     * @pre size >= 0
+     *
+     * @param size Initial size of graph.
+     * @param dir True if graph is to be directed.
+     * @param labeled True if edges, and their labels, are to be kept.
+     */
+    protected GraphMatrix(int size, boolean dir, boolean labeled)
+    {
+	Assert.pre(size >= 0, "Size is non-negative.");
+	this.size = size; // set initial size
 	directed = dir;   // fix direction of edges
+	this.labeled = labeled;
 	// the following constructs a size x size matrix
-	data = new Edge[size][size];
+	if (labeled) data = new Edge[size][size];
+	adjacency = new long[size][words(size)];
+	vertices = new GraphMatrixVertex[size];
+	outDegree = new int[size];
+	inDegree = new int[size];
 	// label to index translation table
-	dict = new Hashtable(size);
+	dict = new Hashtable(Math.max(size, 1));
 	// put all indices in the free list
 	freeList = new SinglyLinkedList();
 	for (int row = size-1; row >= 0; row--)
 	    freeList.add(new Integer(row));
     }
 
+    /**
+     * @post returns the number of words needed for a row of n bits
+     */
+    protected static int words(int n)
+    {
+	return (n+63) >>> 6;
+    }
+
+    /**
+     * Double the size of the matrix.  The rows and columns of the
+     * new indices are empty.
+     *
+     * @post size is doubled (or becomes 1); new indices are free
+     */
+    protected void extend()
+    {
+	int newSize = Math.max(1, 2*size);
+	if (labeled) {
+	    Edge newData[][] = new Edge[newSize][];
+	    for (int row = 0; row < newSize; row++)
+		newData[row] = row < size ? Arrays.copyOf(data[row], newSize)
+		                          : new Edge[newSize];
+	    data = newData;
+	}
+	long newAdjacency[][] = new long[newSize][];
+	for (int row = 0; row < newSize; row++)
+	    newAdjacency[row] = row < size ? Arrays.copyOf(adjacency[row], words(newSize))
+	                                   : new long[words(newSize)];
+	adjacency = newAdjacency;
+	vertices = Arrays.copyOf(vertices, newSize);
+	outDegree = Arrays.copyOf(outDegree, newSize);
+	inDegree = Arrays.copyOf(inDegree, newSize);
+	for (int row = newSize-1; row >= size; row--)
+	    freeList.add(Integer.valueOf(row));
+	size = newSize;
+    }
+
     /**
      * Add a vertex to the graph.
      *
@@ -84,11 +179,13 @@ abstract public class GraphMatrix extends AbstractStructure implements Graph
 	// if there already, do nothing
 	if (dict.containsKey(label)) return;
 
-	Assert.pre(!freeList.isEmpty(), "Matrix not full");
+	if (freeList.isEmpty()) extend();
 	// allocate a free row and column
 	int row = ((Integer) freeList.removeFirst()).intValue();
 	// add vertex to dictionary
-	dict.put(label, new GraphMatrixVertex(label, row));
+	GraphMatrixVertex vert = new GraphMatrixVertex(label, row);
+	vertices[row] = vert;
+	dict.put(label, vert);
     }
 
     /**
@@ -125,15 +222,137 @@ abstract public class GraphMatrix extends AbstractStructure implements Graph
 	// remove vertex from matrix
 	int index = vert.index();
 	// clear row and column entries
+	for (int col = nextEdge(index, 0); col >= 0; col = nextEdge(index, col+1)) {
+	    edgeCount--;
+	    disconnect(index, col);
+	}
 	for (int row=0; row<size; row++) {
-	    data[row][index] = null;
-	    data[index][row] = null;
+	    if (hasEdge(row, index)) {
+		// undirected edges were counted with the row
+		if (directed) edgeCount--;
+		disconnect(row, index);
+	    }
 	}
+	vertices[index] = null;
 	// add node index to free list
 	freeList.add(new Integer(index));
 	return vert.label();
     }
 
+    /**
+     * Record an edge in one cell of the matrix, keeping the degrees of
+     * the vertices current.  An existing edge is replaced.
+     *
+     * @pre e is non-null, unless graph is unlabeled
+     * @post cell (row, col) holds e; degrees of row and col are updated
+     *
+     * @param row The index of the source vertex.
+     * @param col The index of the destination vertex.
+     * @param e The edge; ignored if the graph is unlabeled.
+     */
+    protected void connect(int row, int col, Edge e)
+    {
+	if (!hasEdge(row, col)) {
+	    adjacency[row][col >>> 6] |= 1L << col;
+	    outDegree[row]++;
+	    inDegree[col]++;
+	}
+	if (labeled) data[row][col] = e;
+    }
+
+    /**
+     * Clear one cell of the matrix, keeping the degrees of the
+     * vertices current.
+     *
+     * @post cell (row, col) holds no edge; degrees are updated
+     *
+     * @param row The index of the source vertex.
+     * @param col The index of the destination vertex.
+     */
+    protected void disconnect(int row, int col)
+    {
+	if (hasEdge(row, col)) {
+	    adjacency[row][col >>> 6] &= ~(1L << col);
+	    outDegree[row]--;
+	    inDegree[col]--;
+	}
+	if (labeled) data[row][col] = null;
+    }
+
+    /**
+     * Determine if a cell of the matrix holds an edge.
+     *
+     * @post returns true iff cell (row, col) holds an edge
+     */
+    protected boolean hasEdge(int row, int col)
+    {
+	return (adjacency[row][col >>> 6] & (1L << col)) != 0;
+    }
+
+    /**
+     * Find the next column of a row that holds an edge.
+     *
+     * @pre 0 <= from
+     * @post returns the least col >= from with hasEdge(row, col), or -1
+     */
+    protected int nextEdge(int row, int from)
+    {
+	if (from >= size) return -1;
+	long bits[] = adjacency[row];
+	int w = from >>> 6;
+	long word = bits[w] & (-1L << from);
+	while (word == 0) {
+	    if (++w == bits.length) return -1;
+	    word = bits[w];
+	}
+	return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Get the edge held by a cell of the matrix.  If the graph is
+     * unlabeled, a new, unlabeled edge is constructed.
+     *
+     * @post returns the edge in cell (row, col), or null
+     */
+    protected Edge cell(int row, int col)
+    {
+	if (labeled) return data[row][col];
+	if (!hasEdge(row, col)) return null;
+	return new Edge(vertices[row].label(), vertices[col].label(), null, directed);
+    }
+
+    /**
+     * Translate the rows of the matrix to the dense ids of a numbering
+     * of its vertices.
+     *
+     * @pre vertices numbers the vertices of this graph
+     * @post returns the id of the vertex of each row, or -1 for a
+     *       free row
+     */
+    int[] rowIds(VertexIds vertices)
+    {
+	int result[] = new int[size];
+	Arrays.fill(result, -1);
+	for (int v = 0; v < vertices.size(); v++)
+	    result[((GraphMatrixVertex)dict.get(vertices.label(v))).index()] = v;
+	return result;
+    }
+
+    /**
+     * Count the bits set in both of two rows, at or after a column.
+     *
+     * @post returns the number of columns >= from set in a and b
+     */
+    protected static int countCommon(long a[], long b[], int from)
+    {
+	int w = from >>> 6;
+	if (w >= a.length) return 0;
+	int result = Long.bitCount(a[w] & b[w] & (-1L << from));
+	for (w++; w < a.length; w++)
+	    result += Long.bitCount(a[w] & b[w]);
+	return result;
+    }
+
     /**
      * Remove possible edge between vertices labeled vLabel1 and vLabel2.
      * Directed edges consider vLabel1 to be the source.
@@ -180,7 +399,7 @@ abstract public class GraphMatrix extends AbstractStructure implements Graph
 	int row,col;
 	row = ((GraphMatrixVertex) dict.get(label1)).index();
 	col = ((GraphMatrixVertex) dict.get(label2)).index();
-	return data[row][col];
+	return cell(row, col);
     }
 
     /**
@@ -213,7 +432,7 @@ abstract public class GraphMatrix extends AbstractStructure implements Graph
 	vtx2 = (GraphMatrixVertex) dict.get(vLabel2);
 	Assert.condition(vtx1 != null, "Vertex exists");
 	Assert.condition(vtx2 != null, "Vertex exists");
-	return data[vtx1.index()][vtx2.index()] != null;
+	return hasEdge(vtx1.index(), vtx2.index());
     }
 
     /**
@@ -283,11 +502,12 @@ abstract public class GraphMatrix extends AbstractStructure implements Graph
 	{
 	    ((GraphMatrixVertex)it.next()).reset();
 	}
-	for (int row=0; row<size; row++)
-	    for (int col=0; col<size; col++) {
-		Edge e = data[row][col];
-		if (e != null) e.reset();
-	    }
+	if (!labeled) return; // no edges are kept
+	Iterator ei = edges();
+	while (ei.hasNext())
+	{
+	    ((Edge)ei.next()).reset();
+	}
     }
 
     /**
@@ -313,16 +533,56 @@ abstract public class GraphMatrix extends AbstractStructure implements Graph
      */
     public int degree(Object label)
     {
-	// get index
-	int row = ((GraphMatrixVertex)dict.get(label)).index();
-	int col;
-	int result = 0;
-	// count non-null columns in row
-	for (col = 0; col < size; col++)
-	{
-	    if (data[row][col] != null) result++;
-	}
-	return result;
+	return outDegree(label);
+    }
+
+    /**
+     * Determine out degree of vertex.  For undirected graphs, this is
+     * the number of incident edges.
+     *
+     * @pre label labels an existing vertex
+     * @post returns the number of edges leaving vertex
+     *
+     * @param label Label associated with vertex.
+     * @return The number of edges with this vertex as source.
+     */
+    public int outDegree(Object label)
+    {
+	return outDegree[((GraphMatrixVertex)dict.get(label)).index()];
+    }
+
+    /**
+     * Determine in degree of vertex.  For undirected graphs, this is
+     * the number of incident edges.
+     *
+     * @pre label labels an existing vertex
+     * @post returns the number of edges entering vertex
+     *
+     * @param label Label associated with vertex.
+     * @return The number of edges with this vertex as destination.
+     */
+    public int inDegree(Object label)
+    {
+	return inDegree[((GraphMatrixVertex)dict.get(label)).index()];
+    }
+
+    /**
+     * Count the vertices adjacent to both of two vertices (those on
+     * the destination of edges, if directed).  The rows of the
+     * vertices are compared 64 columns at a time.
+     *
+     * @pre label1 and label2 label existing vertices
+     * @post returns the number of vertices adjacent to both vertices
+     *
+     * @param label1 Label of one vertex.
+     * @param label2 Label of another vertex.
+     * @return The number of common neighbors.
+     */
+    public int commonNeighbors(Object label1, Object label2)
+    {
+	int row1 = ((GraphMatrixVertex)dict.get(label1)).index();
+	int row2 = ((GraphMatrixVertex)dict.get(label2)).index();
+	return countCommon(adjacency[row1], adjacency[row2], 0);
     }
 
     /**
@@ -332,7 +592,10 @@ abstract public class GraphMatrix extends AbstractStructure implements Graph
      * 
      * @return Number of edges in graph.
      */
-    abstract public int edgeCount();
+    public int edgeCount()
+    {
+	return edgeCount;
+    }
 
     /**
      * Construct vertex traversal.  Vertices are not visited in 
@@ -344,13 +607,15 @@ abstract public class GraphMatrix extends AbstractStructure implements Graph
      */
     public Iterator iterator()
     {
-	return dict.keySet().iterator();
+	return dict.keys();
     }
 
     /**
      * Construct an adjacent vertex traversal.   Adjacent vertices
      * (those on destination of edge, if directed) are considered,
-     * but not in any guaranteed order.
+     * but not in any guaranteed order.  The row of the vertex is
+     * scanned as the traversal proceeds, and no further than its
+     * last edge.
      *
      * @pre label is label of vertex in graph
      * @post returns traversal over vertices adj. to vertex
@@ -363,29 +628,24 @@ abstract public class GraphMatrix extends AbstractStructure implements Graph
     {
 	GraphMatrixVertex vert;
 	vert = (GraphMatrixVertex) dict.get(label);
-	List list = new SinglyLinkedList();
-	for (int row=size-1; row>=0; row--)
-	{
-	    Edge e = data[vert.index()][row];
-	    if (e != null) {
-		if (e.here().equals(vert.label()))
-		     list.add(e.there());
-		else list.add(e.here());
-	    }
-	}
-	return list.iterator();
+	return new GraphMatrixAIterator(this, vert);
     }
 	  
     /**
      * Construct an traversal over all edges.  Every directed/undirected
      * edge is considered exactly once.  Order is not guaranteed.
+     * The matrix is scanned as the traversal proceeds; rows without
+     * edges are skipped.
      *
      * @post returns traversal across edges of graph
      *       traversal returns edges; each edge visited once
      * 
      * @return AbstractIterator over edges.
      */
-    abstract public Iterator edges();
+    public Iterator edges()
+    {
+	return new GraphMatrixEIterator(this);
+    }
 
     /**
      * Remove all vertices (and thus, edges) of the graph.
@@ -395,9 +655,14 @@ abstract public class GraphMatrix extends AbstractStructure implements Graph
     public void clear()
     {
 	dict.clear();
-	for (int row=0; row<size; row++)
-	    for (int col=0; col<size; col++)
-		data[row][col] = null;
+	for (int row=0; row<size; row++) {
+	    if (labeled) Arrays.fill(data[row], null);
+	    Arrays.fill(adjacency[row], 0L);
+	}
+	Arrays.fill(vertices, null);
+	Arrays.fill(outDegree, 0);
+	Arrays.fill(inDegree, 0);
+	edgeCount = 0;
 	freeList = new SinglyLinkedList();
 	for (int row=size-1; row>=0; row--)
 	    freeList.add(new Integer(row));
@@ -415,6 +680,18 @@ abstract public class GraphMatrix extends AbstractStructure implements Graph
       return dict.isEmpty();
     }
 
+    /**
+     * Determine if graph keeps edge labels.
+     *
+     * @post returns true if edges of graph are kept, with labels
+     *
+     * @return True iff the graph is labeled.
+     */
+    public boolean isLabeled()
+    {
+	return labeled;
+    }
+
     /**
      * Determine if graph is directed.
      *
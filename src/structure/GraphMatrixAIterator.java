@@ -0,0 +1,101 @@
+// An iterator over the vertices adjacent to a vertex of a GraphMatrix.
+
+package structure;
+
+/**
+ * An adjacent vertex iterator for matrix-based graphs.  Adjacent
+ * vertices (those on destination of edge, if directed) are considered
+ * in order of their index within the matrix.  The bits of the row of
+ * the vertex are scanned a word at a time as the traversal proceeds.
+ * Edges may be removed during the traversal: those not yet reached are
+ * not returned.
+ * Typical use:
+ * <P>
+ * <pre>
+ *      Graph g = new GraphMatrixDirected(100);
+ *      // ...graph gets built up...
+ *      Iterator ai = g.neighbors(someVertex);
+ *      while (ai.{@link #hasNext() hasNext()})
+ *      {
+ *          System.out.println(ai.{@link #next() next()});
+ *      }
+ * </pre>
+ * @see GraphMatrix#neighbors(Object)
+ */
+class GraphMatrixAIterator extends AbstractIterator
+{
+    protected GraphMatrix graph;      // the graph traversed
+    protected GraphMatrixVertex vertex; // the vertex whose row is scanned
+    protected int col;                // the column of the next edge, or -1
+
+    /**
+     * @pre vertex is a vertex of graph
+     * @post returns iterator over vertices adjacent to vertex
+     *
+     * @param graph The graph whose matrix is scanned.
+     * @param vertex The vertex whose neighbors are considered.
+     */
+    public GraphMatrixAIterator(GraphMatrix graph, GraphMatrixVertex vertex)
+    {
+        this.graph = graph;
+        this.vertex = vertex;
+        reset();
+    }
+
+    /**
+     * @post resets iterator to the first adjacent vertex
+     */
+    public void reset()
+    {
+        col = graph.nextEdge(vertex.index(), 0);
+    }
+
+    /**
+     * @post col is the column of the first edge of the row at or
+     *       after col, or -1
+     */
+    protected void advance()
+    {
+        // the edge found may have been removed since
+        if (col >= 0 && !graph.hasEdge(vertex.index(), col))
+        {
+            col = graph.nextEdge(vertex.index(), col);
+        }
+    }
+
+    /**
+     * @post returns true if more adj. vertices to traverse
+     *
+     * @return True if more adj. vertices to traverse
+     */
+    public boolean hasNext()
+    {
+        advance();
+        return col >= 0;
+    }
+
+    /**
+     * @pre hasNext
+     * @post returns the current adj. vertex
+     *
+     * @return The current adj. vertex
+     */
+    public Object get()
+    {
+        Assert.pre(hasNext(), "There is a current adj. vertex.");
+        return graph.vertices[col].label();
+    }
+
+    /**
+     * @pre hasNext
+     * @post returns the next adjacent vertex
+     *
+     * @return The next adjacent vertex
+     */
+    public Object next()
+    {
+        Object result = get();
+        col = graph.nextEdge(vertex.index(), col+1);
+        return result;
+    }
+}
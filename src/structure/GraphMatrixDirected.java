@@ -10,8 +10,9 @@ import java.util.Iterator;
  * the graph may be marked visited to support iterative algorithms.  
  * Iteration is provided over vertices, edges, and vertices adjacent to a
  * particular vertex.
- * GraphMatrix differs from GraphList in that the user must commit to 
- * an upper bound on number of vertices in graph.
+ * GraphMatrix differs from GraphList in that space is proportional to
+ * the square of the number of vertices; the matrix doubles in size
+ * when it is full.
  * <P>
  * Example Usage: 
  * <P> 
@@ -66,21 +67,47 @@ import java.util.Iterator;
  */
 public class GraphMatrixDirected extends GraphMatrix
 {
+    /**
+     * Construct a directed, adjacency-matrix based graph with room
+     * for a few vertices.
+     *
+     * @post constructs an empty, labeled, directed graph
+     */
+    public GraphMatrixDirected()
+    {
+	this(16);
+    }
+
     /**
      * Construct a directed, adjacency-matrix based graph.
      *
-     * @pre size > 0
-     * @post constructs an empty graph that may be expanded to
-     *       at most size vertices.  Graph is directed if dir true
-     *       and undirected otherwise
+     * @pre size >= 0
+     * @post constructs an empty graph with room for size vertices;
+     *       the graph grows as needed.  Graph is directed
      * 
-     * @param size The maximum number of vertices allowed in graph.
+     * @param size The initial number of vertices allowed in graph.
      */
     public GraphMatrixDirected(int size)
     {
 	super(size,true);
     }
 
+    /**
+     * Construct a directed, adjacency-matrix based graph that
+     * may keep only the presence of edges.
+     *
+     * @pre size >= 0
+     * @post constructs an empty graph with room for size vertices;
+     *       if labeled is false, edge labels are not kept
+     * 
+     * @param size The initial number of vertices allowed in graph.
+     * @param labeled True if edges, and their labels, are to be kept.
+     */
+    public GraphMatrixDirected(int size, boolean labeled)
+    {
+	super(size,true,labeled);
+    }
+
     /**
      * Add an edge between two vertices within the graph.  Edge is directed.
      * Duplicate edges are silently replaced.
@@ -101,8 +128,9 @@ public class GraphMatrixDirected extends GraphMatrix
 	vtx1 = (GraphMatrixVertex) dict.get(vLabel1);
 	vtx2 = (GraphMatrixVertex) dict.get(vLabel2);
 	// update matrix with new edge
-	Edge e = new Edge(vtx1.label(), vtx2.label(), label, true);
-	data[vtx1.index()][vtx2.index()] = e;
+	Edge e = labeled ? new Edge(vtx1.label(), vtx2.label(), label, true) : null;
+	if (!hasEdge(vtx1.index(), vtx2.index())) edgeCount++;
+	connect(vtx1.index(), vtx2.index(), e);
     }
     /**
      * Remove possible edge between vertices labeled vLabel1 and vLabel2.
@@ -121,47 +149,12 @@ public class GraphMatrixDirected extends GraphMatrix
 	int row = ((GraphMatrixVertex)dict.get(vLabel1)).index();
 	int col = ((GraphMatrixVertex)dict.get(vLabel2)).index();
 	// cache old value
-	Edge e = data[row][col];
+	if (!hasEdge(row, col)) return null;
+	Object result = labeled ? data[row][col].label() : null;
 	// update matrix
-	data[row][col] = null;
-	if (e == null) return null;
-	else return e.label(); // return old value
-    }
-
-    /**
-     * Determine the number of edges in graph.
-     *
-     * @post returns the number of edges in graph
-     * 
-     * @return Number of edges in graph.
-     */
-    public int edgeCount()
-    {
-	// count non-null entries in table
-	int sum = 0;                
-	for (int row=0; row<size; row++) 
-	    for (int col=0; col<size; col++)
-		if (data[row][col] != null) sum++;
-	return sum;
-    }
-	  
-    /**
-     * Construct an traversal over all edges.
-     * edge is considered exactly once.  Order is not guaranteed.
-     *
-     * @post returns traversal across all edges of graph (returns Edges)
-     * 
-     * @return AbstractIterator over edges.
-     */
-    public Iterator edges()
-    {
-	List list = new SinglyLinkedList();
-	for (int row=size-1; row>=0; row--) 
-	    for (int col=size-1; col >= 0; col--) {
-		Edge e = data[row][col];
-		if (e != null) list.add(e);
-	    }
-	return list.iterator();
+	disconnect(row, col);
+	edgeCount--;
+	return result; // return old value
     }
 
     /**
@@ -0,0 +1,113 @@
+// An iterator over the edges of a GraphMatrix.
+
+package structure;
+
+/**
+ * An iterator over all edges of a matrix-based graph.  Every
+ * directed/undirected edge is considered exactly once, in row-major
+ * order.  The matrix is scanned as the traversal proceeds: rows of
+ * vertices without edges are skipped, and the bits of other rows are
+ * scanned a word at a time.  Edges may be removed during the
+ * traversal: those not yet reached are not returned.
+ * The edges of an unlabeled graph are constructed as they are
+ * returned.  An undirected edge is found in the row of its vertex with
+ * the smaller index.
+ * <P>
+ * Typical use:
+ * <P>
+ * <pre>
+ *      Graph g = new GraphMatrixUndirected(100);
+ *      // ...graph gets built up...
+ *      Iterator ei = g.edges();
+ *      while (ei.{@link #hasNext() hasNext()})
+ *      {
+ *          System.out.println(ei.{@link #next() next()});
+ *      }
+ * </pre>
+ * @see GraphMatrix#edges()
+ */
+class GraphMatrixEIterator extends AbstractIterator
+{
+    protected GraphMatrix graph; // the graph traversed
+    protected int row, col;      // the cell of the next edge; col is -1 at end
+
+    /**
+     * @post constructs a new iterator across edges of graph
+     *
+     * @param graph The graph whose matrix is scanned.
+     */
+    public GraphMatrixEIterator(GraphMatrix graph)
+    {
+        this.graph = graph;
+        reset();
+    }
+
+    /**
+     * @post resets the iterator to first edge
+     */
+    public void reset()
+    {
+        row = 0;
+        col = 0;
+        advance();
+    }
+
+    /**
+     * @post (row, col) is the first cell holding an edge at or after
+     *       (row, col), in row-major order; col is -1 if there is none
+     */
+    protected void advance()
+    {
+        while (row < graph.size)
+        {
+            if (graph.outDegree[row] > 0)
+            {
+                // undirected edges are found above the diagonal
+                if (!graph.directed && col < row) col = row;
+                col = graph.nextEdge(row, col);
+                if (col >= 0) return;
+            }
+            row++;
+            col = 0;
+        }
+        col = -1;
+    }
+
+    /**
+     * @post returns true iff current element is valid
+     *
+     * @return True iff current element is valid
+     */
+    public boolean hasNext()
+    {
+        // the edge found may have been removed since
+        if (col >= 0 && !graph.hasEdge(row, col)) advance();
+        return col >= 0;
+    }
+
+    /**
+     * @pre hasNext()
+     * @post returns the current element
+     *
+     * @return The current element
+     */
+    public Object get()
+    {
+        Assert.pre(hasNext(), "There is a current element.");
+        return graph.cell(row, col);
+    }
+
+    /**
+     * @pre hasNext()
+     * @post returns current value and increments iterator
+     *
+     * @return Current value and increments iterator
+     */
+    public Object next()
+    {
+        Object result = get();
+        col++;
+        advance();
+        return result;
+    }
+}
@@ -10,8 +10,9 @@ import java.util.Iterator;
  * the graph may be marked visited to support iterative algorithms.  
  * Iteration is provided over vertices, edges, and vertices adjacent to a
  * particular vertex.
- * GraphMatrix differs from GraphList in that the user must commit to 
- * an upper bound on number of vertices in graph.
+ * GraphMatrix differs from GraphList in that space is proportional to
+ * the square of the number of vertices; the matrix doubles in size
+ * when it is full.
  * <P>
  * Example Usage: 
  * <P> 
@@ -67,19 +68,46 @@ import java.util.Iterator;
  */
 public class GraphMatrixUndirected extends GraphMatrix
 {
+    /**
+     * Construct an undirected, adjacency-matrix based graph with room
+     * for a few vertices.
+     *
+     * @post constructs an empty, labeled, undirected graph
+     */
+    public GraphMatrixUndirected()
+    {
+	this(16);
+    }
+
     /**
      * Construct an undirected, adjacency-matrix based graph.
      *
-     * @pre size > 0
-     * @post constructs an empty graph that may be expanded to
-     *       at most size vertices.  Graph is undirected.
+     * @pre size >= 0
+     * @post constructs an empty graph with room for size vertices;
+     *       the graph grows as needed.  Graph is undirected.
      * 
-     * @param size Maximum number of vertices in graph.
+     * @param size Initial number of vertices in graph.
      */
     public GraphMatrixUndirected(int size)
     {
 	super(size,false);
     }
+
+    /**
+     * Construct an undirected, adjacency-matrix based graph that
+     * may keep only the presence of edges.
+     *
+     * @pre size >= 0
+     * @post constructs an empty graph with room for size vertices;
+     *       if labeled is false, edge labels are not kept
+     * 
+     * @param size Initial number of vertices in graph.
+     * @param labeled True if edges, and their labels, are to be kept.
+     */
+    public GraphMatrixUndirected(int size, boolean labeled)
+    {
+	super(size,false,labeled);
+    }
     /**
      * Add an edge between two vertices within the graph.  Edge is undirected.
      * Duplicate edges are silently replaced.
@@ -100,9 +128,10 @@ public class GraphMatrixUndirected extends GraphMatrix
 	vtx1 = (GraphMatrixVertex) dict.get(vLabel1);
 	vtx2 = (GraphMatrixVertex) dict.get(vLabel2);
 	// update matrix with new edge
-	Edge e = new Edge(vtx1.label(), vtx2.label(), label, false);
-	data[vtx1.index()][vtx2.index()] = e;
-	data[vtx2.index()][vtx1.index()] = e;
+	Edge e = labeled ? new Edge(vtx1.label(), vtx2.label(), label, false) : null;
+	if (!hasEdge(vtx1.index(), vtx2.index())) edgeCount++;
+	connect(vtx1.index(), vtx2.index(), e);
+	connect(vtx2.index(), vtx1.index(), e);
     }
 
     /**
@@ -121,48 +150,36 @@ public class GraphMatrixUndirected extends GraphMatrix
 	int row = ((GraphMatrixVertex)dict.get(vLabel1)).index();
 	int col = ((GraphMatrixVertex)dict.get(vLabel2)).index();
 	// cache old value
-	Edge e = data[row][col];
+	if (!hasEdge(row, col)) return null;
+	Object result = labeled ? data[row][col].label() : null;
 	// update matrix
-	data[row][col] = null;
-	data[col][row] = null;
-	if (e == null) return null;
-	else return e.label();
+	disconnect(row, col);
+	disconnect(col, row);
+	edgeCount--;
+	return result;
     }
 
     /**
-     * Determine the number of edges in graph.
+     * Count the triangles of the graph: the sets of three distinct
+     * vertices that are pairwise adjacent.  For each edge, the rows of
+     * its vertices are intersected 64 columns at a time, counting only
+     * the third vertices of larger index, so each triangle is counted
+     * once.  Self-loops are not part of any triangle.
      *
-     * @post returns the number of edges in graph
-     * 
-     * @return Number of edges in graph.
-     */
-    public int edgeCount()
-    {
-	// count non-null entries in table
-	int sum = 0;                
-	for (int row=0; row<size; row++) 
-	    for (int col=row; col<size; col++)
-		if (data[row][col] != null) sum++;
-	return sum;
-    }
-	  
-    /**
-     * Construct an traversal over all edges.
-     * edge is considered exactly once.  Order is not guaranteed.
+     * @post returns the number of triangles within graph
      *
-     * @post returns traversal across all edges of graph (returns Edges)
-     * 
-     * @return AbstractIterator over edges.
+     * @return The number of triangles.
      */
-    public Iterator edges()
+    public long triangles()
     {
-	List list = new SinglyLinkedList();
-	for (int row=size-1; row>=0; row--) 
-	    for (int col=size-1; col >= row; col--) {
-		Edge e = data[row][col];
-		if (e != null) list.add(e);
+	long result = 0;
+	for (int u = 0; u < size; u++) {
+	    if (outDegree[u] < 2) continue;
+	    for (int v = nextEdge(u, u+1); v >= 0; v = nextEdge(u, v+1)) {
+		result += countCommon(adjacency[u], adjacency[v], v+1);
 	    }
-	return list.iterator();
+	}
+	return result;
     }
 
     /**
@@ -56,6 +56,10 @@ public class Hashtable implements Map
      * The number of key-value pairs in table.
      */
     protected int count;
+    /**
+     * The number of reserved locations in table.
+     */
+    protected int reservedCount;
     /**
      * The size of the hashtable
      */
@@ -106,6 +110,7 @@ public class Hashtable implements Map
 	    data[i] = null;
 	}
 	count = 0;
+	reservedCount = 0;
     }
 
     /**
@@ -247,13 +252,16 @@ public class Hashtable implements Map
      */
     public Object put(Object key, Object value)
     {
-	if (loadFactor*capacity <= (1+count)) {
+	// reserved slots count against the load: probes must find
+	// an empty slot to terminate
+	if (loadFactor*capacity <= (1+count+reservedCount)) {
 	    extend();
 	}
 	int hash = locate(key);
 	Association a = data[hash];
 	if (a == null || a == reserved)
 	{   // logically empty slot; just add association
+	    if (a == reserved) reservedCount--;
 	    data[hash] = new Association(key,value);
 	    count++;
 	    return null;
@@ -301,11 +309,13 @@ public class Hashtable implements Map
 	count--;
 	Object oldValue = a.getValue();
 	data[hash] = reserved; // in case anyone depends on us
+	reservedCount++;
 	return oldValue;
     }
 
     /**
-     * @post expands the hashtable to reduce loading
+     * @post expands the hashtable to reduce loading; reserved
+     *       locations are discarded
      */
     protected void extend()
     {
@@ -315,9 +325,11 @@ public class Hashtable implements Map
 	// BE AWARE: at this point, we can change the hash table,
 	// but changes to the hashtable traversal implementation might
 	// be problematic.
-	capacity = capacity*2+1;
+	// if the load is mostly reserved locations, rehashing alone helps
+	if (loadFactor*capacity <= 2*(1+count)) capacity = capacity*2+1;
 	data = new Association[capacity];
 	count = 0;
+	reservedCount = 0;
 	while (it.hasNext())
 	{
 	    Association a = (Association)it.next();
@@ -0,0 +1,303 @@
+// An addressable priority queue kept as a binary heap of handles.
+
+package structure;
+import java.util.Arrays;
+
+/**
+ * An implementation of an {@link AddressableHeap} as an array-based
+ * binary heap.  Each entry records its own position in the array, so a
+ * handle leads directly to its entry and decrease-key and delete take
+ * logarithmic time.  Insert and remove also take logarithmic time; the
+ * minimum is returned in constant time.
+ * <P>
+ * Example usage:
+ * <P>
+ * <pre>
+ *      IndexedHeap&lt;Integer&gt; q = new {@link #IndexedHeap()};
+ *      AddressableHeap.Handle&lt;Integer&gt; h = q.{@link #insert(Comparable) insert(20)};
+ *      q.insert(10);
+ *      q.{@link #decreaseKey(AddressableHeap.Handle,Comparable) decreaseKey(h,5)};
+ *      System.out.println(q.{@link #remove()}); // prints 5
+ * </pre>
+ *
+ * @see PairingHeap
+ * @see VectorHeap
+ */
+public class IndexedHeap<E extends Comparable<E>> implements AddressableHeap<E>
+{
+    /**
+     * An entry of the heap; also serves as its handle.
+     */
+    protected static final class Entry<E> implements AddressableHeap.Handle<E>
+    {
+        E value;
+        int index;
+        Object owner; // the heap holding this entry, or null
+
+        Entry(E value, int index, Object owner)
+        {
+            this.value = value;
+            this.index = index;
+            this.owner = owner;
+        }
+
+        public E getValue()
+        {
+            return value;
+        }
+
+        public String toString()
+        {
+            return "<IndexedHeap.Entry: "+value+">";
+        }
+    }
+
+    /**
+     * The entries, kept in heap order in data[0..count-1].
+     */
+    protected Entry<E> data[];
+    /**
+     * The number of entries in the heap.
+     */
+    protected int count;
+
+    /**
+     * Construct a new queue with room for initialCapacity entries.
+     *
+     * @pre initialCapacity >= 0
+     * @post constructs a new, empty queue
+     *
+     * @param initialCapacity The number of entries initially allocated.
+     */
+    @SuppressWarnings("unchecked")
+    public IndexedHeap(int initialCapacity)
+    {
+        Assert.pre(initialCapacity >= 0, "Initial capacity must be non-negative.");
+        data = new Entry[Math.max(initialCapacity, 1)];
+        count = 0;
+    }
+
+    /**
+     * Construct a new queue.
+     *
+     * @post constructs a new, empty queue
+     */
+    public IndexedHeap()
+    {
+        this(16);
+    }
+
+    /**
+     * @pre h was returned by this heap
+     * @post returns h as an entry of this heap
+     */
+    @SuppressWarnings("unchecked")
+    protected Entry<E> entry(AddressableHeap.Handle<E> h)
+    {
+        Assert.pre(h instanceof Entry && ((Entry<E>)h).owner == this,
+                   "Handle must refer to an entry of this heap.");
+        return (Entry<E>)h;
+    }
+
+    /**
+     * Add a value to the queue.
+     *
+     * @pre value is non-null comparable
+     * @post value is added to the queue
+     *
+     * @param value The value to be added.
+     * @return A handle for the new entry.
+     */
+    public AddressableHeap.Handle<E> insert(E value)
+    {
+        Assert.pre(value != null, "Value must not be null.");
+        if (count == data.length) data = Arrays.copyOf(data, 2*count);
+        Entry<E> e = new Entry<E>(value, count, this);
+        data[count] = e;
+        percolateUp(count++);
+        return e;
+    }
+
+    /**
+     * Fetch lowest valued (highest priority) item from queue.
+     *
+     * @pre !isEmpty()
+     * @post returns the minimum value in queue
+     *
+     * @return The smallest value from queue.
+     */
+    public E getFirst()
+    {
+        Assert.pre(count > 0, "Heap must not be empty.");
+        return data[0].value;
+    }
+
+    /**
+     * Returns the minimum value from the queue.
+     *
+     * @pre !isEmpty()
+     * @post returns and removes minimum value from queue
+     *
+     * @return The minimum value in the queue.
+     */
+    public E remove()
+    {
+        Assert.pre(count > 0, "Heap must not be empty.");
+        return delete(data[0]);
+    }
+
+    /**
+     * Replace the value of an entry with a value that is no larger.
+     *
+     * @pre h is a valid handle of this queue; value is no larger
+     *      than h.getValue()
+     * @post the entry referred to by h holds value
+     *
+     * @param h The handle of the entry to be changed.
+     * @param value The new, smaller value.
+     */
+    public void decreaseKey(AddressableHeap.Handle<E> h, E value)
+    {
+        Entry<E> e = entry(h);
+        Assert.pre(value != null && value.compareTo(e.value) <= 0,
+                   "New value must not be larger than the old.");
+        e.value = value;
+        percolateUp(e.index);
+    }
+
+    /**
+     * Remove an arbitrary entry from the queue.
+     *
+     * @pre h is a valid handle of this queue
+     * @post the entry referred to by h is removed
+     *
+     * @param h The handle of the entry to be removed.
+     * @return The value that was removed.
+     */
+    public E delete(AddressableHeap.Handle<E> h)
+    {
+        Entry<E> e = entry(h);
+        int i = e.index;
+        count--;
+        if (i != count)
+        {   // fill the hole with the last entry, which may move either way
+            Entry<E> moved = data[count];
+            place(moved, i);
+            data[count] = null;
+            percolateUp(i);
+            pushDown(moved.index);
+        } else {
+            data[count] = null;
+        }
+        e.owner = null;
+        return e.value;
+    }
+
+    /**
+     * @post e is stored at location i
+     */
+    protected void place(Entry<E> e, int i)
+    {
+        data[i] = e;
+        e.index = i;
+    }
+
+    /**
+     * Moves entry upward to appropriate position within heap.
+     * @pre 0 <= leaf < size
+     * @post moves entry at index leaf up to appropriate position
+     */
+    protected void percolateUp(int leaf)
+    {
+        Entry<E> e = data[leaf];
+        while (leaf > 0)
+        {
+            int parent = (leaf-1)/2;
+            if (e.value.compareTo(data[parent].value) >= 0) break;
+            place(data[parent], leaf);
+            leaf = parent;
+        }
+        place(e, leaf);
+    }
+
+    /**
+     * Moves entry downward, into appropriate position within subheap.
+     * @pre 0 <= root < size
+     * @post moves entry at index root down to appropriate position
+     */
+    protected void pushDown(int root)
+    {
+        Entry<E> e = data[root];
+        int child;
+        while ((child = 2*root+1) < count)
+        {
+            if (child+1 < count &&
+                data[child+1].value.compareTo(data[child].value) < 0)
+            {
+                child++;
+            }
+            if (data[child].value.compareTo(e.value) >= 0) break;
+            place(data[child], root);
+            root = child;
+        }
+        place(e, root);
+    }
+
+    /**
+     * Determine if the queue is empty.
+     *
+     * @post returns true iff no elements are in queue
+     *
+     * @return True if the queue is empty.
+     */
+    public boolean isEmpty()
+    {
+        return count == 0;
+    }
+
+    /**
+     * Determine the size of the queue.
+     *
+     * @post returns number of elements within queue
+     *
+     * @return The number of elements within the queue.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Remove all the elements from the queue.
+     *
+     * @post removes all elements from queue
+     */
+    public void clear()
+    {
+        for (int i = 0; i < count; i++)
+        {
+            data[i].owner = null;
+            data[i] = null;
+        }
+        count = 0;
+    }
+
+    /**
+     * Construct a string representation of the heap.
+     *
+     * @post returns string representation of heap
+     *
+     * @return The string representing the heap.
+     */
+    public String toString()
+    {
+        StringBuffer s = new StringBuffer();
+        s.append("<IndexedHeap:");
+        for (int i = 0; i < count; i++)
+        {
+            s.append(" "+data[i].value);
+        }
+        s.append(">");
+        return s.toString();
+    }
+}
@@ -0,0 +1,226 @@
+// A d-ary heap of values prioritized by primitive long keys.
+
+package structure;
+import java.util.Arrays;
+
+/**
+ * A priority queue whose priorities are primitive <code>long</code>
+ * keys.  This is the primitive-key counterpart of {@link DaryHeap}: keys
+ * are kept in a <code>long</code> array parallel to the values, so
+ * sifting compares machine words instead of calling
+ * <code>compareTo</code> on boxed keys, and the keys of all children of
+ * a node sit together in one short run of memory.
+ * <P>
+ * Values need not be comparable and may repeat; values with equal keys
+ * are removed in no particular order.
+ * <P>
+ * Example usage:
+ * <P>
+ * <pre>
+ *      LongDaryHeap&lt;String&gt; jobs = new {@link #LongDaryHeap() LongDaryHeap&lt;String&gt;()};
+ *      jobs.{@link #add(long,Object) add(30, "backup")};
+ *      jobs.add(10, "email");
+ *      while (!jobs.{@link #isEmpty()}) {
+ *          System.out.println(jobs.{@link #firstKey()} + " " + jobs.{@link #remove()});
+ *      }
+ * </pre>
+ * @see DaryHeap
+ */
+public class LongDaryHeap<V>
+{
+    /**
+     * The keys, kept in heap order in keys[0..count-1].
+     */
+    protected long keys[];
+    /**
+     * The values; values[i] is associated with keys[i].
+     */
+    protected Object values[];
+    /**
+     * The number of entries in the heap.
+     */
+    protected int count;
+    /**
+     * The maximum number of children of each node.
+     */
+    protected final int arity;
+
+    /**
+     * Construct a new heap with the given arity and room for
+     * initialCapacity entries before growing.
+     *
+     * @pre arity >= 2, initialCapacity >= 0
+     * @post constructs a new, empty heap
+     *
+     * @param arity The number of children of each node.
+     * @param initialCapacity The number of entries initially allocated.
+     */
+    public LongDaryHeap(int arity, int initialCapacity)
+    {
+        Assert.pre(arity >= 2, "Heap arity must be at least 2.");
+        Assert.pre(initialCapacity >= 0, "Initial capacity must be non-negative.");
+        this.arity = arity;
+        keys = new long[Math.max(initialCapacity, 1)];
+        values = new Object[keys.length];
+        count = 0;
+    }
+
+    /**
+     * Construct a new 4-ary heap.
+     *
+     * @post constructs a new, empty heap
+     */
+    public LongDaryHeap()
+    {
+        this(4, 16);
+    }
+
+    /**
+     * Add a value with priority key.
+     *
+     * @pre value may be null
+     * @post value is added to the heap with priority key
+     *
+     * @param key The priority of the value; smaller keys come first.
+     * @param value The value to be added.
+     */
+    public void add(long key, V value)
+    {
+        if (count == keys.length)
+        {
+            keys = Arrays.copyOf(keys, 2*count);
+            values = Arrays.copyOf(values, 2*count);
+        }
+        int leaf = count++;
+        while (leaf > 0)
+        {
+            int parent = (leaf-1)/arity;
+            if (key >= keys[parent]) break;
+            keys[leaf] = keys[parent];
+            values[leaf] = values[parent];
+            leaf = parent;
+        }
+        keys[leaf] = key;
+        values[leaf] = value;
+    }
+
+    /**
+     * Fetch the smallest key in the heap.
+     *
+     * @pre !isEmpty()
+     * @post returns the minimum key
+     *
+     * @return The smallest key.
+     */
+    public long firstKey()
+    {
+        Assert.pre(count > 0, "Heap must not be empty.");
+        return keys[0];
+    }
+
+    /**
+     * Fetch the value associated with the smallest key.
+     *
+     * @pre !isEmpty()
+     * @post returns the value with minimum key
+     *
+     * @return The value of highest priority.
+     */
+    @SuppressWarnings("unchecked")
+    public V getFirst()
+    {
+        Assert.pre(count > 0, "Heap must not be empty.");
+        return (V)values[0];
+    }
+
+    /**
+     * Remove the value associated with the smallest key.
+     *
+     * @pre !isEmpty()
+     * @post removes and returns the value with minimum key
+     *
+     * @return The value of highest priority.
+     */
+    public V remove()
+    {
+        V result = getFirst();
+        count--;
+        long key = keys[count];
+        Object value = values[count];
+        values[count] = null;
+        int root = 0;
+        int child;
+        while ((child = arity*root+1) < count)
+        {
+            int last = Math.min(child+arity, count);
+            int smallest = child;
+            for (child++; child < last; child++)
+            {
+                if (keys[child] < keys[smallest]) smallest = child;
+            }
+            if (keys[smallest] >= key) break;
+            keys[root] = keys[smallest];
+            values[root] = values[smallest];
+            root = smallest;
+        }
+        keys[root] = key;
+        values[root] = value;
+        if (count == 0) values[0] = null;
+        return result;
+    }
+
+    /**
+     * Determine if the heap is empty.
+     *
+     * @post returns true iff no entries are in the heap
+     *
+     * @return True if the heap is empty.
+     */
+    public boolean isEmpty()
+    {
+        return count == 0;
+    }
+
+    /**
+     * Determine the size of the heap.
+     *
+     * @post returns number of entries within heap
+     *
+     * @return The number of entries within the heap.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Remove all the entries from the heap.
+     *
+     * @post removes all entries from heap
+     */
+    public void clear()
+    {
+        Arrays.fill(values, 0, count, null);
+        count = 0;
+    }
+
+    /**
+     * Construct a string representation of the heap.
+     *
+     * @post returns string representation of heap
+     *
+     * @return The string representing the heap.
+     */
+    public String toString()
+    {
+        StringBuffer s = new StringBuffer();
+        s.append("<LongDaryHeap: arity="+arity+" [");
+        for (int i = 0; i < count; i++)
+        {
+            if (i > 0) s.append(", ");
+            s.append(keys[i]+"="+values[i]);
+        }
+        s.append("]>");
+        return s.toString();
+    }
+}
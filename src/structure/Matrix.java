@@ -33,6 +33,8 @@ package structure;
  * </pre>
  * @version $Id: Matrix.java,v 4.1 2000/12/29 02:57:55 bailey Exp bailey $
  * @author, 2001 duane a. bailey
+ * @see DoubleMatrix
+ * @see SparseMatrix
  */
 public class Matrix
 {
@@ -0,0 +1,356 @@
+// An ordered vector of values indexed by primitive long keys.
+
+package structure;
+import java.util.Arrays;
+
+/**
+ * An ordered collection of values indexed by primitive <code>long</code>
+ * keys.  This is the primitive-key counterpart of {@link OrderedVector}:
+ * keys are kept in increasing order in a <code>long</code> array
+ * parallel to the values, so searches compare machine words instead of
+ * calling <code>compareTo</code> on boxed keys.  Keys may repeat, and
+ * values may be null.
+ * <P>
+ * Like OrderedVector, adding a single entry shifts the entries with
+ * larger keys.  Batches should be added with
+ * {@link #addAll(long[],Object[],int)} or {@link #merge(OrderedLongVector)},
+ * which merge in a single pass.
+ * <P>
+ * Example usage:
+ * <P>
+ * <pre>
+ *      OrderedLongVector&lt;String&gt; log = new {@link #OrderedLongVector() OrderedLongVector&lt;String&gt;()};
+ *      log.{@link #add(long,Object) add(1043L, "login")};
+ *      log.add(977L, "boot");
+ *      for (int i = 0; i &lt; log.{@link #size()}; i++) {
+ *          System.out.println(log.{@link #keyAt(int) keyAt(i)} + " " + log.{@link #valueAt(int) valueAt(i)});
+ *      }
+ * </pre>
+ * @see OrderedVector
+ * @see LongDaryHeap
+ */
+public class OrderedLongVector<V>
+{
+    /**
+     * The keys, in increasing order in keys[0..count-1].
+     */
+    protected long keys[];
+    /**
+     * The values; values[i] is associated with keys[i].
+     */
+    protected Object values[];
+    /**
+     * The number of entries in the vector.
+     */
+    protected int count;
+
+    /**
+     * Construct an empty vector with room for initialCapacity entries
+     * before growing.
+     *
+     * @pre initialCapacity >= 0
+     * @post constructs an empty, ordered vector
+     *
+     * @param initialCapacity The number of entries initially allocated.
+     */
+    public OrderedLongVector(int initialCapacity)
+    {
+        Assert.pre(initialCapacity >= 0, "Initial capacity must be non-negative.");
+        keys = new long[Math.max(initialCapacity, 1)];
+        values = new Object[keys.length];
+        count = 0;
+    }
+
+    /**
+     * Construct an empty vector.
+     *
+     * @post constructs an empty, ordered vector
+     */
+    public OrderedLongVector()
+    {
+        this(16);
+    }
+
+    /**
+     * @post the arrays can hold n entries
+     */
+    protected void ensureCapacity(int n)
+    {
+        if (n > keys.length)
+        {
+            int length = Math.max(n, 2*keys.length);
+            keys = Arrays.copyOf(keys, length);
+            values = Arrays.copyOf(values, length);
+        }
+    }
+
+    /**
+     * Find the position of the first entry whose key is no less than key.
+     *
+     * @post returns the number of keys less than key
+     *
+     * @param key The key sought.
+     * @return The index of the first entry with key, if any.
+     */
+    public int indexOf(long key)
+    {
+        int low = 0, high = count;
+        while (low < high)
+        {
+            int mid = (low+high) >>> 1;
+            if (keys[mid] < key) low = mid+1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Add an entry, keeping the entries in order of key.
+     *
+     * @post inserts key and value, leaves vector in order
+     *
+     * @param key The key of the new entry.
+     * @param value The (possibly null) value of the new entry.
+     */
+    public void add(long key, V value)
+    {
+        int position = indexOf(key);
+        ensureCapacity(count+1);
+        System.arraycopy(keys, position, keys, position+1, count-position);
+        System.arraycopy(values, position, values, position+1, count-position);
+        keys[position] = key;
+        values[position] = value;
+        count++;
+    }
+
+    /**
+     * Determine if an entry with a key is present.
+     *
+     * @post returns true iff some entry has key
+     *
+     * @param key The key sought.
+     * @return True iff the key is found within the vector.
+     */
+    public boolean contains(long key)
+    {
+        int position = indexOf(key);
+        return position < count && keys[position] == key;
+    }
+
+    /**
+     * Fetch the value of an entry with a key.
+     *
+     * @post returns the value of the first entry with key, or null
+     *
+     * @param key The key sought.
+     * @return The value associated with key, or null.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key)
+    {
+        int position = indexOf(key);
+        if (position < count && keys[position] == key) return (V)values[position];
+        return null;
+    }
+
+    /**
+     * Remove one entry with a key.  The entry is located with a single
+     * search.
+     *
+     * @post removes the first entry with key, if any
+     *
+     * @param key The key of the entry to be removed.
+     * @return The value of the entry removed, or null.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key)
+    {
+        int position = indexOf(key);
+        if (position == count || keys[position] != key) return null;
+        V result = (V)values[position];
+        count--;
+        System.arraycopy(keys, position+1, keys, position, count-position);
+        System.arraycopy(values, position+1, values, position, count-position);
+        values[count] = null;
+        return result;
+    }
+
+    /**
+     * Fetch the key of the entry at a position.
+     *
+     * @pre 0 <= i < size()
+     * @post returns the i-th smallest key
+     *
+     * @param i The position of the entry.
+     * @return The key of the entry.
+     */
+    public long keyAt(int i)
+    {
+        Assert.pre(0 <= i && i < count, "Index out of range.");
+        return keys[i];
+    }
+
+    /**
+     * Fetch the value of the entry at a position.
+     *
+     * @pre 0 <= i < size()
+     * @post returns the value of the entry with the i-th smallest key
+     *
+     * @param i The position of the entry.
+     * @return The value of the entry.
+     */
+    @SuppressWarnings("unchecked")
+    public V valueAt(int i)
+    {
+        Assert.pre(0 <= i && i < count, "Index out of range.");
+        return (V)values[i];
+    }
+
+    /**
+     * Add a batch of entries.  The batch is sorted by key and merged
+     * with the current entries in one pass, taking O(m log m + n) time.
+     *
+     * @pre 0 <= n <= newKeys.length; newValues is null or
+     *      n <= newValues.length
+     * @post inserts the entries newKeys[i], newValues[i] for i &lt; n,
+     *       leaves vector in order; the arguments are unchanged
+     *
+     * @param newKeys The keys of the new entries.
+     * @param newValues The values of the new entries, or null.
+     * @param n The number of new entries.
+     */
+    public void addAll(long newKeys[], V newValues[], int n)
+    {
+        Assert.pre(0 <= n && n <= newKeys.length, "Batch size out of range.");
+        Assert.pre(newValues == null || n <= newValues.length, "Batch size out of range.");
+        long k[] = Arrays.copyOf(newKeys, n);
+        Object v[] = newValues == null ? new Object[n] : Arrays.copyOf(newValues, n, Object[].class);
+        sort(k, v, new long[n], new Object[n], 0, n);
+        merge(k, v, n);
+    }
+
+    /**
+     * Merge the entries of another vector into this one, in time linear
+     * in the combined size.
+     *
+     * @pre other is non-null
+     * @post inserts the entries of other, leaves vector in order;
+     *       other is unchanged
+     *
+     * @param other The vector whose entries are to be added.
+     */
+    public void merge(OrderedLongVector<? extends V> other)
+    {
+        merge(Arrays.copyOf(other.keys, other.count),
+              Arrays.copyOf(other.values, other.count), other.count);
+    }
+
+    /**
+     * Merge sorted entries into the vector, filling from the high end.
+     *
+     * @pre k[0..n-1] are in increasing order
+     * @post inserts the entries k[i], v[i], leaves vector in order
+     */
+    protected void merge(long k[], Object v[], int n)
+    {
+        ensureCapacity(count+n);
+        int i = count-1, j = n-1, dest = count+n;
+        while (j >= 0)
+        {
+            if (i >= 0 && keys[i] > k[j])
+            {
+                keys[--dest] = keys[i];
+                values[dest] = values[i--];
+            } else {
+                keys[--dest] = k[j];
+                values[dest] = v[j--];
+            }
+        }
+        count += n;
+    }
+
+    /**
+     * Sort entries lo..hi-1 of parallel arrays by key, using the
+     * scratch arrays of the same length.  The sort is stable.
+     *
+     * @post k[lo..hi-1] are in increasing order, v permuted alike
+     */
+    protected static void sort(long k[], Object v[], long tk[], Object tv[],
+                               int lo, int hi)
+    {
+        if (hi - lo < 2) return;
+        int mid = (lo+hi) >>> 1;
+        sort(k, v, tk, tv, lo, mid);
+        sort(k, v, tk, tv, mid, hi);
+        if (k[mid-1] <= k[mid]) return;  // already in order
+        System.arraycopy(k, lo, tk, lo, hi-lo);
+        System.arraycopy(v, lo, tv, lo, hi-lo);
+        int i = lo, j = mid;
+        for (int dest = lo; dest < hi; dest++)
+        {
+            if (j == hi || (i < mid && tk[i] <= tk[j]))
+            {
+                k[dest] = tk[i];
+                v[dest] = tv[i++];
+            } else {
+                k[dest] = tk[j];
+                v[dest] = tv[j++];
+            }
+        }
+    }
+
+    /**
+     * Determine if the vector is empty.
+     *
+     * @post returns true iff the vector has no entries
+     *
+     * @return True iff the vector is empty.
+     */
+    public boolean isEmpty()
+    {
+        return count == 0;
+    }
+
+    /**
+     * Determine the number of entries in the vector.
+     *
+     * @post returns the number of entries
+     *
+     * @return The number of entries within the vector.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Remove all the entries from the vector.
+     *
+     * @post vector is emptied
+     */
+    public void clear()
+    {
+        Arrays.fill(values, 0, count, null);
+        count = 0;
+    }
+
+    /**
+     * Construct a string representation of the vector.
+     *
+     * @post returns string representation of the vector
+     *
+     * @return The string representing the vector.
+     */
+    public String toString()
+    {
+        StringBuffer s = new StringBuffer();
+        s.append("<OrderedLongVector: [");
+        for (int i = 0; i < count; i++)
+        {
+            if (i > 0) s.append(", ");
+            s.append(keys[i]+"="+values[i]);
+        }
+        s.append("]>");
+        return s.toString();
+    }
+}
@@ -3,12 +3,17 @@
 
 package structure;
 import java.util.Iterator;
+import java.util.Arrays;
 
 /**
  * Implementation of an ordered structure implemented using a vector.
  * Values are stored within this vector in increasing order. All values
  * stored within an ordered vector must implement comparable.
  * <P>
+ * Each call to {@link #add(Object)} shifts the larger values, so values
+ * arriving in batches should be added with {@link #addAll(Structure)},
+ * which sorts the batch and merges it in one pass.
+ * <P>
  * Example Usage:
  * <P>
  * To determine the effect of the original Starwars&trade; movie on the careers
@@ -97,10 +102,8 @@ public class OrderedVector extends AbstractStructure implements OrderedStructure
      */
     public Object remove(Object value)
     {
-	if (contains(value)) {
-	    // we know value is pointed to by indexOf
-	    int position = indexOf((Comparable)value);
-	    // since vector contains value, position < size()
+	int position = indexOf((Comparable)value);
+	if ((position < size()) && data.get(position).equals(value)) {
 	    // keep track of the value for return
 	    Object target = data.get(position);
 	    // remove the value from the underlying vector
@@ -110,6 +113,77 @@ public class OrderedVector extends AbstractStructure implements OrderedStructure
         return null;
     }
 
+    /**
+     * Add all the values of a structure to the ordered vector.  The new
+     * values are sorted and then merged with the current values in a
+     * single pass, taking O(m log m + n) time for m new values, rather
+     * than the O(mn) of adding them one at a time.
+     *
+     * @pre other is non-null and its values are mutually comparable
+     *      with those of this vector
+     * @post inserts the values of other, leaves vector in order
+     * 
+     * @param other The structure whose values are to be added
+     */
+    public void addAll(Structure other)
+    {
+	if (other instanceof OrderedVector) {
+	    merge((OrderedVector)other);
+	    return;
+	}
+	Object values[] = new Object[other.size()];
+	int n = 0;
+	Iterator i = other.iterator();
+	while (i.hasNext()) {
+	    values[n++] = i.next();
+	}
+	Arrays.sort(values, 0, n);
+	merge(values, n);
+    }
+
+    /**
+     * Merge the values of another ordered vector into this one, in
+     * time linear in the combined size.
+     *
+     * @pre other is non-null and its values are mutually comparable
+     *      with those of this vector
+     * @post inserts the values of other, leaves vector in order;
+     *       other is unchanged
+     * 
+     * @param other The ordered vector whose values are to be added
+     */
+    public void merge(OrderedVector other)
+    {
+	Object values[] = new Object[other.size()];
+	other.data.copyInto(values);
+	merge(values, values.length);
+    }
+
+    /**
+     * Merge sorted values into the vector.  The vector is extended and
+     * filled from its high end, so no value is moved more than once.
+     *
+     * @pre values[0..n-1] are in increasing order
+     * @post inserts values[0..n-1], leaves vector in order
+     */
+    protected void merge(Object values[], int n)
+    {
+	int i = data.size()-1;		// last unmerged old value
+	int j = n-1;			// last unmerged new value
+	int k = data.size()+n;		// next free position, plus one
+	data.ensureCapacity(k);
+	data.setSize(k);
+	while (j >= 0) {
+	    if (i >= 0 &&
+		((Comparable)data.get(i)).compareTo(values[j]) > 0) {
+		data.set(--k, data.get(i--));
+	    } else {
+		data.set(--k, values[j--]);
+	    }
+	}
+	// values below i are already in place
+    }
+
     /**
      * Determine if the ordered vector is empty.	
      *
@@ -0,0 +1,335 @@
+// An addressable priority queue implemented as a pairing heap.
+
+package structure;
+
+/**
+ * An implementation of an {@link AddressableHeap} as a pairing heap: a
+ * heap-ordered multiway tree in which each node keeps its first child
+ * and its siblings in a list.  Insert and decrease-key take constant
+ * time (decrease-key cuts the node's subtree and links it with the
+ * root); remove and delete take amortized logarithmic time, pairing the
+ * orphaned children left to right and then combining the pairs right to
+ * left.  This makes the pairing heap a good fit for graph searches that
+ * perform many more decrease-keys than removals.
+ * <P>
+ * Example usage:
+ * <P>
+ * <pre>
+ *      PairingHeap&lt;Integer&gt; q = new {@link #PairingHeap()};
+ *      AddressableHeap.Handle&lt;Integer&gt; h = q.{@link #insert(Comparable) insert(20)};
+ *      q.insert(10);
+ *      q.{@link #decreaseKey(AddressableHeap.Handle,Comparable) decreaseKey(h,5)};
+ *      System.out.println(q.{@link #remove()}); // prints 5
+ * </pre>
+ *
+ * @see IndexedHeap
+ */
+public class PairingHeap<E extends Comparable<E>> implements AddressableHeap<E>
+{
+    /**
+     * A node of the heap; also serves as its handle.
+     */
+    protected static final class Node<E> implements AddressableHeap.Handle<E>
+    {
+        E value;
+        Node<E> child;    // leftmost child
+        Node<E> sibling;  // next sibling to the right
+        Node<E> prev;     // left sibling, or parent if leftmost child
+        Object owner;     // the heap holding this node, or null
+
+        Node(E value, Object owner)
+        {
+            this.value = value;
+            this.owner = owner;
+        }
+
+        public E getValue()
+        {
+            return value;
+        }
+
+        public String toString()
+        {
+            return "<PairingHeap.Node: "+value+">";
+        }
+    }
+
+    /**
+     * The root of the heap, holding the minimum value, or null.
+     */
+    protected Node<E> root;
+    /**
+     * The number of values in the heap.
+     */
+    protected int count;
+
+    /**
+     * Construct a new queue.
+     *
+     * @post constructs a new, empty queue
+     */
+    public PairingHeap()
+    {
+        root = null;
+        count = 0;
+    }
+
+    /**
+     * @pre h was returned by this heap
+     * @post returns h as a node of this heap
+     */
+    @SuppressWarnings("unchecked")
+    protected Node<E> node(AddressableHeap.Handle<E> h)
+    {
+        Assert.pre(h instanceof Node && ((Node<E>)h).owner == this,
+                   "Handle must refer to an entry of this heap.");
+        return (Node<E>)h;
+    }
+
+    /**
+     * Add a value to the queue.
+     *
+     * @pre value is non-null comparable
+     * @post value is added to the queue
+     *
+     * @param value The value to be added.
+     * @return A handle for the new entry.
+     */
+    public AddressableHeap.Handle<E> insert(E value)
+    {
+        Assert.pre(value != null, "Value must not be null.");
+        Node<E> n = new Node<E>(value, this);
+        root = link(root, n);
+        count++;
+        return n;
+    }
+
+    /**
+     * Fetch lowest valued (highest priority) item from queue.
+     *
+     * @pre !isEmpty()
+     * @post returns the minimum value in queue
+     *
+     * @return The smallest value from queue.
+     */
+    public E getFirst()
+    {
+        Assert.pre(root != null, "Heap must not be empty.");
+        return root.value;
+    }
+
+    /**
+     * Returns the minimum value from the queue.
+     *
+     * @pre !isEmpty()
+     * @post returns and removes minimum value from queue
+     *
+     * @return The minimum value in the queue.
+     */
+    public E remove()
+    {
+        Assert.pre(root != null, "Heap must not be empty.");
+        Node<E> old = root;
+        root = combine(old.child);
+        if (root != null) root.prev = null;
+        count--;
+        old.child = null;
+        old.owner = null;
+        return old.value;
+    }
+
+    /**
+     * Replace the value of an entry with a value that is no larger.
+     *
+     * @pre h is a valid handle of this queue; value is no larger
+     *      than h.getValue()
+     * @post the entry referred to by h holds value
+     *
+     * @param h The handle of the entry to be changed.
+     * @param value The new, smaller value.
+     */
+    public void decreaseKey(AddressableHeap.Handle<E> h, E value)
+    {
+        Node<E> n = node(h);
+        Assert.pre(value != null && value.compareTo(n.value) <= 0,
+                   "New value must not be larger than the old.");
+        n.value = value;
+        if (n != root)
+        {
+            cut(n);
+            root = link(root, n);
+        }
+    }
+
+    /**
+     * Remove an arbitrary entry from the queue.
+     *
+     * @pre h is a valid handle of this queue
+     * @post the entry referred to by h is removed
+     *
+     * @param h The handle of the entry to be removed.
+     * @return The value that was removed.
+     */
+    public E delete(AddressableHeap.Handle<E> h)
+    {
+        Node<E> n = node(h);
+        if (n == root) return remove();
+        cut(n);
+        Node<E> rest = combine(n.child);
+        if (rest != null)
+        {
+            rest.prev = null;
+            root = link(root, rest);
+        }
+        count--;
+        n.child = null;
+        n.owner = null;
+        return n.value;
+    }
+
+    /**
+     * Detach a node (with its subtree) from its parent and siblings.
+     *
+     * @pre n is in the heap and is not the root
+     * @post n is the root of a separate tree
+     */
+    protected void cut(Node<E> n)
+    {
+        if (n.prev.child == n) n.prev.child = n.sibling; // leftmost child
+        else n.prev.sibling = n.sibling;
+        if (n.sibling != null) n.sibling.prev = n.prev;
+        n.prev = null;
+        n.sibling = null;
+    }
+
+    /**
+     * Join two heap-ordered trees, making the larger root the leftmost
+     * child of the smaller.
+     *
+     * @pre a and b are roots without siblings, or null
+     * @post returns the root of the combined tree
+     */
+    protected Node<E> link(Node<E> a, Node<E> b)
+    {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (b.value.compareTo(a.value) < 0)
+        {
+            Node<E> t = a; a = b; b = t;
+        }
+        b.sibling = a.child;
+        if (a.child != null) a.child.prev = b;
+        b.prev = a;
+        a.child = b;
+        a.sibling = null;
+        a.prev = null;
+        return a;
+    }
+
+    /**
+     * Combine a list of sibling trees into one: link them in pairs from
+     * left to right, then link the pairs from right to left.
+     *
+     * @pre first is the leftmost of a list of siblings, or null
+     * @post returns the root of the combined tree, or null
+     */
+    protected Node<E> combine(Node<E> first)
+    {
+        if (first == null) return null;
+        // first pass: pair up siblings, chaining pairs through prev
+        Node<E> pairs = null;
+        Node<E> a = first;
+        while (a != null)
+        {
+            Node<E> b = a.sibling;
+            Node<E> next = (b == null) ? null : b.sibling;
+            a.sibling = null;
+            if (b != null) b.sibling = null;
+            Node<E> pair = link(a, b);
+            pair.prev = pairs;
+            pairs = pair;
+            a = next;
+        }
+        // second pass: fold the pairs from the rightmost back
+        Node<E> result = pairs;
+        pairs = pairs.prev;
+        result.prev = null;
+        while (pairs != null)
+        {
+            Node<E> next = pairs.prev;
+            pairs.prev = null;
+            result = link(pairs, result);
+            pairs = next;
+        }
+        return result;
+    }
+
+    /**
+     * Determine if the queue is empty.
+     *
+     * @post returns true iff no elements are in queue
+     *
+     * @return True if the queue is empty.
+     */
+    public boolean isEmpty()
+    {
+        return root == null;
+    }
+
+    /**
+     * Determine the size of the queue.
+     *
+     * @post returns number of elements within queue
+     *
+     * @return The number of elements within the queue.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Remove all the elements from the queue.  Outstanding handles
+     * become invalid.
+     *
+     * @post removes all elements from queue
+     */
+    public void clear()
+    {
+        invalidate(root);
+        root = null;
+        count = 0;
+    }
+
+    /**
+     * @post every node reachable from n no longer belongs to this heap
+     */
+    protected void invalidate(Node<E> n)
+    {
+        // iterative walk: children and siblings through an explicit stack
+        Node<E> stack = n;
+        if (stack != null) stack.prev = null;
+        while (stack != null)
+        {
+            Node<E> m = stack;
+            stack = m.prev;
+            m.owner = null;
+            if (m.child != null) { m.child.prev = stack; stack = m.child; }
+            if (m.sibling != null) { m.sibling.prev = stack; stack = m.sibling; }
+            m.child = null;
+            m.sibling = null;
+        }
+    }
+
+    /**
+     * Construct a string representation of the heap.
+     *
+     * @post returns string representation of heap
+     *
+     * @return The string representing the heap.
+     */
+    public String toString()
+    {
+        return "<PairingHeap: size="+count+(root == null ? "" : " first="+root.value)+">";
+    }
+}
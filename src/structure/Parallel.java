@@ -0,0 +1,45 @@
+// The fork/join pool shared by the parallel operations of the package.
+
+package structure;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The pool of worker threads used by the parallel operations of the
+ * package.  The pool is created when first needed, with one worker per
+ * processor; its workers are daemon threads, so an idle pool never keeps
+ * a program from exiting.
+ */
+class Parallel
+{
+    /**
+     * Holds the pool, so it is constructed on first use.
+     */
+    static final class Holder
+    {
+        static final ForkJoinPool pool = new ForkJoinPool();
+    }
+
+    /**
+     * Get the shared pool.
+     *
+     * @post returns the pool shared by parallel operations
+     *
+     * @return The shared fork/join pool.
+     */
+    static ForkJoinPool pool()
+    {
+        return Holder.pool;
+    }
+
+    /**
+     * Determine if there is more than one worker to share work.
+     *
+     * @post returns true iff more than one processor is available
+     *
+     * @return True iff work may usefully be divided between threads.
+     */
+    static boolean isUseful()
+    {
+        return Runtime.getRuntime().availableProcessors() > 1;
+    }
+}
@@ -0,0 +1,494 @@
+// A red-black search tree whose versions are never changed once built.
+
+package structure;
+import java.util.Iterator;
+import java.util.Comparator;
+
+/**
+ * A red-black search tree built from immutable nodes.  An update never
+ * changes an existing node: it copies the nodes along the path from the
+ * root to the change, shares every other subtree with the previous
+ * version, and then publishes the new root.  Each version of the tree
+ * therefore remains intact for as long as it is referenced.
+ * <P>
+ * This makes {@link #snapshot()} a constant-time operation, and it
+ * makes every iterator a traversal of the version current when the
+ * iterator was made.  One thread may keep adding and removing values
+ * while others iterate or query snapshots, with no locks and no
+ * copying; readers never see a partly rebalanced tree.  Updates from
+ * several threads are serialized.
+ * <P>
+ * Like {@link RedBlackSearchTree}, the tree may hold duplicate values
+ * and is ordered naturally or by a supplied {@link Comparator}.  An
+ * update costs O(log n) new nodes.
+ * <P>
+ * Example usage:
+ * <P>
+ * <pre>
+ *      PersistentRedBlackTree index = new {@link #PersistentRedBlackTree()};
+ *      // ...writer thread...
+ *      index.{@link #add(Object) add(record)};
+ *      // ...reader thread: a consistent view, however long it is kept...
+ *      PersistentRedBlackTree view = index.{@link #snapshot()};
+ *      for (Iterator i = view.{@link #iterator()}; i.hasNext(); ) {
+ *          System.out.println(i.next());
+ *      }
+ * </pre>
+ * @see RedBlackSearchTree
+ */
+public class PersistentRedBlackTree extends AbstractStructure implements OrderedStructure
+{
+    /**
+     * The root of the current version, or null.  Nodes reachable from
+     * the root are never modified.
+     */
+    protected volatile RedBlackNode root;
+
+    /**
+     * The ordering used to compare values.
+     */
+    protected final Comparator ordering;
+
+    /**
+     * Constructs an empty tree ordered by an alternative ordering.
+     *
+     * @pre ordering is non-null
+     * @post constructs an empty tree ordered by ordering
+     *
+     * @param ordering The Comparator to be used in comparison.
+     */
+    public PersistentRedBlackTree(Comparator ordering)
+    {
+        this(null, ordering);
+        Assert.pre(ordering != null, "Ordering must be non-null.");
+    }
+
+    /**
+     * Constructs an empty tree ordered naturally.
+     *
+     * @post constructs an empty tree
+     */
+    public PersistentRedBlackTree()
+    {
+        this(new NaturalComparator());
+    }
+
+    /**
+     * Constructs a tree whose current version is rooted at root.
+     *
+     * @post constructs a tree sharing the nodes below root
+     */
+    protected PersistentRedBlackTree(RedBlackNode root, Comparator ordering)
+    {
+        this.root = root;
+        this.ordering = ordering;
+    }
+
+    /**
+     * Returns a tree holding the current version of this tree.  Later
+     * updates to either tree do not affect the other.  Takes constant
+     * time.
+     *
+     * @post returns an independent tree with the same values
+     *
+     * @return A snapshot of the tree.
+     */
+    public PersistentRedBlackTree snapshot()
+    {
+        return new PersistentRedBlackTree(root, ordering);
+    }
+
+    /**
+     * Checks that a value may be compared by this tree's ordering.
+     *
+     * @post fails unless value is non-null, and Comparable when the
+     *       natural ordering is used
+     */
+    protected void check(Object value)
+    {
+        if (ordering instanceof NaturalComparator)
+        {
+            Assert.pre(value instanceof Comparable, "value must implement Comparable");
+        } else {
+            Assert.pre(value != null, "value must be non-null");
+        }
+    }
+
+    /**
+     * Determines the number of values in the current version.
+     *
+     * @post returns the number of elements in the tree
+     *
+     * @return The number of values in the tree.
+     */
+    public int size()
+    {
+        return RedBlackNode.size(root);
+    }
+
+    /**
+     * Checks for an empty tree.
+     *
+     * @post returns true iff the tree is empty
+     *
+     * @return True iff the tree contains no data.
+     */
+    public boolean isEmpty()
+    {
+        return root == null;
+    }
+
+    /**
+     * Removes all data from the tree.  Snapshots are unaffected.
+     *
+     * @post removes all elements from the tree
+     */
+    public synchronized void clear()
+    {
+        root = null;
+    }
+
+    /**
+     * Add a (possibly duplicate) value to the tree, publishing a new
+     * version.
+     *
+     * @pre value is non-null
+     * @post adds value to the tree
+     *
+     * @param value The value to be added.
+     */
+    public synchronized void add(Object value)
+    {
+        check(value);
+        root = blacken(insert(root, value));
+    }
+
+    /**
+     * Remove a value "equals to" the indicated value, publishing a new
+     * version.  Only one value is removed, and no guarantee is made
+     * concerning which of duplicate values are removed.
+     *
+     * @pre value is non-null
+     * @post removes one instance of value, if found
+     *
+     * @param value The value sought to be removed from the tree.
+     * @return The value removed from the tree, or null.
+     */
+    public synchronized Object remove(Object value)
+    {
+        Object result = get(value);
+        if (result != null)
+        {
+            RedBlackNode r = delete(root, value);
+            root = (r == null) ? null : blacken(r);
+        }
+        return result;
+    }
+
+    /**
+     * Determines if the tree contains a value.
+     *
+     * @pre value is non-null
+     * @post returns true iff value is a value found within the tree
+     *
+     * @param value The value sought.
+     * @return True iff the tree contains a value "equals to" value.
+     */
+    public boolean contains(Object value)
+    {
+        return get(value) != null;
+    }
+
+    /**
+     * Returns a value "equals to" the indicated value, or null.
+     *
+     * @pre value is non-null
+     * @post returns a value of the tree equivalent to value, or null
+     *
+     * @param value The value sought.
+     * @return The equivalent value held by the tree, or null.
+     */
+    public Object get(Object value)
+    {
+        check(value);
+        RedBlackNode n = root;
+        while (n != null)
+        {
+            int relation = ordering.compare(value, n.value);
+            if (relation == 0) return n.value;
+            n = relation < 0 ? n.left : n.right;
+        }
+        return null;
+    }
+
+    /**
+     * @post returns a new node with the given color, children and value
+     */
+    protected static RedBlackNode node(boolean isRed, RedBlackNode left,
+                                       Object value, RedBlackNode right)
+    {
+        RedBlackNode n = new RedBlackNode(value);
+        n.isRed = isRed;
+        n.left = left;
+        n.right = right;
+        n.size = 1 + RedBlackNode.size(left) + RedBlackNode.size(right);
+        return n;
+    }
+
+    /**
+     * @post returns n colored black (n itself if already black)
+     */
+    protected static RedBlackNode blacken(RedBlackNode n)
+    {
+        return n.isRed ? node(false, n.left, n.value, n.right) : n;
+    }
+
+    /**
+     * @pre n is black
+     * @post returns a red copy of n
+     */
+    protected static RedBlackNode redden(RedBlackNode n)
+    {
+        return node(true, n.left, n.value, n.right);
+    }
+
+    /**
+     * @post returns true iff n is non-null and black
+     */
+    protected static boolean isBlack(RedBlackNode n)
+    {
+        return n != null && !n.isRed;
+    }
+
+    /**
+     * Build a node over a and b, repairing a red node with a red child
+     * on either side.
+     *
+     * @pre a and b have the same black height
+     * @post returns a tree holding a, x and b, without adjacent red
+     *       nodes below its root
+     */
+    protected static RedBlackNode balance(RedBlackNode a, Object x, RedBlackNode b)
+    {
+        if (RedBlackNode.isRed(a) && RedBlackNode.isRed(b))
+        {
+            return node(true, blacken(a), x, blacken(b));
+        }
+        if (RedBlackNode.isRed(a))
+        {
+            if (RedBlackNode.isRed(a.left))
+            {
+                return node(true, blacken(a.left), a.value, node(false, a.right, x, b));
+            }
+            if (RedBlackNode.isRed(a.right))
+            {
+                return node(true, node(false, a.left, a.value, a.right.left),
+                            a.right.value, node(false, a.right.right, x, b));
+            }
+        }
+        if (RedBlackNode.isRed(b))
+        {
+            if (RedBlackNode.isRed(b.right))
+            {
+                return node(true, node(false, a, x, b.left), b.value, blacken(b.right));
+            }
+            if (RedBlackNode.isRed(b.left))
+            {
+                return node(true, node(false, a, x, b.left.left),
+                            b.left.value, node(false, b.left.right, b.value, b.right));
+            }
+        }
+        return node(false, a, x, b);
+    }
+
+    /**
+     * @post returns a copy of the subtree at n with value added;
+     *       duplicates are placed to the right
+     */
+    protected RedBlackNode insert(RedBlackNode n, Object value)
+    {
+        if (n == null) return node(true, null, value, null);
+        if (ordering.compare(value, n.value) < 0)
+        {
+            if (n.isRed) return node(true, insert(n.left, value), n.value, n.right);
+            return balance(insert(n.left, value), n.value, n.right);
+        } else {
+            if (n.isRed) return node(true, n.left, n.value, insert(n.right, value));
+            return balance(n.left, n.value, insert(n.right, value));
+        }
+    }
+
+    /**
+     * Remove value from the subtree at n.  A black subtree comes back
+     * one black node shorter; its ancestors rebalance on the way up.
+     *
+     * @pre a value equivalent to value lies on its search path below n
+     * @post returns a copy of the subtree at n without one such value
+     */
+    protected RedBlackNode delete(RedBlackNode n, Object value)
+    {
+        int relation = ordering.compare(value, n.value);
+        if (relation < 0)
+        {
+            if (isBlack(n.left)) return balanceLeft(delete(n.left, value), n.value, n.right);
+            return node(true, delete(n.left, value), n.value, n.right);
+        }
+        if (relation > 0)
+        {
+            if (isBlack(n.right)) return balanceRight(n.left, n.value, delete(n.right, value));
+            return node(true, n.left, n.value, delete(n.right, value));
+        }
+        return join(n.left, n.right);
+    }
+
+    /**
+     * Build a node over a left subtree that is one black node short.
+     *
+     * @post returns a tree holding a, x and b, whose black height is
+     *       that of b
+     */
+    protected static RedBlackNode balanceLeft(RedBlackNode a, Object x, RedBlackNode b)
+    {
+        if (RedBlackNode.isRed(a)) return node(true, blacken(a), x, b);
+        if (isBlack(b)) return balance(a, x, redden(b));
+        // b is red, with a black left child
+        return node(true, node(false, a, x, b.left.left), b.left.value,
+                    balance(b.left.right, b.value, redden(b.right)));
+    }
+
+    /**
+     * Build a node over a right subtree that is one black node short.
+     *
+     * @post returns a tree holding a, x and b, whose black height is
+     *       that of a
+     */
+    protected static RedBlackNode balanceRight(RedBlackNode a, Object x, RedBlackNode b)
+    {
+        if (RedBlackNode.isRed(b)) return node(true, a, x, blacken(b));
+        if (isBlack(a)) return balance(redden(a), x, b);
+        // a is red, with a black right child
+        return node(true, balance(redden(a.left), a.value, a.right.left),
+                    a.right.value, node(false, a.right.right, x, b));
+    }
+
+    /**
+     * Join two subtrees of equal black height whose values are in order.
+     *
+     * @pre every value of a precedes every value of b
+     * @post returns a tree holding the values of a and b
+     */
+    protected static RedBlackNode join(RedBlackNode a, RedBlackNode b)
+    {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.isRed && b.isRed)
+        {
+            RedBlackNode bc = join(a.right, b.left);
+            if (RedBlackNode.isRed(bc))
+            {
+                return node(true, node(true, a.left, a.value, bc.left), bc.value,
+                            node(true, bc.right, b.value, b.right));
+            }
+            return node(true, a.left, a.value, node(true, bc, b.value, b.right));
+        }
+        if (!a.isRed && !b.isRed)
+        {
+            RedBlackNode bc = join(a.right, b.left);
+            if (RedBlackNode.isRed(bc))
+            {
+                return node(true, node(false, a.left, a.value, bc.left), bc.value,
+                            node(false, bc.right, b.value, b.right));
+            }
+            return balanceLeft(a.left, a.value, node(false, bc, b.value, b.right));
+        }
+        if (b.isRed) return node(true, join(a, b.left), b.value, b.right);
+        return node(true, a.left, a.value, join(a.right, b));
+    }
+
+    /**
+     * Returns true iff the current version is a red-black tree.
+     * <font color="#FF0000">WARNING:</font> This method executes in
+     * linear time.
+     *
+     * @post returns true iff the tree is a red-black tree
+     *
+     * @return True iff this tree is a red-black tree.
+     */
+    public boolean isRedBlack()
+    {
+        RedBlackNode r = root;
+        return !RedBlackNode.isRed(r) && blackHeight(r) >= 0;
+    }
+
+    /**
+     * @post returns black height of n, or -1 if n is inconsistent
+     */
+    protected int blackHeight(RedBlackNode n)
+    {
+        if (n == null) return 0;
+        if (n.isRed && (RedBlackNode.isRed(n.left) || RedBlackNode.isRed(n.right)))
+        {
+            return -1;
+        }
+        if (n.size != 1 + RedBlackNode.size(n.left) + RedBlackNode.size(n.right))
+        {
+            return -1;
+        }
+        int height = blackHeight(n.left);
+        if (height < 0 || height != blackHeight(n.right)) return -1;
+        return n.isRed ? height : height+1;
+    }
+
+    /**
+     * Returns an in-order iterator over the version of the tree current
+     * when the iterator is made.  Later updates do not affect it.
+     *
+     * @post returns an iterator over the current version
+     *
+     * @return An iterator over the tree.
+     */
+    public Iterator iterator()
+    {
+        RedBlackNode r = root;
+        return new RedBlackSearchTreeIterator(r, RedBlackNode.size(r));
+    }
+
+    /**
+     * Returns an in-order iterator over the values v of the current
+     * version with lo <= v < hi.  Either bound may be null, leaving
+     * that end of the range open.
+     *
+     * @post returns an iterator over values in [lo, hi)
+     *
+     * @param lo The least value to be visited, or null.
+     * @param hi The bound above the values to be visited, or null.
+     * @return An iterator over the values within the range.
+     */
+    public Iterator iterator(Object lo, Object hi)
+    {
+        if (lo != null) check(lo);
+        if (hi != null) check(hi);
+        RedBlackNode r = root;
+        return new RedBlackSearchTreeIterator(r, RedBlackNode.size(r), lo, hi, ordering);
+    }
+
+    /**
+     * Returns a string representing the current version.
+     *
+     * @post returns a string representation of the tree
+     *
+     * @return A string representing the tree.
+     */
+    public String toString()
+    {
+        StringBuffer s = new StringBuffer();
+        s.append("<PersistentRedBlackTree:");
+        Iterator i = iterator();
+        while (i.hasNext())
+        {
+            s.append(" "+i.next());
+        }
+        s.append(">");
+        return s.toString();
+    }
+}
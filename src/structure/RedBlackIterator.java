@@ -1,6 +1,7 @@
 // In-order iterator for RedBlack trees.
 // (c) 1998, 2001, 2002 duane a. bailey
 package structure;
+import java.util.Arrays;
 
 /**
  * An iterator for traversing RedBlackSearchTrees constructed from
@@ -20,9 +21,14 @@ class RedBlackIterator extends AbstractIterator{
     protected RedBlackTree root; // root of subtree to be traversed
 
     /** 
-     * Stack of nodes that maintain the state of the iterator.
+     * Stack of nodes that maintain the state of the iterator.  The
+     * array is kept across resets, so retraversals allocate nothing.
      */
-    protected Stack todo; // stack of unvisited ancestors of current
+    protected RedBlackTree todo[]; // stack of unvisited ancestors of current
+    /**
+     * The number of nodes on the stack.
+     */
+    protected int top;
 
 
     /**
@@ -33,7 +39,7 @@ class RedBlackIterator extends AbstractIterator{
      * @param root The root of the subtree to be traversed.
      */
     public RedBlackIterator(RedBlackTree root){
-	todo = new StackList();
+	todo = new RedBlackTree[16];
 	this.root = root;
 	reset();
     }	
@@ -44,16 +50,29 @@ class RedBlackIterator extends AbstractIterator{
      * @post Resets the iterator to retraverse
      */
     public void reset(){
-	todo.clear();
+	Arrays.fill(todo, 0, top, null);
+	top = 0;
 	// stack is empty.  Push on nodes from root to
 	// leftmost descendant
 	RedBlackTree current = root;
 	while (current != RedBlackTree.EMPTY) {
-	    todo.push(current);
+	    push(current);
 	    current = current.left();
 	}
     }
 
+    /**
+     * Push a node on the stack, doubling the stack when full.
+     *
+     * @post node is the top of the stack
+     */
+    protected void push(RedBlackTree node){
+	if (top == todo.length) {
+	    todo = Arrays.copyOf(todo, 2*top);
+	}
+	todo[top++] = node;
+    }
+
     /**
      * Returns true iff the iterator has more nodes to be considered.
      *
@@ -62,7 +81,7 @@ class RedBlackIterator extends AbstractIterator{
      * @return True iff more nodes are to be considered.
      */
     public boolean hasNext(){
-	return !todo.isEmpty();
+	return top > 0;
     }
 
     /**
@@ -74,7 +93,7 @@ class RedBlackIterator extends AbstractIterator{
      * @return The node currently under consideration.
      */
     public Object get(){	
-	return ((RedBlackTree)todo.getFirst()).value();
+	return todo[top-1].value();
     }
 
     /**
@@ -85,7 +104,8 @@ class RedBlackIterator extends AbstractIterator{
      * @return The value of the current node, before iterator iterated.
      */
     public Object next(){
-	RedBlackTree old = (RedBlackTree)todo.pop();
+	RedBlackTree old = todo[--top];
+	todo[top] = null;
 	Object result = old.value();
 	// we know this node has no unconsidered left children;
 	// if this node has a right child, 
@@ -95,7 +115,7 @@ class RedBlackIterator extends AbstractIterator{
 	if (!old.right().isEmpty()) {
 	    RedBlackTree current = old.right();
 	    do {
-		todo.push(current);
+		push(current);
 		current = current.left();
 	    } while (!current.isEmpty());
 	}
@@ -0,0 +1,131 @@
+// A compact node of a red-black search tree.
+
+package structure;
+
+/**
+ * A single node of a {@link RedBlackSearchTree}.  Unlike
+ * {@link RedBlackTree}, the node keeps no parent reference and empty
+ * subtrees are simply null, so a node holds only its value, two child
+ * references, its color and the size of its subtree.  All
+ * restructuring is performed by the owning tree during a single
+ * top-down pass.  A {@link PersistentRedBlackTree} uses the same nodes
+ * but never changes one after it is built.  This class is not
+ * publically accessable.
+ *
+ * @see RedBlackSearchTree
+ * @see PersistentRedBlackTree
+ */
+class RedBlackNode
+{
+    /**
+     * The value stored in this node.
+     */
+    protected Object value;
+    /**
+     * The left child of this node, or null.
+     */
+    protected RedBlackNode left;
+    /**
+     * The right child of this node, or null.
+     */
+    protected RedBlackNode right;
+    /**
+     * The color of this node - red or black (not red).
+     */
+    protected boolean isRed;
+    /**
+     * The number of nodes in the subtree rooted at this node.
+     */
+    protected int size;
+
+    /**
+     * Construct a red leaf holding a value.
+     *
+     * @post constructs a red node with no children
+     *
+     * @param value The value to be stored in the node.
+     */
+    public RedBlackNode(Object value)
+    {
+        this.value = value;
+        isRed = true;
+        size = 1;
+    }
+
+    /**
+     * Fetch the child in direction dir.
+     *
+     * @post returns the left child if dir is 0, otherwise the right
+     */
+    protected RedBlackNode child(int dir)
+    {
+        return dir == 0 ? left : right;
+    }
+
+    /**
+     * Set the child in direction dir.
+     *
+     * @post the left child (dir 0) or right child (dir 1) is n
+     */
+    protected void setChild(int dir, RedBlackNode n)
+    {
+        if (dir == 0) left = n;
+        else right = n;
+    }
+
+    /**
+     * Determine if a (possibly null) node is red.
+     *
+     * @post returns true iff n is non-null and red
+     */
+    protected static boolean isRed(RedBlackNode n)
+    {
+        return n != null && n.isRed;
+    }
+
+    /**
+     * Determine the size of a (possibly null) subtree.
+     *
+     * @post returns the number of nodes below and including n
+     */
+    protected static int size(RedBlackNode n)
+    {
+        return n == null ? 0 : n.size;
+    }
+
+    /**
+     * Rotate a subtree once, moving its root in direction dir.  The
+     * old root becomes red and the new root black.  Sizes are adjusted
+     * by difference rather than recomputed, so that a count still
+     * pending along the search path of an insertion or removal is
+     * carried over correctly.
+     *
+     * @pre the child of n opposite dir is non-null
+     * @post returns the new root of the rotated subtree
+     */
+    protected static RedBlackNode rotate(RedBlackNode n, int dir)
+    {
+        RedBlackNode save = n.child(1-dir);
+        RedBlackNode moved = save.child(dir);
+        n.setChild(1-dir, moved);
+        save.setChild(dir, n);
+        int total = n.size;
+        n.size = total - save.size + size(moved);
+        save.size = total;
+        n.isRed = true;
+        save.isRed = false;
+        return save;
+    }
+
+    /**
+     * Rotate a subtree twice, moving its root in direction dir.
+     *
+     * @pre the child of n opposite dir has a grandchild in direction dir
+     * @post returns the new root of the rotated subtree
+     */
+    protected static RedBlackNode rotateTwice(RedBlackNode n, int dir)
+    {
+        n.setChild(1-dir, rotate(n.child(1-dir), 1-dir));
+        return rotate(n, dir);
+    }
+}
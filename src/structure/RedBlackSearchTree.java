@@ -15,6 +15,13 @@ import java.util.Random;
  * These properties ensure that elements can be inserted, deleted, and 
  * located in logorithmic time. 
  * <P>
+ * Nodes of this tree keep no parent references and empty subtrees are
+ * null.  Insertion and removal rebalance on the way down, so each
+ * touches a single root-to-leaf path once; in particular a removal
+ * does not first search for its value.  The ordering is either the
+ * natural ordering of the values or a {@link Comparator} supplied at
+ * construction.
+ * <P>
  * Example usage:
  * <P>
  * To create a red-black tree containing the months of the year
@@ -45,21 +52,40 @@ import java.util.Random;
  */
 public class RedBlackSearchTree extends AbstractStructure implements OrderedStructure{
     /**
-     * A reference to the root of the tree
+     * A reference to the root of the tree, or null
      */
-    protected RedBlackTree root;
+    protected RedBlackNode root;
 
     /**
      * The number of nodes in the tree
      */
     protected int count;
 
+    /**
+     * The ordering used to compare values
+     */
+    protected Comparator ordering;
+
     /**
      * Constructs a red-black search tree with no data
      * @post Constructs an empty red-black tree
      */
     public RedBlackSearchTree(){
-	root = RedBlackTree.EMPTY;
+	this(new NaturalComparator());
+    }
+
+    /**
+     * Constructs a red-black search tree with no data, ordered by
+     * an alternative ordering
+     *
+     * @param ordering the Comparator to be used in comparison
+     * @pre ordering is non-null
+     * @post Constructs an empty red-black tree ordered by ordering
+     */
+    public RedBlackSearchTree(Comparator ordering){
+	Assert.pre(ordering != null, "Ordering must be non-null.");
+	this.ordering = ordering;
+	root = null;
 	count = 0;
     }
     
@@ -70,7 +96,7 @@ public class RedBlackSearchTree extends AbstractStructure implements OrderedStru
      * @return True iff the tree contains no data
      */
     public boolean isEmpty(){
-	return root.isEmpty();
+	return root == null;
     }
 
     /**
@@ -79,7 +105,7 @@ public class RedBlackSearchTree extends AbstractStructure implements OrderedStru
      * @post Removes all elements from binary search tree
      */
     public void clear(){
-	root = RedBlackTree.EMPTY;
+	root = null;
 	count = 0;
     }
 
@@ -96,22 +122,69 @@ public class RedBlackSearchTree extends AbstractStructure implements OrderedStru
     
     /**
      * Add a (possibly duplicate) value to the red-black  tree, and ensure
-     * that the resulting tree is a red-black tree.
+     * that the resulting tree is a red-black tree.  Red nodes with two
+     * red children are split on the way down, so a single pass suffices.
      * 
      * @post Adds a value to binary search tree
      * @param val A reference to non-null object
      */
     public void add(Object value){
-	Assert.pre(value instanceof Comparable,"value must implement Comparable");
-	root = root.add((Comparable)value);
+	check(value);
 	count++;
+	if (root == null) {
+	    root = new RedBlackNode(value);
+	    root.isRed = false;
+	    return;
+	}
+	// head is a false root above the tree; t, g, p and q are the
+	// great-grandparent, grandparent, parent and current node.
+	// Every node reached counts the new value in its size.
+	RedBlackNode head = new RedBlackNode(null);
+	RedBlackNode t = head, g = null, p = null, q = root;
+	head.isRed = false;
+	head.right = root;
+	root.size++;
+	int dir = 0, last = 0;
+	boolean added = false;
+	for (;;) {
+	    if (q == null) {
+		q = new RedBlackNode(value);
+		p.setChild(dir, q);
+		added = true;
+	    } else if (RedBlackNode.isRed(q.left) && RedBlackNode.isRed(q.right)) {
+		// color flip
+		q.isRed = true;
+		q.left.isRed = q.right.isRed = false;
+	    }
+	    // repair a red violation between q and its parent
+	    if (RedBlackNode.isRed(q) && RedBlackNode.isRed(p)) {
+		int dir2 = t.right == g ? 1 : 0;
+		if (q == p.child(last)) t.setChild(dir2, RedBlackNode.rotate(g, 1-last));
+		else t.setChild(dir2, RedBlackNode.rotateTwice(g, 1-last));
+	    }
+	    if (added) break;
+	    last = dir;
+	    // duplicates descend to the right
+	    dir = ordering.compare(value, q.value) < 0 ? 0 : 1;
+	    if (g != null) t = g;
+	    g = p;
+	    p = q;
+	    q = q.child(dir);
+	    if (q != null) q.size++;
+	}
+	root = head.right;
+	root.isRed = false;
     }
    
     /**
      * Remove an value "equals to" the indicated value.  Only one value
      * is removed, and no guarantee is made concerning which of duplicate
      * values are removed.  Value returned is no longer part of the
-     * structure
+     * structure.  The tree is searched and rebalanced in the same
+     * descent: a red node is pushed down ahead of the search so that
+     * the node finally unlinked is always red or a red-topped leaf.
+     * Only an unsuccessful removal retraces its path, to restore the
+     * subtree sizes.
      *
      * @post Removes one instance of val, if found
      * 
@@ -119,13 +192,73 @@ public class RedBlackSearchTree extends AbstractStructure implements OrderedStru
      * @return Value to be removed from tree or null if no value removed
      */
     public Object remove(Object value){
-	Assert.pre(value instanceof Comparable,"value must implement Comparable");
-	if (root.contains((Comparable)value)){
-	    root = root.remove((Comparable)value);
+	check(value);
+	if (root == null) return null;
+	RedBlackNode head = new RedBlackNode(null);
+	RedBlackNode g = null, p = null, q = head, found = null;
+	head.isRed = false;
+	head.right = root;
+	int dir = 1;
+	while (q.child(dir) != null) {
+	    int last = dir;
+	    g = p;
+	    p = q;
+	    q = q.child(dir);
+	    q.size--; // assume the value is found below
+	    int relation = ordering.compare(q.value, value);
+	    // on a match keep descending toward the predecessor
+	    dir = relation < 0 ? 1 : 0;
+	    if (relation == 0) found = q;
+	    // push a red node down
+	    if (!RedBlackNode.isRed(q) && !RedBlackNode.isRed(q.child(dir))) {
+		if (RedBlackNode.isRed(q.child(1-dir))) {
+		    RedBlackNode n = RedBlackNode.rotate(q, dir);
+		    p.setChild(last, n);
+		    p = n;
+		} else {
+		    RedBlackNode s = p.child(1-last);
+		    if (s != null) {
+			if (!RedBlackNode.isRed(s.child(1-last)) &&
+			    !RedBlackNode.isRed(s.child(last))) {
+			    // color flip
+			    p.isRed = false;
+			    s.isRed = true;
+			    q.isRed = true;
+			} else {
+			    int dir2 = g.right == p ? 1 : 0;
+			    RedBlackNode n;
+			    if (RedBlackNode.isRed(s.child(last))) {
+				n = RedBlackNode.rotateTwice(p, last);
+			    } else {
+				n = RedBlackNode.rotate(p, last);
+			    }
+			    g.setChild(dir2, n);
+			    q.isRed = n.isRed = true;
+			    n.left.isRed = false;
+			    n.right.isRed = false;
+			}
+		    }
+		}
+	    }
+	}
+	Object result = null;
+	if (found != null) {
+	    // q holds the predecessor of found (or found itself)
+	    result = found.value;
+	    found.value = q.value;
+	    p.setChild(p.right == q ? 1 : 0, q.left == null ? q.right : q.left);
 	    count--;
-	    return value;
 	}
-	return null;
+	root = head.right;
+	if (root != null) root.isRed = false;
+	if (found == null) {
+	    // nothing was removed: restore sizes along the search path
+	    for (q = root; q != null;
+		 q = ordering.compare(value, q.value) < 0 ? q.left : q.right) {
+		q.size++;
+	    }
+	}
+	return result;
     }
 
     /**
@@ -137,8 +270,162 @@ public class RedBlackSearchTree extends AbstractStructure implements OrderedStru
      * @return True iff the tree contains a value "equals to" sought value
      */
     public boolean contains(Object value){
-	Assert.pre(value instanceof Comparable,"value must implement Comparable");
-	return root.contains((Comparable)value);
+	return get(value) != null;
+    }
+
+    /**
+     * Returns a value "equals to" the indicated value, or null.
+     *
+     * @pre value is non-null
+     * @post Returns a value of the tree equivalent to value, or null
+     *
+     * @param value The value sought.
+     * @return The equivalent value held by the tree, or null.
+     */
+    public Object get(Object value){
+	check(value);
+	RedBlackNode n = root;
+	while (n != null) {
+	    int relation = ordering.compare(value, n.value);
+	    if (relation == 0) return n.value;
+	    n = relation < 0 ? n.left : n.right;
+	}
+	return null;
+    }
+
+    /**
+     * Determines the number of values of the tree that are strictly
+     * less than the indicated value.  Runs in logarithmic time.
+     *
+     * @pre value is non-null
+     * @post returns the number of values less than value
+     *
+     * @param value The value whose rank is sought.
+     * @return The number of values in the tree less than value.
+     */
+    public int rank(Object value){
+	check(value);
+	int result = 0;
+	RedBlackNode n = root;
+	while (n != null) {
+	    if (ordering.compare(n.value, value) < 0) {
+		result += RedBlackNode.size(n.left) + 1;
+		n = n.right;
+	    } else {
+		n = n.left;
+	    }
+	}
+	return result;
+    }
+
+    /**
+     * Returns the value of the indicated rank: select(0) is the least
+     * value, select(size()-1) the greatest.  Runs in logarithmic time.
+     *
+     * @pre 0 <= k < size()
+     * @post returns the value with exactly k values before it in order
+     *
+     * @param k The rank of the value sought.
+     * @return The value of rank k.
+     */
+    public Object select(int k){
+	Assert.pre(0 <= k && k < count, "Rank must be between 0 and size()-1.");
+	RedBlackNode n = root;
+	for (;;) {
+	    int leftSize = RedBlackNode.size(n.left);
+	    if (k < leftSize) {
+		n = n.left;
+	    } else if (k == leftSize) {
+		return n.value;
+	    } else {
+		k -= leftSize + 1;
+		n = n.right;
+	    }
+	}
+    }
+
+    /**
+     * Returns the greatest value of the tree that is no greater than
+     * the indicated value, or null if there is none.
+     *
+     * @pre value is non-null
+     * @post returns greatest value <= value, or null
+     *
+     * @param value The bound sought.
+     * @return The greatest value not exceeding value, or null.
+     */
+    public Object floor(Object value){
+	check(value);
+	Object result = null;
+	RedBlackNode n = root;
+	while (n != null) {
+	    int relation = ordering.compare(n.value, value);
+	    if (relation == 0) return n.value;
+	    if (relation < 0) {
+		result = n.value;
+		n = n.right;
+	    } else {
+		n = n.left;
+	    }
+	}
+	return result;
+    }
+
+    /**
+     * Returns the least value of the tree that is no less than the
+     * indicated value, or null if there is none.
+     *
+     * @pre value is non-null
+     * @post returns least value >= value, or null
+     *
+     * @param value The bound sought.
+     * @return The least value not less than value, or null.
+     */
+    public Object ceiling(Object value){
+	check(value);
+	Object result = null;
+	RedBlackNode n = root;
+	while (n != null) {
+	    int relation = ordering.compare(n.value, value);
+	    if (relation == 0) return n.value;
+	    if (relation > 0) {
+		result = n.value;
+		n = n.left;
+	    } else {
+		n = n.right;
+	    }
+	}
+	return result;
+    }
+
+    /**
+     * Determines the number of values v of the tree with
+     * lo <= v < hi.  Runs in logarithmic time.
+     *
+     * @pre lo and hi are non-null
+     * @post returns the number of values in [lo, hi)
+     *
+     * @param lo The least value counted.
+     * @param hi The bound above the values counted.
+     * @return The number of values within the range.
+     */
+    public int count(Object lo, Object hi){
+	if (ordering.compare(lo, hi) >= 0) return 0;
+	return rank(hi) - rank(lo);
+    }
+
+    /**
+     * Checks that a value may be compared by this tree's ordering.
+     *
+     * @post fails unless value is non-null, and Comparable when the
+     *       natural ordering is used
+     */
+    protected void check(Object value){
+	if (ordering instanceof NaturalComparator) {
+	    Assert.pre(value instanceof Comparable,"value must implement Comparable");
+	} else {
+	    Assert.pre(value != null, "value must be non-null");
+	}
     }
     
     /**
@@ -149,7 +436,27 @@ public class RedBlackSearchTree extends AbstractStructure implements OrderedStru
      * @return True iff this tree is a red-black tree.
      */
     public boolean isRedBlack(){
-	return root.consistency();
+	if (RedBlackNode.isRed(root)) return false;
+	return blackHeight(root) >= 0;
+    }
+
+    /**
+     * Returns the black height of a subtree, or -1 if the subtree
+     * breaks the red or black properties or miscounts its size.
+     *
+     * @post returns black height of n, or -1 if n is inconsistent
+     */
+    protected int blackHeight(RedBlackNode n){
+	if (n == null) return 0;
+	if (n.isRed && (RedBlackNode.isRed(n.left) || RedBlackNode.isRed(n.right))) {
+	    return -1;
+	}
+	if (n.size != 1 + RedBlackNode.size(n.left) + RedBlackNode.size(n.right)) {
+	    return -1;
+	}
+	int height = blackHeight(n.left);
+	if (height < 0 || height != blackHeight(n.right)) return -1;
+	return n.isRed ? height : height+1;
     }
   
     /**
@@ -161,7 +468,25 @@ public class RedBlackSearchTree extends AbstractStructure implements OrderedStru
      * @return An iterator over red-black search tree
      */
     public Iterator iterator(){
-	return root.iterator();
+	return new RedBlackSearchTreeIterator(root, count);
+    }
+
+    /**
+     * Returns an in-order iterator over the values v of the tree with
+     * lo <= v < hi.  Either bound may be null, leaving that end of the
+     * range open.  Traversing k values takes time proportional to
+     * k plus the height of the tree.
+     *
+     * @post Returns iterator over values in [lo, hi)
+     *
+     * @param lo The least value to be visited, or null.
+     * @param hi The bound above the values to be visited, or null.
+     * @return An iterator over the values within the range.
+     */
+    public Iterator iterator(Object lo, Object hi){
+	if (lo != null) check(lo);
+	if (hi != null) check(hi);
+	return new RedBlackSearchTreeIterator(root, count, lo, hi, ordering);
     }
 
     /**
@@ -175,7 +500,25 @@ public class RedBlackSearchTree extends AbstractStructure implements OrderedStru
      * @return String representation of tree
      */
     public String treeString(){
-	return root.treeString();
+	StringBuffer s = new StringBuffer();
+	if (root != null) treeString(root, 0, "Root", s);
+	return s.toString();
+    }
+
+    /**
+     * Appends the structure of the subtree rooted at n to s.
+     *
+     * @post the lines describing n and its descendants are appended
+     */
+    protected void treeString(RedBlackNode n, int depth, String hand,
+			      StringBuffer s){
+	for (int i=0; i < depth; i++){
+	    s.append("\t|");
+	}
+	s.append("<" + n.value + " : " + hand + " : " +
+		 (n.isRed ? "Red" : "Black") + ">\n");
+	if (n.left != null) treeString(n.left, depth+1, "L", s);
+	if (n.right != null) treeString(n.right, depth+1, "R", s);
     }
 
     /**
@@ -185,7 +528,24 @@ public class RedBlackSearchTree extends AbstractStructure implements OrderedStru
      * @return String representation of tree
      */
     public String toString(){
-	return root.toString();
+	StringBuffer s = new StringBuffer();
+	toString(root, s);
+	return s.toString();
+    }
+
+    /**
+     * Appends the bracketed form of the subtree rooted at n to s; red
+     * nodes are parenthesized, black nodes are in square brackets.
+     *
+     * @post the representation of n is appended to s
+     */
+    protected void toString(RedBlackNode n, StringBuffer s){
+	if (n == null) return;
+	s.append(n.isRed ? "(" : "[");
+	toString(n.left, s);
+	s.append(n.value);
+	toString(n.right, s);
+	s.append(n.isRed ? ")" : "]");
     }
     
     /**
@@ -194,7 +554,12 @@ public class RedBlackSearchTree extends AbstractStructure implements OrderedStru
      * @return The hashCode of the value stored by this object.
      */
     public int hashCode(){
-	return root.hashCode();
+	int result = 0;
+	Iterator i = iterator();
+	while (i.hasNext()) {
+	    result += i.next().hashCode();
+	}
+	return result;
     } 
 
     /*
@@ -0,0 +1,171 @@
+package structure;
+import java.util.Comparator;
+
+/**
+ * An in-order iterator over the values of a {@link RedBlackSearchTree}.
+ * Unvisited ancestors are kept on an array stack sized from the tree's
+ * size (a red-black tree of n nodes is at most 2 log(n+1) deep), so
+ * the traversal allocates nothing per node.  The traversal may be
+ * restricted to a range of values, in which case subtrees outside the
+ * range are never entered.  This iterator is not
+ * publically accessable and is used to implement RedBlackSearchTree's
+ * iterator.
+ * <P>
+ * Typical use:
+ * <P>
+ * <pre>
+ *      RedBlackSearchTree t = new RedBlackSearchTree();
+ *      // ...tree gets built up...
+ *      Iterator ti = t.iterator();
+ *      while (ti.{@link #hasNext() hasNext()})
+ *      {
+ *          System.out.println(ti.{@link #next() next()});
+ *      }
+ * </pre>
+ */
+class RedBlackSearchTreeIterator extends AbstractIterator
+{
+    /**
+     * The root of the tree being traversed.
+     */
+    protected RedBlackNode root;
+    /**
+     * Stack of unvisited ancestors of the current node; the current
+     * node is on top.
+     */
+    protected RedBlackNode todo[];
+    /**
+     * The number of nodes on the stack.
+     */
+    protected int top;
+    /**
+     * The least value visited, or null.
+     */
+    protected Object lo;
+    /**
+     * The bound above the values visited, or null.
+     */
+    protected Object hi;
+    /**
+     * The ordering of the tree; needed only for bounded traversals.
+     */
+    protected Comparator ordering;
+
+    /**
+     * Construct an in-order iterator over the values v of a tree with
+     * lo <= v < hi.  A null bound leaves that end of the range open.
+     *
+     * @pre size is the number of nodes below root; the tree is ordered
+     *      by ordering
+     * @post constructs an iterator to traverse the range inorder
+     *
+     * @param root The root of the tree to be traversed.
+     * @param size The number of nodes in the tree.
+     * @param lo The least value to be visited, or null.
+     * @param hi The bound above the values to be visited, or null.
+     * @param ordering The ordering of the tree.
+     */
+    public RedBlackSearchTreeIterator(RedBlackNode root, int size,
+                                      Object lo, Object hi,
+                                      Comparator ordering)
+    {
+        this.root = root;
+        this.lo = lo;
+        this.hi = hi;
+        this.ordering = ordering;
+        todo = new RedBlackNode[2*(32-Integer.numberOfLeadingZeros(size+1))];
+        reset();
+    }
+
+    /**
+     * Construct an in-order iterator over a tree of size nodes.
+     *
+     * @pre size is the number of nodes below root
+     * @post constructs an iterator to traverse inorder
+     *
+     * @param root The root of the tree to be traversed.
+     * @param size The number of nodes in the tree.
+     */
+    public RedBlackSearchTreeIterator(RedBlackNode root, int size)
+    {
+        this(root, size, null, null, null);
+    }
+
+    /**
+     * Reset the iterator to its initial state.
+     *
+     * @post resets the iterator to retraverse
+     */
+    public void reset()
+    {
+        top = 0;
+        // descend to the least value no less than lo, stacking the
+        // nodes whose values will be visited
+        RedBlackNode n = root;
+        while (n != null)
+        {
+            if (lo != null && ordering.compare(n.value, lo) < 0)
+            {
+                n = n.right;
+            } else {
+                todo[top++] = n;
+                n = n.left;
+            }
+        }
+    }
+
+    /**
+     * Push n and its chain of left descendants.
+     *
+     * @post n and its leftmost descendants are pushed
+     */
+    protected void pushLeft(RedBlackNode n)
+    {
+        while (n != null)
+        {
+            todo[top++] = n;
+            n = n.left;
+        }
+    }
+
+    /**
+     * Returns true iff the iterator has more nodes to be considered.
+     *
+     * @post returns true iff iterator is not finished
+     *
+     * @return True iff more nodes are to be considered.
+     */
+    public boolean hasNext()
+    {
+        if (top == 0) return false;
+        return hi == null || ordering.compare(todo[top-1].value, hi) < 0;
+    }
+
+    /**
+     * Return the value currently being considered.
+     *
+     * @pre hasNext()
+     * @post returns reference to current value
+     *
+     * @return The value currently under consideration.
+     */
+    public Object get()
+    {
+        return todo[top-1].value;
+    }
+
+    /**
+     * Return current value, and increment iterator.
+     *
+     * @pre hasNext()
+     * @post returns current value, increments iterator
+     *
+     * @return The value of the current node, before iterator iterated.
+     */
+    public Object next()
+    {
+        RedBlackNode old = todo[--top];
+        pushLeft(old.right);
+        return old.value;
+    }
+}
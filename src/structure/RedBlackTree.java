@@ -845,6 +845,43 @@ public class RedBlackTree{
     public Iterator iterator(){
 	return new RedBlackIterator(this);
     }
+
+    /**
+     * Hands each value of the subtree rooted at this node to a visitor,
+     * in order.  The traversal follows parent references instead of
+     * keeping a stack, so it allocates nothing.  The tree must not be
+     * modified by the visitor.
+     *
+     * @pre visitor is non-null
+     * @post visits the values of the subtree in order
+     *
+     * @param visitor The visitor handed each value.
+     */
+    public void inorder(Visitor visitor){
+	if (isEmpty()) return;
+	RedBlackTree current = this;
+	while (!current.left().isEmpty()) current = current.left();
+	while (current != null) {
+	    visitor.visit(current.value());
+	    if (!current.right().isEmpty()) {
+		// next is the leftmost descendant of the right child
+		current = current.right();
+		while (!current.left().isEmpty()) current = current.left();
+	    } else {
+		// climb until we arrive from a left child
+		RedBlackTree child = current;
+		current = null;
+		while (child != this) {
+		    RedBlackTree parent = child.parent();
+		    if (child == parent.left()) {
+			current = parent;
+			break;
+		    }
+		    child = parent;
+		}
+	    }
+	}
+    }
     
     
     /**
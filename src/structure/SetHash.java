@@ -0,0 +1,421 @@
+// A set implemented using hashing.  Fast, and works on non-Comparables.
+
+package structure;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Implementation of a set of elements using a hash table as the
+ * underlying storage mechanism.  Values added to this set must have
+ * a hashcode method that returns the same value when two values are
+ * "equals".  Membership tests, insertions and removals take expected
+ * constant time, where {@link SetVector} and {@link SetList} take time
+ * proportional to the size of the set.
+ * <P>
+ * The table is open addressed: elements live directly in an array and
+ * collisions are resolved by linear probing.  Removal shifts later
+ * members of a probe run back into the hole, so no tombstones build
+ * up.  The bulk operations iterate over the smaller of the two sets
+ * whenever the other one also answers membership in constant time.
+ * <P>
+ * Example Usage:
+ * Given a list of students who completed a computer science thesis in the
+ * 2001-2002 academic year at Williams College and a list of graduating
+ * computer science majors who are continuing on to graduate school, we could
+ * determine which thesis students are planning to attend graduate school
+ * as follows:
+ * <P>
+ * <pre>
+ * public static void main(String[] argv){
+ *	//thesis students in the class of '02
+ *	String[] thesis = new String[]{"Doug", "Evan", "Feng"};
+ *
+ *	//students continuing on to grad school
+ *	String[] grad = new String[]{"Doug", "Feng", "Lida"};
+ *
+ *	//instantiate our sets
+ *	Set thesisSet = new {@link #SetHash()},
+ *	    gradSet = new {@link #SetHash()};
+ *
+ *	//build sets up
+ *	for(int i = 0; i < thesis.length; i++) thesisSet.{@link #add(Object) add(thesis[i])};
+ *	for(int i = 0; i < grad.length; i++) gradSet.{@link #add(Object) add(grad[i])};
+ *
+ *	//calculate the intersection of the two sets
+ *	thesisSet.{@link #retainAll(Structure) retainAll(gradSet)};
+ *	System.out.println(thesisSet);
+ * }
+ * </pre>
+ * @see SetVector
+ * @see SetList
+ */
+public class SetHash extends AbstractSet
+{
+    /**
+     * The table of elements; null entries are free.  The length is
+     * always a power of two.
+     */
+    protected Object data[];
+    /**
+     * The number of elements in the set.
+     */
+    protected int count;
+    /**
+     * Load factor that causes the table to grow.
+     */
+    protected final double loadFactor = 0.6;
+
+    /**
+     * Construct a new set able to hold expected elements before growing.
+     *
+     * @pre expected >= 0
+     * @post constructs a new, empty set
+     *
+     * @param expected The number of elements initially expected.
+     */
+    public SetHash(int expected)
+    {
+        Assert.pre(expected >= 0, "Expected size must be non-negative.");
+        data = new Object[tableSize(expected)];
+        count = 0;
+    }
+
+    /**
+     * Construct a new set.
+     *
+     * @post constructs a new, empty set
+     */
+    public SetHash()
+    {
+        this(16);
+    }
+
+    /**
+     * Construct a new set from another structure.
+     * @post constructs a new set with elements from other
+     */
+    public SetHash(Structure other)
+    {
+        this(other.size());
+        addAll(other);
+    }
+
+    /**
+     * @post returns a power-of-two table length that holds n elements
+     *       within the load factor
+     */
+    protected int tableSize(int n)
+    {
+        int size = 8;
+        while (size * loadFactor < n + 1) size <<= 1;
+        return size;
+    }
+
+    /**
+     * @post returns the preferred slot of e
+     */
+    protected int slotOf(Object e)
+    {
+        int h = e.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (data.length-1);
+    }
+
+    /**
+     * @pre e is non-null
+     * @post returns the slot holding e, or the free slot that ends
+     *       its probe run
+     */
+    protected int locate(Object e)
+    {
+        int mask = data.length-1;
+        int i = slotOf(e);
+        while (data[i] != null && !e.equals(data[i]))
+        {
+            i = (i+1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * @post the table can hold n elements within the load factor
+     */
+    protected void ensureCapacity(int n)
+    {
+        if (n + 1 <= data.length * loadFactor) return;
+        Object old[] = data;
+        data = new Object[tableSize(n)];
+        for (int i = 0; i < old.length; i++)
+        {
+            if (old[i] != null) data[locate(old[i])] = old[i];
+        }
+    }
+
+    /**
+     * Remove all the elements from the set.
+     *
+     * @post elements of set are removed
+     */
+    public void clear()
+    {
+        Arrays.fill(data, null);
+        count = 0;
+    }
+
+    /**
+     * Determine if the set is empty.
+     *
+     * @post returns true iff set is empty
+     *
+     * @return True iff there are no elements in set.
+     */
+    public boolean isEmpty()
+    {
+        return count == 0;
+    }
+
+    /**
+     * Add an element to set, if not already present.
+     *
+     * @pre e is non-null
+     * @post adds element e to set
+     *
+     * @param e The new value to be added to set.
+     */
+    public void add(Object e)
+    {
+        Assert.pre(e != null, "Value must not be null.");
+        ensureCapacity(count+1);
+        int i = locate(e);
+        if (data[i] == null)
+        {
+            data[i] = e;
+            count++;
+        }
+    }
+
+    /**
+     * Remove an element from the set.
+     *
+     * @pre e is non-null
+     * @post e is removed from set, value returned
+     *
+     * @param e The element of the set to be removed.
+     * @return The value actually removed.
+     */
+    public Object remove(Object e)
+    {
+        int i = locate(e);
+        Object result = data[i];
+        if (result == null) return null;
+        // close the gap: pull back later members of the probe run
+        // whose preferred slot does not lie strictly between i and j
+        int mask = data.length-1;
+        int j = i;
+        while (true)
+        {
+            j = (j+1) & mask;
+            if (data[j] == null) break;
+            int k = slotOf(data[j]);
+            if ((i <= j) ? (i < k && k <= j) : (i < k || k <= j)) continue;
+            data[i] = data[j];
+            i = j;
+        }
+        data[i] = null;
+        count--;
+        return result;
+    }
+
+    /**
+     * Returns true if value is an element of the set.
+     *
+     * @pre e is non-null
+     * @post returns true iff e is in set
+     *
+     * @param e The element sought in set.
+     * @return True iff the element is in the set.
+     */
+    public boolean contains(Object e)
+    {
+        return data[locate(e)] != null;
+    }
+
+    /**
+     * Determine if this set is a subset of other.
+     *
+     * @pre other is non-null
+     * @post returns true iff this set is a subset of other
+     *
+     * @param other Potential superset of this set.
+     * @return True iff this set is a subset of other.
+     */
+    public boolean containsAll(Structure other)
+    {
+        if (other instanceof Set && other.size() < count) return false;
+        for (int i = 0; i < data.length; i++)
+        {
+            if (data[i] != null && !other.contains(data[i])) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns a copy of the set.
+     *
+     * @post returns a copy of set
+     *
+     * @return Another set with the same values as this.
+     */
+    public Object clone()
+    {
+        SetHash result = new SetHash(count);
+        result.addAll(this);
+        return result;
+    }
+
+    /**
+     * Compute the union of this set with other.
+     * This set not modified.
+     *
+     * @pre other is non-null
+     * @post values from other are added into this set
+     *
+     * @param other The set to be unioned with this set.
+     */
+    public void addAll(Structure other)
+    {
+        ensureCapacity(count + other.size());
+        Iterator yourElements = other.iterator();
+        while (yourElements.hasNext())
+        {
+            add(yourElements.next());
+        }
+    }
+
+    /**
+     * Compute the intersection of this set and other.
+     * When other is also a hashed set, the smaller of the two is
+     * traversed.
+     *
+     * @pre other is non-null
+     * @post values not appearing in the other structure are removed
+     *
+     * @param other The other set to be intersected with this.
+     */
+    public void retainAll(Structure other)
+    {
+        if (!(other instanceof SetHash) || count <= other.size())
+        {
+            filter(other, true);
+            return;
+        }
+        // walk the smaller side, probing this one
+        Object kept[] = new Object[other.size()];
+        int n = 0;
+        Iterator yourElements = other.iterator();
+        while (yourElements.hasNext())
+        {
+            Object v = yourElements.next();
+            if (contains(v)) kept[n++] = v;
+        }
+        rebuild(kept, n);
+    }
+
+    /**
+     * Compute the difference between two sets.
+     * When other is also a hashed set, the smaller of the two is
+     * traversed.
+     *
+     * @pre other is non-null
+     * @post values of this set contained in other are removed
+     *
+     * @param other The set whose values are to be eliminated from this.
+     */
+    public void removeAll(Structure other)
+    {
+        if (other instanceof SetHash && count < other.size())
+        {   // walk this (smaller) set, probing the other
+            filter(other, false);
+            return;
+        }
+        Iterator yourElements = other.iterator();
+        while (yourElements.hasNext())
+        {
+            remove(yourElements.next());
+        }
+    }
+
+    /**
+     * Keep only the elements whose membership in other is keep.
+     *
+     * @pre other is non-null
+     * @post elements e with other.contains(e) != keep are removed
+     */
+    protected void filter(Structure other, boolean keep)
+    {
+        Object kept[] = new Object[count];
+        int n = 0;
+        for (int i = 0; i < data.length; i++)
+        {
+            if (data[i] != null && other.contains(data[i]) == keep) kept[n++] = data[i];
+        }
+        if (n != count) rebuild(kept, n);
+    }
+
+    /**
+     * @pre values[0..n-1] are distinct and non-null
+     * @post the set holds exactly values[0..n-1]
+     */
+    protected void rebuild(Object values[], int n)
+    {
+        data = new Object[tableSize(n)];
+        for (int i = 0; i < n; i++)
+        {
+            data[locate(values[i])] = values[i];
+        }
+        count = n;
+    }
+
+    /**
+     * Returns an iterator over the elements of the set.
+     * No order is guaranteed.
+     *
+     * @post returns iterator over elements of set
+     *
+     * @return An iterator over the set.
+     */
+    public Iterator iterator()
+    {
+        return new SetHashIterator(data);
+    }
+
+    /**
+     * Determine the number of elements in the set.
+     *
+     * @post returns number of elements in set
+     *
+     * @return The number of elements in the set.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Construct a string representation of the set.
+     *
+     * @post returns string representation of set
+     *
+     * @return A string representing the set.
+     */
+    public String toString()
+    {
+        StringBuffer s = new StringBuffer();
+        s.append("<SetHash:");
+        for (int i = 0; i < data.length; i++)
+        {
+            if (data[i] != null) s.append(" "+data[i]);
+        }
+        s.append(">");
+        return s.toString();
+    }
+}
@@ -0,0 +1,98 @@
+package structure;
+
+/**
+ * A traversal of all the elements as they appear in a hashed set.
+ * No order is guaranteed.  This iterator is not publically accessable
+ * and is used to implement SetHash's iterator.
+ * <P>
+ * Typical use:
+ * <P>
+ * <pre>
+ *      SetHash s = new SetHash();
+ *      // ...set gets built up...
+ *      Iterator si = s.iterator();
+ *      while (si.{@link #hasNext() hasNext()})
+ *      {
+ *          System.out.println(si.{@link #next() next()});
+ *      }
+ * </pre>
+ */
+class SetHashIterator extends AbstractIterator
+{
+    /**
+     * The index of the current entry.
+     */
+    protected int current;
+    /**
+     * Reference to the set's table; null entries are free.
+     */
+    protected Object data[];
+
+    /**
+     * Construct a traversal over a hashed set's table.
+     *
+     * @post constructs a new traversal
+     *
+     * @param table The table to be traversed.
+     */
+    public SetHashIterator(Object[] table)
+    {
+        data = table;
+        reset();
+    }
+
+    /**
+     * Resets the traversal to point to the beginning of the table.
+     *
+     * @post resets traversal to beginning of table
+     */
+    public void reset()
+    {
+        for (current = 0; current < data.length; current++)
+        {
+            if (data[current] != null) break;
+        }
+    }
+
+    /**
+     * Returns true iff there are unconsidered elements within the table.
+     *
+     * @post returns true if there are unvisited elements
+     *
+     * @return True iff there are elements yet to be considered within table.
+     */
+    public boolean hasNext()
+    {
+        return current < data.length;
+    }
+
+    /**
+     * Returns current value and increments traversal.
+     *
+     * @pre hasNext()
+     * @post returns current element, increments traversal
+     *
+     * @return The current value, before incrementing.
+     */
+    public Object next()
+    {
+        Object result = data[current];
+        for (current++; current < data.length; current++)
+        {
+            if (data[current] != null) break;
+        }
+        return result;
+    }
+
+    /**
+     * Get current value of traversal.
+     *
+     * @post returns current element
+     *
+     * @return The current value.
+     */
+    public Object get()
+    {
+        return data[current];
+    }
+}
@@ -0,0 +1,479 @@
+// An immutable sparse matrix in compressed row or column form.
+
+package structure;
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * An immutable sparse matrix of <code>double</code> values, in
+ * compressed sparse row (CSR) or compressed sparse column (CSC) form.
+ * Only the stored entries are kept: in row form, the column indices of
+ * the entries of row r are kept, in increasing order, in positions
+ * {@link #offset(int) offset(r)} through offset(r+1)-1 of one
+ * <code>int</code> array, and their values at the same positions of a
+ * parallel <code>double</code> array.  Column form is the same, with
+ * the roles of rows and columns exchanged.  Space is proportional to
+ * the number of rows (or columns) plus the number of entries.
+ * <P>
+ * Sparse matrices are built as a {@link CoordinateMatrix} and then
+ * compressed.  Row form suits multiplication by a vector and the
+ * slicing of rows; column form suits the slicing of columns.  Either
+ * form is converted to the other in time proportional to its size, and
+ * {@link #transpose()} takes constant time, reinterpreting the rows of
+ * one form as the columns of the other.  Since a sparse matrix is never
+ * modified, any number of threads may read it at once.
+ * <P>
+ * Example Usage:
+ * <P>
+ * <pre>
+ *      CoordinateMatrix coo = new CoordinateMatrix(3, 3);
+ *      coo.add(0, 2, 5.0);
+ *      coo.add(2, 0, 1.0);
+ *      SparseMatrix a = coo.{@link CoordinateMatrix#toCSR() toCSR()};
+ *      double y[] = a.{@link #multiply(double[]) multiply(new double[]{1, 2, 3})}; // {15, 0, 1}
+ *      SparseMatrix top = a.{@link #rows(int,int) rows(0, 2)};
+ * </pre>
+ * @see CoordinateMatrix
+ * @see DoubleMatrix
+ * @see GraphCSR
+ */
+public class SparseMatrix
+{
+    /**
+     * The fewest entries in a product that is divided between threads.
+     */
+    protected static final int parallelWork = 1 << 16;
+    /**
+     * The number of rows of a product computed by one task.
+     */
+    protected static final int grain = 1024;
+
+    /**
+     * The number of rows and columns.
+     */
+    protected final int height, width;
+    /**
+     * True if entries are grouped by row, false if by column.
+     */
+    protected final boolean byRow;
+    /**
+     * The entries of row (or column) m are at offsets[m]..offsets[m+1]-1.
+     */
+    protected final int offsets[];
+    /**
+     * The column (or row) of each entry.
+     */
+    protected final int indices[];
+    /**
+     * The value of each entry.
+     */
+    protected final double values[];
+
+    /**
+     * Construct a sparse matrix from its compressed arrays, which are
+     * not copied.
+     *
+     * @pre indices within each row (or column) are in increasing order
+     * @post constructs a sparse matrix holding the entries given
+     */
+    SparseMatrix(int height, int width, boolean byRow,
+                 int offsets[], int indices[], double values[])
+    {
+        this.height = height;
+        this.width = width;
+        this.byRow = byRow;
+        this.offsets = offsets;
+        this.indices = indices;
+        this.values = values;
+    }
+
+    /**
+     * Return the width of the matrix.
+     *
+     * @post returns number of columns in matrix
+     *
+     * @return The number of columns in the matrix.
+     */
+    public int width()
+    {
+        return width;
+    }
+
+    /**
+     * Return the height of the matrix.
+     *
+     * @post returns number of rows in matrix
+     *
+     * @return The number of rows in the matrix.
+     */
+    public int height()
+    {
+        return height;
+    }
+
+    /**
+     * Determine if the matrix is in row form.
+     *
+     * @post returns true if entries are grouped by row (CSR), false if
+     *       they are grouped by column (CSC)
+     *
+     * @return True iff the matrix is in compressed row form.
+     */
+    public boolean isRowOriented()
+    {
+        return byRow;
+    }
+
+    /**
+     * Return the number of entries stored.
+     *
+     * @post returns the number of stored entries
+     *
+     * @return The number of entries, some of which may be zero.
+     */
+    public int entries()
+    {
+        return indices.length;
+    }
+
+    /**
+     * Find the position of the first entry of a row (in row form) or
+     * column (in column form).  The entries of m are at positions
+     * offset(m) through offset(m+1)-1.
+     *
+     * @pre 0 <= m <= number of rows (or columns)
+     * @post returns the position of the first entry of m
+     *
+     * @param m A row (or column), or the number of rows (or columns).
+     * @return The position of the first entry of m.
+     */
+    public int offset(int m)
+    {
+        return offsets[m];
+    }
+
+    /**
+     * Find the column (in row form) or row (in column form) of an entry.
+     *
+     * @pre 0 <= k < entries()
+     * @post returns the column (or row) of the entry at position k
+     *
+     * @param k The position of an entry.
+     * @return The column (or row) of the entry.
+     */
+    public int index(int k)
+    {
+        return indices[k];
+    }
+
+    /**
+     * Find the value of an entry.
+     *
+     * @pre 0 <= k < entries()
+     * @post returns the value of the entry at position k
+     *
+     * @param k The position of an entry.
+     * @return The value of the entry.
+     */
+    public double value(int k)
+    {
+        return values[k];
+    }
+
+    /**
+     * Fetch a value of the matrix.  The search is binary, taking time
+     * logarithmic in the number of entries of the row (or column).
+     *
+     * @pre 0 <= row < height(), 0 <= col < width()
+     * @post returns the value at (row, col); zero if none is stored
+     *
+     * @param row The row of the value.
+     * @param col The column of the value.
+     * @return The value located at (row, col).
+     */
+    public double get(int row, int col)
+    {
+        Assert.pre(0 <= row && row < height, "Row in bounds.");
+        Assert.pre(0 <= col && col < width, "Col in bounds.");
+        int m = byRow ? row : col;
+        int k = Arrays.binarySearch(indices, offsets[m], offsets[m+1], byRow ? col : row);
+        return k < 0 ? 0.0 : values[k];
+    }
+
+    /**
+     * Compute the transpose of this matrix.  The arrays are shared: the
+     * rows of this matrix are the columns of the transpose.
+     *
+     * @post returns the width() by height() transpose of this matrix,
+     *       in the other form
+     *
+     * @return The transpose of the matrix.
+     */
+    public SparseMatrix transpose()
+    {
+        return new SparseMatrix(width, height, !byRow, offsets, indices, values);
+    }
+
+    /**
+     * Convert the matrix to compressed row form.
+     *
+     * @post returns this matrix in row form
+     *
+     * @return The matrix in CSR form; this, if already in row form.
+     */
+    public SparseMatrix toCSR()
+    {
+        return byRow ? this : regroup();
+    }
+
+    /**
+     * Convert the matrix to compressed column form.
+     *
+     * @post returns this matrix in column form
+     *
+     * @return The matrix in CSC form; this, if already in column form.
+     */
+    public SparseMatrix toCSC()
+    {
+        return byRow ? regroup() : this;
+    }
+
+    /**
+     * Group the entries by their minor index, by a counting sort.
+     * Entries are placed in order of their major index, so the new
+     * groups are sorted.
+     *
+     * @post returns this matrix, in the other form
+     */
+    private SparseMatrix regroup()
+    {
+        int majorSize = offsets.length-1, minorSize = byRow ? width : height;
+        int n = indices.length;
+        int newOffsets[] = new int[minorSize+1];
+        for (int k = 0; k < n; k++) newOffsets[indices[k]+1]++;
+        for (int m = 0; m < minorSize; m++) newOffsets[m+1] += newOffsets[m];
+        int free[] = Arrays.copyOf(newOffsets, minorSize);
+        int newIndices[] = new int[n];
+        double newValues[] = new double[n];
+        for (int m = 0; m < majorSize; m++)
+        {
+            for (int k = offsets[m]; k < offsets[m+1]; k++)
+            {
+                int at = free[indices[k]]++;
+                newIndices[at] = m;
+                newValues[at] = values[k];
+            }
+        }
+        return new SparseMatrix(height, width, !byRow, newOffsets, newIndices, newValues);
+    }
+
+    /**
+     * Select a band of rows.  In row form, the entries of the rows are
+     * copied directly; in column form, the entries of each column in
+     * the band are found by binary search.
+     *
+     * @pre 0 <= from <= to <= height()
+     * @post returns the (to-from) by width() matrix of rows from..to-1,
+     *       in the same form as this matrix
+     *
+     * @param from The first row selected.
+     * @param to The row after the last row selected.
+     * @return The rows selected.
+     */
+    public SparseMatrix rows(int from, int to)
+    {
+        Assert.pre(0 <= from && from <= to && to <= height, "Rows in bounds.");
+        if (byRow) return major(from, to, to-from, width);
+        return minor(from, to, to-from, width);
+    }
+
+    /**
+     * Select a band of columns.  In column form, the entries of the
+     * columns are copied directly; in row form, the entries of each row
+     * in the band are found by binary search.
+     *
+     * @pre 0 <= from <= to <= width()
+     * @post returns the height() by (to-from) matrix of columns
+     *       from..to-1, in the same form as this matrix
+     *
+     * @param from The first column selected.
+     * @param to The column after the last column selected.
+     * @return The columns selected.
+     */
+    public SparseMatrix columns(int from, int to)
+    {
+        Assert.pre(0 <= from && from <= to && to <= width, "Columns in bounds.");
+        if (byRow) return minor(from, to, height, to-from);
+        return major(from, to, height, to-from);
+    }
+
+    /**
+     * @post returns the h by w matrix of major indices from..to-1
+     */
+    private SparseMatrix major(int from, int to, int h, int w)
+    {
+        int base = offsets[from];
+        int newOffsets[] = new int[to-from+1];
+        for (int m = from; m <= to; m++) newOffsets[m-from] = offsets[m] - base;
+        return new SparseMatrix(h, w, byRow, newOffsets,
+                                Arrays.copyOfRange(indices, base, offsets[to]),
+                                Arrays.copyOfRange(values, base, offsets[to]));
+    }
+
+    /**
+     * @post returns the h by w matrix of minor indices from..to-1
+     */
+    private SparseMatrix minor(int from, int to, int h, int w)
+    {
+        int majorSize = offsets.length-1;
+        // the first entry of each major index within the band
+        int first[] = new int[majorSize];
+        int newOffsets[] = new int[majorSize+1];
+        for (int m = 0; m < majorSize; m++)
+        {
+            int k = Arrays.binarySearch(indices, offsets[m], offsets[m+1], from);
+            if (k < 0) k = -k-1;
+            first[m] = k;
+            int end = k;
+            while (end < offsets[m+1] && indices[end] < to) end++;
+            newOffsets[m+1] = newOffsets[m] + (end - k);
+        }
+        int n = newOffsets[majorSize];
+        int newIndices[] = new int[n];
+        double newValues[] = new double[n];
+        for (int m = 0; m < majorSize; m++)
+        {
+            int k = first[m];
+            for (int at = newOffsets[m]; at < newOffsets[m+1]; at++, k++)
+            {
+                newIndices[at] = indices[k] - from;
+                newValues[at] = values[k];
+            }
+        }
+        return new SparseMatrix(h, w, byRow, newOffsets, newIndices, newValues);
+    }
+
+    /**
+     * Multiply this matrix by a vector.  In row form, each entry of the
+     * product is the dot product of a row with x, and large products
+     * are divided, by rows, between the threads of a shared pool.  In
+     * column form, each column scatters its contribution into the
+     * product, by a single thread.
+     *
+     * @pre x.length == width()
+     * @post returns the product of this matrix and x
+     *
+     * @param x The vector to be multiplied.
+     * @return The product, of length height().
+     */
+    public double[] multiply(double x[])
+    {
+        Assert.pre(x.length == width, "Vector length agrees with width.");
+        double y[] = new double[height];
+        if (!byRow)
+        {
+            for (int c = 0; c < width; c++)
+            {
+                double s = x[c];
+                for (int k = offsets[c]; k < offsets[c+1]; k++) y[indices[k]] += values[k]*s;
+            }
+        } else if (indices.length >= parallelWork && height > grain && Parallel.isUseful()) {
+            Parallel.pool().invoke(new Product(this, x, y, 0, height));
+        } else {
+            dot(x, y, 0, height);
+        }
+        return y;
+    }
+
+    /**
+     * @pre matrix is in row form
+     * @post y[lo..hi-1] hold the products of rows lo..hi-1 with x
+     */
+    void dot(double x[], double y[], int lo, int hi)
+    {
+        for (int r = lo; r < hi; r++)
+        {
+            double sum = 0.0;
+            for (int k = offsets[r]; k < offsets[r+1]; k++) sum += values[k]*x[indices[k]];
+            y[r] = sum;
+        }
+    }
+
+    /**
+     * A task that multiplies a band of rows by a vector.
+     */
+    static final class Product extends RecursiveAction
+    {
+        final SparseMatrix a;
+        final double x[], y[];
+        final int lo, hi;
+
+        Product(SparseMatrix a, double x[], double y[], int lo, int hi)
+        {
+            this.a = a;
+            this.x = x;
+            this.y = y;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        /**
+         * @post y[lo..hi-1] hold the products of rows lo..hi-1 with x
+         */
+        protected void compute()
+        {
+            if (hi - lo > grain)
+            {
+                int mid = (lo+hi) >>> 1;
+                invokeAll(new Product(a, x, y, lo, mid), new Product(a, x, y, mid, hi));
+                return;
+            }
+            a.dot(x, y, lo, hi);
+        }
+    }
+
+    /**
+     * Construct a dense copy of the matrix.
+     *
+     * @pre height()*width() fits in an array
+     * @post returns a DoubleMatrix with the values of this matrix
+     *
+     * @return A dense copy of the matrix.
+     */
+    public DoubleMatrix toDense()
+    {
+        DoubleMatrix result = new DoubleMatrix(height, width);
+        for (int m = 0; m < offsets.length-1; m++)
+        {
+            for (int k = offsets[m]; k < offsets[m+1]; k++)
+            {
+                if (byRow) result.data[m*width+indices[k]] = values[k];
+                else result.data[indices[k]*width+m] = values[k];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Construct a string representation of the matrix.
+     *
+     * @post returns string listing the stored entries
+     *
+     * @return A string representing the matrix.
+     */
+    public String toString()
+    {
+        StringBuffer s = new StringBuffer();
+        s.append("<SparseMatrix: "+height+"x"+width+(byRow ? " CSR" : " CSC"));
+        for (int m = 0; m < offsets.length-1; m++)
+        {
+            for (int k = offsets[m]; k < offsets[m+1]; k++)
+            {
+                int row = byRow ? m : indices[k], col = byRow ? indices[k] : m;
+                s.append(" ("+row+","+col+")="+values[k]);
+            }
+        }
+        s.append(">");
+        return s.toString();
+    }
+}
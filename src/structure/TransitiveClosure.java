@@ -0,0 +1,167 @@
+// Reachability between all pairs of vertices of a matrix graph.
+
+package structure;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The transitive closure of a {@link GraphMatrix}: for every pair of
+ * vertices, whether there is a path from one to the other.  Every
+ * vertex reaches itself.
+ * <P>
+ * The vertices are numbered densely, and the vertices reached from
+ * each vertex are kept as a row of bits, packed into
+ * <code>long</code>s.  The closure is computed by Warshall's algorithm:
+ * for each vertex k in turn, every row that reaches k is merged with
+ * the row of k, 64 columns at a time.  Rows are merged by the threads
+ * of a shared fork/join pool, in bands.  Time is proportional to the
+ * cube of the number of vertices, divided by 64, and space to its
+ * square, divided by 64.
+ * <P>
+ * The closure is that of the graph when constructed; later changes to
+ * the graph are not reflected.
+ * <P>
+ * Example Usage:
+ * <P>
+ * <pre>
+ *      TransitiveClosure c = new {@link #TransitiveClosure(GraphMatrix) TransitiveClosure(g)};
+ *      System.out.println(c.{@link #reachable(Object,Object) reachable("socks","shoes")});
+ * </pre>
+ * @see GraphMatrix
+ * @see AllPairsShortestPaths
+ */
+public class TransitiveClosure
+{
+    /**
+     * The fewest rows merged by several threads.
+     */
+    protected static final int parallelRows = 1024;
+    /**
+     * The number of rows merged by one task.
+     */
+    protected static final int grain = 128;
+
+    /**
+     * The number of vertices.
+     */
+    protected int n;
+    /**
+     * The dense ids of the vertices.
+     */
+    protected VertexIds vertices;
+    /**
+     * Bit v%64 of reach[u][v/64] is set iff u reaches v.
+     */
+    protected long reach[][];
+
+    /**
+     * Compute the transitive closure of a graph.
+     *
+     * @pre g is non-null
+     * @post constructs the closure of g
+     *
+     * @param g The graph whose closure is computed.
+     */
+    public TransitiveClosure(GraphMatrix g)
+    {
+        vertices = new VertexIds(g);
+        n = vertices.size();
+        // the id of each row of the matrix, or -1
+        int id[] = g.rowIds(vertices);
+        int words = GraphMatrix.words(n);
+        reach = new long[n][words];
+        for (int row = 0; row < id.length; row++)
+        {
+            int u = id[row];
+            if (u < 0) continue;
+            reach[u][u >>> 6] |= 1L << u;
+            for (int col = g.nextEdge(row, 0); col >= 0; col = g.nextEdge(row, col+1))
+            {
+                int w = id[col];
+                reach[u][w >>> 6] |= 1L << w;
+            }
+        }
+        boolean parallel = n >= parallelRows && Parallel.isUseful();
+        for (int k = 0; k < n; k++)
+        {
+            if (parallel) Parallel.pool().invoke(new Merge(reach, k, 0, n));
+            else merge(reach, k, 0, n);
+        }
+    }
+
+    /**
+     * @post rows lo..hi-1 that reach k reach all that k reaches
+     */
+    static void merge(long reach[][], int k, int lo, int hi)
+    {
+        long source[] = reach[k];
+        int word = k >>> 6;
+        long bit = 1L << k;
+        for (int i = lo; i < hi; i++)
+        {
+            long target[] = reach[i];
+            if ((target[word] & bit) == 0 || target == source) continue;
+            for (int w = 0; w < target.length; w++) target[w] |= source[w];
+        }
+    }
+
+    /**
+     * A task that merges a band of rows with the row of vertex k.
+     */
+    static final class Merge extends RecursiveAction
+    {
+        final long reach[][];
+        final int k, lo, hi;
+
+        Merge(long reach[][], int k, int lo, int hi)
+        {
+            this.reach = reach;
+            this.k = k;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected void compute()
+        {
+            if (hi - lo > grain)
+            {
+                int mid = (lo+hi) >>> 1;
+                invokeAll(new Merge(reach, k, lo, mid), new Merge(reach, k, mid, hi));
+                return;
+            }
+            merge(reach, k, lo, hi);
+        }
+    }
+
+    /**
+     * Determine if there is a path between two vertices.
+     *
+     * @pre from and to label vertices of the graph
+     * @post returns true iff there is a path from from to to
+     *
+     * @param from The label of the first vertex.
+     * @param to The label of the last vertex.
+     * @return True iff to is reachable from from.
+     */
+    public boolean reachable(Object from, Object to)
+    {
+        int u = vertices.id(from), v = vertices.id(to);
+        return (reach[u][v >>> 6] & (1L << v)) != 0;
+    }
+
+    /**
+     * Count the vertices reachable from a vertex, including itself.
+     *
+     * @pre from labels a vertex of the graph
+     * @post returns the number of vertices reachable from from
+     *
+     * @param from The label of a vertex.
+     * @return The number of vertices it reaches.
+     */
+    public int reachableCount(Object from)
+    {
+        long row[] = reach[vertices.id(from)];
+        int result = 0;
+        for (int w = 0; w < row.length; w++) result += Long.bitCount(row[w]);
+        return result;
+    }
+}
@@ -0,0 +1,250 @@
+// Visited marks for one traversal of a graph snapshot.
+
+package structure;
+import java.util.Arrays;
+
+/**
+ * The visited marks of a single traversal of a {@link GraphCSR}.
+ * Unlike the visited flags kept within the vertices and edges of a
+ * {@link Graph}, these marks belong to the traversal, not the graph:
+ * each thread may traverse one snapshot with its own Traversal, and
+ * no traversal disturbs another.
+ * <P>
+ * Marks are kept as stamps in arrays indexed by the dense ids of
+ * vertices and the positions of edges.  A vertex is visited when its
+ * stamp equals the current epoch, so {@link #reset()} merely advances
+ * the epoch, taking constant time rather than time proportional to the
+ * size of the graph.  A Traversal may therefore be reused cheaply for
+ * many searches.  A Traversal is not itself safe for use by several
+ * threads at once.
+ * <P>
+ * Example Usage:
+ * <P>
+ * <pre>
+ *      GraphCSR csr = new GraphCSR(g);
+ *      Traversal t = csr.{@link GraphCSR#traversal() traversal()};
+ *      for (int v = 0; v &lt; csr.size(); v++)
+ *      {
+ *          t.{@link #reset()}; // constant time
+ *          t.{@link #visit(int) visit(v)};
+ *          int reached = 0;
+ *          for (int i = csr.offset(v); i &lt; csr.offset(v+1); i++)
+ *          {
+ *              if (!t.visit(csr.target(i))) reached++;
+ *          }
+ *          System.out.println(csr.label(v)+" has "+reached+" neighbors");
+ *      }
+ * </pre>
+ * @see Graph#visit(Object)
+ * @see GraphCSR
+ */
+public class Traversal
+{
+    /**
+     * The snapshot traversed, or null if marks are only numbered.
+     */
+    protected GraphCSR graph;
+    /**
+     * The stamp of each vertex; visited iff equal to epoch.
+     */
+    protected int vertexStamp[];
+    /**
+     * The stamp of each edge; visited iff equal to epoch.
+     */
+    protected int edgeStamp[];
+    /**
+     * The stamp of the current traversal; always positive.
+     */
+    protected int epoch;
+
+    /**
+     * Construct the marks of a traversal of a snapshot.
+     *
+     * @pre g is non-null
+     * @post constructs a traversal of g with nothing visited
+     *
+     * @param g The snapshot to be traversed.
+     */
+    public Traversal(GraphCSR g)
+    {
+        this(g.size(), g.offset(g.size()));
+        graph = g;
+    }
+
+    /**
+     * Construct the marks of a traversal of numbered vertices and
+     * edges.  Vertices and edges may only be visited by number.
+     *
+     * @pre vertices >= 0, edges >= 0
+     * @post constructs a traversal with nothing visited
+     *
+     * @param vertices The number of vertices.
+     * @param edges The number of edges.
+     */
+    public Traversal(int vertices, int edges)
+    {
+        Assert.pre(vertices >= 0 && edges >= 0, "Sizes are non-negative.");
+        vertexStamp = new int[vertices];
+        edgeStamp = new int[edges];
+        epoch = 1;
+    }
+
+    /**
+     * Visit a vertex.
+     *
+     * @pre 0 <= v < number of vertices
+     * @post sets visited mark of v, returns previous value
+     *
+     * @param v The id of the vertex to be visited.
+     * @return Previous value of the visited mark.
+     */
+    public boolean visit(int v)
+    {
+        boolean result = vertexStamp[v] == epoch;
+        vertexStamp[v] = epoch;
+        return result;
+    }
+
+    /**
+     * Determine if a vertex has been visited.
+     *
+     * @pre 0 <= v < number of vertices
+     * @post returns visited mark of v
+     *
+     * @param v The id of a vertex.
+     * @return True if the vertex has been visited.
+     */
+    public boolean isVisited(int v)
+    {
+        return vertexStamp[v] == epoch;
+    }
+
+    /**
+     * Visit an edge.  Each direction of an undirected edge of a
+     * snapshot has its own position, and its own mark.
+     *
+     * @pre 0 <= i < number of edges
+     * @post sets visited mark of edge i, returns previous value
+     *
+     * @param i The position of the edge to be visited.
+     * @return Previous value of the visited mark.
+     */
+    public boolean visitEdge(int i)
+    {
+        boolean result = edgeStamp[i] == epoch;
+        edgeStamp[i] = epoch;
+        return result;
+    }
+
+    /**
+     * Determine if an edge has been visited.
+     *
+     * @pre 0 <= i < number of edges
+     * @post returns visited mark of edge i
+     *
+     * @param i The position of an edge.
+     * @return True if the edge has been visited.
+     */
+    public boolean isVisitedEdge(int i)
+    {
+        return edgeStamp[i] == epoch;
+    }
+
+    /**
+     * @pre traversal is of a snapshot; label labels one of its vertices
+     * @post returns the id of the vertex labeled label
+     */
+    protected int id(Object label)
+    {
+        Assert.pre(graph != null, "Traversal is of a graph snapshot.");
+        int v = graph.id(label);
+        Assert.pre(v >= 0, "Vertex is in graph.");
+        return v;
+    }
+
+    /**
+     * @pre traversal is of a snapshot; e is one of its edges
+     * @post returns the position of e
+     */
+    protected int position(Edge e)
+    {
+        int i = graph.edge(id(e.here()), id(e.there()));
+        Assert.pre(i >= 0, "Edge is in graph.");
+        return i;
+    }
+
+    /**
+     * Visit a vertex, by label.
+     *
+     * @pre label labels a vertex of the snapshot traversed
+     * @post sets visited mark of vertex, returns previous value
+     *
+     * @param label Label of vertex to be visited.
+     * @return Previous value of the visited mark.
+     */
+    public boolean visit(Object label)
+    {
+        return visit(id(label));
+    }
+
+    /**
+     * Determine if a vertex has been visited, by label.
+     *
+     * @pre label labels a vertex of the snapshot traversed
+     * @post returns visited mark of labeled vertex
+     *
+     * @param label Label of vertex.
+     * @return True if vertex has been visited.
+     */
+    public boolean isVisited(Object label)
+    {
+        return isVisited(id(label));
+    }
+
+    /**
+     * Visit an edge of the snapshot, found by the labels of its vertices.
+     *
+     * @pre e is an edge of the snapshot traversed
+     * @post sets visited mark of edge, returns previous value
+     *
+     * @param e An edge of the graph the snapshot was taken of.
+     * @return Previous value of the visited mark.
+     */
+    public boolean visitEdge(Edge e)
+    {
+        return visitEdge(position(e));
+    }
+
+    /**
+     * Determine if an edge has been visited, by the labels of its
+     * vertices.
+     *
+     * @pre e is an edge of the snapshot traversed
+     * @post returns visited mark of edge
+     *
+     * @param e An edge of the graph the snapshot was taken of.
+     * @return True if the edge has been visited.
+     */
+    public boolean isVisitedEdge(Edge e)
+    {
+        return isVisitedEdge(position(e));
+    }
+
+    /**
+     * Clear the visited marks of all vertices and edges.  This takes
+     * constant time, except once in every 2^31 resets.
+     *
+     * @post no vertex or edge is visited
+     */
+    public void reset()
+    {
+        if (epoch == Integer.MAX_VALUE)
+        {
+            // stamps would be reused; clear them instead
+            Arrays.fill(vertexStamp, 0);
+            Arrays.fill(edgeStamp, 0);
+            epoch = 0;
+        }
+        epoch++;
+    }
+}
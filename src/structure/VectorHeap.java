@@ -2,6 +2,7 @@
 // (c) 1998, 2001, 2002 duane a. bailey
 package structure;
 
+import java.util.Collections;
 import java.util.Vector;
 
 /**
@@ -59,18 +60,15 @@ public class VectorHeap<E extends Comparable<E>> implements PriorityQueue<E>
     }
 
     /**
-     * Construct a new priority queue from an unordered vector
+     * Construct a new priority queue from an unordered vector.
+     * The heap is built bottom-up in linear time.
      *
      * @post constructs a new priority queue from an unordered vector
      */
     public VectorHeap(Vector<E> v)
     {
-        int i;
-        data = new Vector<E>(v.size()); // we know ultimate size
-        for (i = 0; i < v.size(); i++)
-        {   // add elements to heap
-            add(v.get(i));
-        }
+        data = new Vector<E>(v); // we know ultimate size
+        heapify();
     }
 
     /**
@@ -153,6 +151,63 @@ public class VectorHeap<E extends Comparable<E>> implements PriorityQueue<E>
         percolateUp(data.size()-1);
     }
 
+    /**
+     * Add many values to the priority queue.  When the new values
+     * outnumber those already present, the heap is rebuilt bottom-up
+     * in linear time rather than percolating each value.
+     *
+     * @pre values is non-null; its elements are non-null comparables
+     * @post values are added to priority queue
+     * 
+     * @param values The values to be added.
+     */
+    public void addAll(Iterable<? extends E> values)
+    {
+        int oldSize = data.size();
+        for (E value : values)
+        {
+            data.add(value);
+        }
+        int added = data.size() - oldSize;
+        if (added > oldSize)
+        {
+            heapify();
+        } else {
+            for (int i = oldSize; i < data.size(); i++)
+            {
+                percolateUp(i);
+            }
+        }
+    }
+
+    /**
+     * Remove up to k of the smallest values from the queue.
+     *
+     * @pre k >= 0
+     * @post removes the min(k,size()) smallest values, returning
+     *       them in increasing order
+     * 
+     * @param k The number of values to remove.
+     * @return A vector of the removed values, smallest first.
+     */
+    public Vector<E> removeN(int k)
+    {
+        Assert.pre(k >= 0, "Number of values to remove must be non-negative.");
+        if (k >= data.size())
+        {   // everything goes: sort once instead of sifting n times
+            Vector<E> result = new Vector<E>(data);
+            Collections.sort(result);
+            data.clear();
+            return result;
+        }
+        Vector<E> result = new Vector<E>(k);
+        for (int i = 0; i < k; i++)
+        {
+            result.add(remove());
+        }
+        return result;
+    }
+
     /**
      * Determine if the queue is empty.
      *
@@ -185,6 +240,19 @@ public class VectorHeap<E extends Comparable<E>> implements PriorityQueue<E>
         data.set(leaf,value);
     }
 
+    /**
+     * Restore heap order over the whole vector, working from the last
+     * interior node back to the root (Floyd's method).
+     * @post data is in heap order
+     */
+    protected void heapify()
+    {
+        for (int i = parent(data.size()-1); i >= 0; i--)
+        {
+            pushDownRoot(i);
+        }
+    }
+
     /**
      * Moves node downward, into appropriate position within subheap.
      * @param root Index of the root of the subheap.
@@ -256,4 +324,4 @@ public class VectorHeap<E extends Comparable<E>> implements PriorityQueue<E>
     {
         return "<VectorHeap: "+data+">";
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
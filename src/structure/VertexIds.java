@@ -0,0 +1,87 @@
+// A numbering of the vertices of a graph with dense integer ids.
+
+package structure;
+import java.util.Iterator;
+
+/**
+ * A numbering of the vertices of a {@link Graph} with dense ids
+ * 0..size()-1, in the order they are returned by the graph's iterator,
+ * with translation in both directions.  The numbering is that of the
+ * graph when constructed; later changes to the graph are not reflected.
+ *
+ * @see GraphCSR
+ * @see AllPairsShortestPaths
+ * @see TransitiveClosure
+ */
+class VertexIds
+{
+    /**
+     * The label of each vertex, indexed by id.
+     */
+    protected Object labels[];
+    /**
+     * Translation from vertex labels to ids (Integers).
+     */
+    protected Hashtable ids;
+
+    /**
+     * Number the vertices of a graph.
+     *
+     * @pre g is non-null
+     * @post the vertices of g are numbered in the order of its iterator
+     *
+     * @param g The graph whose vertices are numbered.
+     */
+    VertexIds(Graph g)
+    {
+        int n = g.size();
+        labels = new Object[n];
+        ids = new Hashtable(2*n+1);
+        int v = 0;
+        Iterator vi = g.iterator();
+        while (vi.hasNext())
+        {
+            Object label = vi.next();
+            labels[v] = label;
+            ids.put(label, Integer.valueOf(v++));
+        }
+    }
+
+    /**
+     * @post returns the number of vertices numbered
+     */
+    int size()
+    {
+        return labels.length;
+    }
+
+    /**
+     * @post returns the id of the vertex labeled label, or -1
+     */
+    int find(Object label)
+    {
+        Integer v = (Integer)ids.get(label);
+        return v == null ? -1 : v.intValue();
+    }
+
+    /**
+     * @pre label labels a vertex of the graph
+     * @post returns the id of the vertex
+     */
+    int id(Object label)
+    {
+        int v = find(label);
+        Assert.pre(v >= 0, "Vertex is in graph.");
+        return v;
+    }
+
+    /**
+     * @pre 0 <= v < size()
+     * @post returns the label of vertex v
+     */
+    Object label(int v)
+    {
+        Assert.pre(0 <= v && v < labels.length, "Vertex id in range.");
+        return labels[v];
+    }
+}
@@ -0,0 +1,36 @@
+// An interface for callbacks made during a traversal.
+
+package structure;
+
+/**
+ * The interface of an object that is handed each value of a structure,
+ * in turn, by a traversal.  Traversals that accept a Visitor, like
+ * {@link BinaryTree#inorder(Visitor)}, walk the structure without
+ * constructing an iterator or any other object.
+ * <P>
+ * Example usage:
+ * <P>
+ * <pre>
+ *      class Sum implements Visitor&lt;Integer&gt;
+ *      {
+ *          int total = 0;
+ *          public void visit(Integer value) { total += value; }
+ *      }
+ *      Sum s = new Sum();
+ *      t.{@link BinaryTree#inorder(Visitor) inorder(s)};
+ *      System.out.println(s.total);
+ * </pre>
+ * @see BinaryTree
+ * @see RedBlackTree
+ */
+public interface Visitor<E>
+{
+    /**
+     * Consider one value of the traversal.
+     *
+     * @post value has been considered
+     *
+     * @param value The value currently visited.
+     */
+    public void visit(E value);
+}
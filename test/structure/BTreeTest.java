@@ -0,0 +1,153 @@
+// Pruebas de BTree contra un TreeMap, con abanicos pequeños.
+
+package structure;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Pruebas de BTree.  Los abanicos pequeños obligan a dividir, mezclar
+ * y desplazar nodos a menudo.
+ */
+public class BTreeTest {
+    TreeMap<Integer,Integer> reference;
+    Random generador;
+    int profundidad;
+
+    /**
+     * Crea el mapa de referencia.
+     */
+    @Before
+    public void before(){
+        reference = new TreeMap<Integer,Integer>();
+        generador = new Random(36);
+    }
+
+    /**
+     * Comprueba que las hojas están a la misma profundidad, que los
+     * nodos, salvo la raíz, están al menos medio llenos, y que las
+     * claves están ordenadas y entre sus separadores.
+     */
+    void check(BTree t){
+        profundidad = -1;
+        check(t, t.root, true, 0, null, null);
+        assertEquals(reference.size(), t.size());
+        Iterator i = t.entries(null, null);
+        for( Map.Entry<Integer,Integer> e : reference.entrySet() ){
+            Association a = (Association)i.next();
+            assertEquals(e.getKey(), a.getKey());
+            assertEquals(e.getValue(), a.getValue());
+        }
+        assertFalse(i.hasNext());
+    }
+
+    void check(BTree t, BTree.Node n, boolean raíz, int d, Integer lo, Integer hi){
+        assertTrue(raíz || n.n >= t.fanout/2);
+        assertTrue(n.n <= t.fanout);
+        for( int k = 0; k != n.n; ++k ){
+            Integer key = (Integer)n.keys[k];
+            assertTrue(lo == null || lo <= key);
+            assertTrue(hi == null || key < hi);
+            assertTrue(k == 0 || (Integer)n.keys[k-1] < key);
+        }
+        if( n instanceof BTree.Leaf ){
+            if( profundidad < 0 ) profundidad = d;
+            assertEquals(profundidad, d);
+            return;
+        }
+        BTree.Inner inner = (BTree.Inner)n;
+        for( int c = 0; c <= n.n; ++c ){
+            check(t, inner.children[c], false, d+1,
+                  c == 0 ? lo : (Integer)n.keys[c-1],
+                  c == n.n ? hi : (Integer)n.keys[c]);
+        }
+    }
+
+    /**
+     * Compara put, get y remove con un TreeMap.
+     */
+    @Test
+    public void testPutGetRemove() {
+        System.out.println("put/get/remove");
+        for( int abanico = 3; abanico != 9; ++abanico ){
+            BTree t = new BTree(abanico);
+            reference.clear();
+            for( int n = 0; n != 5000; ++n ){
+                Integer key = generador.nextInt(400);
+                Integer value = generador.nextInt();
+                switch( generador.nextInt(3) ){
+                    case 0: assertEquals(reference.put(key, value), t.put(key, value)); break;
+                    case 1: assertEquals(reference.remove(key), t.remove(key)); break;
+                    default: assertEquals(reference.get(key), t.get(key));
+                }
+            }
+            check(t);
+            for( Integer key : new ArrayList<Integer>(reference.keySet()) ){
+                assertEquals(reference.remove(key), t.remove(key));
+            }
+            check(t);
+            assertTrue(t.isEmpty());
+        }
+    }
+
+    /**
+     * Carga pares ordenados en bloque, y luego los modifica.
+     */
+    @Test
+    public void testLoad() {
+        System.out.println("load");
+        for( int abanico = 3; abanico != 9; ++abanico ){
+            for( int n = 0; n < 200; n += 7 ){
+                BTree t = new BTree(abanico);
+                reference.clear();
+                ArrayList<Association> pares = new ArrayList<Association>();
+                for( int k = 0; k != n; ++k ){
+                    pares.add(new Association(2*k, k));
+                    reference.put(2*k, k);
+                }
+                t.load(pares.iterator());
+                check(t);
+                for( int k = 0; k < 2*n; k += 3 ){
+                    if( k % 2 == 0 ) assertEquals(reference.remove(k), t.remove(k));
+                    else assertEquals(reference.put(k, k), t.put(k, k));
+                }
+                check(t);
+            }
+        }
+    }
+
+    /**
+     * Recorre intervalos [lo, hi), abiertos o no.
+     */
+    @Test
+    public void testEntries() {
+        System.out.println("entries");
+        BTree t = new BTree(4);
+        for( int k = 0; k != 300; k += 3 ){
+            t.put(k, -k);
+            reference.put(k, -k);
+        }
+        for( int n = 0; n != 200; ++n ){
+            Integer lo = generador.nextInt(10) == 0 ? null : generador.nextInt(320) - 10;
+            Integer hi = generador.nextInt(10) == 0 ? null : generador.nextInt(320) - 10;
+            Map<Integer,Integer> esperado;
+            if( lo == null && hi == null ) esperado = reference;
+            else if( lo == null ) esperado = reference.headMap(hi);
+            else if( hi == null ) esperado = reference.tailMap(lo);
+            else if( lo <= hi ) esperado = reference.subMap(lo, hi);
+            else esperado = new TreeMap<Integer,Integer>();
+            Iterator i = t.entries(lo, hi);
+            for( Map.Entry<Integer,Integer> e : esperado.entrySet() ){
+                Association a = (Association)i.next();
+                assertEquals(e.getKey(), a.getKey());
+                assertEquals(e.getValue(), a.getValue());
+            }
+            assertFalse(i.hasNext());
+        }
+    }
+}
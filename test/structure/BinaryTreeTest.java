@@ -227,4 +227,22 @@ public class BinaryTreeTest {
         raíz.setValue(value);
         assertNotSame(value, valorRaiz);
     }
+
+    /**
+     * Comprueba el método augment.
+     */
+    @Test
+    public void testAugment() {
+        System.out.println("augment");
+        raíz.augment();
+        assertTrue(raíz.isAugmented());
+        assertTrue(izq.isAugmented());
+
+        // .. los subárboles agregados mantienen la forma en caché
+        izq.setLeft(new BinaryTree<Integer>(70));
+        assertEquals(tamaño + 1, raíz.size());
+        assertEquals(altura + 1, raíz.height());
+        assertTrue(raíz.isComplete());
+        assertFalse(raíz.isFull());
+    }
 }
@@ -0,0 +1,199 @@
+// Pruebas de CompressedBitSet: operaciones, escritura y lectura.
+
+package structure;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Pruebas de CompressedBitSet.
+ */
+public class CompressedBitSetTest {
+    CompressedBitSet conjunto;
+    TreeSet<Integer> reference;
+
+    /**
+     * Crea un conjunto con fragmentos de los tres tipos: pocos valores
+     * dispersos, un fragmento denso y un intervalo largo.
+     */
+    @Before
+    public void before(){
+        conjunto = new CompressedBitSet();
+        reference = new TreeSet<Integer>();
+        Random generador = new Random(32);
+        for( int n = 0; n != 100; ++n ) insert(generador.nextInt(1 << 24));
+        for( int n = 0; n != 10000; ++n ) insert((5 << 16) + generador.nextInt(1 << 16));
+        for( int n = 7 << 16; n != (7 << 16) + 30000; ++n ) insert(n);
+    }
+
+    void insert(int n){
+        conjunto.add(n);
+        reference.add(n);
+    }
+
+    /**
+     * Compara un conjunto con el de referencia.
+     */
+    void compare(TreeSet<Integer> expected, CompressedBitSet s){
+        assertEquals(expected.size(), s.size());
+        Iterator i = s.iterator();
+        for( Integer v : expected ) assertEquals(v, i.next());
+        assertFalse(i.hasNext());
+    }
+
+    /**
+     * Compara unión, intersección y diferencia con TreeSet.
+     */
+    @Test
+    public void testOperations() {
+        System.out.println("union/intersection/difference");
+        CompressedBitSet otro = new CompressedBitSet();
+        TreeSet<Integer> otroReference = new TreeSet<Integer>();
+        for( int n = 0; n < 1 << 20; n += 3 ){
+            otro.add(n);
+            otroReference.add(n);
+        }
+        TreeSet<Integer> unión = new TreeSet<Integer>(reference);
+        unión.addAll(otroReference);
+        compare(unión, conjunto.union(otro));
+        TreeSet<Integer> intersección = new TreeSet<Integer>(reference);
+        intersección.retainAll(otroReference);
+        compare(intersección, conjunto.intersection(otro));
+        TreeSet<Integer> diferencia = new TreeSet<Integer>(reference);
+        diferencia.removeAll(otroReference);
+        compare(diferencia, conjunto.difference(otro));
+        compare(reference, conjunto);
+    }
+
+    /**
+     * Escribe el conjunto y lo vuelve a leer, antes y después de
+     * convertir fragmentos en intervalos.
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        System.out.println("writeTo/readFrom");
+        for( int vuelta = 0; vuelta != 2; ++vuelta ){
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            conjunto.writeTo(new DataOutputStream(bytes));
+            CompressedBitSet leído = CompressedBitSet.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+            assertEquals(conjunto, leído);
+            compare(reference, leído);
+            conjunto.runOptimize();
+        }
+    }
+
+    /**
+     * Lee un conjunto de un fragmento, con clave 0, escrito a mano.
+     */
+    CompressedBitSet read(int type, int count, int... payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(1);
+        out.writeChar(0);
+        out.writeByte(type);
+        out.writeInt(count);
+        for( int v : payload ){
+            if( type == 1 ) out.writeLong(v);
+            else out.writeChar(v);
+        }
+        if( type == 1 ){
+            for( int n = payload.length; n != 1024; ++n ) out.writeLong(0);
+        }
+        return CompressedBitSet.readFrom(
+            new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    /**
+     * Un fragmento escrito a mano correctamente se lee.
+     */
+    @Test
+    public void testReadValid() throws IOException {
+        System.out.println("readFrom, valid");
+        assertEquals(3, read(0, 3, 1, 5, 9).size());
+        assertEquals(2, read(1, 2, 3).size());
+        assertEquals(7, read(2, 2, 0, 2, 10, 3).size());
+    }
+
+    /**
+     * Rechaza un arreglo vacío.
+     */
+    @Test(expected=IOException.class)
+    public void testReadEmptyArray() throws IOException {
+        System.out.println("readFrom, empty array");
+        read(0, 0);
+    }
+
+    /**
+     * Rechaza un arreglo desordenado.
+     */
+    @Test(expected=IOException.class)
+    public void testReadUnsortedArray() throws IOException {
+        System.out.println("readFrom, unsorted array");
+        read(0, 3, 1, 9, 5);
+    }
+
+    /**
+     * Rechaza un arreglo con valores repetidos.
+     */
+    @Test(expected=IOException.class)
+    public void testReadDuplicateArray() throws IOException {
+        System.out.println("readFrom, duplicate array");
+        read(0, 3, 1, 5, 5);
+    }
+
+    /**
+     * Rechaza un arreglo de más de 4096 valores.
+     */
+    @Test(expected=IOException.class)
+    public void testReadOversizedArray() throws IOException {
+        System.out.println("readFrom, oversized array");
+        int valores[] = new int[4097];
+        for( int n = 0; n != valores.length; ++n ) valores[n] = n;
+        read(0, valores.length, valores);
+    }
+
+    /**
+     * Rechaza un mapa de bits vacío.
+     */
+    @Test(expected=IOException.class)
+    public void testReadEmptyBitmap() throws IOException {
+        System.out.println("readFrom, empty bitmap");
+        read(1, 0);
+    }
+
+    /**
+     * Rechaza intervalos que se solapan.
+     */
+    @Test(expected=IOException.class)
+    public void testReadOverlappingRuns() throws IOException {
+        System.out.println("readFrom, overlapping runs");
+        read(2, 2, 0, 5, 3, 1);
+    }
+
+    /**
+     * Rechaza intervalos desordenados.
+     */
+    @Test(expected=IOException.class)
+    public void testReadUnorderedRuns() throws IOException {
+        System.out.println("readFrom, unordered runs");
+        read(2, 2, 10, 1, 0, 1);
+    }
+
+    /**
+     * Rechaza un intervalo que sale del fragmento.
+     */
+    @Test(expected=IOException.class)
+    public void testReadLongRun() throws IOException {
+        System.out.println("readFrom, run past the chunk");
+        read(2, 1, 65000, 1000);
+    }
+}
@@ -0,0 +1,127 @@
+// Pruebas de ConcurrentHashtable, con uno y con varios hilos.
+
+package structure;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Pruebas de ConcurrentHashtable.
+ */
+public class ConcurrentHashtableTest {
+    ConcurrentHashtable table;
+    HashMap<Integer,Integer> reference;
+    Random generador;
+
+    /**
+     * Crea una tabla vacía, pequeña para que crezca, y la de referencia.
+     */
+    @Before
+    public void before(){
+        table = new ConcurrentHashtable(4, 4);
+        reference = new HashMap<Integer,Integer>();
+        generador = new Random(26);
+    }
+
+    /**
+     * Compara put, get y remove con un HashMap.
+     */
+    @Test
+    public void testPutGetRemove() {
+        System.out.println("put/get/remove");
+        for( int n = 0; n != 20000; ++n ){
+            Integer key = generador.nextInt(1000);
+            Integer value = generador.nextInt();
+            switch( generador.nextInt(3) ){
+                case 0: assertEquals(reference.put(key, value), table.put(key, value)); break;
+                case 1: assertEquals(reference.remove(key), table.remove(key)); break;
+                default: assertEquals(reference.get(key), table.get(key));
+            }
+            assertEquals(reference.size(), table.size());
+        }
+        int cuenta = 0;
+        for( Iterator i = table.keys(); i.hasNext(); ++cuenta ){
+            Object key = i.next();
+            assertEquals(reference.get(key), table.get(key));
+        }
+        assertEquals(reference.size(), cuenta);
+        table.clear();
+        assertTrue(table.isEmpty());
+    }
+
+    /**
+     * Varios hilos piden la misma clave ausente; el valor se calcula
+     * una sola vez y todos lo reciben.
+     */
+    @Test
+    public void testComputeIfAbsent() throws InterruptedException {
+        System.out.println("computeIfAbsent");
+        final AtomicInteger cálculos = new AtomicInteger();
+        final Object resultados[] = new Object[4];
+        Thread trabajadores[] = new Thread[resultados.length];
+        for( int t = 0; t != trabajadores.length; ++t ){
+            final int id = t;
+            trabajadores[t] = new Thread(){
+                public void run(){
+                    resultados[id] = table.computeIfAbsent("clave",
+                        new ConcurrentHashtable.Computation(){
+                            public Object compute(Object key){
+                                return "valor " + cálculos.incrementAndGet();
+                            }
+                        });
+                }
+            };
+            trabajadores[t].start();
+        }
+        for( Thread t : trabajadores ) t.join();
+        assertEquals(1, cálculos.get());
+        for( Object r : resultados ) assertEquals("valor 1", r);
+    }
+
+    /**
+     * Varios hilos ponen y quitan valores únicos de pocas claves.  Cada
+     * valor puesto debe aparecer exactamente una vez: devuelto por put
+     * al ser reemplazado, devuelto por remove, o aún en la tabla.
+     */
+    @Test
+    public void testConcurrentPutRemove() throws InterruptedException {
+        System.out.println("concurrent put/remove");
+        final int hilos = 4, operaciones = 50000, claves = 16;
+        final AtomicIntegerArray vistos = new AtomicIntegerArray(hilos*operaciones);
+        Thread trabajadores[] = new Thread[hilos];
+        for( int t = 0; t != hilos; ++t ){
+            final int id = t;
+            trabajadores[t] = new Thread(){
+                public void run(){
+                    Random r = new Random(id);
+                    for( int n = 0; n != operaciones; ++n ){
+                        Integer key = r.nextInt(claves);
+                        Object old = r.nextBoolean()
+                                ? table.put(key, id*operaciones+n)
+                                : table.remove(key);
+                        if( old != null ) vistos.incrementAndGet((Integer)old);
+                    }
+                }
+            };
+            trabajadores[t].start();
+        }
+        for( Thread t : trabajadores ) t.join();
+        int restantes = 0;
+        for( Iterator i = table.iterator(); i.hasNext(); ++restantes ){
+            vistos.incrementAndGet((Integer)i.next());
+        }
+        assertEquals(restantes, table.size());
+        for( int t = 0; t != hilos; ++t ){
+            Random r = new Random(t);
+            for( int n = 0; n != operaciones; ++n ){
+                r.nextInt(claves);
+                if( r.nextBoolean() ) assertEquals(1, vistos.get(t*operaciones+n));
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+// Pruebas de ConcurrentSkipListMap, con uno y con varios hilos.
+
+package structure;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Pruebas de ConcurrentSkipListMap.
+ */
+public class ConcurrentSkipListMapTest {
+    ConcurrentSkipListMap map;
+    TreeMap<Integer,Integer> reference;
+    Random generador;
+
+    /**
+     * Crea un mapa vacío y el mapa de referencia.
+     */
+    @Before
+    public void before(){
+        map = new ConcurrentSkipListMap();
+        reference = new TreeMap<Integer,Integer>();
+        generador = new Random(38);
+    }
+
+    /**
+     * Compara put, get y remove con un TreeMap.
+     */
+    @Test
+    public void testPutGetRemove() {
+        System.out.println("put/get/remove");
+        for( int n = 0; n != 20000; ++n ){
+            Integer key = generador.nextInt(500);
+            Integer value = generador.nextInt();
+            switch( generador.nextInt(3) ){
+                case 0: assertEquals(reference.put(key, value), map.put(key, value)); break;
+                case 1: assertEquals(reference.remove(key), map.remove(key)); break;
+                default: assertEquals(reference.get(key), map.get(key));
+            }
+            assertEquals(reference.size(), map.size());
+        }
+        Iterator i = map.keys();
+        for( Integer key : reference.keySet() ){
+            assertEquals(key, i.next());
+        }
+        assertFalse(i.hasNext());
+    }
+
+    /**
+     * Comprueba que putIfAbsent no reemplaza un valor presente.
+     */
+    @Test
+    public void testPutIfAbsent() {
+        System.out.println("putIfAbsent");
+        assertNull(map.putIfAbsent(1, "a"));
+        assertEquals("a", map.putIfAbsent(1, "b"));
+        assertEquals("a", map.get(1));
+        assertEquals("a", map.remove(1));
+        assertTrue(map.isEmpty());
+    }
+
+    /**
+     * Recorre un intervalo de claves [lo, hi).
+     */
+    @Test
+    public void testEntries() {
+        System.out.println("entries");
+        for( int n = 0; n != 100; n += 2 ){
+            map.put(n, n*n);
+        }
+        Iterator i = map.entries(11, 21);
+        for( int n = 12; n < 21; n += 2 ){
+            Association a = (Association)i.next();
+            assertEquals(n, a.getKey());
+            assertEquals(n*n, a.getValue());
+        }
+        assertFalse(i.hasNext());
+    }
+
+    /**
+     * Varios hilos ponen y quitan valores únicos de pocas claves.  Cada
+     * valor puesto debe aparecer exactamente una vez: devuelto por put
+     * al ser reemplazado, devuelto por remove, o aún en el mapa.
+     */
+    @Test
+    public void testConcurrentPutRemove() throws InterruptedException {
+        System.out.println("concurrent put/remove");
+        final int hilos = 4, operaciones = 200000, claves = 2;
+        final AtomicIntegerArray vistos = new AtomicIntegerArray(hilos*operaciones);
+        Thread trabajadores[] = new Thread[hilos];
+        for( int t = 0; t != hilos; ++t ){
+            final int id = t;
+            trabajadores[t] = new Thread(){
+                public void run(){
+                    Random r = new Random(id);
+                    for( int n = 0; n != operaciones; ++n ){
+                        Integer key = r.nextInt(claves);
+                        Object old = r.nextBoolean()
+                                ? map.put(key, id*operaciones+n)
+                                : map.remove(key);
+                        if( old != null ) vistos.incrementAndGet((Integer)old);
+                    }
+                }
+            };
+            trabajadores[t].start();
+        }
+        for( Thread t : trabajadores ) t.join();
+        int restantes = 0;
+        for( Iterator i = map.iterator(); i.hasNext(); ++restantes ){
+            vistos.incrementAndGet((Integer)i.next());
+        }
+        assertEquals(restantes, map.size());
+        for( int t = 0; t != hilos; ++t ){
+            Random r = new Random(t);
+            for( int n = 0; n != operaciones; ++n ){
+                r.nextInt(claves);
+                if( r.nextBoolean() ) assertEquals(1, vistos.get(t*operaciones+n));
+            }
+        }
+    }
+}
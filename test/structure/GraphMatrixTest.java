@@ -0,0 +1,83 @@
+// Pruebas de los recorridos de GraphMatrix mientras el grafo cambia.
+
+package structure;
+import java.util.Iterator;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Pruebas de los iteradores de GraphMatrix.
+ */
+public class GraphMatrixTest {
+    GraphMatrixDirected grafo;
+
+    /**
+     * Crea un grafo dirigido con las aristas 0->1, 0->2, 0->3 y 2->3.
+     */
+    @Before
+    public void before(){
+        grafo = new GraphMatrixDirected(4);
+        for( int n = 0; n != 4; ++n ) grafo.add(n);
+        grafo.addEdge(0, 1, "a");
+        grafo.addEdge(0, 2, "b");
+        grafo.addEdge(0, 3, "c");
+        grafo.addEdge(2, 3, "d");
+    }
+
+    /**
+     * Quita la arista 0->1 dentro del recorrido de los vecinos de 0:
+     * los demás vecinos se visitan igualmente.
+     */
+    @Test
+    public void testNeighborsRemoveEdge() {
+        System.out.println("neighbors, removing an edge");
+        int visitados = 0, suma = 0;
+        for( Iterator i = grafo.neighbors(0); i.hasNext(); ++visitados ){
+            int v = (Integer)i.next();
+            if( v != 1 ) suma += v;
+            grafo.removeEdge(0, 1);
+        }
+        assertEquals(5, suma);
+        assertTrue(visitados >= 2);
+    }
+
+    /**
+     * Quita las aristas aún no visitadas durante el recorrido de
+     * vecinos: no se devuelven.
+     */
+    @Test
+    public void testNeighborsRemoveAhead() {
+        System.out.println("neighbors, removing edges ahead");
+        Iterator i = grafo.neighbors(0);
+        Object primero = i.next();
+        assertTrue(i.hasNext());
+        for( int n = 1; n != 4; ++n ){
+            if( !primero.equals(n) ) grafo.removeEdge(0, n);
+        }
+        assertFalse(i.hasNext());
+    }
+
+    /**
+     * Quita las aristas aún no visitadas durante el recorrido de
+     * aristas: no se devuelven.
+     */
+    @Test
+    public void testEdgesRemoveAhead() {
+        System.out.println("edges, removing edges ahead");
+        Iterator i = grafo.edges();
+        Edge primera = (Edge)i.next();
+        assertTrue(i.hasNext());
+        Iterator j = grafo.edges();
+        List resto = new SinglyLinkedList();
+        while( j.hasNext() ){
+            Edge e = (Edge)j.next();
+            if( !e.equals(primera) ) resto.add(e);
+        }
+        for( Iterator k = resto.iterator(); k.hasNext(); ){
+            Edge e = (Edge)k.next();
+            grafo.removeEdge(e.here(), e.there());
+        }
+        assertFalse(i.hasNext());
+    }
+}
@@ -0,0 +1,126 @@
+// Pruebas de PersistentRedBlackTree: versiones, instantáneas y lectores.
+
+package structure;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Pruebas de PersistentRedBlackTree.
+ */
+public class PersistentRedBlackTreeTest {
+    PersistentRedBlackTree tree;
+    Random generador;
+
+    /**
+     * Crea un árbol vacío.
+     */
+    @Before
+    public void before(){
+        tree = new PersistentRedBlackTree();
+        generador = new Random(39);
+    }
+
+    /**
+     * Compara el recorrido del árbol con una lista ordenada.
+     */
+    void compare(ArrayList<Integer> expected, PersistentRedBlackTree t){
+        assertEquals(expected.size(), t.size());
+        Iterator i = t.iterator();
+        for( Integer v : expected ) assertEquals(v, i.next());
+        assertFalse(i.hasNext());
+        assertTrue(t.isRedBlack());
+    }
+
+    /**
+     * Añade y quita valores, con duplicados, comparando con una lista.
+     */
+    @Test
+    public void testAddRemove() {
+        System.out.println("add/remove");
+        ArrayList<Integer> reference = new ArrayList<Integer>();
+        for( int n = 0; n != 5000; ++n ){
+            Integer v = generador.nextInt(300);
+            if( generador.nextInt(3) != 0 ){
+                tree.add(v);
+                reference.add(v);
+            } else {
+                boolean present = reference.remove(v);
+                assertEquals(present ? v : null, tree.remove(v));
+            }
+            assertEquals(reference.contains(v), tree.contains(v));
+        }
+        Collections.sort(reference);
+        compare(reference, tree);
+    }
+
+    /**
+     * Una instantánea no cambia cuando el árbol original cambia.
+     */
+    @Test
+    public void testSnapshot() {
+        System.out.println("snapshot");
+        ArrayList<Integer> antes = new ArrayList<Integer>();
+        for( int n = 0; n != 100; ++n ){
+            tree.add(n);
+            antes.add(n);
+        }
+        PersistentRedBlackTree vista = tree.snapshot();
+        Iterator i = tree.iterator();
+        for( int n = 0; n != 100; n += 2 ) tree.remove(n);
+        tree.add(1000);
+        compare(antes, vista);
+        for( Integer v : antes ) assertEquals(v, i.next());
+        assertEquals(51, tree.size());
+        tree.clear();
+        assertEquals(100, vista.size());
+    }
+
+    /**
+     * Recorre un intervalo de valores [lo, hi).
+     */
+    @Test
+    public void testRange() {
+        System.out.println("range");
+        for( int n = 0; n != 100; ++n ) tree.add(n);
+        Iterator i = tree.iterator(10, 20);
+        for( int n = 10; n != 20; ++n ) assertEquals(n, i.next());
+        assertFalse(i.hasNext());
+    }
+
+    /**
+     * Un hilo escribe mientras otro recorre instantáneas: cada versión
+     * leída debe estar ordenada, completa y equilibrada.
+     */
+    @Test
+    public void testConcurrentReaders() throws InterruptedException {
+        System.out.println("concurrent readers");
+        final int valores = 20000;
+        Thread escritor = new Thread(){
+            public void run(){
+                Random r = new Random(1);
+                for( int n = 0; n != valores; ++n ){
+                    tree.add(n);
+                    if( r.nextBoolean() ) tree.remove(r.nextInt(n+1));
+                }
+            }
+        };
+        escritor.start();
+        while( escritor.isAlive() ){
+            PersistentRedBlackTree vista = tree.snapshot();
+            int cuenta = 0, anterior = -1;
+            for( Iterator i = vista.iterator(); i.hasNext(); ++cuenta ){
+                int v = (Integer)i.next();
+                assertTrue(anterior < v);
+                anterior = v;
+            }
+            assertEquals(vista.size(), cuenta);
+            assertTrue(vista.isRedBlack());
+        }
+        escritor.join();
+    }
+}
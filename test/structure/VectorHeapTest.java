@@ -115,4 +115,55 @@ public class VectorHeapTest {
         boolean result = heap.isEmpty();
         assertEquals(expResult, result);
     }
-}
\ No newline at end of file
+
+    /**
+     * Comprueba que el constructor con un vector desordenado produzca
+     * un heap válido.
+     */
+    @Test
+    public void testConstructorVector() {
+        System.out.println("VectorHeap(Vector)");
+        java.util.Vector<Integer> valores = new java.util.Vector<Integer>();
+        for( int n = 100; n != 0; --n )
+            valores.add(n);
+        
+        VectorHeap<Integer> construido = new VectorHeap<Integer>(valores);
+        assertEquals(100, construido.size());
+        for( int n = 1; n <= 100; ++n )
+            assertEquals(Integer.valueOf(n), construido.remove());
+    }
+
+    /**
+     * Comprueba que addAll agregue todos los elementos manteniendo el orden.
+     */
+    @Test
+    public void testAddAll() {
+        System.out.println("addAll");
+        java.util.Vector<Integer> valores = new java.util.Vector<Integer>();
+        for( int n = 0; n != 50; ++n )
+            valores.add(Integer.MIN_VALUE + n);
+        
+        heap.addAll(valores);
+        assertEquals(tamañoInicial + 50, heap.size());
+        assertEquals(Integer.valueOf(Integer.MIN_VALUE), heap.getFirst());
+    }
+
+    /**
+     * Comprueba que removeN retire los k menores en orden.
+     */
+    @Test
+    public void testRemoveN() {
+        System.out.println("removeN");
+        java.util.Vector<Integer> menores = heap.removeN(3);
+        
+        assertEquals(3, menores.size());
+        assertEquals(tamañoInicial - 3, heap.size());
+        for( int n = 1; n != menores.size(); ++n )
+            assertTrue(menores.get(n - 1) <= menores.get(n));
+        assertTrue(menores.get(2) <= heap.getFirst());
+        
+        // .. pedir más de los que hay vacía el heap
+        heap.removeN(tamañoInicial);
+        assertTrue(heap.isEmpty());
+    }
+}